@@ -0,0 +1,139 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Runs the JMH benchmarks selected by the
+ * standard JMH command line arguments with the {@link GCProfiler} attached (to
+ * report the normalized allocation rate alongside the throughput), and writes
+ * the results in JSON format to {@code target/jmh-result.json}.
+ * <p>
+ * The results are compared against the baseline JSON file specified by the
+ * {@code org.jetrs.benchmark.baseline} system property (default:
+ * {@code baseline.json}). If the baseline file does not exist, or if
+ * {@code -Dorg.jetrs.benchmark.record=true} is specified, the results are
+ * recorded as the new baseline instead.
+ */
+public final class Benchmarks {
+  private static final Pattern benchmarkPattern = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+  private static final Pattern paramsPattern = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)\\}");
+  private static final Pattern scorePattern = Pattern.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([^,\\s]+)");
+  private static final Pattern allocPattern = Pattern.compile("gc\\.alloc\\.rate\\.norm\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([^,\\s]+)");
+
+  /**
+   * Parses the JMH JSON result file, and returns a map of benchmark keys
+   * (benchmark name and parameters) to a {@code double[]} of the primary score
+   * and normalized allocation rate ({@code NaN} if absent).
+   *
+   * @param file The JMH JSON result file.
+   * @return A map of benchmark keys to score and allocation rate.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static Map<String,double[]> parse(final File file) throws IOException {
+    final String json = new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    final Map<String,double[]> results = new LinkedHashMap<>();
+    final String[] entries = json.split("\"jmhVersion\"");
+    for (int i = 1; i < entries.length; ++i) {
+      final String entry = entries[i];
+      final Matcher benchmark = benchmarkPattern.matcher(entry);
+      final Matcher score = scorePattern.matcher(entry);
+      if (!benchmark.find() || !score.find())
+        continue;
+
+      final Matcher params = paramsPattern.matcher(entry);
+      final Matcher alloc = allocPattern.matcher(entry);
+      final String key = params.find() ? benchmark.group(1) + " " + params.group(1).replaceAll("\\s+", " ").trim() : benchmark.group(1);
+      results.put(key, new double[] {parseDouble(score.group(1)), alloc.find() ? parseDouble(alloc.group(1)) : Double.NaN});
+    }
+
+    return results;
+  }
+
+  private static double parseDouble(final String value) {
+    try {
+      return Double.parseDouble(value.replace("\"", ""));
+    }
+    catch (final NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  private static String delta(final double current, final double baseline) {
+    if (Double.isNaN(current) || Double.isNaN(baseline) || baseline == 0)
+      return "     n/a";
+
+    return String.format("%+7.1f%%", 100 * (current - baseline) / baseline);
+  }
+
+  static void compare(final Map<String,double[]> current, final Map<String,double[]> baseline) {
+    System.out.println();
+    System.out.println(String.format("%-100s %8s %8s", "Benchmark (vs baseline)", "score", "alloc/op"));
+    for (final Map.Entry<String,double[]> entry : current.entrySet()) {
+      final double[] base = baseline.get(entry.getKey());
+      final double[] cur = entry.getValue();
+      System.out.println(String.format("%-100s %8s %8s", entry.getKey(), base == null ? "new" : delta(cur[0], base[0]), base == null ? "" : delta(cur[1], base[1])));
+    }
+  }
+
+  public static void main(final String[] args) throws CommandLineOptionException, IOException, RunnerException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    final OptionsBuilder options = new OptionsBuilder();
+    options.parent(commandLine);
+    options.addProfiler(GCProfiler.class);
+    final File result;
+    if (commandLine.getResult().hasValue()) {
+      result = new File(commandLine.getResult().get());
+    }
+    else {
+      result = new File("target/jmh-result.json");
+      result.getParentFile().mkdirs();
+      options.resultFormat(ResultFormatType.JSON);
+      options.result(result.getPath());
+    }
+
+    new Runner(options.build()).run();
+
+    final File baseline = new File(System.getProperty("org.jetrs.benchmark.baseline", "baseline.json"));
+    if (!baseline.exists() || Boolean.getBoolean("org.jetrs.benchmark.record")) {
+      Files.copy(result.toPath(), baseline.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      System.out.println("Recorded baseline: " + baseline.getAbsolutePath());
+    }
+    else {
+      compare(parse(result), parse(baseline));
+    }
+  }
+
+  private Benchmarks() {
+  }
+}
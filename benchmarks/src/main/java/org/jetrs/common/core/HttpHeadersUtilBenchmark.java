@@ -0,0 +1,96 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import org.libj.util.primitive.ArrayFloatList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeadersUtilBenchmark {
+  private static final String acceptLanguage = "en-US,en;q=0.9,fr-CH;q=0.8,fr;q=0.7,de;q=0.6,*;q=0.5";
+  private static final String acceptEncoding = "gzip, deflate, br";
+  private static final String acceptCharset = "utf-8, iso-8859-1;q=0.5, *;q=0.1";
+  private static final String cacheControl = "no-cache, no-store, max-age=0, must-revalidate";
+  private static final String cookie = "_ga=GA1.2.1398470411.1611270139; _gid=GA1.2.1137446297.1611270139; session=4f1d2c9b7e3a; theme=dark";
+  private static final String date = "Wed, 21 Oct 2015 07:28:00 GMT";
+  private static final List<String> browserHeaders = Arrays.asList(acceptLanguage, acceptEncoding);
+
+  @Benchmark
+  public Object parseAcceptLanguage() {
+    return HttpHeadersUtil.parseRequestHeader(HttpHeaders.ACCEPT_LANGUAGE, acceptLanguage, false);
+  }
+
+  @Benchmark
+  public Object parseAcceptEncoding() {
+    return HttpHeadersUtil.parseRequestHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding, false);
+  }
+
+  @Benchmark
+  public Object parseAcceptCharset() {
+    return HttpHeadersUtil.parseRequestHeader(HttpHeaders.ACCEPT_CHARSET, acceptCharset, false);
+  }
+
+  @Benchmark
+  public Object parseCacheControl() {
+    return HttpHeadersUtil.valueToReflection(HttpHeaders.CACHE_CONTROL, cacheControl, true);
+  }
+
+  @Benchmark
+  public Object parseCookie() {
+    return HttpHeadersUtil.valueToReflection(HttpHeaders.COOKIE, cookie, true);
+  }
+
+  @Benchmark
+  public Object parseDate() {
+    return HttpHeadersUtil.valueToReflection(HttpHeaders.DATE, date, true);
+  }
+
+  @Benchmark
+  public long getQualityFromString() {
+    return HttpHeadersUtil.getQualityFromString(acceptLanguage, 6);
+  }
+
+  @Benchmark
+  public List<String> parseMultiHeaders() {
+    return HttpHeadersUtil.parseMultiHeaders(browserHeaders, s -> s, true, null);
+  }
+
+  @Benchmark
+  public ArrayFloatList parseMultiHeader() {
+    return HttpHeadersUtil.parseMultiHeader(new ArrayList<String>(), null, acceptLanguage, s -> s, true);
+  }
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.UriBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriBuilderBenchmark {
+  private static final String absoluteUri = "https://user@api.example.com:8443/v1/repos/jetrs/jetrs/issues?state=open&sort=updated#comments";
+  private static final String ipv6Uri = "http://[fe80::1ff:fe23:4567:890a]:8080/status";
+  private static final String template = "https://api.example.com/v1/{owner}/{repo}/issues/{number}";
+
+  private Map<String,Object> values;
+  private UriBuilder templateBuilder;
+
+  @Setup
+  public void setup() {
+    values = new HashMap<>();
+    values.put("owner", "jetrs");
+    values.put("repo", "jet rs");
+    values.put("number", 1234);
+    templateBuilder = new UriBuilderImpl().uri(template).queryParam("q", "is:open label:\"help wanted\"");
+  }
+
+  @Benchmark
+  public UriBuilder parseAbsolute() {
+    return new UriBuilderImpl().uri(absoluteUri);
+  }
+
+  @Benchmark
+  public UriBuilder parseIPv6() {
+    return new UriBuilderImpl().uri(ipv6Uri);
+  }
+
+  @Benchmark
+  public URI buildTemplate() {
+    return templateBuilder.build("jetrs", "jet rs", 1234);
+  }
+
+  @Benchmark
+  public URI buildFromMap() {
+    return templateBuilder.buildFromMap(values);
+  }
+
+  @Benchmark
+  public URI resolveTemplate() {
+    return templateBuilder.clone().resolveTemplate("owner", "jetrs").resolveTemplate("repo", "jetrs").build(1234);
+  }
+
+  @Benchmark
+  public URI pathAndQuery() {
+    return new UriBuilderImpl().scheme("http").host("localhost").port(8080).path("api").path("v1").path("users").segment("jane doe", "orders").queryParam("page", 2).queryParam("size", 50).matrixParam("lang", "en").build();
+  }
+}
@@ -0,0 +1,73 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriEncoderBenchmark {
+  // Clean ASCII (the common case), reserved characters, pre-encoded octets, templates, and non-ASCII
+  @Param({
+    "/api/v1/users/1234/orders",
+    "name=John Doe&email=john+doe@example.com",
+    "/files/report%202021%20Q1.pdf",
+    "/api/{version}/users/{id:[0-9]+}",
+    "/recherche/caf\u00e9 cr\u00e8me/\u65e5\u672c\u8a9e"
+  })
+  public String value;
+
+  @Benchmark
+  public String encodePath() {
+    return UriEncoder.PATH.encode(value);
+  }
+
+  @Benchmark
+  public String encodePathSegment() {
+    return UriEncoder.PATH_SEGMENT.encode(value);
+  }
+
+  @Benchmark
+  public String encodeQueryParam() {
+    return UriEncoder.QUERY_PARAM.encode(value);
+  }
+
+  @Benchmark
+  public String encodeQueryParamAsIs() {
+    return UriEncoder.QUERY_PARAM.encodeAsIs(value);
+  }
+
+  @Benchmark
+  public String encodePathSaveEncodings() {
+    return UriEncoder.PATH.encodeSaveEncodings(value);
+  }
+}
@@ -0,0 +1,116 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures route matching over a table of 400 {@link PathPattern}s, which is
+ * representative of a mid-sized REST API. The table is scanned linearly in
+ * registration order, as is done by {@code ResourceContext}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathPatternBenchmark {
+  private static final String[] resources = {"users", "accounts", "orders", "invoices", "products", "carts", "payments", "shipments", "reviews", "categories", "teams", "projects", "issues", "comments", "labels", "releases", "builds", "artifacts", "tokens", "sessions"};
+
+  private static final class BenchmarkPath implements Path {
+    private final String value;
+
+    private BenchmarkPath(final String value) {
+      this.value = value;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return Path.class;
+    }
+
+    @Override
+    public String value() {
+      return value;
+    }
+  }
+
+  static PathPattern[] newRoutes() {
+    final PathPattern[] routes = new PathPattern[resources.length * 20];
+    int i = 0;
+    for (int v = 1; v <= 2; ++v) {
+      for (final String resource : resources) {
+        final Path path = new BenchmarkPath("/api/v" + v + "/" + resource);
+        routes[i++] = new PathPattern(path, null);
+        routes[i++] = new PathPattern(path, new BenchmarkPath("search"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("count"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id:[0-9]+}"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/history"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/owner"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/children"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/children/{childId}"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/attachments/{name:.+}"));
+        routes[i++] = new PathPattern(path, new BenchmarkPath("{id}/{field:[a-z]+}"));
+      }
+    }
+
+    return routes;
+  }
+
+  @Param({"/api/v1/users", "/api/v1/orders/1234", "/api/v2/sessions/abc/children/def", "/api/v2/tokens/42/attachments/a/b/c.txt", "/not/found"})
+  public String path;
+
+  private PathPattern[] routes;
+  private PathPattern matched;
+
+  @Setup
+  public void setup() {
+    routes = newRoutes();
+    matched = match();
+  }
+
+  @Benchmark
+  public PathPattern match() {
+    for (final PathPattern route : routes)
+      if (route.matches(path))
+        return route;
+
+    return null;
+  }
+
+  @Benchmark
+  public MultivaluedMap<String,String> getParameters() {
+    return matched == null ? null : matched.getParameters(path);
+  }
+}
@@ -16,13 +16,16 @@
 
 package org.jetrs.client;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import javax.ws.rs.HttpMethod;
-import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.InvocationCallback;
@@ -63,32 +66,32 @@ public class AsyncInvokerImpl extends Invoker<Future<Response>> implements Async
 
   @Override
   public <T>Future<T> put(final Entity<?> entity, final Class<T> responseType) {
-    return method(HttpMethod.PUT, null, responseType);
+    return method(HttpMethod.PUT, entity, responseType);
   }
 
   @Override
   public <T>Future<T> put(final Entity<?> entity, final GenericType<T> responseType) {
-    return method(HttpMethod.PUT, null, responseType);
+    return method(HttpMethod.PUT, entity, responseType);
   }
 
   @Override
   public <T>Future<T> put(final Entity<?> entity, final InvocationCallback<T> callback) {
-    return method(HttpMethod.PUT, null, callback);
+    return method(HttpMethod.PUT, entity, callback);
   }
 
   @Override
   public <T>Future<T> post(final Entity<?> entity, final Class<T> responseType) {
-    return method(HttpMethod.POST, null, responseType);
+    return method(HttpMethod.POST, entity, responseType);
   }
 
   @Override
   public <T>Future<T> post(final Entity<?> entity, final GenericType<T> responseType) {
-    return method(HttpMethod.POST, null, responseType);
+    return method(HttpMethod.POST, entity, responseType);
   }
 
   @Override
   public <T>Future<T> post(final Entity<?> entity, final InvocationCallback<T> callback) {
-    return method(HttpMethod.POST, null, callback);
+    return method(HttpMethod.POST, entity, callback);
   }
 
   @Override
@@ -163,50 +166,86 @@ public class AsyncInvokerImpl extends Invoker<Future<Response>> implements Async
 
   @Override
   public Future<Response> method(final String name, final Entity<?> entity) {
-    return method(name, null, Response.class);
+    return invoke(name, entity);
   }
 
-  private ExecutorService getExecutorService() {
-    if (executorService == null)
-      throw new ProcessingException("ExecutorService was not provided");
-
-    return executorService;
+  private CompletableFuture<Response> invoke(final String name, final Entity<?> entity) {
+    return ((InvocationImpl)build(name, entity, requestHeaders, cookies, cacheControl)).invokeAsync();
   }
 
   @Override
   public <T>Future<T> method(final String name, final Entity<?> entity, final Class<T> responseType) {
-    client.assertNotClosed();
-    return getExecutorService().submit(() -> {
-      try (final Response response = build(name, entity, requestHeaders, cookies, cacheControl).invoke()) {
-        return response.readEntity(responseType);
-      }
-    });
+    return invoke(name, entity).thenApply(response -> response.readEntity(responseType));
   }
 
   @Override
   public <T>Future<T> method(final String name, final Entity<?> entity, final GenericType<T> responseType) {
-    client.assertNotClosed();
-    return getExecutorService().submit(() -> {
-      try (final Response response = build(name, entity, requestHeaders, cookies, cacheControl).invoke()) {
-        return response.readEntity(responseType);
-      }
-    });
+    return invoke(name, entity).thenApply(response -> response.readEntity(responseType));
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public <T>Future<T> method(final String name, final Entity<?> entity, final InvocationCallback<T> callback) {
-    client.assertNotClosed();
-    return getExecutorService().submit(() -> {
-      try (final Response response = build(name, entity, requestHeaders, cookies, cacheControl).invoke()) {
-        final T message = (T)response.getEntity();
-        callback.completed(message);
-        return message;
+    return complete(invoke(name, entity), callback);
+  }
+
+  /**
+   * Returns the entity type of the specified {@link InvocationCallback}, or
+   * {@link Response} if the type argument cannot be resolved.
+   */
+  private static Type getEntityType(final InvocationCallback<?> callback) {
+    for (Class<?> cls = callback.getClass(); cls != null; cls = cls.getSuperclass()) {
+      for (final Type type : cls.getGenericInterfaces()) {
+        if (type instanceof ParameterizedType && ((ParameterizedType)type).getRawType() == InvocationCallback.class) {
+          final Type entityType = ((ParameterizedType)type).getActualTypeArguments()[0];
+          return entityType instanceof Class || entityType instanceof ParameterizedType ? entityType : Response.class;
+        }
       }
-      catch (final Throwable t) {
-        callback.failed(t);
-        throw t;
+    }
+
+    return Response.class;
+  }
+
+  /**
+   * Returns a {@link CompletableFuture} of the entity of the response of the
+   * specified future, which calls exactly one of
+   * {@link InvocationCallback#completed(Object)} or
+   * {@link InvocationCallback#failed(Throwable)} of the specified callback. An
+   * exception thrown by {@link InvocationCallback#completed(Object)} completes
+   * the returned future exceptionally, but is not passed to
+   * {@link InvocationCallback#failed(Throwable)}.
+   */
+  @SuppressWarnings("unchecked")
+  static <T>CompletableFuture<T> complete(final CompletableFuture<Response> future, final InvocationCallback<T> callback) {
+    final Type entityType = getEntityType(callback);
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    future.whenComplete((response, t) -> {
+      final T entity;
+      try {
+        if (t != null)
+          throw t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+        entity = entityType == Response.class ? (T)response : response.readEntity(new GenericType<T>(entityType));
+      }
+      catch (final Throwable e) {
+        try {
+          callback.failed(e);
+        }
+        finally {
+          result.completeExceptionally(e);
+        }
+
+        return;
+      }
+
+      try {
+        callback.completed(entity);
+        result.complete(entity);
+      }
+      catch (final Throwable e) {
+        result.completeExceptionally(e);
       }
     });
+
+    return result;
   }
-}
\ No newline at end of file
+}
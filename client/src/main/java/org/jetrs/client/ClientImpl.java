@@ -18,11 +18,14 @@ package org.jetrs.client;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.CookieStore;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -44,17 +47,84 @@ import org.jetrs.common.ExceptionMappingProviderResource;
 import org.jetrs.common.ProviderResource;
 import org.jetrs.common.ReaderInterceptorEntityProviderResource;
 import org.jetrs.common.WriterInterceptorEntityProviderResource;
+import org.jetrs.common.core.AnnotationInjector;
 import org.jetrs.common.core.ConfigurableImpl;
+import org.jetrs.common.core.ConfigurationImpl;
 import org.jetrs.common.ext.ProvidersImpl;
 import org.libj.lang.PackageNotFoundException;
 
 public class ClientImpl implements Client, ConfigurableImpl<Client> {
+  /**
+   * The name of the system property specifying the class name of the
+   * {@link Connector} to be used by all clients. If unset, the
+   * {@code HttpClientConnector} is used when available (JDK 11+) and no
+   * {@link HostnameVerifier} is configured, and the
+   * {@link HttpURLConnectionConnector} is used otherwise.
+   */
+  public static final String CONNECTOR = "org.jetrs.CLIENT_CONNECTOR";
+  /**
+   * The name of the property specifying the chunk size in bytes with which
+   * request entities of unknown length are streamed (default: {@code 8192}).
+   * May be set on the client configuration, or as a system property.
+   */
+  public static final String CHUNK_SIZE = "org.jetrs.CLIENT_CHUNK_SIZE";
+
+  /**
+   * The name of the property specifying whether requests with an entity are
+   * sent with {@code Expect: 100-continue}, so that the server may reject a
+   * request before its entity is sent (default: {@code false}). May be set on
+   * the client configuration, or as a system property.
+   */
+  public static final String EXPECT_CONTINUE = "org.jetrs.CLIENT_EXPECT_CONTINUE";
+
+  /**
+   * The name of the property specifying the capacity in bytes of the in-memory
+   * HTTP cache of the client (default: {@code 0}, which disables the cache).
+   * May be set on the client configuration before the first request, or as a
+   * system property.
+   */
+  public static final String CACHE_SIZE = "org.jetrs.CLIENT_CACHE_SIZE";
+
+  private static final long defaultCacheSize = Long.getLong(CACHE_SIZE, 0);
+  private static final int defaultChunkSize = Integer.getInteger(CHUNK_SIZE, 8192);
+  private static final boolean defaultExpectContinue = Boolean.getBoolean(EXPECT_CONTINUE);
+  private static final String defaultConnectorClassName = "org.jetrs.client.HttpClientConnector";
+
+  static Connector newConnector(final SSLContext sslContext, final HostnameVerifier verifier, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
+    final String className = System.getProperty(CONNECTOR);
+    if (className != null || verifier == null) {
+      try {
+        final Class<?> connectorClass = Class.forName(className != null ? className : defaultConnectorClassName);
+        return (Connector)connectorClass.getConstructor(SSLContext.class, HostnameVerifier.class, ExecutorService.class, long.class, long.class).newInstance(sslContext, verifier, executorService, connectTimeout, readTimeout);
+      }
+      catch (final ClassNotFoundException | LinkageError e) {
+        if (className != null)
+          throw new ProcessingException(e);
+      }
+      catch (final IllegalAccessException | InstantiationException | NoSuchMethodException e) {
+        throw new ProcessingException(e);
+      }
+      catch (final InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException)e.getCause();
+
+        throw new ProcessingException(e.getCause());
+      }
+    }
+
+    return new HttpURLConnectionConnector(sslContext, verifier, executorService, connectTimeout, readTimeout);
+  }
+
   private final Configuration config;
   private final SSLContext sslContext;
   private final HostnameVerifier verifier;
   private final ExecutorService executorService;
   private final long connectTimeout;
   private final long readTimeout;
+  private final ConcurrentCookieStore cookieStore = new ConcurrentCookieStore();
+  private volatile Connector connector;
+  private volatile ExecutorService defaultExecutor;
+  private volatile Object cache;
 
   public ClientImpl(final Configuration config, final SSLContext sslContext, final HostnameVerifier verifier, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
     this.config = config;
@@ -65,14 +135,48 @@ public class ClientImpl implements Client, ConfigurableImpl<Client> {
     this.readTimeout = readTimeout;
   }
 
-  private ProvidersImpl providers;
-  private Set<?> singletons;
-  private Set<Class<?>> classes;
+  /**
+   * The providers of a client, together with the modification count of the
+   * configuration from which they were built, which are published together
+   * through a single volatile field.
+   */
+  private static final class ProvidersSnapshot {
+    private final ProvidersImpl providers;
+    private final int modCount;
+
+    private ProvidersSnapshot(final ProvidersImpl providers, final int modCount) {
+      this.providers = providers;
+      this.modCount = modCount;
+    }
+  }
 
+  private volatile ProvidersSnapshot providersSnapshot;
+
+  /**
+   * Returns the providers of this client, which are built from its
+   * configuration once, and are rebuilt only after {@code register()} has
+   * changed the configuration. The returned providers are shared by all
+   * targets and invocations of this client, and so are the provider instances
+   * they create.
+   *
+   * @return The providers of this client.
+   */
   private ProvidersImpl buildProviders() {
-    if (providers != null && (singletons != null ? singletons.equals(config.getInstances()) : config.getInstances() == null) && (classes != null ? classes.equals(config.getClasses()) : config.getClasses() == null))
-      return providers;
+    final int modCount = ((ConfigurationImpl)config).getModCount();
+    ProvidersSnapshot snapshot = this.providersSnapshot;
+    if (snapshot != null && snapshot.modCount == modCount)
+      return snapshot.providers;
+
+    synchronized (this) {
+      if ((snapshot = this.providersSnapshot) != null && snapshot.modCount == modCount)
+        return snapshot.providers;
+
+      this.providersSnapshot = snapshot = new ProvidersSnapshot(newProviders(), modCount);
+      return snapshot.providers;
+    }
+  }
 
+  private ProvidersImpl newProviders() {
     try {
       final ArrayList<ExceptionMappingProviderResource> exceptionMappers = new ArrayList<>();
       final ArrayList<EntityReaderProviderResource> entityReaders = new ArrayList<>();
@@ -84,10 +188,15 @@ public class ClientImpl implements Client, ConfigurableImpl<Client> {
       final ArrayList<ProviderResource<ParamConverterProvider>> paramConverterProviders = new ArrayList<>();
 
       final Bootstrap<Void> bootstrap = new Bootstrap<>();
-      bootstrap.init(config.getInstances(), config.getClasses(), null, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders);
-      this.singletons = config.getInstances();
-      this.classes = config.getClasses();
-      return providers = new ProvidersImpl(exceptionMappers, entityReaders, entityWriters);
+      bootstrap.init(config.getInstances(), config.getClasses(), null, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, null);
+
+      // NOTE: Client providers can only have the Configuration and Providers injected, so an instance of each is created once and shared by all invocations
+      final AnnotationInjector contextualInjector = new AnnotationInjector(null, null, null, null, null, config, null);
+      final AnnotationInjector annotationInjector = new AnnotationInjector(null, null, null, null, null, config, null, contextualInjector);
+      final ProvidersImpl providers = new ProvidersImpl(new ProvidersImpl(exceptionMappers, entityReaders, entityWriters), annotationInjector);
+      contextualInjector.setProviders(providers);
+      annotationInjector.setProviders(providers);
+      return providers;
     }
     catch (final IllegalAccessException | PackageNotFoundException e) {
       throw new RuntimeException(e);
@@ -103,7 +212,114 @@ public class ClientImpl implements Client, ConfigurableImpl<Client> {
     }
   }
 
-  private boolean closed;
+  Connector getConnector() {
+    Connector connector = this.connector;
+    if (connector == null) {
+      synchronized (this) {
+        if ((connector = this.connector) == null) {
+          assertNotClosed();
+          this.connector = connector = newConnector(sslContext, verifier, executorService, connectTimeout, readTimeout);
+        }
+      }
+    }
+
+    return connector;
+  }
+
+  /**
+   * Returns a new {@link FanOut}, with which independent invocations of this
+   * client are performed concurrently, and their outcomes are gathered in
+   * completion order or all together.
+   *
+   * @return A new {@link FanOut} of this client.
+   * @throws IllegalStateException If this client is closed.
+   */
+  public FanOut fanOut() {
+    assertNotClosed();
+    return new FanOut(this);
+  }
+
+  /**
+   * Returns the {@link CookieStore} of this client, in which the cookies set by
+   * responses are kept, and from which matching cookies are sent with
+   * subsequent requests.
+   *
+   * @return The {@link CookieStore} of this client.
+   */
+  public CookieStore getCookieStore() {
+    return cookieStore;
+  }
+
+  ConcurrentCookieStore getConcurrentCookieStore() {
+    return cookieStore;
+  }
+
+  /**
+   * Returns the {@link Executor} on which asynchronous invocations connect,
+   * write their request entity, wait for the response (if the
+   * {@link Connector} blocks), and are completed. This is the
+   * {@link ExecutorService} provided to the
+   * {@link javax.ws.rs.client.ClientBuilder}, or else a cached pool of daemon
+   * threads that is dedicated to this client. The common {@link ForkJoinPool}
+   * is not used, because the work is blocking.
+   *
+   * @return The {@link Executor} of asynchronous invocations.
+   * @throws IllegalStateException If this client is closed.
+   */
+  Executor getExecutor() {
+    if (executorService != null)
+      return executorService;
+
+    ExecutorService executor = this.defaultExecutor;
+    if (executor == null) {
+      synchronized (this) {
+        if ((executor = this.defaultExecutor) == null) {
+          assertNotClosed();
+          this.defaultExecutor = executor = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "jetrs-client");
+            thread.setDaemon(true);
+            return thread;
+          });
+        }
+      }
+    }
+
+    return executor;
+  }
+
+  /**
+   * Returns the {@link HttpCache} of this client, or {@code null} if caching is
+   * disabled.
+   *
+   * @return The {@link HttpCache} of this client, or {@code null} if caching is
+   *         disabled.
+   */
+  HttpCache getCache() {
+    Object cache = this.cache;
+    if (cache == null) {
+      synchronized (this) {
+        if ((cache = this.cache) == null) {
+          final Object value = config.getProperty(CACHE_SIZE);
+          final long cacheSize = value == null ? defaultCacheSize : value instanceof Number ? ((Number)value).longValue() : Long.parseLong(value.toString());
+          this.cache = cache = cacheSize > 0 ? new HttpCache(cacheSize) : Boolean.FALSE;
+        }
+      }
+    }
+
+    return cache instanceof HttpCache ? (HttpCache)cache : null;
+  }
+
+  int getChunkSize() {
+    final Object value = config.getProperty(CHUNK_SIZE);
+    return value == null ? defaultChunkSize : value instanceof Number ? ((Number)value).intValue() : Integer.parseInt(value.toString());
+  }
+
+  boolean isExpectContinue() {
+    final Object value = config.getProperty(EXPECT_CONTINUE);
+    return value == null ? defaultExpectContinue : value instanceof Boolean ? (Boolean)value : Boolean.parseBoolean(value.toString());
+  }
+
+  private volatile boolean closed;
 
   void assertNotClosed() {
     if (closed)
@@ -112,8 +328,15 @@ public class ClientImpl implements Client, ConfigurableImpl<Client> {
 
   @Override
   public void close() {
-    // FIXME: Are there any resources to release?
-    closed = true;
+    synchronized (this) {
+      closed = true;
+      if (connector != null)
+        connector.close();
+
+      // NOTE: Invocations in flight are completed before the threads exit
+      if (defaultExecutor != null)
+        defaultExecutor.shutdown();
+    }
   }
 
   @Override
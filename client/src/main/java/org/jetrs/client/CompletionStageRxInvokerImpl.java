@@ -0,0 +1,136 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.CompletionStageRxInvoker;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.jetrs.common.ext.ProvidersImpl;
+
+public class CompletionStageRxInvokerImpl extends Invoker<CompletionStage<Response>> implements CompletionStageRxInvoker {
+  private final MultivaluedMap<String,Object> requestHeaders;
+  private final List<Cookie> cookies;
+  private final CacheControl cacheControl;
+
+  CompletionStageRxInvokerImpl(final ClientImpl client, final ProvidersImpl providers, final URL url, final MultivaluedMap<String,Object> requestHeaders, final List<Cookie> cookies, final CacheControl cacheControl, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
+    super(client, providers, url, executorService, connectTimeout, readTimeout);
+    this.requestHeaders = requestHeaders;
+    this.cookies = cookies;
+    this.cacheControl = cacheControl;
+  }
+
+  @Override
+  public <T>CompletionStage<T> get(final Class<T> responseType) {
+    return method(HttpMethod.GET, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> get(final GenericType<T> responseType) {
+    return method(HttpMethod.GET, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> put(final Entity<?> entity, final Class<T> responseType) {
+    return method(HttpMethod.PUT, entity, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> put(final Entity<?> entity, final GenericType<T> responseType) {
+    return method(HttpMethod.PUT, entity, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> post(final Entity<?> entity, final Class<T> responseType) {
+    return method(HttpMethod.POST, entity, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> post(final Entity<?> entity, final GenericType<T> responseType) {
+    return method(HttpMethod.POST, entity, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> delete(final Class<T> responseType) {
+    return method(HttpMethod.DELETE, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> delete(final GenericType<T> responseType) {
+    return method(HttpMethod.DELETE, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> options(final Class<T> responseType) {
+    return method(HttpMethod.OPTIONS, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> options(final GenericType<T> responseType) {
+    return method(HttpMethod.OPTIONS, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> trace(final Class<T> responseType) {
+    return method("TRACE", null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> trace(final GenericType<T> responseType) {
+    return method("TRACE", null, responseType);
+  }
+
+  @Override
+  public CompletionStage<Response> method(final String name) {
+    return method(name, (Entity<?>)null);
+  }
+
+  @Override
+  public <T>CompletionStage<T> method(final String name, final Class<T> responseType) {
+    return method(name, null, responseType);
+  }
+
+  @Override
+  public <T>CompletionStage<T> method(final String name, final GenericType<T> responseType) {
+    return method(name, null, responseType);
+  }
+
+  @Override
+  public CompletionStage<Response> method(final String name, final Entity<?> entity) {
+    return ((InvocationImpl)build(name, entity, requestHeaders, cookies, cacheControl)).invokeAsync();
+  }
+
+  @Override
+  public <T>CompletionStage<T> method(final String name, final Entity<?> entity, final Class<T> responseType) {
+    return method(name, entity).thenApply(response -> response.readEntity(responseType));
+  }
+
+  @Override
+  public <T>CompletionStage<T> method(final String name, final Entity<?> entity, final GenericType<T> responseType) {
+    return method(name, entity).thenApply(response -> response.readEntity(responseType));
+  }
+}
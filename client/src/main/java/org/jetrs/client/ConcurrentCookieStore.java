@@ -0,0 +1,204 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.net.CookieStore;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link CookieStore} that is owned by a single {@link ClientImpl}, and is
+ * safe for concurrent use without locking. Cookies are bucketed by host (for
+ * host-only cookies) or by the value of their {@code Domain} attribute (for
+ * domain cookies), so that the cookies for a request are found with one lookup
+ * per label of the request host.
+ */
+class ConcurrentCookieStore implements CookieStore {
+  private static String toKey(final HttpCookie cookie) {
+    return cookie.getName() + ";" + cookie.getPath();
+  }
+
+  private static String normalizeDomain(final String domain) {
+    final String normalized = domain.toLowerCase(Locale.ROOT);
+    return normalized.startsWith(".") ? normalized.substring(1) : normalized;
+  }
+
+  private static String getDefaultPath(final String path) {
+    if (path == null || !path.startsWith("/"))
+      return "/";
+
+    final int index = path.lastIndexOf('/');
+    return index == 0 ? "/" : path.substring(0, index);
+  }
+
+  private static boolean domainMatches(final String domain, final String host) {
+    if (host.equals(domain))
+      return true;
+
+    return domain.indexOf('.') > 0 && host.length() > domain.length() && host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.';
+  }
+
+  private static boolean pathMatches(final String requestPath, final String cookiePath) {
+    if (!requestPath.startsWith(cookiePath))
+      return false;
+
+    return requestPath.length() == cookiePath.length() || cookiePath.endsWith("/") || requestPath.charAt(cookiePath.length()) == '/';
+  }
+
+  private final ConcurrentHashMap<String,ConcurrentHashMap<String,HttpCookie>> buckets = new ConcurrentHashMap<>();
+
+  /**
+   * Stores the specified cookie received from the specified host for a request
+   * to the specified path. A cookie with a {@code Domain} attribute that does
+   * not domain-match the host is rejected, and an expired cookie removes the
+   * stored cookie it replaces.
+   *
+   * @param host The host from which the cookie was received.
+   * @param path The path of the request for which the cookie was received.
+   * @param cookie The {@link HttpCookie}.
+   * @return Whether the cookie was accepted.
+   */
+  boolean add(final String host, final String path, final HttpCookie cookie) {
+    final String bucket;
+    if (cookie.getDomain() != null) {
+      bucket = normalizeDomain(cookie.getDomain());
+      if (!domainMatches(bucket, host.toLowerCase(Locale.ROOT)))
+        return false;
+    }
+    else {
+      bucket = host.toLowerCase(Locale.ROOT);
+    }
+
+    if (cookie.getPath() == null)
+      cookie.setPath(getDefaultPath(path));
+
+    final String key = toKey(cookie);
+    if (cookie.hasExpired()) {
+      final Map<String,HttpCookie> cookies = buckets.get(bucket);
+      if (cookies != null)
+        cookies.remove(key);
+    }
+    else {
+      buckets.computeIfAbsent(bucket, k -> new ConcurrentHashMap<>()).put(key, cookie);
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the unexpired cookies that match a request to the specified host
+   * and path.
+   *
+   * @param host The host of the request.
+   * @param path The path of the request.
+   * @param secure Whether the request is made over a secure channel.
+   * @return The unexpired cookies that match the request.
+   */
+  List<HttpCookie> get(final String host, final String path, final boolean secure) {
+    final String requestPath = path == null || path.isEmpty() ? "/" : path;
+    List<HttpCookie> matches = null;
+    String domain = host.toLowerCase(Locale.ROOT);
+    for (boolean exact = true; domain != null; exact = false) {
+      final Map<String,HttpCookie> cookies = buckets.get(domain);
+      if (cookies != null) {
+        for (final Iterator<HttpCookie> iterator = cookies.values().iterator(); iterator.hasNext();) {
+          final HttpCookie cookie = iterator.next();
+          if (cookie.hasExpired()) {
+            iterator.remove();
+          }
+          else if ((exact || cookie.getDomain() != null) && (secure || !cookie.getSecure()) && pathMatches(requestPath, cookie.getPath())) {
+            if (matches == null)
+              matches = new ArrayList<>();
+
+            matches.add(cookie);
+          }
+        }
+      }
+
+      final int dot = domain.indexOf('.');
+      domain = dot < 0 ? null : domain.substring(dot + 1);
+    }
+
+    return matches != null ? matches : Collections.emptyList();
+  }
+
+  @Override
+  public void add(final URI uri, final HttpCookie cookie) {
+    if (uri.getHost() == null)
+      throw new IllegalArgumentException("URI does not specify a host: " + uri);
+
+    add(uri.getHost(), uri.getPath(), cookie);
+  }
+
+  @Override
+  public List<HttpCookie> get(final URI uri) {
+    if (uri.getHost() == null)
+      throw new IllegalArgumentException("URI does not specify a host: " + uri);
+
+    return get(uri.getHost(), uri.getPath(), "https".equalsIgnoreCase(uri.getScheme()));
+  }
+
+  @Override
+  public List<HttpCookie> getCookies() {
+    final List<HttpCookie> cookies = new ArrayList<>();
+    for (final Map<String,HttpCookie> bucket : buckets.values()) {
+      for (final Iterator<HttpCookie> iterator = bucket.values().iterator(); iterator.hasNext();) {
+        final HttpCookie cookie = iterator.next();
+        if (cookie.hasExpired())
+          iterator.remove();
+        else
+          cookies.add(cookie);
+      }
+    }
+
+    return cookies;
+  }
+
+  @Override
+  public List<URI> getURIs() {
+    final List<URI> uris = new ArrayList<>(buckets.size());
+    for (final Map.Entry<String,ConcurrentHashMap<String,HttpCookie>> entry : buckets.entrySet())
+      if (!entry.getValue().isEmpty())
+        uris.add(URI.create("http://" + entry.getKey()));
+
+    return uris;
+  }
+
+  @Override
+  public boolean remove(final URI uri, final HttpCookie cookie) {
+    final String bucket = cookie.getDomain() != null ? normalizeDomain(cookie.getDomain()) : uri != null && uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : null;
+    if (bucket == null || cookie.getPath() == null)
+      return false;
+
+    final Map<String,HttpCookie> cookies = buckets.get(bucket);
+    return cookies != null && cookies.remove(toKey(cookie)) != null;
+  }
+
+  @Override
+  public boolean removeAll() {
+    final boolean changed = !buckets.isEmpty();
+    buckets.clear();
+    return changed;
+  }
+}
@@ -0,0 +1,128 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A single HTTP exchange opened by a {@link Connector}. The request headers
+ * must be set before {@link #getOutputStream()} is called, and the request is
+ * completed by the first call to any of the response methods.
+ */
+public interface Connection {
+  /**
+   * Sets the request header with the specified name to the specified value,
+   * replacing any existing value.
+   *
+   * @param name The name of the header.
+   * @param value The value of the header.
+   */
+  void setRequestProperty(String name, String value);
+
+  /**
+   * Specifies that the request entity is of the specified length, and is to be
+   * streamed to the server as it is written, without being buffered. Must be
+   * called before {@link #getOutputStream()}.
+   *
+   * @param contentLength The length of the request entity in bytes.
+   */
+  void setFixedLengthStreamingMode(long contentLength);
+
+  /**
+   * Specifies that the request entity is of unknown length, and is to be
+   * streamed to the server with chunked transfer coding as it is written,
+   * without being buffered. Must be called before {@link #getOutputStream()}.
+   *
+   * @param chunkSize The number of bytes to write in each chunk.
+   */
+  void setChunkedStreamingMode(int chunkSize);
+
+  /**
+   * Returns the {@link OutputStream} to which the request entity is to be
+   * written. The request entity is complete when the stream is closed.
+   *
+   * @return The {@link OutputStream} to which the request entity is to be
+   *         written.
+   * @throws IOException If an I/O error has occurred.
+   */
+  OutputStream getOutputStream() throws IOException;
+
+  /**
+   * Aborts this exchange, so that a request entity that is partially written
+   * to the {@link OutputStream} of {@link #getOutputStream()} is not sent as
+   * if it was complete, and releases the underlying connection.
+   */
+  void disconnect();
+
+  /**
+   * Completes the request, and returns a {@link CompletableFuture} that is
+   * completed once the response is available, after which the response methods
+   * of this {@link Connection} do not block. Connectors with non-blocking I/O
+   * hold no thread while waiting for the response. The default implementation
+   * waits for the response on the specified {@link Executor}.
+   *
+   * @param executor The {@link Executor} for blocking work.
+   * @return A {@link CompletableFuture} that is completed once the response is
+   *         available.
+   */
+  default CompletableFuture<Void> sendAsync(final Executor executor) {
+    return CompletableFuture.runAsync(() -> {
+      try {
+        getResponseCode();
+      }
+      catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * @return The status code of the response.
+   * @throws IOException If an I/O error has occurred.
+   */
+  int getResponseCode() throws IOException;
+
+  /**
+   * @return The reason phrase of the response, or {@code null} if the protocol
+   *         does not carry one (i.e. HTTP/2).
+   * @throws IOException If an I/O error has occurred.
+   */
+  String getResponseMessage() throws IOException;
+
+  /**
+   * @return The headers of the response, keyed by header name.
+   * @throws IOException If an I/O error has occurred.
+   */
+  Map<String,List<String>> getHeaderFields() throws IOException;
+
+  /**
+   * Returns the {@link InputStream} of the response entity, regardless of the
+   * status code of the response.
+   *
+   * @return The {@link InputStream} of the response entity, or {@code null} if
+   *         the response has no entity.
+   * @throws IOException If an I/O error has occurred.
+   */
+  InputStream getInputStream() throws IOException;
+}
@@ -0,0 +1,57 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * The transport SPI of {@link ClientImpl}. A {@link Connector} is created once
+ * per {@link ClientImpl}, and is shared by all invocations made through it.
+ * Implementations must therefore be thread-safe, and are expected to pool
+ * connections.
+ * <p>
+ * Implementations are instantiated reflectively, and must declare a public
+ * constructor with the signature:
+ *
+ * <pre>
+ * (SSLContext sslContext, HostnameVerifier verifier, ExecutorService executorService, long connectTimeout, long readTimeout)
+ * </pre>
+ *
+ * @see ClientImpl#CONNECTOR
+ */
+public interface Connector extends Closeable {
+  /**
+   * Returns a new {@link Connection} for an exchange with the specified
+   * {@link URL} and HTTP method. No I/O is performed until the request entity
+   * or the response is requested from the returned {@link Connection}.
+   *
+   * @param url The {@link URL}.
+   * @param method The HTTP method.
+   * @return A new {@link Connection}.
+   * @throws IOException If an I/O error has occurred.
+   */
+  Connection open(URL url, String method) throws IOException;
+
+  /**
+   * Releases the resources held by this {@link Connector}, such as pooled
+   * connections and selector threads.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,522 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.Response;
+
+/**
+ * A fan-out of independent invocations of a {@link ClientImpl}, which are
+ * performed concurrently on the asynchronous invocation path, without a thread
+ * per invocation. The {@link Outcome}s of the invocations are gathered in
+ * completion order with {@link Results#take()}, or all together with
+ * {@link Results#all()}.
+ * <p>
+ * The invocations share an overall deadline, and the number of concurrent
+ * invocations to the same host is bounded. The invocations that are not
+ * complete are cancelled on the first failure, or once a quorum of successful
+ * outcomes is reached. An invocation that is cancelled before it is started is
+ * never sent, and the response of one that is cancelled in flight is closed
+ * when it arrives.
+ */
+public class FanOut {
+  private static volatile ScheduledThreadPoolExecutor scheduler;
+
+  private static ScheduledThreadPoolExecutor getScheduler() {
+    ScheduledThreadPoolExecutor scheduler = FanOut.scheduler;
+    if (scheduler == null) {
+      synchronized (FanOut.class) {
+        if ((scheduler = FanOut.scheduler) == null) {
+          scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jetrs-fanout-deadline");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+          scheduler.setRemoveOnCancelPolicy(true);
+          FanOut.scheduler = scheduler;
+        }
+      }
+    }
+
+    return scheduler;
+  }
+
+  private static String getHost(final URL url) {
+    return url.getHost().toLowerCase(Locale.ROOT) + ":" + (url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+  }
+
+  /**
+   * The outcome of an invocation of a {@link FanOut}, which is either a
+   * {@link Response}, or the exception with which the invocation has failed,
+   * was cancelled, or has exceeded the deadline.
+   */
+  public static final class Outcome {
+    private final int index;
+    private final Response response;
+    private final Throwable exception;
+
+    private Outcome(final int index, final Response response, final Throwable exception) {
+      this.index = index;
+      this.response = response;
+      this.exception = exception;
+    }
+
+    /**
+     * @return The index of the invocation in the order in which it was added to
+     *         the {@link FanOut}.
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * @return The {@link Response} of the invocation, or {@code null} if the
+     *         invocation did not complete with a response.
+     */
+    public Response getResponse() {
+      return response;
+    }
+
+    /**
+     * @return The exception with which the invocation did not complete with a
+     *         response, which is a {@link CancellationException} if it was
+     *         cancelled, and a {@link TimeoutException} if it has exceeded the
+     *         deadline, or {@code null} if it completed with a response.
+     */
+    public Throwable getException() {
+      return exception;
+    }
+
+    /**
+     * @return Whether the invocation completed with a response of status
+     *         {@code 2xx}.
+     */
+    public boolean isSuccessful() {
+      if (response == null)
+        return false;
+
+      final int status = response.getStatus();
+      return 200 <= status && status < 300;
+    }
+
+    /**
+     * @return Whether the invocation was cancelled.
+     */
+    public boolean isCancelled() {
+      return exception instanceof CancellationException;
+    }
+
+    @Override
+    public String toString() {
+      return index + ": " + (response != null ? String.valueOf(response.getStatus()) : String.valueOf(exception));
+    }
+  }
+
+  /**
+   * The {@link Outcome}s of the invocations of a submitted {@link FanOut}.
+   */
+  public static final class Results {
+    private static final class Host {
+      private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+      private int active;
+    }
+
+    private final Supplier<CompletableFuture<Response>>[] invocations;
+    private final String[] hosts;
+    private final int maxPerHost;
+    private final boolean cancelOnFailure;
+    private final int quorum;
+    private final Outcome[] outcomes;
+    private final HashMap<String,Host> hostToState = new HashMap<>();
+    private final LinkedBlockingQueue<Outcome> completed = new LinkedBlockingQueue<>();
+    private final AtomicInteger taken = new AtomicInteger();
+    private final CompletableFuture<List<Outcome>> all = new CompletableFuture<>();
+    private ScheduledFuture<?> deadline;
+    private int remaining;
+    private int successes;
+
+    private Results(final Supplier<CompletableFuture<Response>>[] invocations, final String[] hosts, final int maxPerHost, final boolean cancelOnFailure, final int quorum) {
+      this.invocations = invocations;
+      this.hosts = hosts;
+      this.maxPerHost = maxPerHost;
+      this.cancelOnFailure = cancelOnFailure;
+      this.quorum = quorum;
+      this.outcomes = new Outcome[invocations.length];
+      this.remaining = invocations.length;
+    }
+
+    private void start(final long timeout) {
+      final ArrayList<Integer> ready = new ArrayList<>();
+      synchronized (this) {
+        for (int i = 0; i < invocations.length; ++i) {
+          final Host host = hostToState.computeIfAbsent(hosts[i], k -> new Host());
+          if (host.active < maxPerHost) {
+            ++host.active;
+            ready.add(i);
+          }
+          else {
+            host.pending.add(i);
+          }
+        }
+
+        if (timeout > 0)
+          deadline = getScheduler().schedule(() -> cancel(new TimeoutException("Deadline of " + timeout + "ns exceeded")), timeout, TimeUnit.NANOSECONDS);
+      }
+
+      if (invocations.length == 0)
+        all.complete(Arrays.asList(outcomes));
+
+      for (final Integer index : ready)
+        start(index);
+    }
+
+    /**
+     * Starts the invocation at the specified index, and the pending invocations
+     * that are started by the completion of those that complete synchronously.
+     * These are started in a loop rather than from the callback of the
+     * completed invocation, so that a long run of invocations that fail before
+     * they are sent (e.g. to a host with {@code maxPerHost(1)}) does not
+     * overflow the stack.
+     */
+    private void start(final int index) {
+      for (Integer next = index; next != null;) {
+        final int i = next;
+        // NOTE: An invocation that is cancelled after it is taken from the pending queue is not started. If it is
+        // NOTE: cancelled after this check, it is cancelled in flight, and its response is closed when it arrives.
+        synchronized (this) {
+          if (outcomes[i] != null)
+            return;
+        }
+
+        CompletableFuture<Response> future;
+        try {
+          future = invocations[i].get();
+        }
+        catch (final Throwable t) {
+          future = new CompletableFuture<>();
+          future.completeExceptionally(t);
+        }
+
+        if (future.isDone()) {
+          Response response = null;
+          Throwable exception = null;
+          try {
+            response = future.join();
+          }
+          catch (final Throwable t) {
+            exception = t;
+          }
+
+          next = complete(i, response, exception);
+        }
+        else {
+          future.whenComplete((response, t) -> {
+            final Integer pending = complete(i, response, t);
+            if (pending != null)
+              start(pending);
+          });
+
+          next = null;
+        }
+      }
+    }
+
+    /**
+     * Records the outcome of the invocation at the specified index, and returns
+     * the index of the pending invocation to the same host that is to be
+     * started next, or {@code null} if there is none.
+     */
+    private Integer complete(final int index, final Response response, final Throwable t) {
+      Integer next = null;
+      final boolean isLate;
+      final boolean isDone;
+      synchronized (this) {
+        final Host host = hostToState.get(hosts[index]);
+        if (remaining > 0 && (next = host.pending.poll()) == null)
+          --host.active;
+
+        isLate = outcomes[index] != null;
+        if (!isLate) {
+          final Outcome outcome = new Outcome(index, response, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+          add(outcome);
+          if (outcome.isSuccessful()) {
+            if (quorum > 0 && successes >= quorum)
+              cancelRemaining(new CancellationException("Quorum of " + quorum + " reached"));
+          }
+          else if (cancelOnFailure) {
+            cancelRemaining(new CancellationException("Invocation " + index + " failed"));
+          }
+          else if (quorum > 0 && successes + remaining < quorum) {
+            cancelRemaining(new CancellationException("Quorum of " + quorum + " cannot be reached"));
+          }
+        }
+
+        isDone = !isLate && remaining == 0;
+      }
+
+      if (isLate && response != null)
+        response.close();
+
+      if (isDone) {
+        all.complete(Arrays.asList(outcomes));
+        return null;
+      }
+
+      return next;
+    }
+
+    private void add(final Outcome outcome) {
+      outcomes[outcome.index] = outcome;
+      completed.add(outcome);
+      if (outcome.isSuccessful())
+        ++successes;
+
+      if (--remaining == 0 && deadline != null)
+        deadline.cancel(false);
+    }
+
+    /**
+     * Completes the invocations that are not complete with the specified
+     * exception, and returns whether there were any. Must be called while
+     * holding the lock of this instance.
+     */
+    private boolean cancelRemaining(final Exception exception) {
+      if (remaining == 0)
+        return false;
+
+      for (int i = 0; i < outcomes.length; ++i)
+        if (outcomes[i] == null)
+          add(new Outcome(i, null, exception));
+
+      for (final Host host : hostToState.values())
+        host.pending.clear();
+
+      return true;
+    }
+
+    private boolean cancel(final Exception exception) {
+      final boolean cancelled;
+      synchronized (this) {
+        cancelled = cancelRemaining(exception);
+      }
+
+      if (cancelled)
+        all.complete(Arrays.asList(outcomes));
+
+      return cancelled;
+    }
+
+    /**
+     * Cancels the invocations that are not complete. An invocation that is
+     * cancelled before it is started is never sent, and the response of one
+     * that is cancelled in flight is closed when it arrives.
+     *
+     * @return Whether there were any invocations that were not complete.
+     */
+    public boolean cancel() {
+      return cancel(new CancellationException("Fan-out cancelled"));
+    }
+
+    /**
+     * Returns the {@link Outcome} of the next invocation to complete, waiting
+     * if necessary, or {@code null} if the outcomes of all invocations have
+     * been taken.
+     *
+     * @return The {@link Outcome} of the next invocation to complete, or
+     *         {@code null} if the outcomes of all invocations have been taken.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public Outcome take() throws InterruptedException {
+      for (int n; (n = taken.get()) < outcomes.length;)
+        if (taken.compareAndSet(n, n + 1))
+          return completed.take();
+
+      return null;
+    }
+
+    /**
+     * Returns the {@link Outcome} of the next invocation to complete, waiting
+     * up to the specified time if necessary, or {@code null} if the time has
+     * elapsed, or if the outcomes of all invocations have been taken.
+     *
+     * @param timeout The time to wait.
+     * @param unit The {@link TimeUnit} of {@code timeout}.
+     * @return The {@link Outcome} of the next invocation to complete, or
+     *         {@code null} if the time has elapsed, or if the outcomes of all
+     *         invocations have been taken.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public Outcome poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+      for (int n; (n = taken.get()) < outcomes.length;) {
+        if (taken.compareAndSet(n, n + 1)) {
+          final Outcome outcome = completed.poll(timeout, unit);
+          if (outcome == null)
+            taken.decrementAndGet();
+
+          return outcome;
+        }
+      }
+
+      return null;
+    }
+
+    /**
+     * Returns a {@link CompletableFuture} of the {@link Outcome}s of all
+     * invocations, in the order in which they were added to the
+     * {@link FanOut}, which is completed once each invocation has completed,
+     * was cancelled, or has exceeded the deadline.
+     *
+     * @return A {@link CompletableFuture} of the {@link Outcome}s of all
+     *         invocations.
+     */
+    public CompletableFuture<List<Outcome>> all() {
+      return all;
+    }
+  }
+
+  private final ClientImpl client;
+  private final ArrayList<Supplier<CompletableFuture<Response>>> invocations = new ArrayList<>();
+  private final ArrayList<String> hosts = new ArrayList<>();
+  private long timeout;
+  private int maxPerHost = Integer.MAX_VALUE;
+  private boolean cancelOnFailure;
+  private int quorum;
+
+  FanOut(final ClientImpl client) {
+    this.client = client;
+  }
+
+  FanOut add(final String host, final Supplier<CompletableFuture<Response>> invocation) {
+    hosts.add(host);
+    invocations.add(invocation);
+    return this;
+  }
+
+  /**
+   * Adds the specified invocation to this fan-out.
+   *
+   * @param invocation The {@link Invocation}, which must be built by a
+   *          {@link ClientImpl}.
+   * @return This {@link FanOut}.
+   * @throws IllegalArgumentException If {@code invocation} is not built by a
+   *           {@link ClientImpl}.
+   */
+  public FanOut add(final Invocation invocation) {
+    if (!(invocation instanceof InvocationImpl))
+      throw new IllegalArgumentException("Invocation is not built by " + ClientImpl.class.getName() + ": " + invocation);
+
+    final InvocationImpl invocationImpl = (InvocationImpl)invocation;
+    return add(getHost(invocationImpl.getUrl()), invocationImpl::invokeAsync);
+  }
+
+  /**
+   * Sets the overall deadline of the invocations, after which the invocations
+   * that are not complete are completed with a {@link TimeoutException}.
+   *
+   * @param timeout The time from {@link #submit()} to the deadline.
+   * @param unit The {@link TimeUnit} of {@code timeout}.
+   * @return This {@link FanOut}.
+   * @throws IllegalArgumentException If {@code timeout} is not positive.
+   */
+  public FanOut deadline(final long timeout, final TimeUnit unit) {
+    if (timeout <= 0)
+      throw new IllegalArgumentException("timeout (" + timeout + ") <= 0");
+
+    this.timeout = unit.toNanos(timeout);
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of concurrent invocations to the same host and
+   * port. Further invocations to the host are started as those in flight
+   * complete.
+   *
+   * @param maxPerHost The maximum number of concurrent invocations to the same
+   *          host and port.
+   * @return This {@link FanOut}.
+   * @throws IllegalArgumentException If {@code maxPerHost} is not positive.
+   */
+  public FanOut maxPerHost(final int maxPerHost) {
+    if (maxPerHost <= 0)
+      throw new IllegalArgumentException("maxPerHost (" + maxPerHost + ") <= 0");
+
+    this.maxPerHost = maxPerHost;
+    return this;
+  }
+
+  /**
+   * Cancels the invocations that are not complete once an invocation fails,
+   * i.e. completes with an exception, or with a response of a status other than
+   * {@code 2xx}.
+   *
+   * @return This {@link FanOut}.
+   */
+  public FanOut cancelOnFailure() {
+    this.cancelOnFailure = true;
+    return this;
+  }
+
+  /**
+   * Cancels the invocations that are not complete once the specified number of
+   * invocations have completed with a response of status {@code 2xx}, or once
+   * this number can no longer be reached.
+   *
+   * @param quorum The number of successful invocations.
+   * @return This {@link FanOut}.
+   * @throws IllegalArgumentException If {@code quorum} is not positive.
+   */
+  public FanOut quorum(final int quorum) {
+    if (quorum <= 0)
+      throw new IllegalArgumentException("quorum (" + quorum + ") <= 0");
+
+    this.quorum = quorum;
+    return this;
+  }
+
+  /**
+   * Starts the invocations of this fan-out.
+   *
+   * @return The {@link Results} of the invocations.
+   * @throws IllegalStateException If the client is closed.
+   */
+  @SuppressWarnings("unchecked")
+  public Results submit() {
+    client.assertNotClosed();
+    final Results results = new Results(invocations.toArray(new Supplier[invocations.size()]), hosts.toArray(new String[hosts.size()]), maxPerHost, cancelOnFailure, quorum);
+    results.start(timeout);
+    return results;
+  }
+}
@@ -0,0 +1,355 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A private in-memory HTTP cache of the {@code GET} responses of a
+ * {@link ClientImpl}, bounded by the total size of the cached entities, and
+ * evicted in LRU order.
+ * <p>
+ * Freshness is determined by the {@code Cache-Control: max-age},
+ * {@code Expires} and {@code Date} response headers, and heuristically by
+ * {@code Last-Modified}. Stale entries with an {@code ETag} or
+ * {@code Last-Modified} validator are retained for revalidation, and a
+ * {@code 304 Not Modified} response renews the entry without transferring its
+ * entity again.
+ */
+class HttpCache {
+  private static final int entryOverhead = 512;
+  private static final long maxHeuristicLifetime = 24 * 60 * 60 * 1000L;
+
+  static final class Entry {
+    final int status;
+    final String reasonPhrase;
+    final TreeMap<String,List<String>> headers;
+    final byte[] body;
+    final Map<String,String> varyValues;
+    final String etag;
+    final String lastModified;
+    final long responseTime;
+    final long initialAge;
+    final long lifetime;
+
+    private Entry(final int status, final String reasonPhrase, final TreeMap<String,List<String>> headers, final byte[] body, final Map<String,String> varyValues, final long responseTime, final long lifetime) {
+      this.status = status;
+      this.reasonPhrase = reasonPhrase;
+      this.headers = headers;
+      this.body = body;
+      this.varyValues = varyValues;
+      this.etag = getFirst(headers, "ETag");
+      this.lastModified = getFirst(headers, "Last-Modified");
+      this.responseTime = responseTime;
+      final long date = parseDate(getFirst(headers, "Date"), responseTime);
+      this.initialAge = Math.max(0, responseTime - date) + parseLong(getFirst(headers, "Age"), 0) * 1000L;
+      this.lifetime = lifetime;
+    }
+
+    /**
+     * @param now The current time in milliseconds.
+     * @return The age of this entry in milliseconds.
+     */
+    long getAge(final long now) {
+      return initialAge + now - responseTime;
+    }
+
+    /**
+     * @param now The current time in milliseconds.
+     * @param maxAge The maximum age in seconds that is acceptable to the
+     *          request, or {@code -1} if unconstrained.
+     * @return Whether this entry can be served without revalidation.
+     */
+    boolean isFresh(final long now, final int maxAge) {
+      final long age = getAge(now);
+      return age < lifetime && (maxAge < 0 || age <= maxAge * 1000L);
+    }
+
+    boolean hasValidator() {
+      return etag != null || lastModified != null;
+    }
+
+    boolean matches(final Map<String,List<String>> requestHeaders) {
+      if (varyValues == null)
+        return true;
+
+      for (final Map.Entry<String,String> entry : varyValues.entrySet())
+        if (!entry.getValue().equals(getRequestValue(requestHeaders, entry.getKey())))
+          return false;
+
+      return true;
+    }
+
+    int weight() {
+      return body.length + entryOverhead;
+    }
+  }
+
+  private static String getFirst(final Map<String,List<String>> headers, final String name) {
+    final List<String> values = headers.get(name);
+    return values == null || values.size() == 0 ? null : values.get(0);
+  }
+
+  private static String getRequestValue(final Map<String,List<String>> requestHeaders, final String name) {
+    if (requestHeaders != null)
+      for (final Map.Entry<String,List<String>> entry : requestHeaders.entrySet())
+        if (name.equalsIgnoreCase(entry.getKey()))
+          return String.join(",", entry.getValue());
+
+    return "";
+  }
+
+  private static long parseDate(final String value, final long defaultValue) {
+    if (value == null)
+      return defaultValue;
+
+    try {
+      return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+    catch (final DateTimeParseException e) {
+      return defaultValue;
+    }
+  }
+
+  private static long parseLong(final String value, final long defaultValue) {
+    if (value == null)
+      return defaultValue;
+
+    try {
+      return Long.parseLong(value.trim());
+    }
+    catch (final NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Returns the freshness lifetime in milliseconds of a response with the
+   * specified headers, {@code 0} if the response must be revalidated before
+   * each use, or {@code -1} if the response must not be stored.
+   */
+  private static long getLifetime(final TreeMap<String,List<String>> headers, final long responseTime) {
+    long maxAge = -1;
+    final List<String> cacheControls = headers.get("Cache-Control");
+    if (cacheControls != null) {
+      for (final String cacheControl : cacheControls) {
+        for (String directive : cacheControl.split(",")) {
+          directive = directive.trim().toLowerCase(Locale.ROOT);
+          if (directive.equals("no-store"))
+            return -1;
+
+          if (directive.startsWith("no-cache"))
+            maxAge = 0;
+          else if (directive.startsWith("max-age=") && maxAge != 0)
+            maxAge = Math.max(0, parseLong(directive.substring(8), 0)) * 1000L;
+        }
+      }
+    }
+
+    if (maxAge >= 0)
+      return maxAge;
+
+    final long date = parseDate(getFirst(headers, "Date"), responseTime);
+    final String expires = getFirst(headers, "Expires");
+    if (expires != null)
+      return Math.max(0, parseDate(expires, date) - date);
+
+    final String lastModified = getFirst(headers, "Last-Modified");
+    if (lastModified != null)
+      return Math.min(maxHeuristicLifetime, Math.max(0, (date - parseDate(lastModified, date)) / 10));
+
+    return 0;
+  }
+
+  private static TreeMap<String,List<String>> toStoredHeaders(final Map<String,List<String>> headers) {
+    final TreeMap<String,List<String>> stored = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (final Map.Entry<String,List<String>> entry : headers.entrySet())
+      if (entry.getKey() != null && !"Set-Cookie".equalsIgnoreCase(entry.getKey()))
+        stored.put(entry.getKey(), entry.getValue());
+
+    return stored;
+  }
+
+  private static Map<String,String> getVaryValues(final TreeMap<String,List<String>> headers, final Map<String,List<String>> requestHeaders) {
+    final List<String> varies = headers.get("Vary");
+    if (varies == null)
+      return null;
+
+    final Map<String,String> varyValues = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (final String vary : varies) {
+      for (String name : vary.split(",")) {
+        name = name.trim();
+        if ("*".equals(name))
+          return Collections.emptyMap();
+
+        if (name.length() > 0)
+          varyValues.put(name, getRequestValue(requestHeaders, name));
+      }
+    }
+
+    return varyValues;
+  }
+
+  private final long maxBytes;
+  private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  HttpCache(final long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * @return The maximum size in bytes of a single cacheable entity.
+   */
+  long getMaxEntitySize() {
+    return maxBytes / 8;
+  }
+
+  /**
+   * Returns whether a response with the specified status and headers may be
+   * stored in this cache.
+   *
+   * @param status The status code of the response.
+   * @param headers The headers of the response.
+   * @return Whether a response with the specified status and headers may be
+   *         stored in this cache.
+   */
+  boolean isCacheable(final int status, final Map<String,List<String>> headers) {
+    if (status != 200 && status != 203)
+      return false;
+
+    for (final Map.Entry<String,List<String>> entry : headers.entrySet()) {
+      final String name = entry.getKey();
+      if (name == null)
+        continue;
+
+      if ("Cache-Control".equalsIgnoreCase(name)) {
+        for (final String value : entry.getValue())
+          if (value.toLowerCase(Locale.ROOT).contains("no-store"))
+            return false;
+      }
+      else if ("Vary".equalsIgnoreCase(name)) {
+        for (final String value : entry.getValue())
+          if (value.trim().equals("*"))
+            return false;
+      }
+      else if ("Content-Length".equalsIgnoreCase(name)) {
+        if (parseLong(entry.getValue().get(0), 0) > getMaxEntitySize())
+          return false;
+      }
+    }
+
+    return true;
+  }
+
+  synchronized Entry get(final String key, final Map<String,List<String>> requestHeaders) {
+    final Entry entry = entries.get(key);
+    return entry != null && entry.matches(requestHeaders) ? entry : null;
+  }
+
+  /**
+   * Stores the specified response, if it is cacheable.
+   *
+   * @param key The key of the response.
+   * @param status The status code of the response.
+   * @param reasonPhrase The reason phrase of the response.
+   * @param headers The headers of the response.
+   * @param body The entity of the response.
+   * @param requestHeaders The headers of the request.
+   * @param responseTime The time in milliseconds at which the response was
+   *          received.
+   * @return The new {@link Entry}, or {@code null} if the response was not
+   *         stored.
+   */
+  Entry put(final String key, final int status, final String reasonPhrase, final Map<String,List<String>> headers, final byte[] body, final Map<String,List<String>> requestHeaders, final long responseTime) {
+    final TreeMap<String,List<String>> stored = toStoredHeaders(headers);
+    final long lifetime = getLifetime(stored, responseTime);
+    final Map<String,String> varyValues = getVaryValues(stored, requestHeaders);
+    if (lifetime < 0 || varyValues != null && varyValues.isEmpty()) {
+      remove(key);
+      return null;
+    }
+
+    final Entry entry = new Entry(status, reasonPhrase, stored, body, varyValues, responseTime, lifetime);
+    if (lifetime == 0 && !entry.hasValidator()) {
+      remove(key);
+      return null;
+    }
+
+    put(key, entry);
+    return entry;
+  }
+
+  /**
+   * Renews the specified stale entry with the headers of a
+   * {@code 304 Not Modified} response.
+   *
+   * @param key The key of the entry.
+   * @param stale The stale {@link Entry}.
+   * @param headers The headers of the {@code 304 Not Modified} response.
+   * @param requestHeaders The headers of the request.
+   * @param responseTime The time in milliseconds at which the response was
+   *          received.
+   * @return The renewed {@link Entry}.
+   */
+  Entry revalidate(final String key, final Entry stale, final Map<String,List<String>> headers, final Map<String,List<String>> requestHeaders, final long responseTime) {
+    final TreeMap<String,List<String>> merged = new TreeMap<>(stale.headers);
+    for (final Map.Entry<String,List<String>> entry : toStoredHeaders(headers).entrySet())
+      if (!"Content-Length".equalsIgnoreCase(entry.getKey()) && !"Transfer-Encoding".equalsIgnoreCase(entry.getKey()))
+        merged.put(entry.getKey(), entry.getValue());
+
+    final long lifetime = getLifetime(merged, responseTime);
+    final Entry entry = new Entry(stale.status, stale.reasonPhrase, merged, stale.body, stale.varyValues, responseTime, Math.max(0, lifetime));
+    if (lifetime < 0)
+      remove(key);
+    else
+      put(key, entry);
+
+    return entry;
+  }
+
+  private synchronized void put(final String key, final Entry entry) {
+    final Entry previous = entries.put(key, entry);
+    if (previous != null)
+      bytes -= previous.weight();
+
+    bytes += entry.weight();
+    for (final Iterator<Entry> iterator = entries.values().iterator(); bytes > maxBytes && iterator.hasNext();) {
+      bytes -= iterator.next().weight();
+      iterator.remove();
+    }
+  }
+
+  synchronized void remove(final String key) {
+    final Entry previous = entries.remove(key);
+    if (previous != null)
+      bytes -= previous.weight();
+  }
+
+  synchronized long size() {
+    return bytes;
+  }
+}
@@ -0,0 +1,123 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * A {@link Connector} based on {@link HttpURLConnection}, which relies on the
+ * JDK's process-wide keep-alive cache for connection reuse. This connector is
+ * available on all supported JDKs, and is the only connector that honors a
+ * {@link HostnameVerifier}. An {@code Expect: 100-continue} request header is
+ * honored when the request entity is streamed.
+ */
+public class HttpURLConnectionConnector implements Connector {
+  private final SSLSocketFactory sslSocketFactory;
+  private final HostnameVerifier verifier;
+  private final int connectTimeout;
+  private final int readTimeout;
+
+  public HttpURLConnectionConnector(final SSLContext sslContext, final HostnameVerifier verifier, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
+    this.sslSocketFactory = sslContext == null ? null : sslContext.getSocketFactory();
+    this.verifier = verifier;
+    this.connectTimeout = (int)Math.min(connectTimeout, Integer.MAX_VALUE);
+    this.readTimeout = (int)Math.min(readTimeout, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public Connection open(final URL url, final String method) throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+    if (connection instanceof HttpsURLConnection) {
+      final HttpsURLConnection httpsConnection = (HttpsURLConnection)connection;
+      if (sslSocketFactory != null)
+        httpsConnection.setSSLSocketFactory(sslSocketFactory);
+
+      if (verifier != null)
+        httpsConnection.setHostnameVerifier(verifier);
+    }
+
+    connection.setRequestMethod(method);
+    connection.setConnectTimeout(connectTimeout);
+    connection.setReadTimeout(readTimeout);
+    connection.setUseCaches(false);
+    return new Connection() {
+      @Override
+      public void setRequestProperty(final String name, final String value) {
+        connection.setRequestProperty(name, value);
+      }
+
+      @Override
+      public void setFixedLengthStreamingMode(final long contentLength) {
+        connection.setFixedLengthStreamingMode(contentLength);
+      }
+
+      @Override
+      public void setChunkedStreamingMode(final int chunkSize) {
+        connection.setChunkedStreamingMode(chunkSize);
+      }
+
+      @Override
+      public OutputStream getOutputStream() throws IOException {
+        connection.setDoOutput(true);
+        return connection.getOutputStream();
+      }
+
+      @Override
+      public void disconnect() {
+        connection.disconnect();
+      }
+
+      @Override
+      public int getResponseCode() throws IOException {
+        return connection.getResponseCode();
+      }
+
+      @Override
+      public String getResponseMessage() throws IOException {
+        return connection.getResponseMessage();
+      }
+
+      @Override
+      public Map<String,List<String>> getHeaderFields() throws IOException {
+        connection.getResponseCode();
+        return connection.getHeaderFields();
+      }
+
+      @Override
+      public InputStream getInputStream() throws IOException {
+        final int responseCode = connection.getResponseCode();
+        return 200 <= responseCode && responseCode < 400 ? connection.getInputStream() : connection.getErrorStream();
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+  }
+}
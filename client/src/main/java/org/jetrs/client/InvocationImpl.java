@@ -16,13 +16,18 @@
 
 package org.jetrs.client;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.CookieHandler;
-import java.net.CookieManager;
+import java.io.SequenceInputStream;
+import java.lang.annotation.Annotation;
 import java.net.HttpCookie;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -31,6 +36,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -42,6 +50,7 @@ import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.RxInvoker;
+import javax.ws.rs.client.RxInvokerProvider;
 import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.GenericType;
@@ -53,16 +62,16 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.StatusType;
 import javax.ws.rs.ext.MessageBodyWriter;
 
-import org.jetrs.common.core.AnnotationInjector;
 import org.jetrs.common.core.HttpHeadersImpl;
-import org.jetrs.common.core.RequestImpl;
 import org.jetrs.common.core.ResponseImpl;
 import org.jetrs.common.ext.ProvidersImpl;
+import org.jetrs.common.ext.provider.BytesProvider;
+import org.jetrs.common.ext.provider.FileProvider;
+import org.jetrs.common.ext.provider.StringProvider;
 import org.jetrs.common.util.MirrorMultivaluedMap;
 import org.jetrs.common.util.ProviderUtil;
 import org.jetrs.common.util.Responses;
 import org.libj.util.CollectionUtil;
-import org.libj.util.Dates;
 
 public class InvocationImpl implements Invocation {
   private final ClientImpl client;
@@ -73,11 +82,8 @@ public class InvocationImpl implements Invocation {
   private final MirrorMultivaluedMap<String,String,Object> headers;
   private final List<Cookie> cookies;
   private final CacheControl cacheControl;
-  private final ExecutorService executorService;
-  private final long connectTimeout;
-  private final long readTimeout;
 
-  InvocationImpl(final ClientImpl client, final ProvidersImpl providers, final URL url, final String method, final Entity<?> entity, final MirrorMultivaluedMap<String,String,Object> headers, final List<Cookie> cookies, final CacheControl cacheControl, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
+  InvocationImpl(final ClientImpl client, final ProvidersImpl providers, final URL url, final String method, final Entity<?> entity, final MirrorMultivaluedMap<String,String,Object> headers, final List<Cookie> cookies, final CacheControl cacheControl) {
     this.client = client;
     this.providers = providers;
     this.url = url;
@@ -86,9 +92,10 @@ public class InvocationImpl implements Invocation {
     this.headers = headers;
     this.cookies = cookies;
     this.cacheControl = cacheControl;
-    this.executorService = executorService;
-    this.connectTimeout = connectTimeout;
-    this.readTimeout = readTimeout;
+  }
+
+  URL getUrl() {
+    return url;
   }
 
   @Override
@@ -97,82 +104,317 @@ public class InvocationImpl implements Invocation {
     return this;
   }
 
-  @Override
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  public Response invoke() {
-    try {
-      final HttpURLConnection connection = (HttpURLConnection)url.openConnection();
-      connection.setRequestMethod(method);
-      // FIXME: Casting long to int here
-      connection.setConnectTimeout((int)connectTimeout);
-      connection.setReadTimeout((int)readTimeout);
-      if (headers != null)
-        for (final Map.Entry<String,List<String>> entry : headers.entrySet())
-          connection.setRequestProperty(entry.getKey(), CollectionUtil.toString(entry.getValue(), ','));
+  /**
+   * Returns the number of bytes written by {@link String#getBytes(Charset)}
+   * for the specified string with the UTF-8 charset.
+   *
+   * @param string The string.
+   * @return The number of bytes written by {@link String#getBytes(Charset)}
+   *         for the specified string with the UTF-8 charset.
+   */
+  static long getUtf8Length(final String string) {
+    long length = 0;
+    for (int i = 0, len = string.length(); i < len; ++i) {
+      final char ch = string.charAt(i);
+      if (ch < 0x80) {
+        ++length;
+      }
+      else if (ch < 0x800) {
+        length += 2;
+      }
+      else if (!Character.isSurrogate(ch)) {
+        length += 3;
+      }
+      else if (Character.isHighSurrogate(ch) && i + 1 < len && Character.isLowSurrogate(string.charAt(i + 1))) {
+        length += 4;
+        ++i;
+      }
+      else {
+        // NOTE: An unpaired surrogate is replaced with '?'
+        ++length;
+      }
+    }
+
+    return length;
+  }
+
+  /**
+   * Returns the length in bytes of the specified entity as it will be written
+   * by the specified {@link MessageBodyWriter}, or {@code -1} if the length
+   * cannot be determined without writing the entity. The length reported by
+   * {@link MessageBodyWriter#getSize} is used if available, and otherwise the
+   * length is derived from the entity if it is written by one of the built-in
+   * {@code byte[]}, {@link File} or {@link String} providers.
+   */
+  @SuppressWarnings({"deprecation", "rawtypes", "unchecked"})
+  private static long getContentLength(final MessageBodyWriter messageBodyWriter, final Object entity, final Annotation[] annotations, final MediaType mediaType) {
+    final long size = messageBodyWriter.getSize(entity, entity.getClass(), null, annotations, mediaType);
+    if (size >= 0)
+      return size;
+
+    if (messageBodyWriter.getClass() == BytesProvider.class)
+      return ((byte[])entity).length;
+
+    if (messageBodyWriter.getClass() == FileProvider.class)
+      return ((File)entity).length();
+
+    if (messageBodyWriter.getClass() == StringProvider.class && mediaType != null) {
+      final Charset charset = ProviderUtil.getCharset(mediaType);
+      if (StandardCharsets.UTF_8.equals(charset))
+        return getUtf8Length((String)entity);
+
+      if (StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset))
+        return ((String)entity).length();
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the entry of the specified {@link HttpCache} that may satisfy this
+   * invocation, either directly if it is fresh, or after revalidation. Unsafe
+   * methods invalidate the entry for the URL of this invocation.
+   */
+  private HttpCache.Entry getCacheEntry(final HttpCache cache) {
+    if (!HttpMethod.GET.equals(method)) {
+      if (!HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method) && !"TRACE".equals(method))
+        cache.remove(url.toString());
+
+      return null;
+    }
+
+    // NOTE: Conditional and range requests are passed through as is
+    if (cacheControl != null && cacheControl.isNoStore() || headers.containsKey(HttpHeaders.IF_NONE_MATCH) || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE) || headers.containsKey("Range"))
+      return null;
+
+    return cache.get(url.toString(), headers);
+  }
+
+  private boolean isFresh(final HttpCache.Entry entry, final long now) {
+    return (cacheControl == null || !cacheControl.isNoCache()) && entry.isFresh(now, cacheControl == null ? -1 : cacheControl.getMaxAge());
+  }
 
+  private static Response newResponse(final ProvidersImpl providers, final HttpCache.Entry entry, final long now) {
+    final HttpHeadersImpl headers = new HttpHeadersImpl(entry.headers);
+    headers.putSingle("Age", String.valueOf(entry.getAge(now) / 1000));
+    final StatusType status = entry.reasonPhrase != null ? Responses.from(entry.status, entry.reasonPhrase) : Responses.from(entry.status);
+    return new ResponseImpl(providers, null, status, headers, null, new ByteArrayInputStream(entry.body), null);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Connection connect(final HttpCache.Entry cached) throws IOException {
+    final Connection connection = client.getConnector().open(url, method);
+    if (headers != null)
+      for (final Map.Entry<String,List<String>> entry : headers.entrySet())
+        connection.setRequestProperty(entry.getKey(), CollectionUtil.toString(entry.getValue(), ','));
+
+    final List<HttpCookie> storedCookies = client.getConcurrentCookieStore().get(url.getHost(), url.getPath(), "https".equalsIgnoreCase(url.getProtocol()));
+    if (cookies != null || storedCookies.size() > 0) {
+      final StringBuilder cookieHeader = new StringBuilder();
       if (cookies != null)
-        connection.setRequestProperty(HttpHeaders.COOKIE, CollectionUtil.toString(cookies, ';'));
+        cookieHeader.append(CollectionUtil.toString(cookies, ';'));
+
+      for (final HttpCookie cookie : storedCookies) {
+        if (cookieHeader.length() > 0)
+          cookieHeader.append("; ");
+
+        cookieHeader.append(cookie.getName()).append('=').append(cookie.getValue());
+      }
 
-      if (cacheControl != null)
-        connection.setRequestProperty(HttpHeaders.CACHE_CONTROL, cacheControl.toString());
+      connection.setRequestProperty(HttpHeaders.COOKIE, cookieHeader.toString());
+    }
+
+    if (cacheControl != null)
+      connection.setRequestProperty(HttpHeaders.CACHE_CONTROL, cacheControl.toString());
+
+    if (cached != null) {
+      if (cached.etag != null)
+        connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, cached.etag);
+
+      if (cached.lastModified != null)
+        connection.setRequestProperty(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+    }
+
+    if (entity != null) {
+      final MessageBodyWriter messageBodyWriter = providers.getMessageBodyWriter(entity.getEntity().getClass(), null, entity.getAnnotations(), entity.getMediaType());
+      if (messageBodyWriter == null)
+        throw new ProcessingException("Provider not found for " + entity.getEntity().getClass().getName());
+
+      final long contentLength = getContentLength(messageBodyWriter, entity.getEntity(), entity.getAnnotations(), entity.getMediaType());
+      if (contentLength >= 0)
+        connection.setFixedLengthStreamingMode(contentLength);
       else
-        connection.setUseCaches(false);
+        connection.setChunkedStreamingMode(client.getChunkSize());
 
-      final ProvidersImpl providers;
-      if (entity != null) {
-        providers = new ProvidersImpl(this.providers, new AnnotationInjector(null, new RequestImpl(method), null, null, new HttpHeadersImpl(connection.getRequestProperties()), null, null));
-        connection.setDoOutput(true);
-        final MessageBodyWriter messageBodyWriter = providers.getMessageBodyWriter(entity.getEntity().getClass(), null, entity.getAnnotations(), entity.getMediaType());
-        if (messageBodyWriter == null)
-          throw new ProcessingException("Provider not found for " + entity.getEntity().getClass().getName());
+      if (client.isExpectContinue())
+        connection.setRequestProperty("Expect", "100-continue");
 
-        final OutputStream entityStream = connection.getOutputStream();
+      final OutputStream entityStream = connection.getOutputStream();
+      try {
         ProviderUtil.writeTo(messageBodyWriter, entity.getEntity(), entity.getEntity().getClass(), null, entity.getAnnotations(), entity.getMediaType(), headers == null ? null : headers.getMirrorMap(), entityStream);
-        entityStream.flush();
+        entityStream.close();
       }
-      else {
-        providers = this.providers;
+      catch (final Throwable t) {
+        // NOTE: The entity stream is not closed, because closing it would complete the request with a truncated entity
+        connection.disconnect();
+        throw t;
       }
+    }
 
-      final int responseCode = connection.getResponseCode();
-      final String reasonPhrase = connection.getResponseMessage();
-      final StatusType status = reasonPhrase != null ? Responses.from(responseCode, reasonPhrase) : Responses.from(responseCode);
-      final HttpHeadersImpl headers = new HttpHeadersImpl(connection.getHeaderFields());
-
-      final CookieManager cookieManager = new CookieManager();
-      CookieHandler.setDefault(cookieManager);
-
-      final List<String> setCookies = headers.get(HttpHeaders.SET_COOKIE);
-      final Map<String,NewCookie> cookies;
-      if (setCookies != null) {
-        cookies = new HashMap<>();
-        final List<HttpCookie> httpCookies = cookieManager.getCookieStore().getCookies();
-        for (final String setCookie : setCookies) {
-          try {
-            cookieManager.getCookieStore().add(null, HttpCookie.parse(setCookie).get(0));
-          }
-          catch (final IllegalArgumentException e) {
+    return connection;
+  }
+
+  private Response newResponse(final Connection connection, final HttpCache cache, final HttpCache.Entry cached) throws IOException {
+    final int responseCode = connection.getResponseCode();
+    final Map<String,List<String>> headerFields = connection.getHeaderFields();
+    if (responseCode == 304 && cached != null) {
+      final InputStream in = connection.getInputStream();
+      if (in != null)
+        in.close();
+
+      final long now = System.currentTimeMillis();
+      return newResponse(providers, cache.revalidate(url.toString(), cached, headerFields, this.headers, now), now);
+    }
+
+    final String reasonPhrase = connection.getResponseMessage();
+    final StatusType status = reasonPhrase != null ? Responses.from(responseCode, reasonPhrase) : Responses.from(responseCode);
+    final HttpHeadersImpl headers = new HttpHeadersImpl(headerFields);
+
+    final List<String> setCookies = headers.get(HttpHeaders.SET_COOKIE);
+    final Map<String,NewCookie> cookies;
+    if (setCookies != null) {
+      cookies = new HashMap<>();
+      final ConcurrentCookieStore cookieStore = client.getConcurrentCookieStore();
+      Date date = null;
+      for (final String setCookie : setCookies) {
+        final List<HttpCookie> httpCookies;
+        try {
+          httpCookies = HttpCookie.parse(setCookie);
+        }
+        catch (final IllegalArgumentException e) {
+          continue;
+        }
+
+        for (final HttpCookie httpCookie : httpCookies) {
+          if (!cookieStore.add(url.getHost(), url.getPath(), httpCookie))
             continue;
+
+          final int maxAge = (int)httpCookie.getMaxAge();
+          final Date expiry;
+          if (maxAge < 0) {
+            expiry = null;
           }
+          else {
+            if (date == null && (date = headers.getDate()) == null)
+              date = new Date();
 
-          for (final HttpCookie httpCookie : httpCookies) {
-            final Date expiry = Dates.addTime(headers.getDate(), 0, 0, (int)httpCookie.getMaxAge());
-            final NewCookie cookie = new NewCookie(httpCookie.getName(), httpCookie.getValue(), httpCookie.getPath(), httpCookie.getDomain(), httpCookie.getVersion(), httpCookie.getComment(), (int)httpCookie.getMaxAge(), expiry, httpCookie.getSecure(), httpCookie.isHttpOnly());
-            cookies.put(cookie.getName(), cookie);
+            expiry = new Date(date.getTime() + maxAge * 1000L);
           }
+
+          final NewCookie cookie = new NewCookie(httpCookie.getName(), httpCookie.getValue(), httpCookie.getPath(), httpCookie.getDomain(), httpCookie.getVersion(), httpCookie.getComment(), maxAge, expiry, httpCookie.getSecure(), httpCookie.isHttpOnly());
+          cookies.put(cookie.getName(), cookie);
         }
       }
+    }
+    else {
+      cookies = null;
+    }
+
+    InputStream entityStream = connection.getInputStream();
+    if (cache != null && entityStream != null && HttpMethod.GET.equals(method) && (cacheControl == null || !cacheControl.isNoStore()) && cache.isCacheable(responseCode, headerFields)) {
+      final long maxEntitySize = cache.getMaxEntitySize();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      for (int len; (len = entityStream.read(buffer)) != -1;) {
+        out.write(buffer, 0, len);
+        if (out.size() > maxEntitySize)
+          break;
+      }
+
+      final byte[] body = out.toByteArray();
+      if (body.length > maxEntitySize) {
+        entityStream = new SequenceInputStream(new ByteArrayInputStream(body), entityStream);
+      }
       else {
-        cookies = null;
+        entityStream.close();
+        entityStream = new ByteArrayInputStream(body);
+        cache.put(url.toString(), responseCode, reasonPhrase, headerFields, body, this.headers, System.currentTimeMillis());
       }
+    }
+
+    return new ResponseImpl(providers, null, status, headers, cookies, entityStream, null);
+  }
 
-      return new ResponseImpl(providers, null, status, headers, cookies, 200 <= responseCode && responseCode < 400 ? connection.getInputStream() : connection.getErrorStream(), null);
+  @Override
+  public Response invoke() {
+    try {
+      final HttpCache cache = client.getCache();
+      final HttpCache.Entry cached = cache == null ? null : getCacheEntry(cache);
+      if (cached != null) {
+        final long now = System.currentTimeMillis();
+        if (isFresh(cached, now))
+          return newResponse(providers, cached, now);
+      }
+
+      return newResponse(connect(cached), cache, cached);
     }
     catch (final IOException e) {
       throw new ProcessingException(e);
     }
   }
 
+  /**
+   * Performs this invocation without blocking the calling thread. The
+   * connection is opened and the request entity is written on the executor of
+   * the client, and a thread is held while waiting for the response only if
+   * the {@link Connector} blocks. The returned {@link CompletableFuture} is
+   * completed on the executor of the client, with a
+   * {@link ProcessingException} if the invocation has failed.
+   *
+   * @return A {@link CompletableFuture} of the {@link Response}.
+   */
+  CompletableFuture<Response> invokeAsync() {
+    final CompletableFuture<Response> future = new CompletableFuture<>();
+    try {
+      client.assertNotClosed();
+      final Executor executor = client.getExecutor();
+      final HttpCache cache = client.getCache();
+      final HttpCache.Entry cached = cache == null ? null : getCacheEntry(cache);
+      if (cached != null) {
+        final long now = System.currentTimeMillis();
+        if (isFresh(cached, now)) {
+          executor.execute(() -> future.complete(newResponse(providers, cached, now)));
+          return future;
+        }
+      }
+
+      executor.execute(() -> {
+        try {
+          final Connection connection = connect(cached);
+          connection.sendAsync(executor).whenCompleteAsync((v, t) -> {
+            try {
+              if (t != null)
+                throw t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+              future.complete(newResponse(connection, cache, cached));
+            }
+            catch (final Throwable e) {
+              future.completeExceptionally(e instanceof ProcessingException ? e : new ProcessingException(e));
+            }
+          }, executor);
+        }
+        catch (final Throwable t) {
+          future.completeExceptionally(t instanceof IOException ? new ProcessingException(t) : t);
+        }
+      });
+    }
+    catch (final Throwable t) {
+      future.completeExceptionally(t instanceof IOException ? new ProcessingException(t) : t);
+    }
+
+    return future;
+  }
+
   @Override
   public <T>T invoke(final Class<T> responseType) {
     return invoke().readEntity(responseType);
@@ -183,43 +425,24 @@ public class InvocationImpl implements Invocation {
     return invoke().readEntity(responseType);
   }
 
-  private ExecutorService getExecutorService() {
-    if (executorService == null)
-      throw new ProcessingException("ExecutorService was not provided");
-
-    return executorService;
-  }
-
   @Override
   public Future<Response> submit() {
-    return getExecutorService().submit(() -> invoke());
+    return invokeAsync();
   }
 
   @Override
   public <T>Future<T> submit(final Class<T> responseType) {
-    return getExecutorService().submit(() -> invoke().readEntity(responseType));
+    return invokeAsync().thenApply(response -> response.readEntity(responseType));
   }
 
   @Override
   public <T>Future<T> submit(final GenericType<T> responseType) {
-    return getExecutorService().submit(() -> invoke().readEntity(responseType));
+    return invokeAsync().thenApply(response -> response.readEntity(responseType));
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public <T>Future<T> submit(final InvocationCallback<T> callback) {
-    client.assertNotClosed();
-    return getExecutorService().submit(() -> {
-      try {
-        final T entity = (T)invoke().getEntity();
-        callback.completed(entity);
-        return entity;
-      }
-      catch (final Throwable t) {
-        callback.failed(t);
-        throw t;
-      }
-    });
+    return AsyncInvokerImpl.complete(invokeAsync(), callback);
   }
 
   public static class BuilderImpl extends Invoker<Response> implements Invocation.Builder {
@@ -271,15 +494,19 @@ public class InvocationImpl implements Invocation {
       return this;
     }
 
+    private List<Cookie> getCookies() {
+      return cookies == null ? cookies = new ArrayList<>() : cookies;
+    }
+
     @Override
     public Invocation.Builder cookie(final Cookie cookie) {
-      cookies.add(cookie);
+      getCookies().add(cookie);
       return this;
     }
 
     @Override
     public Invocation.Builder cookie(final String name, final String value) {
-      cookies.add(new Cookie(name, value));
+      getCookies().add(new Cookie(name, value));
       return this;
     }
 
@@ -323,15 +550,22 @@ public class InvocationImpl implements Invocation {
 
     @Override
     public CompletionStageRxInvoker rx() {
-      // TODO
-      return null;
+      client.assertNotClosed();
+      return new CompletionStageRxInvokerImpl(client, providers, url, requestHeaders, cookies, cacheControl, executorService, connectTimeout, readTimeout);
     }
 
     @Override
     @SuppressWarnings("rawtypes")
     public <T extends RxInvoker>T rx(final Class<T> clazz) {
-      // TODO
-      return null;
+      client.assertNotClosed();
+      if (clazz.isAssignableFrom(CompletionStageRxInvokerImpl.class))
+        return clazz.cast(rx());
+
+      for (final Object instance : client.getConfiguration().getInstances())
+        if (instance instanceof RxInvokerProvider && ((RxInvokerProvider<?>)instance).isProviderFor(clazz))
+          return clazz.cast(((RxInvokerProvider<?>)instance).getRxInvoker(this, executorService));
+
+      throw new IllegalStateException("RxInvokerProvider for " + clazz.getName() + " is not registered");
     }
 
     @Override
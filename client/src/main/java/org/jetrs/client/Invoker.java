@@ -87,6 +87,6 @@ abstract class Invoker<R> {
     if (entity != null && entity.getMediaType() != null)
       headers.putSingle(HttpHeaders.CONTENT_TYPE, entity.getMediaType());
 
-    return new InvocationImpl(client, providers, url, method, entity, headers.getMirrorMap(), cookies, cacheControl, executorService, connectTimeout, readTimeout);
+    return new InvocationImpl(client, providers, url, method, entity, headers.getMirrorMap(), cookies, cacheControl);
   }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ package org.jetrs.client;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
@@ -30,27 +31,56 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 
 import org.jetrs.common.core.ConfigurableImpl;
+import org.jetrs.common.core.UriTemplate;
 import org.jetrs.common.ext.ProvidersImpl;
 
 public class WebTargetImpl implements ConfigurableImpl<WebTarget>, WebTarget {
   private final ClientImpl client;
   private final ProvidersImpl providers;
   private final Configuration config;
-  private final UriBuilder uriBuilder;
+  private final UriTemplate template;
   private final ExecutorService executorService;
   private final long connectTimeout;
   private final long readTimeout;
+  private URL url;
 
   WebTargetImpl(final ClientImpl client, final ProvidersImpl providers, final Configuration config, final UriBuilder uriBuilder, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
     this.client = client;
     this.providers = providers;
     this.config = config;
-    this.uriBuilder = uriBuilder;
+    this.template = UriTemplate.compile(uriBuilder.toTemplate());
     this.executorService = executorService;
     this.connectTimeout = connectTimeout;
     this.readTimeout = readTimeout;
   }
 
+  private WebTargetImpl(final WebTargetImpl copy, final UriTemplate template) {
+    this.client = copy.client;
+    this.providers = copy.providers;
+    this.config = copy.config;
+    this.template = template;
+    this.executorService = copy.executorService;
+    this.connectTimeout = copy.connectTimeout;
+    this.readTimeout = copy.readTimeout;
+  }
+
+  /**
+   * Returns the specified map, or throws a {@link NullPointerException} if it
+   * is null or contains a null name or value, as required by
+   * {@link WebTarget#resolveTemplates(Map)}.
+   */
+  private static Map<String,Object> requireNonNull(final Map<String,Object> templateValues) {
+    for (final Map.Entry<String,Object> entry : Objects.requireNonNull(templateValues).entrySet())
+      if (entry.getKey() == null || entry.getValue() == null)
+        throw new NullPointerException("Null template name or value: " + entry.getKey());
+
+    return templateValues;
+  }
+
+  private WebTarget derive(final UriTemplate template) {
+    return template == this.template ? this : new WebTargetImpl(this, template);
+  }
+
   @Override
   public Configuration getConfiguration() {
     return config;
@@ -58,73 +88,69 @@ public class WebTargetImpl implements ConfigurableImpl<WebTarget>, WebTarget {
 
   @Override
   public URI getUri() {
-    return uriBuilder.build();
+    return template.toURI();
+  }
+
+  private URL getUrl() throws MalformedURLException {
+    // NOTE: This target is immutable, so its URL is resolved only once
+    return url == null ? url = getUri().toURL() : url;
   }
 
   @Override
   public UriBuilder getUriBuilder() {
-    return uriBuilder;
+    return UriBuilder.fromUri(template.toString());
   }
 
   @Override
   public WebTarget path(final String path) {
-    uriBuilder.path(path);
-    return this;
+    return derive(template.appendPath(path));
   }
 
   @Override
   public WebTarget resolveTemplate(final String name, final Object value) {
-    uriBuilder.resolveTemplate(Objects.requireNonNull(name), value);
-    return this;
+    return derive(template.resolve(Objects.requireNonNull(name), Objects.requireNonNull(value), true, false));
   }
 
   @Override
   public WebTarget resolveTemplate(final String name, final Object value, final boolean encodeSlashInPath) {
-    uriBuilder.resolveTemplate(Objects.requireNonNull(name), value, encodeSlashInPath);
-    return this;
+    return derive(template.resolve(Objects.requireNonNull(name), Objects.requireNonNull(value), encodeSlashInPath, false));
   }
 
   @Override
   public WebTarget resolveTemplateFromEncoded(final String name, final Object value) {
-    uriBuilder.resolveTemplate(Objects.requireNonNull(name), value);
-    return this;
+    return derive(template.resolve(Objects.requireNonNull(name), Objects.requireNonNull(value), false, true));
   }
 
   @Override
   public WebTarget resolveTemplates(final Map<String,Object> templateValues) {
-    uriBuilder.resolveTemplates(templateValues);
-    return this;
+    return derive(template.resolve(requireNonNull(templateValues), true, false));
   }
 
   @Override
   public WebTarget resolveTemplates(final Map<String,Object> templateValues, final boolean encodeSlashInPath) {
-    uriBuilder.resolveTemplates(templateValues, encodeSlashInPath);
-    return this;
+    return derive(template.resolve(requireNonNull(templateValues), encodeSlashInPath, false));
   }
 
   @Override
   public WebTarget resolveTemplatesFromEncoded(final Map<String,Object> templateValues) {
-    uriBuilder.resolveTemplatesFromEncoded(templateValues);
-    return this;
+    return derive(template.resolve(requireNonNull(templateValues), false, true));
   }
 
   @Override
   public WebTarget matrixParam(final String name, final Object ... values) {
-    uriBuilder.matrixParam(name, values);
-    return this;
+    return derive(template.appendMatrixParam(name, values));
   }
 
   @Override
   public WebTarget queryParam(final String name, final Object ... values) {
-    uriBuilder.queryParam(name, values);
-    return this;
+    return derive(template.appendQueryParam(name, values));
   }
 
   @Override
   public Invocation.Builder request() {
     client.assertNotClosed();
     try {
-      return new InvocationImpl.BuilderImpl(client, providers, getUri().toURL(), executorService, connectTimeout, readTimeout);
+      return new InvocationImpl.BuilderImpl(client, providers, getUrl(), executorService, connectTimeout, readTimeout);
     }
     catch (final MalformedURLException e) {
       throw new ProcessingException(e);
@@ -135,7 +161,7 @@ public class WebTargetImpl implements ConfigurableImpl<WebTarget>, WebTarget {
   public Invocation.Builder request(final String ... acceptedResponseTypes) {
     client.assertNotClosed();
     try {
-      return new InvocationImpl.BuilderImpl(client, providers, getUri().toURL(), executorService, connectTimeout, readTimeout, acceptedResponseTypes);
+      return new InvocationImpl.BuilderImpl(client, providers, getUrl(), executorService, connectTimeout, readTimeout, acceptedResponseTypes);
     }
     catch (final MalformedURLException e) {
       throw new ProcessingException(e);
@@ -146,7 +172,7 @@ public class WebTargetImpl implements ConfigurableImpl<WebTarget>, WebTarget {
   public Invocation.Builder request(final MediaType ... acceptedResponseTypes) {
     client.assertNotClosed();
     try {
-      return new InvocationImpl.BuilderImpl(client, providers, getUri().toURL(), executorService, connectTimeout, readTimeout, acceptedResponseTypes);
+      return new InvocationImpl.BuilderImpl(client, providers, getUrl(), executorService, connectTimeout, readTimeout, acceptedResponseTypes);
     }
     catch (final MalformedURLException e) {
       throw new ProcessingException(e);
@@ -0,0 +1,283 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+/**
+ * A {@link Connector} based on {@link HttpClient}, which multiplexes requests
+ * over pooled HTTP/2 connections where the server supports it, and falls back
+ * to pooled HTTP/1.1 connections otherwise. One {@link HttpClient} is built per
+ * {@link ClientImpl}, and is released in {@link #close()}.
+ * <p>
+ * Request entities with a streaming mode are sent through a bounded
+ * {@link StreamingPipe} while they are written, and an
+ * {@code Expect: 100-continue} request header is mapped to
+ * {@link HttpRequest.Builder#expectContinue(boolean)}.
+ * <p>
+ * {@link HttpClient} does not accept a {@link HostnameVerifier}, so
+ * {@link ClientImpl} selects the {@link HttpURLConnectionConnector} whenever a
+ * verifier is configured.
+ */
+public class HttpClientConnector implements Connector {
+  private static final Map<String,String> irregularNames = new HashMap<>();
+
+  static {
+    irregularNames.put("etag", "ETag");
+    irregularNames.put("www-authenticate", "WWW-Authenticate");
+    irregularNames.put("content-md5", "Content-MD5");
+    irregularNames.put("te", "TE");
+  }
+
+  private static final int pipeChunkSize = 65536;
+  private static final int pipeCapacity = 8;
+
+  private static boolean isRestricted(final String name) {
+    return "Connection".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name) || "Expect".equalsIgnoreCase(name) || "Host".equalsIgnoreCase(name) || "Upgrade".equalsIgnoreCase(name);
+  }
+
+  /**
+   * HTTP/2 header names are lowercase on the wire, but the keys of
+   * {@code HttpHeadersImpl} are case-sensitive, so names are restored to their
+   * canonical form (i.e. {@code "content-type"} to {@code "Content-Type"}).
+   */
+  private static String toCanonicalName(final String name) {
+    final String irregular = irregularNames.get(name);
+    if (irregular != null)
+      return irregular;
+
+    final char[] chars = name.toCharArray();
+    boolean upper = true;
+    for (int i = 0; i < chars.length; ++i) {
+      final char ch = chars[i];
+      if (upper && 'a' <= ch && ch <= 'z')
+        chars[i] = (char)(ch - 32);
+
+      upper = ch == '-';
+    }
+
+    return new String(chars);
+  }
+
+  private final HttpClient httpClient;
+  private final Duration readTimeout;
+
+  public HttpClientConnector(final SSLContext sslContext, final HostnameVerifier verifier, final ExecutorService executorService, final long connectTimeout, final long readTimeout) {
+    final HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(HttpClient.Redirect.NORMAL);
+    if (sslContext != null)
+      builder.sslContext(sslContext);
+
+    if (executorService != null)
+      builder.executor(executorService);
+
+    if (connectTimeout > 0)
+      builder.connectTimeout(Duration.ofMillis(connectTimeout));
+
+    this.httpClient = builder.build();
+    this.readTimeout = readTimeout > 0 ? Duration.ofMillis(readTimeout) : null;
+  }
+
+  @Override
+  public Connection open(final URL url, final String method) throws IOException {
+    final HttpRequest.Builder builder;
+    try {
+      builder = HttpRequest.newBuilder(url.toURI());
+    }
+    catch (final URISyntaxException e) {
+      throw new IOException(e);
+    }
+
+    if (readTimeout != null)
+      builder.timeout(readTimeout);
+
+    return new Connection() {
+      private long contentLength = -1;
+      private int chunkSize;
+      private ByteArrayOutputStream entity;
+      private StreamingPipe pipe;
+      private CompletableFuture<HttpResponse<InputStream>> exchange;
+      private HttpResponse<?> response;
+      private InputStream body;
+
+      private HttpRequest newRequest() {
+        return builder.method(method, entity == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(entity.toByteArray())).build();
+      }
+
+      private HttpResponse<?> getResponse() throws IOException {
+        if (response != null)
+          return response;
+
+        try {
+          final HttpResponse<InputStream> response = exchange != null ? exchange.get() : httpClient.send(newRequest(), HttpResponse.BodyHandlers.ofInputStream());
+          this.body = response.body();
+          return this.response = response;
+        }
+        catch (final ExecutionException e) {
+          if (e.getCause() instanceof IOException)
+            throw (IOException)e.getCause();
+
+          throw new IOException(e.getCause());
+        }
+        catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          final InterruptedIOException ie = new InterruptedIOException(e.getMessage());
+          ie.initCause(e);
+          throw ie;
+        }
+      }
+
+      @Override
+      public CompletableFuture<Void> sendAsync(final Executor executor) {
+        if (response != null)
+          return CompletableFuture.completedFuture(null);
+
+        if (exchange != null) {
+          return exchange.thenAccept(response -> {
+            this.body = response.body();
+            this.response = response;
+          });
+        }
+
+        // NOTE: The body is received in full before the future is completed, so
+        // NOTE: that reading the entity on the callback executor does not block.
+        return httpClient.sendAsync(newRequest(), HttpResponse.BodyHandlers.ofByteArray()).thenAccept(response -> {
+          this.body = new ByteArrayInputStream(response.body());
+          this.response = response;
+        });
+      }
+
+      @Override
+      public void setRequestProperty(final String name, final String value) {
+        // NOTE: HttpClient manages the restricted headers itself, and throws
+        // NOTE: IllegalArgumentException if they are set explicitly.
+        if ("Expect".equalsIgnoreCase(name))
+          builder.expectContinue("100-continue".equalsIgnoreCase(value));
+        else if (!isRestricted(name))
+          builder.setHeader(name, value);
+      }
+
+      @Override
+      public void setFixedLengthStreamingMode(final long contentLength) {
+        this.contentLength = contentLength;
+        this.chunkSize = pipeChunkSize;
+      }
+
+      @Override
+      public void setChunkedStreamingMode(final int chunkSize) {
+        this.contentLength = -1;
+        this.chunkSize = chunkSize > 0 ? chunkSize : pipeChunkSize;
+      }
+
+      @Override
+      public OutputStream getOutputStream() {
+        if (exchange != null)
+          throw new IllegalStateException("Request entity is already being streamed");
+
+        if (chunkSize == 0 || contentLength == 0)
+          return entity == null ? entity = new ByteArrayOutputStream() : entity;
+
+        // NOTE: The exchange is started here, so that the entity is sent while
+        // NOTE: it is being written, rather than being buffered in full.
+        pipe = new StreamingPipe(chunkSize, pipeCapacity);
+        final HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> pipe.in);
+        builder.method(method, contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : publisher);
+        pipe.setExchange(exchange = httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream()));
+        return pipe.out;
+      }
+
+      @Override
+      public void disconnect() {
+        entity = null;
+        // NOTE: Aborting the pipe fails the read of the request entity, which makes HttpClient abort the exchange
+        // NOTE: rather than complete the request with a truncated entity.
+        if (pipe != null)
+          pipe.abort();
+
+        if (exchange != null)
+          exchange.cancel(true);
+
+        if (body != null) {
+          try {
+            body.close();
+          }
+          catch (final IOException e) {
+          }
+        }
+      }
+
+      @Override
+      public int getResponseCode() throws IOException {
+        return getResponse().statusCode();
+      }
+
+      @Override
+      public String getResponseMessage() {
+        return null;
+      }
+
+      @Override
+      public Map<String,List<String>> getHeaderFields() throws IOException {
+        final Map<String,List<String>> headers = getResponse().headers().map();
+        final Map<String,List<String>> canonical = new HashMap<>(headers.size());
+        for (final Map.Entry<String,List<String>> entry : headers.entrySet())
+          canonical.put(toCanonicalName(entry.getKey()), entry.getValue());
+
+        return canonical;
+      }
+
+      @Override
+      public InputStream getInputStream() throws IOException {
+        getResponse();
+        return body;
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    // NOTE: HttpClient is AutoCloseable as of JDK 21. On earlier JDKs its
+    // NOTE: selector thread exits once the client is no longer reachable.
+    if (httpClient instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable)httpClient).close();
+      }
+      catch (final Exception e) {
+      }
+    }
+  }
+}
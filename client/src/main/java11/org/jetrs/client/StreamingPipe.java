@@ -0,0 +1,190 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pipe that hands chunks of a request entity from the thread writing
+ * the entity to the {@link java.net.http.HttpClient} thread that sends it. At
+ * most {@code capacity} chunks are held in memory, so the writer is throttled
+ * to the rate at which the entity is sent.
+ */
+class StreamingPipe {
+  private static final byte[] EOF = {};
+  private static final byte[] ABORT = {};
+
+  private final ArrayBlockingQueue<byte[]> queue;
+  private volatile Future<?> exchange;
+  private volatile boolean aborted;
+  final OutputStream out;
+  final InputStream in;
+
+  StreamingPipe(final int chunkSize, final int capacity) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.out = new PipeOutputStream(chunkSize);
+    this.in = new PipeInputStream();
+  }
+
+  /**
+   * Sets the {@link Future} of the exchange that consumes this pipe, so that a
+   * writer blocked on a full pipe is released if the exchange ends early.
+   *
+   * @param exchange The {@link Future} of the exchange.
+   */
+  void setExchange(final Future<?> exchange) {
+    this.exchange = exchange;
+  }
+
+  /**
+   * Aborts this pipe, so that the writer fails on its next write, and the
+   * reader fails rather than reaching the end of a truncated entity.
+   */
+  void abort() {
+    aborted = true;
+    do {
+      queue.clear();
+    }
+    while (!queue.offer(ABORT));
+  }
+
+  private void put(final byte[] chunk) throws IOException {
+    try {
+      while (aborted || !queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+        if (aborted)
+          throw new IOException("Request entity was aborted");
+
+        final Future<?> exchange = this.exchange;
+        if (exchange != null && exchange.isDone())
+          throw new IOException("Exchange ended before the request entity was sent");
+      }
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+
+  private byte[] take() throws IOException {
+    try {
+      final byte[] chunk = queue.take();
+      if (chunk == ABORT)
+        throw new IOException("Request entity was aborted");
+
+      return chunk;
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+
+  private final class PipeOutputStream extends OutputStream {
+    private final byte[] buf;
+    private int count;
+    private boolean closed;
+
+    private PipeOutputStream(final int chunkSize) {
+      this.buf = new byte[chunkSize];
+    }
+
+    private void drain() throws IOException {
+      put(Arrays.copyOf(buf, count));
+      count = 0;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (count == buf.length)
+        drain();
+
+      buf[count++] = (byte)b;
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (count == buf.length)
+          drain();
+
+        final int n = Math.min(len, buf.length - count);
+        System.arraycopy(b, off, buf, count, n);
+        count += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed)
+        return;
+
+      closed = true;
+      if (count > 0)
+        drain();
+
+      put(EOF);
+    }
+  }
+
+  private final class PipeInputStream extends InputStream {
+    private byte[] chunk;
+    private int pos;
+
+    private boolean next() throws IOException {
+      if (aborted)
+        throw new IOException("Request entity was aborted");
+
+      if (chunk == EOF)
+        return false;
+
+      if (chunk == null || pos == chunk.length) {
+        chunk = take();
+        pos = 0;
+      }
+
+      return chunk != EOF;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return next() ? chunk[pos++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0)
+        return 0;
+
+      if (!next())
+        return -1;
+
+      final int n = Math.min(len, chunk.length - pos);
+      System.arraycopy(chunk, pos, b, off, n);
+      pos += n;
+      return n;
+    }
+  }
+}
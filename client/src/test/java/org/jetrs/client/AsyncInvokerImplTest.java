@@ -0,0 +1,204 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class AsyncInvokerImplTest {
+  private static HttpServer server;
+  private static String url;
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      try {
+        ConnectorTest.readAll(exchange.getRequestBody());
+        final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", MediaType.TEXT_PLAIN);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+      }
+      finally {
+        exchange.close();
+      }
+    });
+    server.start();
+    url = "http://localhost:" + server.getAddress().getPort() + "/";
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    server.stop(0);
+  }
+
+  private static final class Callback implements InvocationCallback<String> {
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final boolean throwOnCompleted;
+
+    private Callback(final boolean throwOnCompleted) {
+      this.throwOnCompleted = throwOnCompleted;
+    }
+
+    @Override
+    public void completed(final String response) {
+      completed.incrementAndGet();
+      if (throwOnCompleted)
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public void failed(final Throwable throwable) {
+      failed.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testAsyncWrite() throws Exception {
+    final AtomicReference<Thread> writer = new AtomicReference<>();
+    final StreamingOutput entity = out -> {
+      writer.set(Thread.currentThread());
+      out.write(new byte[100000]);
+    };
+
+    final Client client = ClientBuilder.newClient();
+    try {
+      final Future<Response> future = client.target(url).request().async().post(Entity.entity(entity, MediaType.APPLICATION_OCTET_STREAM));
+      try (final Response response = future.get(5, TimeUnit.SECONDS)) {
+        assertEquals("ok", response.readEntity(String.class));
+      }
+
+      // NOTE: The entity is written on a dedicated thread, rather than the calling thread or the common pool
+      assertNotSame(Thread.currentThread(), writer.get());
+      assertFalse(writer.get() instanceof ForkJoinWorkerThread);
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testAsyncCallback() throws Exception {
+    final Client client = ClientBuilder.newClient();
+    try {
+      final Callback callback = new Callback(false);
+      assertEquals("ok", client.target(url).request().async().get(callback).get(5, TimeUnit.SECONDS));
+      assertEquals(1, callback.completed.get());
+      assertEquals(0, callback.failed.get());
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testAsyncCallbackThrows() throws Exception {
+    final Client client = ClientBuilder.newClient();
+    try {
+      final Callback callback = new Callback(true);
+      try {
+        client.target(url).request().async().get(callback).get(5, TimeUnit.SECONDS);
+        fail("Expected ExecutionException");
+      }
+      catch (final ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+
+      // NOTE: failed() is not called after completed() has thrown
+      assertEquals(1, callback.completed.get());
+      assertEquals(0, callback.failed.get());
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testAsyncCallbackFailed() throws Exception {
+    final Client client = ClientBuilder.newClient();
+    try {
+      final Callback callback = new Callback(false);
+      try {
+        client.target("http://localhost:1/").request().async().get(callback).get(5, TimeUnit.SECONDS);
+        fail("Expected ExecutionException");
+      }
+      catch (final ExecutionException e) {
+        assertTrue(e.getCause() instanceof ProcessingException);
+      }
+
+      assertEquals(0, callback.completed.get());
+      assertEquals(1, callback.failed.get());
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testSubmit() throws Exception {
+    final Client client = ClientBuilder.newClient();
+    try {
+      assertEquals("ok", client.target(url).request().buildGet().submit(String.class).get(5, TimeUnit.SECONDS));
+
+      final Callback callback = new Callback(false);
+      assertEquals("ok", client.target(url).request().buildPost(Entity.text("hello")).submit(callback).get(5, TimeUnit.SECONDS));
+      assertEquals(1, callback.completed.get());
+      assertEquals(0, callback.failed.get());
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testRx() throws Exception {
+    final Client client = ClientBuilder.newClient();
+    try {
+      assertEquals("ok", client.target(url).request().rx().get(String.class).toCompletableFuture().get(5, TimeUnit.SECONDS));
+      assertEquals("ok", client.target(url).request().rx().post(Entity.text("hello"), String.class).toCompletableFuture().get(5, TimeUnit.SECONDS));
+    }
+    finally {
+      client.close();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.net.HttpCookie;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ConcurrentCookieStoreTest {
+  private static HttpCookie parse(final String setCookie) {
+    return HttpCookie.parse(setCookie).get(0);
+  }
+
+  @Test
+  public void testHostOnly() {
+    final ConcurrentCookieStore store = new ConcurrentCookieStore();
+    assertTrue(store.add("api.example.com", "/v1/users", parse("Set-Cookie: session=abc")));
+    assertEquals(1, store.get("api.example.com", "/v1/orders", false).size());
+    assertEquals(0, store.get("api.example.com", "/v2", false).size());
+    assertEquals(0, store.get("www.example.com", "/v1/users", false).size());
+  }
+
+  @Test
+  public void testDomain() {
+    final ConcurrentCookieStore store = new ConcurrentCookieStore();
+    assertTrue(store.add("api.example.com", "/", parse("Set-Cookie: id=1; Domain=.example.com; Path=/")));
+    assertFalse(store.add("api.example.com", "/", parse("Set-Cookie: id=2; Domain=other.com; Path=/")));
+    final List<HttpCookie> cookies = store.get("www.example.com", "/a", false);
+    assertEquals(1, cookies.size());
+    assertEquals("1", cookies.get(0).getValue());
+    assertEquals(1, store.getCookies().size());
+  }
+
+  @Test
+  public void testReplaceAndExpire() {
+    final ConcurrentCookieStore store = new ConcurrentCookieStore();
+    store.add("example.com", "/", parse("Set-Cookie: a=1; Path=/"));
+    store.add("example.com", "/", parse("Set-Cookie: a=2; Path=/"));
+    assertEquals("2", store.get("example.com", "/", false).get(0).getValue());
+    store.add("example.com", "/", parse("Set-Cookie: a=3; Path=/; Max-Age=0"));
+    assertEquals(0, store.get("example.com", "/", false).size());
+  }
+
+  @Test
+  public void testSecure() {
+    final ConcurrentCookieStore store = new ConcurrentCookieStore();
+    store.add("example.com", "/", parse("Set-Cookie: s=1; Path=/; Secure"));
+    assertEquals(0, store.get("example.com", "/", false).size());
+    assertEquals(1, store.get("example.com", "/", true).size());
+  }
+}
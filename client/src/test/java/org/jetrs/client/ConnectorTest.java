@@ -0,0 +1,254 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests of a {@link Connector} against a local server, which are run for each
+ * connector by a subclass.
+ */
+public abstract class ConnectorTest {
+  static final class Request {
+    final String method;
+    final Headers headers;
+    final int length;
+
+    private Request(final String method, final Headers headers, final int length) {
+      this.method = method;
+      this.headers = headers;
+      this.length = length;
+    }
+  }
+
+  private static final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+  private static HttpServer server;
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      try {
+        if ("/redirect".equals(exchange.getRequestURI().getPath())) {
+          exchange.getResponseHeaders().add("Location", "/echo");
+          exchange.sendResponseHeaders(302, -1);
+          return;
+        }
+
+        int length;
+        try {
+          length = readAll(exchange.getRequestBody()).length;
+        }
+        catch (final IOException e) {
+          length = -1;
+        }
+
+        requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestHeaders(), length));
+        if (length == -1)
+          return;
+
+        final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("x-custom-header", "custom");
+        exchange.getResponseHeaders().add("etag", "\"1\"");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+      }
+      finally {
+        exchange.close();
+      }
+    });
+    server.start();
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    server.stop(0);
+  }
+
+  static byte[] readAll(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    for (int len; (len = in.read(buffer)) != -1;)
+      out.write(buffer, 0, len);
+
+    return out.toByteArray();
+  }
+
+  static URL url(final String path) throws IOException {
+    return new URL("http://localhost:" + server.getAddress().getPort() + path);
+  }
+
+  static Request takeRequest() throws InterruptedException {
+    final Request request = requests.poll(5, TimeUnit.SECONDS);
+    assertNotNull("Request not received", request);
+    return request;
+  }
+
+  Connector connector;
+
+  abstract Connector newConnector();
+
+  @Before
+  public void before() {
+    requests.clear();
+    connector = newConnector();
+  }
+
+  @After
+  public void after() {
+    connector.close();
+  }
+
+  static String readBody(final Connection connection) throws IOException {
+    try (final InputStream in = connection.getInputStream()) {
+      return new String(readAll(in), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "GET");
+    connection.setRequestProperty("X-Test", "a, b");
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+
+    final Request request = takeRequest();
+    assertEquals("GET", request.method);
+    assertEquals("a, b", request.headers.getFirst("X-Test"));
+  }
+
+  @Test
+  public void testPost() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    try (final OutputStream out = connection.getOutputStream()) {
+      out.write(new byte[1000]);
+    }
+
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+    assertEquals(1000, takeRequest().length);
+  }
+
+  private void assertUpload(final Connection connection, final int length) throws IOException {
+    try (final OutputStream out = connection.getOutputStream()) {
+      for (int i = 0; i < length; ++i)
+        out.write(i);
+    }
+
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+  }
+
+  @Test
+  public void testFixedLength() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    connection.setFixedLengthStreamingMode(100000);
+    assertUpload(connection, 100000);
+
+    final Request request = takeRequest();
+    assertEquals("100000", request.headers.getFirst("Content-Length"));
+    assertEquals(100000, request.length);
+  }
+
+  @Test
+  public void testChunked() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    connection.setChunkedStreamingMode(8192);
+    assertUpload(connection, 100000);
+
+    final Request request = takeRequest();
+    assertEquals("chunked", request.headers.getFirst("Transfer-Encoding"));
+    assertEquals(100000, request.length);
+  }
+
+  @Test
+  public void testExpectContinue() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    connection.setRequestProperty("Expect", "100-continue");
+    connection.setFixedLengthStreamingMode(100000);
+    assertUpload(connection, 100000);
+
+    final Request request = takeRequest();
+    assertTrue("100-continue".equalsIgnoreCase(request.headers.getFirst("Expect")));
+    assertEquals(100000, request.length);
+  }
+
+  /**
+   * Asserts that a request entity of which only a part was written before the
+   * exchange was disconnected is not received as complete by the server.
+   */
+  private void assertDisconnect(final Connection connection) throws Exception {
+    final OutputStream out = connection.getOutputStream();
+    out.write(new byte[200000]);
+    out.flush();
+    connection.disconnect();
+
+    final Request request = requests.poll(1, TimeUnit.SECONDS);
+    if (request != null)
+      assertEquals(-1, request.length);
+  }
+
+  @Test
+  public void testDisconnectFixedLength() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    connection.setFixedLengthStreamingMode(400000);
+    assertDisconnect(connection);
+  }
+
+  @Test
+  public void testDisconnectChunked() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "POST");
+    connection.setChunkedStreamingMode(8192);
+    assertDisconnect(connection);
+  }
+
+  @Test
+  public void testSendAsync() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "GET");
+    connection.sendAsync(Runnable::run).get(5, TimeUnit.SECONDS);
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+  }
+
+  @Test
+  public void testRedirect() throws Exception {
+    final Connection connection = connector.open(url("/redirect"), "GET");
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+    assertEquals("GET", takeRequest().method);
+  }
+}
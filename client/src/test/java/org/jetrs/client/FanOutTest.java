@@ -0,0 +1,232 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+
+import org.jetrs.common.core.HttpHeadersImpl;
+import org.jetrs.common.core.ResponseImpl;
+import org.junit.Test;
+
+public class FanOutTest {
+  private static Response response(final Response.Status status) {
+    return new ResponseImpl(null, null, status, new HttpHeadersImpl(), null, new ByteArrayInputStream(new byte[0]), null);
+  }
+
+  private static FanOut add(final FanOut fanOut, final String host, final List<CompletableFuture<Response>> futures, final int[] started) {
+    final CompletableFuture<Response> future = new CompletableFuture<>();
+    futures.add(future);
+    return fanOut.add(host, () -> {
+      ++started[0];
+      return future;
+    });
+  }
+
+  private static FanOut newFanOut() {
+    return ((ClientImpl)ClientBuilder.newClient()).fanOut();
+  }
+
+  @Test
+  public void testCompletionOrder() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut();
+    for (int i = 0; i < 3; ++i)
+      add(fanOut, "h" + i, futures, started);
+
+    final FanOut.Results results = fanOut.submit();
+    assertEquals(3, started[0]);
+    assertNull(results.poll(10, TimeUnit.MILLISECONDS));
+
+    futures.get(2).complete(response(Response.Status.OK));
+    futures.get(0).completeExceptionally(new IllegalStateException());
+    futures.get(1).complete(response(Response.Status.NOT_FOUND));
+
+    FanOut.Outcome outcome = results.take();
+    assertEquals(2, outcome.getIndex());
+    assertTrue(outcome.isSuccessful());
+
+    outcome = results.take();
+    assertEquals(0, outcome.getIndex());
+    assertTrue(outcome.getException() instanceof IllegalStateException);
+
+    outcome = results.take();
+    assertEquals(1, outcome.getIndex());
+    assertFalse(outcome.isSuccessful());
+
+    assertNull(results.take());
+    assertEquals(3, results.all().get().size());
+  }
+
+  @Test
+  public void testMaxPerHost() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut().maxPerHost(2);
+    for (int i = 0; i < 5; ++i)
+      add(fanOut, "h", futures, started);
+
+    final FanOut.Results results = fanOut.submit();
+    assertEquals(2, started[0]);
+
+    futures.get(1).complete(response(Response.Status.OK));
+    assertEquals(3, started[0]);
+
+    futures.get(0).complete(response(Response.Status.OK));
+    futures.get(2).complete(response(Response.Status.OK));
+    assertEquals(5, started[0]);
+
+    futures.get(3).complete(response(Response.Status.OK));
+    futures.get(4).complete(response(Response.Status.OK));
+    assertTrue(results.all().isDone());
+  }
+
+  @Test
+  public void testQuorum() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut().maxPerHost(1).quorum(2);
+    for (int i = 0; i < 4; ++i)
+      add(fanOut, i < 3 ? "a" : "b", futures, started);
+
+    final FanOut.Results results = fanOut.submit();
+    assertEquals(2, started[0]);
+
+    futures.get(0).complete(response(Response.Status.OK));
+    futures.get(3).complete(response(Response.Status.OK));
+
+    final List<FanOut.Outcome> outcomes = results.all().get();
+    assertEquals(3, started[0]);
+    assertTrue(outcomes.get(0).isSuccessful());
+    assertTrue(outcomes.get(1).isCancelled());
+    assertTrue(outcomes.get(2).isCancelled());
+    assertTrue(outcomes.get(3).isSuccessful());
+  }
+
+  @Test
+  public void testCancelOnFailure() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut().cancelOnFailure();
+    for (int i = 0; i < 3; ++i)
+      add(fanOut, "h" + i, futures, started);
+
+    final FanOut.Results results = fanOut.submit();
+    futures.get(1).complete(response(Response.Status.INTERNAL_SERVER_ERROR));
+
+    final List<FanOut.Outcome> outcomes = results.all().get();
+    assertTrue(outcomes.get(0).isCancelled());
+    assertEquals(500, outcomes.get(1).getResponse().getStatus());
+    assertTrue(outcomes.get(2).isCancelled());
+
+    final Response late = response(Response.Status.OK);
+    futures.get(0).complete(late);
+    assertNull(outcomes.get(0).getResponse());
+    try {
+      late.getEntity();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+  }
+
+  @Test
+  public void testCancelBeforeStart() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut().deadline(10, TimeUnit.MILLISECONDS);
+    // NOTE: The deadline is exceeded while the first invocation is being started, after the second is ready to start
+    final CompletableFuture<Response> first = new CompletableFuture<>();
+    fanOut.add("h0", () -> {
+      try {
+        Thread.sleep(100);
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      return first;
+    });
+
+    add(fanOut, "h1", futures, started);
+
+    final List<FanOut.Outcome> outcomes = fanOut.submit().all().get(5, TimeUnit.SECONDS);
+    assertTrue(outcomes.get(0).getException() instanceof TimeoutException);
+    assertTrue(outcomes.get(1).getException() instanceof TimeoutException);
+    assertEquals(0, started[0]);
+  }
+
+  @Test
+  public void testDeadline() throws Exception {
+    final List<CompletableFuture<Response>> futures = new ArrayList<>();
+    final int[] started = new int[1];
+    final FanOut fanOut = newFanOut().deadline(50, TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 2; ++i)
+      add(fanOut, "h", futures, started);
+
+    final FanOut.Results results = fanOut.submit();
+    futures.get(0).complete(response(Response.Status.OK));
+
+    final List<FanOut.Outcome> outcomes = results.all().get(5, TimeUnit.SECONDS);
+    assertTrue(outcomes.get(0).isSuccessful());
+    assertTrue(outcomes.get(1).getException() instanceof TimeoutException);
+  }
+
+  @Test
+  public void testSynchronousFailures() throws Exception {
+    // NOTE: An executor that is shut down rejects each invocation before it is sent, so each invocation fails synchronously
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    final Client client = ClientBuilder.newBuilder().executorService(executor).build();
+    try {
+      final FanOut fanOut = ((ClientImpl)client).fanOut().maxPerHost(1);
+      final int len = 10000;
+      for (int i = 0; i < len; ++i)
+        fanOut.add(client.target(i % 2 == 0 ? "http://LOCALHOST/" + i : "http://localhost:80/" + i).request().buildGet());
+
+      final List<FanOut.Outcome> outcomes = fanOut.submit().all().get(5, TimeUnit.SECONDS);
+      assertEquals(len, outcomes.size());
+      for (int i = 0; i < len; ++i) {
+        final FanOut.Outcome outcome = outcomes.get(i);
+        assertEquals(i, outcome.getIndex());
+        assertTrue(String.valueOf(outcome.getException()), outcome.getException() instanceof RejectedExecutionException);
+      }
+    }
+    finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertTrue(newFanOut().submit().all().isDone());
+  }
+}
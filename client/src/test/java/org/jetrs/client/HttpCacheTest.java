@@ -0,0 +1,97 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HttpCacheTest {
+  private static Map<String,List<String>> headers(final String ... nameValues) {
+    final Map<String,List<String>> headers = new HashMap<>();
+    for (int i = 0; i < nameValues.length; i += 2)
+      headers.put(nameValues[i], Collections.singletonList(nameValues[i + 1]));
+
+    return headers;
+  }
+
+  @Test
+  public void testFreshness() {
+    final HttpCache cache = new HttpCache(1 << 20);
+    final long now = System.currentTimeMillis();
+    final HttpCache.Entry entry = cache.put("http://a/", 200, "OK", headers("Cache-Control", "public, max-age=60", "ETag", "\"1\""), new byte[10], null, now);
+    assertNotNull(entry);
+    assertSame(entry, cache.get("http://a/", null));
+    assertTrue(entry.isFresh(now + 59000, -1));
+    assertFalse(entry.isFresh(now + 61000, -1));
+    assertFalse(entry.isFresh(now + 30000, 10));
+    assertEquals("\"1\"", entry.etag);
+  }
+
+  @Test
+  public void testNotStored() {
+    final HttpCache cache = new HttpCache(1 << 20);
+    final long now = System.currentTimeMillis();
+    assertFalse(cache.isCacheable(200, headers("Cache-Control", "no-store")));
+    assertFalse(cache.isCacheable(500, headers()));
+    assertNull(cache.put("http://a/", 200, "OK", headers("Cache-Control", "no-cache"), new byte[1], null, now));
+    assertNotNull(cache.put("http://a/", 200, "OK", headers("Cache-Control", "no-cache", "Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT"), new byte[1], null, now));
+    assertFalse(cache.get("http://a/", null).isFresh(now, -1));
+  }
+
+  @Test
+  public void testRevalidate() {
+    final HttpCache cache = new HttpCache(1 << 20);
+    final long now = System.currentTimeMillis();
+    final byte[] body = {1, 2, 3};
+    final HttpCache.Entry stale = cache.put("http://a/", 200, "OK", headers("Cache-Control", "max-age=0", "ETag", "\"1\"", "Content-Type", "text/plain"), body, null, now);
+    assertFalse(stale.isFresh(now + 1, -1));
+    final HttpCache.Entry renewed = cache.revalidate("http://a/", stale, headers("Cache-Control", "max-age=60"), null, now + 1);
+    assertSame(body, renewed.body);
+    assertTrue(renewed.isFresh(now + 2, -1));
+    assertEquals(Arrays.asList("text/plain"), renewed.headers.get("content-type"));
+    assertSame(renewed, cache.get("http://a/", null));
+  }
+
+  @Test
+  public void testEviction() {
+    final HttpCache cache = new HttpCache(8 * 2048);
+    final long now = System.currentTimeMillis();
+    for (int i = 0; i < 16; ++i)
+      cache.put("http://a/" + i, 200, "OK", headers("Cache-Control", "max-age=60"), new byte[1024], null, now);
+
+    assertTrue(cache.size() <= 8 * 2048);
+    assertNull(cache.get("http://a/0", null));
+    assertNotNull(cache.get("http://a/15", null));
+  }
+
+  @Test
+  public void testVary() {
+    final HttpCache cache = new HttpCache(1 << 20);
+    final long now = System.currentTimeMillis();
+    cache.put("http://a/", 200, "OK", headers("Cache-Control", "max-age=60", "Vary", "Accept"), new byte[1], headers("Accept", "application/json"), now);
+    assertNotNull(cache.get("http://a/", headers("accept", "application/json")));
+    assertNull(cache.get("http://a/", headers("Accept", "text/plain")));
+    assertNull(cache.put("http://b/", 200, "OK", headers("Cache-Control", "max-age=60", "Vary", "*"), new byte[1], null, now));
+  }
+}
@@ -0,0 +1,52 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import javax.ws.rs.ProcessingException;
+
+import org.junit.Test;
+
+public class HttpURLConnectionConnectorTest extends ConnectorTest {
+  @Override
+  Connector newConnector() {
+    return new HttpURLConnectionConnector(null, null, null, 0, 0);
+  }
+
+  @Test
+  public void testNewConnector() {
+    // NOTE: HttpClient does not accept a HostnameVerifier
+    assertEquals(HttpURLConnectionConnector.class, ClientImpl.newConnector(null, (hostname, session) -> true, null, 0, 0).getClass());
+
+    System.setProperty(ClientImpl.CONNECTOR, HttpURLConnectionConnector.class.getName());
+    try {
+      assertEquals(HttpURLConnectionConnector.class, ClientImpl.newConnector(null, null, null, 0, 0).getClass());
+      System.setProperty(ClientImpl.CONNECTOR, "org.jetrs.client.MissingConnector");
+      try {
+        ClientImpl.newConnector(null, null, null, 0, 0);
+        fail("Expected ProcessingException");
+      }
+      catch (final ProcessingException e) {
+        assertTrue(e.getCause() instanceof ClassNotFoundException);
+      }
+    }
+    finally {
+      System.clearProperty(ClientImpl.CONNECTOR);
+    }
+  }
+}
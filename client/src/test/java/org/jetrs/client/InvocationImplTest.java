@@ -0,0 +1,48 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class InvocationImplTest {
+  private static void assertUtf8Length(final String string) {
+    assertEquals(string.getBytes(StandardCharsets.UTF_8).length, InvocationImpl.getUtf8Length(string));
+  }
+
+  @Test
+  public void testUtf8Length() {
+    assertUtf8Length("");
+    assertUtf8Length("abc");
+    assertUtf8Length("\u00E9t\u00E9");
+    assertUtf8Length("\u20AC100");
+    assertUtf8Length("a\uD83D\uDE00b");
+  }
+
+  @Test
+  public void testUtf8LengthUnpairedSurrogate() {
+    assertUtf8Length("a\uD800b");
+    assertUtf8Length("a\uDC00b");
+    assertUtf8Length("ab\uD800");
+    assertUtf8Length("\uDE00\uD83D");
+    assertUtf8Length("\uD83D\uD83D\uDE00");
+    assertEquals(3, InvocationImpl.getUtf8Length("a\uD800b"));
+  }
+}
@@ -0,0 +1,58 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.client.WebTarget;
+
+import org.jetrs.common.core.UriBuilderImpl;
+import org.junit.Test;
+
+public class WebTargetImplTest {
+  private static void assertNullPointerException(final Runnable runnable) {
+    try {
+      runnable.run();
+      fail("Expected NullPointerException");
+    }
+    catch (final NullPointerException e) {
+    }
+  }
+
+  @Test
+  public void testResolveTemplateNull() {
+    final WebTarget target = new WebTargetImpl(null, null, null, new UriBuilderImpl().uri("http://www.example.com/{a}/{b}"), null, 0, 0);
+    assertNullPointerException(() -> target.resolveTemplate(null, "x"));
+    assertNullPointerException(() -> target.resolveTemplate("a", null));
+    assertNullPointerException(() -> target.resolveTemplate("a", null, true));
+    assertNullPointerException(() -> target.resolveTemplateFromEncoded("a", null));
+    assertNullPointerException(() -> target.resolveTemplates(null));
+    assertNullPointerException(() -> target.resolveTemplates(Collections.singletonMap("a", null), true));
+    assertNullPointerException(() -> target.resolveTemplatesFromEncoded(Collections.singletonMap(null, "x")));
+
+    final Map<String,Object> templateValues = new HashMap<>();
+    templateValues.put("a", "x");
+    templateValues.put("c", null);
+    assertNullPointerException(() -> target.resolveTemplates(templateValues));
+
+    assertEquals("http://www.example.com/x/y", target.resolveTemplate("a", "x").resolveTemplates(Collections.singletonMap("b", "y")).getUri().toString());
+  }
+}
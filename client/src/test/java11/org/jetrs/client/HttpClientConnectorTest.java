@@ -0,0 +1,63 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HttpClientConnectorTest extends ConnectorTest {
+  @Override
+  Connector newConnector() {
+    return new HttpClientConnector(null, null, null, 0, 0);
+  }
+
+  @Test
+  public void testRestrictedHeaders() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "GET");
+    // NOTE: HttpClient throws IllegalArgumentException if a restricted header is set
+    connection.setRequestProperty("Connection", "close");
+    connection.setRequestProperty("Content-Length", "10");
+    connection.setRequestProperty("Host", "example.com");
+    connection.setRequestProperty("Upgrade", "h2c");
+    connection.setRequestProperty("X-Test", "a");
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("ok", readBody(connection));
+
+    final Request request = takeRequest();
+    assertEquals("a", request.headers.getFirst("X-Test"));
+    assertEquals("localhost:" + url("/").getPort(), request.headers.getFirst("Host"));
+  }
+
+  @Test
+  public void testCanonicalNames() throws Exception {
+    final Connection connection = connector.open(url("/echo"), "GET");
+    final Map<String,List<String>> headers = connection.getHeaderFields();
+    assertEquals("custom", headers.get("X-Custom-Header").get(0));
+    assertEquals("\"1\"", headers.get("ETag").get(0));
+    assertEquals("2", headers.get("Content-Length").get(0));
+    readBody(connection);
+  }
+
+  @Test
+  public void testNewConnector() {
+    assertEquals(HttpClientConnector.class, ClientImpl.newConnector(null, null, null, 0, 0).getClass());
+  }
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.client;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class StreamingPipeTest {
+  @Test
+  public void testStream() throws Exception {
+    final StreamingPipe pipe = new StreamingPipe(1000, 2);
+    final byte[] entity = new byte[100000];
+    for (int i = 0; i < entity.length; ++i)
+      entity[i] = (byte)i;
+
+    final CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+      try {
+        return ConnectorTest.readAll(pipe.in);
+      }
+      catch (final IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    pipe.out.write(entity);
+    pipe.out.close();
+    assertTrue(Arrays.equals(entity, received.get(5, TimeUnit.SECONDS)));
+  }
+
+  @Test
+  public void testAbort() throws Exception {
+    final StreamingPipe pipe = new StreamingPipe(1000, 2);
+    pipe.out.write(new byte[1500]);
+    assertEquals(0, pipe.in.read());
+    pipe.abort();
+    try {
+      pipe.in.read(new byte[1000]);
+      fail("Expected IOException");
+    }
+    catch (final IOException e) {
+    }
+
+    // NOTE: The reader must not see the end of the entity after the pipe is aborted
+    try {
+      pipe.in.read();
+      fail("Expected IOException");
+    }
+    catch (final IOException e) {
+    }
+
+    try {
+      pipe.out.write(new byte[1000]);
+      fail("Expected IOException");
+    }
+    catch (final IOException e) {
+    }
+  }
+}
@@ -16,16 +16,29 @@
 
 package org.jetrs;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Predicate;
 
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.MessageBodyReader;
@@ -38,7 +51,6 @@ import javax.ws.rs.ext.WriterInterceptor;
 import org.jetrs.common.EntityReaderProviderResource;
 import org.jetrs.common.EntityWriterProviderResource;
 import org.jetrs.common.ExceptionMappingProviderResource;
-import org.jetrs.common.ProviderInstantiationException;
 import org.jetrs.common.ProviderResource;
 import org.jetrs.common.ReaderInterceptorEntityProviderResource;
 import org.jetrs.common.WriterInterceptorEntityProviderResource;
@@ -51,6 +63,77 @@ public class Bootstrap<R> {
   protected static final Logger logger = LoggerFactory.getLogger(Bootstrap.class);
   private static final String[] excludeStartsWith = {"jdk.", "java.", "javax.", "com.sun.", "sun.", "org.w3c.", "org.xml.", "org.jvnet.", "org.joda.", "org.jcp.", "apple.security."};
 
+  /**
+   * The resource listing the {@code @Path} and {@code @Provider} classes of an
+   * application, as written by {@code org.jetrs.processor.IndexProcessor}.
+   */
+  static final String INDEX = "META-INF/jetrs.index";
+  private static final boolean ignoreIndex = Boolean.getBoolean("org.jetrs.IGNORE_INDEX");
+
+  /**
+   * Returns the classes listed in all {@value #INDEX} resources visible to the
+   * specified {@link ClassLoader}, and adds the root of the archive (or
+   * directory) of each index to {@code indexedRoots}.
+   *
+   * @param classLoader The {@link ClassLoader}.
+   * @param indexedRoots The list to which the root {@link URL} of each index is
+   *          to be added, in external form.
+   * @return The classes listed in all {@value #INDEX} resources visible to the
+   *         specified {@link ClassLoader}.
+   * @throws IOException If an I/O error has occurred.
+   */
+  static Set<Class<?>> loadIndex(final ClassLoader classLoader, final List<String> indexedRoots) throws IOException {
+    final Enumeration<URL> resources = classLoader.getResources(INDEX);
+    final Set<Class<?>> classes = new LinkedHashSet<>();
+    while (resources.hasMoreElements()) {
+      final URL resource = resources.nextElement();
+      final String url = resource.toExternalForm();
+      indexedRoots.add(url.substring(0, url.length() - INDEX.length()));
+      try (final BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+        for (String line; (line = reader.readLine()) != null;) {
+          line = line.trim();
+          if (line.length() == 0 || line.charAt(0) == '#')
+            continue;
+
+          try {
+            classes.add(Class.forName(line, false, classLoader));
+          }
+          catch (final ClassNotFoundException | LinkageError e) {
+            logger.warn("Skipping class listed in " + resource + ": " + line, e);
+          }
+        }
+      }
+    }
+
+    return classes;
+  }
+
+  /**
+   * Returns whether the specified package is covered by the indexes with the
+   * specified roots, i.e. whether every archive (or directory) that contains
+   * the package has an index.
+   */
+  private static boolean isIndexed(final ClassLoader classLoader, final Package pkg, final List<String> indexedRoots) throws IOException {
+    if (indexedRoots.size() == 0)
+      return false;
+
+    final Enumeration<URL> resources = classLoader.getResources(pkg.getName().replace('.', '/'));
+    if (!resources.hasMoreElements())
+      return false;
+
+    do {
+      final String url = resources.nextElement().toExternalForm();
+      boolean indexed = false;
+      for (int i = 0, len = indexedRoots.size(); i < len && !indexed; ++i)
+        indexed = url.startsWith(indexedRoots.get(i));
+
+      if (!indexed)
+        return false;
+    }
+    while (resources.hasMoreElements());
+    return true;
+  }
+
   private static boolean acceptPackage(final Package pkg) {
     for (int i = 0; i < excludeStartsWith.length; ++i)
       if (pkg.getName().startsWith(excludeStartsWith[i]))
@@ -60,7 +143,7 @@ public class Bootstrap<R> {
   }
 
   @SuppressWarnings("unchecked")
-  protected <T>void addResourceOrProvider(final MultivaluedMap<? super String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final Class<? extends T> clazz, final T singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+  protected <T>void addResourceOrProvider(final MultivaluedMap<? super String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final List<? super DynamicFeature> dynamicFeatures, final Class<? extends T> clazz, final T singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
     if (clazz.isAnnotationPresent(Provider.class)) {
       if (MessageBodyReader.class.isAssignableFrom(clazz))
         entityReaders.add(new EntityReaderProviderResource((Class<MessageBodyReader<?>>)clazz, (MessageBodyReader<?>)singleton));
@@ -88,44 +171,173 @@ public class Bootstrap<R> {
     }
   }
 
-  public final void init(final Set<?> singletons, final Set<Class<?>> classes, final MultivaluedMap<String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders) throws IllegalAccessException, InstantiationException, InvocationTargetException, PackageNotFoundException, IOException {
+  private static final int PARALLELISM;
+  private static final int PARALLEL_THRESHOLD = 16;
+
+  static {
+    PARALLELISM = parseParallelism(System.getProperty("org.jetrs.BOOTSTRAP_PARALLELISM"), Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Returns the parallelism specified by the given property value, which is
+   * at least {@code 1}, or the specified default value if the property value
+   * is null or not an integer.
+   */
+  static int parseParallelism(final String value, final int defaultValue) {
+    if (value == null)
+      return defaultValue;
+
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    }
+    catch (final NumberFormatException e) {
+      logger.warn("Ignoring invalid org.jetrs.BOOTSTRAP_PARALLELISM: " + value);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * The registrations of a single class, which are collected into local
+   * registries so that classes can be inspected concurrently, and then merged
+   * into the shared registries in the order the classes were declared.
+   */
+  private final class Registration extends RecursiveAction {
+    private static final long serialVersionUID = -1836209548014466353L;
+
+    private final Class<?> clazz;
+    private final Object singleton;
+    private final MultivaluedMap<String,R> resources;
+    private final List<ExceptionMappingProviderResource> exceptionMappers = new ArrayList<>(0);
+    private final List<EntityReaderProviderResource> entityReaders = new ArrayList<>(0);
+    private final List<EntityWriterProviderResource> entityWriters = new ArrayList<>(0);
+    private final List<ProviderResource<ContainerRequestFilter>> requestFilters = new ArrayList<>(0);
+    private final List<ProviderResource<ContainerResponseFilter>> responseFilters = new ArrayList<>(0);
+    private final List<ReaderInterceptorEntityProviderResource> readerInterceptors = new ArrayList<>(0);
+    private final List<WriterInterceptorEntityProviderResource> writerInterceptors = new ArrayList<>(0);
+    private final List<ProviderResource<ParamConverterProvider>> paramConverterProviders = new ArrayList<>(0);
+    private final List<DynamicFeature> dynamicFeatures = new ArrayList<>(0);
+    private Exception exception;
+
+    private Registration(final Class<?> clazz, final Object singleton, final boolean hasResources) {
+      this.clazz = clazz;
+      this.singleton = singleton;
+      this.resources = hasResources ? new MultivaluedHashMap<>() : null;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, dynamicFeatures, clazz, singleton);
+      }
+      catch (final IllegalAccessException | InstantiationException | InvocationTargetException | RuntimeException e) {
+        exception = e;
+      }
+    }
+
+    private void merge(final MultivaluedMap<String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final List<? super DynamicFeature> dynamicFeatures) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+      if (exception != null) {
+        if (exception instanceof IllegalAccessException)
+          throw (IllegalAccessException)exception;
+
+        if (exception instanceof InstantiationException)
+          throw (InstantiationException)exception;
+
+        if (exception instanceof InvocationTargetException)
+          throw (InvocationTargetException)exception;
+
+        throw (RuntimeException)exception;
+      }
+
+      if (this.resources != null)
+        for (final Map.Entry<String,List<R>> entry : this.resources.entrySet())
+          for (final R resource : entry.getValue())
+            resources.add(entry.getKey(), resource);
+
+      exceptionMappers.addAll(this.exceptionMappers);
+      entityReaders.addAll(this.entityReaders);
+      entityWriters.addAll(this.entityWriters);
+      requestFilters.addAll(this.requestFilters);
+      responseFilters.addAll(this.responseFilters);
+      readerInterceptors.addAll(this.readerInterceptors);
+      writerInterceptors.addAll(this.writerInterceptors);
+      paramConverterProviders.addAll(this.paramConverterProviders);
+      if (dynamicFeatures != null)
+        dynamicFeatures.addAll(this.dynamicFeatures);
+    }
+  }
+
+  private void register(final List<Registration> registrations, final MultivaluedMap<String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final List<? super DynamicFeature> dynamicFeatures) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    if (PARALLELISM > 1 && registrations.size() >= PARALLEL_THRESHOLD) {
+      // NOTE: The workers instantiate the providers and features, so they are given the context class loader of the
+      // NOTE: caller, which in a servlet container is that of the application, rather than the one they would inherit
+      final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+      final ForkJoinPool pool = new ForkJoinPool(PARALLELISM, p -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        thread.setContextClassLoader(contextClassLoader);
+        return thread;
+      }, null, false);
+      try {
+        pool.invoke(new RecursiveAction() {
+          private static final long serialVersionUID = 2380957637464627357L;
+
+          @Override
+          protected void compute() {
+            invokeAll(registrations);
+          }
+        });
+      }
+      finally {
+        pool.shutdown();
+      }
+    }
+    else {
+      for (final Registration registration : registrations)
+        registration.compute();
+    }
+
+    for (final Registration registration : registrations)
+      registration.merge(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, dynamicFeatures);
+  }
+
+  public final void init(final Set<?> singletons, final Set<Class<?>> classes, final MultivaluedMap<String,? super R> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final List<? super DynamicFeature> dynamicFeatures) throws IllegalAccessException, InstantiationException, InvocationTargetException, PackageNotFoundException, IOException {
+    final boolean hasResources = resources != null;
+    final List<Registration> registrations = new ArrayList<>();
     if (singletons != null || classes != null) {
       if (singletons != null)
         for (final Object singleton : singletons)
           if (singleton != null)
-            addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, singleton.getClass(), singleton);
+            registrations.add(new Registration(singleton.getClass(), singleton, hasResources));
 
       if (classes != null)
         for (final Class<?> cls : classes)
           if (cls != null)
-            addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, cls, null);
+            registrations.add(new Registration(cls, null, hasResources));
     }
     else {
-      final Predicate<Class<?>> initialize = new Predicate<Class<?>>() {
-        private final Set<Class<?>> loadedClasses = new HashSet<>();
-
-        @Override
-        public boolean test(final Class<?> t) {
-          if (!Modifier.isAbstract(t.getModifiers()) && !loadedClasses.contains(t)) {
-            try {
-              addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, t, null);
-            }
-            catch (final IllegalAccessException | InstantiationException e) {
-              throw new ProviderInstantiationException(e);
-            }
-            catch (final InvocationTargetException e) {
-              throw new ProviderInstantiationException(e.getCause());
-            }
-          }
+      // NOTE: The classes of archives with an index are loaded from the index, and only the packages that are
+      // NOTE: (also) in archives without an index are scanned, so that an index in a dependency does not hide
+      // NOTE: the unindexed classes of the application
+      final Set<Class<?>> loadedClasses = new HashSet<>();
+      final List<String> indexedRoots = new ArrayList<>();
+      final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+      final ClassLoader classLoader = contextClassLoader != null ? contextClassLoader : Bootstrap.class.getClassLoader();
+      if (!ignoreIndex)
+        for (final Class<?> cls : loadIndex(classLoader, indexedRoots))
+          if (!Modifier.isAbstract(cls.getModifiers()) && loadedClasses.add(cls))
+            registrations.add(new Registration(cls, null, hasResources));
 
-          loadedClasses.add(t);
-          return false;
-        }
+      final Predicate<Class<?>> initialize = (final Class<?> t) -> {
+        if (!Modifier.isAbstract(t.getModifiers()) && loadedClasses.add(t))
+          registrations.add(new Registration(t, null, hasResources));
+
+        return false;
       };
 
       for (final Package pkg : Package.getPackages())
-        if (acceptPackage(pkg))
+        if (acceptPackage(pkg) && !isIndexed(classLoader, pkg, indexedRoots))
           PackageLoader.getContextPackageLoader().loadPackage(pkg, initialize);
     }
+
+    register(registrations, resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, dynamicFeatures);
   }
 }
\ No newline at end of file
@@ -34,6 +34,12 @@ public abstract class EntityProviderResource<T> extends TypeProviderResource<T>
     this.allowedTypes = consumes == null ? null : MediaTypes.parse(consumes.value());
   }
 
+  public EntityProviderResource(final Class<T> clazz, final T singleton, final Class<?> interfaceType, final int priority) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    super(clazz, singleton, getGenericInterfaceType(interfaceType, clazz), priority);
+    final Consumes consumes = clazz.getAnnotation(Consumes.class);
+    this.allowedTypes = consumes == null ? null : MediaTypes.parse(consumes.value());
+  }
+
   /**
    * Returns a compatible {@link MediaType} for the specified {@code provider}
    * and the entity of the given parameters, if one exists.
@@ -47,6 +53,21 @@ public abstract class EntityProviderResource<T> extends TypeProviderResource<T>
    *         and the entity of the given parameters, if one exists.
    */
   public MediaType getCompatibleMediaType(final T provider, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+    return getCompatibleMediaType(mediaType);
+  }
+
+  /**
+   * Returns a compatible {@link MediaType} among the media types declared by
+   * this provider for the specified {@code mediaType}, if one exists. Unlike
+   * {@link #getCompatibleMediaType(Object,Class,Type,Annotation[],MediaType)},
+   * the provider instance is not consulted, and the result therefore depends
+   * on {@code mediaType} alone.
+   *
+   * @param mediaType The {@link MediaType} of the entity.
+   * @return A compatible {@link MediaType} among the media types declared by
+   *         this provider for the specified {@code mediaType}, if one exists.
+   */
+  public final MediaType getCompatibleMediaType(final MediaType mediaType) {
     return allowedTypes == null ? MediaTypes.getCompatible(mediaType, MediaType.WILDCARD_TYPE) : MediaTypes.getCompatible(mediaType, allowedTypes);
   }
 }
\ No newline at end of file
@@ -51,12 +51,30 @@ public class ProviderResource<T> {
   private final T singleton;
   private final int priority;
   private final T matchInstance;
+  private volatile T sharedInstance;
+  private volatile boolean perRequest;
+
+  /**
+   * Returns the value of the {@link Priority} annotation of the specified
+   * class, or {@link Priorities#USER} if the class is not annotated.
+   *
+   * @param clazz The class.
+   * @return The value of the {@link Priority} annotation of the specified
+   *         class, or {@link Priorities#USER} if the class is not annotated.
+   */
+  public static int getDefaultPriority(final Class<?> clazz) {
+    final Priority priority = clazz.getAnnotation(Priority.class);
+    return priority == null ? Priorities.USER : priority.value();
+  }
 
   public ProviderResource(final Class<T> clazz, final T singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    this(clazz, singleton, getDefaultPriority(clazz));
+  }
+
+  public ProviderResource(final Class<T> clazz, final T singleton, final int priority) throws IllegalAccessException, InstantiationException, InvocationTargetException {
     this.clazz = clazz;
     this.singleton = singleton;
-    final Priority priority = clazz.getAnnotation(Priority.class);
-    this.priority = priority == null ? Priorities.USER : priority.value();
+    this.priority = priority;
     this.matchInstance = singleton != null ? singleton : AnnotationInjector.CONTEXT_ONLY.newProviderInstance(clazz);
   }
 
@@ -72,11 +90,42 @@ public class ProviderResource<T> {
     return this.matchInstance;
   }
 
+  /**
+   * Returns the instance shared by all requests, which is created (or, for a
+   * registered singleton, injected) once with contextual proxies, or
+   * {@code null} if the provider requires a request-scoped object that cannot
+   * be proxied, in which case it is instantiated per request.
+   */
+  private T getSharedInstance(final AnnotationInjector contextualInjector) throws IllegalAccessException, InvocationTargetException {
+    T instance = sharedInstance;
+    if (instance == null) {
+      synchronized (this) {
+        if ((instance = sharedInstance) == null && !perRequest) {
+          try {
+            sharedInstance = instance = contextualInjector.injectFields(singleton != null ? singleton : contextualInjector.newProviderInstance(clazz));
+          }
+          catch (final InstantiationException | UnsupportedOperationException e) {
+            perRequest = true;
+          }
+        }
+      }
+    }
+
+    return instance;
+  }
+
   public final T getSingletonOrNewInstance(final AnnotationInjector annotationInjector) {
     try {
       if (annotationInjector == null)
         return singleton != null ? singleton : clazz.getConstructor().newInstance();
 
+      final AnnotationInjector contextualInjector = annotationInjector.getContextualInjector();
+      if (contextualInjector != null && !perRequest) {
+        final T instance = getSharedInstance(contextualInjector);
+        if (instance != null)
+          return instance;
+      }
+
       return annotationInjector.injectFields(singleton != null ? singleton : annotationInjector.newProviderInstance(clazz));
     }
     catch (final IllegalAccessException | InstantiationException | NoSuchMethodException e) {
@@ -24,4 +24,8 @@ public class ReaderInterceptorEntityProviderResource extends EntityProviderResou
   public ReaderInterceptorEntityProviderResource(final Class<ReaderInterceptor> clazz, final ReaderInterceptor singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
     super(clazz, singleton, ReaderInterceptor.class);
   }
+
+  public ReaderInterceptorEntityProviderResource(final Class<ReaderInterceptor> clazz, final ReaderInterceptor singleton, final int priority) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    super(clazz, singleton, ReaderInterceptor.class, priority);
+  }
 }
\ No newline at end of file
@@ -26,6 +26,11 @@ public abstract class TypeProviderResource<T> extends ProviderResource<T> {
     this.type = type;
   }
 
+  public TypeProviderResource(final Class<T> clazz, final T singleton, final Class<?> type, final int priority) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    super(clazz, singleton, priority);
+    this.type = type;
+  }
+
   public Class<?> getType() {
     return this.type;
   }
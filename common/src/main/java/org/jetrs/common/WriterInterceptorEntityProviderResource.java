@@ -24,4 +24,8 @@ public class WriterInterceptorEntityProviderResource extends EntityProviderResou
   public WriterInterceptorEntityProviderResource(final Class<WriterInterceptor> clazz, final WriterInterceptor singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
     super(clazz, singleton, WriterInterceptor.class);
   }
+
+  public WriterInterceptorEntityProviderResource(final Class<WriterInterceptor> clazz, final WriterInterceptor singleton, final int priority) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    super(clazz, singleton, WriterInterceptor.class, priority);
+  }
 }
\ No newline at end of file
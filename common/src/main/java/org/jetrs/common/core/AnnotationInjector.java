@@ -17,16 +17,26 @@
 package org.jetrs.common.core;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
@@ -84,6 +94,133 @@ public class AnnotationInjector {
     return null;
   }
 
+  /**
+   * The request-scoped context types for which contextual proxies are
+   * injected by a {@linkplain #createContextual(Configuration,Application)
+   * contextual} injector.
+   */
+  private static final Class<?>[] proxiedTypes = {
+    SecurityContext.class,
+    UriInfo.class,
+    Request.class,
+    HttpHeaders.class,
+    HttpServletRequest.class,
+    HttpServletResponse.class,
+    Providers.class
+  };
+
+  private static final ThreadLocal<AnnotationInjector> current = new ThreadLocal<>();
+
+  /**
+   * Binds the specified request-scoped injector to the current thread, to
+   * which the contextual proxies delegate.
+   *
+   * @param annotationInjector The injector to bind, or {@code null} to unbind.
+   * @return The injector that was previously bound to the current thread, to
+   *         be restored when the (possibly nested) request completes.
+   */
+  public static AnnotationInjector bind(final AnnotationInjector annotationInjector) {
+    final AnnotationInjector previous = current.get();
+    if (annotationInjector != null)
+      current.set(annotationInjector);
+    else
+      current.remove();
+
+    return previous;
+  }
+
+  /**
+   * Creates an injector that injects thread-safe proxies for the request-scoped
+   * context types, which delegate to the injector {@linkplain #bind bound} to
+   * the current thread. An instance injected by the returned injector can
+   * therefore be shared by all requests.
+   *
+   * @param configuration The {@link Configuration}.
+   * @param application The {@link Application}.
+   * @return An injector that injects contextual proxies.
+   */
+  public static AnnotationInjector createContextual(final Configuration configuration, final Application application) {
+    final Object[] proxies = new Object[proxiedTypes.length];
+    for (int i = 0; i < proxiedTypes.length; ++i)
+      proxies[i] = Proxy.newProxyInstance(proxiedTypes[i].getClassLoader(), new Class<?>[] {proxiedTypes[i]}, new ContextualProxy(proxiedTypes[i]));
+
+    return new AnnotationInjector(null, null, null, null, null, configuration, application, null, proxies);
+  }
+
+  /**
+   * Returns the accessor of the request-scoped object of the specified proxied
+   * type.
+   */
+  private static Function<AnnotationInjector,Object> getAccessor(final Class<?> type) {
+    if (type == SecurityContext.class)
+      return i -> i.containerRequestContext == null ? null : i.containerRequestContext.getSecurityContext();
+
+    if (type == UriInfo.class)
+      return i -> i.containerRequestContext == null ? null : i.containerRequestContext.getUriInfo();
+
+    if (type == Request.class)
+      return i -> i.request;
+
+    if (type == HttpHeaders.class)
+      return i -> i.httpHeaders;
+
+    if (type == HttpServletRequest.class)
+      return i -> i.httpServletRequest;
+
+    if (type == HttpServletResponse.class)
+      return i -> i.httpServletResponse;
+
+    if (type == Providers.class)
+      return i -> i.providers;
+
+    throw new IllegalArgumentException("Unsupported proxied type: " + type.getName());
+  }
+
+  private static final class ContextualProxy implements InvocationHandler {
+    private static final Object[] noArgs = {};
+
+    private final Class<?> type;
+    private final Function<AnnotationInjector,Object> accessor;
+    private final HashMap<Method,MethodHandle> methodHandles = new HashMap<>();
+
+    private ContextualProxy(final Class<?> type) {
+      this.type = type;
+      this.accessor = getAccessor(type);
+      try {
+        for (final Method method : type.getMethods())
+          methodHandles.put(method, lookup.unreflect(method).asSpreader(Object[].class, method.getParameterCount()).asType(MethodType.methodType(Object.class, Object.class, Object[].class)));
+      }
+      catch (final IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        if ("equals".equals(method.getName()))
+          return proxy == args[0];
+
+        if ("hashCode".equals(method.getName()))
+          return System.identityHashCode(proxy);
+
+        return "@Context " + type.getName();
+      }
+
+      final AnnotationInjector annotationInjector = current.get();
+      if (annotationInjector == null)
+        throw new IllegalStateException("@Context " + type.getName() + " accessed outside the scope of a request");
+
+      final Object target = accessor.apply(annotationInjector);
+      if (target == null)
+        throw new IllegalStateException("@Context " + type.getName() + " is not available in the current request");
+
+      // NOTE: The MethodHandle throws the exception of the target as is, rather than wrapped in an InvocationTargetException
+      final Object[] arguments = args != null ? args : noArgs;
+      return methodHandles.get(method).invokeExact(target, arguments);
+    }
+  }
+
   private static final Comparator<Constructor<?>> parameterCountComparator = Comparator.comparingInt(Constructor::getParameterCount);
 
   public static final AnnotationInjector CONTEXT_ONLY = new AnnotationInjector(null, null, null, null, null, null, null);
@@ -133,8 +270,10 @@ public class AnnotationInjector {
   private final Application application;
   // NOTE: Have to leave this non-final because there is a circular reference in the createAnnotationInjector() factory method
   private Providers providers;
+  private final AnnotationInjector contextualInjector;
+  private final Object[] proxies;
 
-  public AnnotationInjector(final ContainerRequestContext containerRequestContext, final Request request, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse, final HttpHeaders httpHeaders, final Configuration configuration, final Application application) {
+  private AnnotationInjector(final ContainerRequestContext containerRequestContext, final Request request, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse, final HttpHeaders httpHeaders, final Configuration configuration, final Application application, final AnnotationInjector contextualInjector, final Object[] proxies) {
     this.containerRequestContext = containerRequestContext;
     this.request = request;
     this.httpHeaders = httpHeaders;
@@ -142,6 +281,41 @@ public class AnnotationInjector {
     this.httpServletResponse = httpServletResponse;
     this.configuration = configuration;
     this.application = application;
+    this.contextualInjector = contextualInjector;
+    this.proxies = proxies;
+  }
+
+  /**
+   * Creates a request-scoped injector.
+   *
+   * @param containerRequestContext The {@link ContainerRequestContext}.
+   * @param request The {@link Request}.
+   * @param httpServletRequest The {@link HttpServletRequest}.
+   * @param httpServletResponse The {@link HttpServletResponse}.
+   * @param httpHeaders The {@link HttpHeaders}.
+   * @param configuration The {@link Configuration}.
+   * @param application The {@link Application}.
+   * @param contextualInjector The {@linkplain #createContextual contextual}
+   *          injector with which shared instances are created, or
+   *          {@code null} to create a new instance per request.
+   */
+  public AnnotationInjector(final ContainerRequestContext containerRequestContext, final Request request, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse, final HttpHeaders httpHeaders, final Configuration configuration, final Application application, final AnnotationInjector contextualInjector) {
+    this(containerRequestContext, request, httpServletRequest, httpServletResponse, httpHeaders, configuration, application, contextualInjector, null);
+  }
+
+  public AnnotationInjector(final ContainerRequestContext containerRequestContext, final Request request, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse, final HttpHeaders httpHeaders, final Configuration configuration, final Application application) {
+    this(containerRequestContext, request, httpServletRequest, httpServletResponse, httpHeaders, configuration, application, null, null);
+  }
+
+  /**
+   * Returns the {@linkplain #createContextual contextual} injector with which
+   * instances shared by all requests are created, or {@code null} if a new
+   * instance is to be created per request.
+   *
+   * @return The contextual injector, or {@code null}.
+   */
+  public AnnotationInjector getContextualInjector() {
+    return contextualInjector;
   }
 
   public void setProviders(final Providers providers) {
@@ -150,6 +324,11 @@ public class AnnotationInjector {
 
   @SuppressWarnings("unchecked")
   public <T>T getContextObject(final Class<T> clazz) {
+    if (proxies != null)
+      for (int i = 0; i < proxiedTypes.length; ++i)
+        if (proxiedTypes[i].isAssignableFrom(clazz))
+          return proxiedTypes[i] == clazz ? (T)proxies[i] : null; // NOTE: A subtype of a request-scoped type cannot be proxied
+
     final Class<?> contextClass = getAssignableContextClass(clazz);
     if (contextClass == null)
       throw new IllegalArgumentException(getClass().getSimpleName() + " configuration does not allow injection of object of class " + clazz.getName());
@@ -226,43 +405,155 @@ public class AnnotationInjector {
     throw new UnsupportedOperationException("Unsupported param annotation type: " + annotation.annotationType());
   }
 
-  public <T>T newResourceInstance(final Class<T> clazz) throws IllegalAccessException, InstantiationException, InvocationTargetException {
-    return newInstance(clazz, true);
+  /**
+   * A public constructor, the context types of its parameters, and a
+   * {@link MethodHandle} that invokes it with an {@code Object[]} of arguments.
+   */
+  private static final class ConstructorPlan {
+    private final MethodHandle constructor;
+    private final Class<?>[] parameterTypes;
+    private final String signature;
+
+    private ConstructorPlan(final Constructor<?> constructor) throws IllegalAccessException {
+      constructor.setAccessible(true);
+      this.parameterTypes = constructor.getParameterTypes();
+      this.constructor = lookup.unreflectConstructor(constructor).asSpreader(Object[].class, parameterTypes.length).asType(MethodType.methodType(Object.class, Object[].class));
+      this.signature = constructor.getDeclaringClass().getName() + "(" + Arrays.stream(parameterTypes).map(Class::getSimpleName).collect(Collectors.joining(",")) + ")";
+    }
+
+    private Object newInstance(final Object[] parameterInstances) throws InvocationTargetException {
+      try {
+        return constructor.invokeExact(parameterInstances);
+      }
+      catch (final Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
   }
 
-  public <T>T newProviderInstance(final Class<T> clazz) throws IllegalAccessException, InstantiationException, InvocationTargetException {
-    return newInstance(clazz, false);
+  /**
+   * A {@code @Context} field, and a {@link MethodHandle} that sets it.
+   */
+  private static final class FieldPlan {
+    private final Field field;
+    private final MethodHandle setter;
+
+    private FieldPlan(final Field field) throws IllegalAccessException {
+      field.setAccessible(true);
+      this.field = field;
+      this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    private void set(final Object instance, final Object value) {
+      try {
+        setter.invokeExact(instance, value);
+      }
+      catch (final RuntimeException | Error e) {
+        throw e;
+      }
+      catch (final Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
   }
 
-  @SuppressWarnings("unchecked")
-  private <T>T newInstance(final Class<T> clazz, final boolean isResource) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+  private static final Lookup lookup = MethodHandles.lookup();
+  private static final ConstructorPlan[] noConstructors = {};
+
+  /**
+   * Returns the {@link ConstructorPlan}s of the public constructors of the
+   * specified class, in order of parameter count, excluding constructors with a
+   * parameter that is not injectable.
+   */
+  private static ConstructorPlan[] newConstructorPlans(final Class<?> clazz, final boolean isResource) {
     final Constructor<?>[] constructors = clazz.getConstructors();
+    if (constructors.length == 0)
+      return noConstructors;
+
     Arrays.sort(constructors, parameterCountComparator);
-    outer:
-    for (final Constructor<?> constructor : constructors) {
-      final Parameter[] parameters = constructor.getParameters();
-      if (parameters.length == 0)
-        return (T)constructor.newInstance();
-
-      final Object[] parameterInstances = new Object[parameters.length];
-      for (int i = 0; i < parameters.length; ++i) {
-        final Parameter parameter = parameters[i];
-        final Annotation injectableAnnotation = isResource ? getInjectableAnnotation(parameter, parameter.getAnnotations()) : parameter.getAnnotation(Context.class);
-        if (injectableAnnotation == null) {
-          logger.warn("Unsupported parameter type: " + parameter.getName() + " on: " + clazz.getName() + "(" + Arrays.stream(parameters).map(p -> p.getType().getSimpleName()).collect(Collectors.joining(",")) + ")");
-          continue outer;
+    final List<ConstructorPlan> plans = new ArrayList<>(constructors.length);
+    try {
+      outer:
+      for (final Constructor<?> constructor : constructors) {
+        final Parameter[] parameters = constructor.getParameters();
+        for (final Parameter parameter : parameters) {
+          final Annotation injectableAnnotation = isResource ? getInjectableAnnotation(parameter, parameter.getAnnotations()) : parameter.getAnnotation(Context.class);
+          if (injectableAnnotation == null) {
+            logger.warn("Unsupported parameter type: " + parameter.getName() + " on: " + clazz.getName() + "(" + Arrays.stream(parameters).map(p -> p.getType().getSimpleName()).collect(Collectors.joining(",")) + ")");
+            continue outer;
+          }
         }
 
-        final Object injectableObject = getContextObject(parameter.getType());
+        plans.add(new ConstructorPlan(constructor));
+        // NOTE: A no-arg constructor is always chosen, so the constructors that follow it are never used
+        if (parameters.length == 0)
+          break;
+      }
+    }
+    catch (final IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+
+    return plans.toArray(new ConstructorPlan[plans.size()]);
+  }
+
+  private static final ClassValue<ConstructorPlan[]> resourceConstructorPlans = new ClassValue<ConstructorPlan[]>() {
+    @Override
+    protected ConstructorPlan[] computeValue(final Class<?> type) {
+      return newConstructorPlans(type, true);
+    }
+  };
+
+  private static final ClassValue<ConstructorPlan[]> providerConstructorPlans = new ClassValue<ConstructorPlan[]>() {
+    @Override
+    protected ConstructorPlan[] computeValue(final Class<?> type) {
+      return newConstructorPlans(type, false);
+    }
+  };
+
+  private static final ClassValue<FieldPlan[]> fieldPlans = new ClassValue<FieldPlan[]>() {
+    @Override
+    protected FieldPlan[] computeValue(final Class<?> type) {
+      final Field[] fields = Classes.getDeclaredFieldsDeep(type);
+      final List<FieldPlan> plans = new ArrayList<>(0);
+      try {
+        for (final Field field : fields)
+          if (field.isAnnotationPresent(Context.class))
+            plans.add(new FieldPlan(field));
+      }
+      catch (final IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+
+      return plans.toArray(new FieldPlan[plans.size()]);
+    }
+  };
+
+  public <T>T newResourceInstance(final Class<T> clazz) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    return newInstance(clazz, resourceConstructorPlans.get(clazz), true);
+  }
+
+  public <T>T newProviderInstance(final Class<T> clazz) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    return newInstance(clazz, providerConstructorPlans.get(clazz), false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T>T newInstance(final Class<T> clazz, final ConstructorPlan[] constructorPlans, final boolean isResource) throws InstantiationException, InvocationTargetException {
+    outer:
+    for (final ConstructorPlan constructorPlan : constructorPlans) {
+      final Class<?>[] parameterTypes = constructorPlan.parameterTypes;
+      final Object[] parameterInstances = new Object[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; ++i) {
+        final Object injectableObject = getContextObject(parameterTypes[i]);
         if (injectableObject == null) {
-          logger.warn("Unsupported @Context parameter: " + parameter.getName() + " on: " + clazz.getName() + "(" + Arrays.stream(parameters).map(p -> p.getType().getSimpleName()).collect(Collectors.joining(",")) + ")");
+          logger.warn("Unsupported @Context parameter: " + parameterTypes[i].getName() + " on: " + constructorPlan.signature);
           continue outer;
         }
 
         parameterInstances[i] = injectableObject;
       }
 
-      return (T)constructor.newInstance(parameterInstances);
+      return (T)constructorPlan.newInstance(parameterInstances);
     }
 
     throw new InstantiationException("No suitable constructor found on " + (isResource ? "resource" : "provider") + " " + clazz.getName());
@@ -274,20 +565,16 @@ public class AnnotationInjector {
 
   // the "inject" boolean is intended to allow a way to test DURING LOAD TIME whether a class WILL BE ABLE TO BE injectable during runtime
   private <T>T injectFields(final T instance, final boolean inject) throws IllegalAccessException {
-    final Field[] fields = Classes.getDeclaredFieldsDeep(instance.getClass());
-    for (final Field field : fields) {
-      if (field.isAnnotationPresent(Context.class)) {
-        final Object injectableObject = getContextObject(field.getType());
-        if (injectableObject == null)
-          throw new UnsupportedOperationException("Unsupported @Context type: " + field.getType().getName() + " on: " + instance.getClass().getName() + "." + field.getName());
-
-        if (inject) {
-          field.setAccessible(true);
-          field.set(instance, injectableObject);
-        }
-      }
+    for (final FieldPlan fieldPlan : fieldPlans.get(instance.getClass())) {
+      final Field field = fieldPlan.field;
+      final Object injectableObject = getContextObject(field.getType());
+      if (injectableObject == null)
+        throw new UnsupportedOperationException("Unsupported @Context type: " + field.getType().getName() + " on: " + instance.getClass().getName() + "." + field.getName());
+
+      if (inject)
+        fieldPlan.set(instance, injectableObject);
     }
 
     return instance;
   }
-}
\ No newline at end of file
+}
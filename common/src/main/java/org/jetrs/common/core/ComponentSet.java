@@ -39,9 +39,18 @@ class ComponentSet implements Cloneable, Serializable {
   };
 
   private TreeSet<Component> components = new TreeSet<>(comparator);
+  private int modCount;
 
-  void add(final Component component) {
-    components.add(component);
+  boolean add(final Component component) {
+    if (!components.add(component))
+      return false;
+
+    ++modCount;
+    return true;
+  }
+
+  int modCount() {
+    return modCount;
   }
 
   private Set<Class<?>> classes;
@@ -24,7 +24,12 @@ import javax.ws.rs.core.Configurable;
 public interface ConfigurableImpl<C extends Configurable<? super C>> extends Configurable<C> {
   @Override
   default C property(final String name, final Object value) {
-    getConfiguration().getProperties().put(name, value);
+    final Map<String,Object> properties = ((ConfigurationImpl)getConfiguration()).properties();
+    if (value == null)
+      properties.remove(name);
+    else
+      properties.put(name, value);
+
     return (C)this;
   }
 
@@ -36,23 +36,25 @@ public abstract class ConfigurationImpl implements Cloneable, Configuration, Ser
   public ConfigurationImpl(final Application application) {
     this.classes = application.getClasses();
     this.instances = application.getSingletons();
-    this.properties = application.getProperties();
+    final Map<String,Object> properties = application.getProperties();
+    this.properties = properties == null ? null : new HashMap<>(properties);
   }
 
   public ConfigurationImpl() {
   }
 
+  Map<String,Object> properties() {
+    return properties == null ? properties = new HashMap<>() : properties;
+  }
+
   @Override
   public Map<String,Object> getProperties() {
-    if (properties == null)
-      properties = new HashMap<>();
-
-    return Collections.unmodifiableMap(properties);
+    return Collections.unmodifiableMap(properties());
   }
 
   @Override
   public Object getProperty(final String name) {
-    return getProperties().get(name);
+    return properties == null ? null : properties.get(name);
   }
 
   @Override
@@ -94,6 +96,18 @@ public abstract class ConfigurationImpl implements Cloneable, Configuration, Ser
     return components == null ? components = new ComponentSet() : components;
   }
 
+  /**
+   * Returns the number of times a component was added to this configuration,
+   * with which a consumer can tell whether the providers it has built from
+   * this configuration are still current, without comparing the registered
+   * classes and instances.
+   *
+   * @return The number of times a component was added to this configuration.
+   */
+  public int getModCount() {
+    return components == null ? 0 : components.modCount();
+  }
+
   @Override
   public boolean isRegistered(final Class<?> componentClass) {
     return components().contains(componentClass);
@@ -122,7 +136,8 @@ public abstract class ConfigurationImpl implements Cloneable, Configuration, Ser
   public Configuration clone() {
     try {
       final ConfigurationImpl clone = (ConfigurationImpl)super.clone();
-      clone.components = components.clone();
+      clone.components = components == null ? null : components.clone();
+      clone.properties = properties == null ? null : new HashMap<>(properties);
       clone.classes = null;
       clone.instances = null;
       return clone;
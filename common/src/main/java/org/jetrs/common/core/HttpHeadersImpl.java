@@ -89,15 +89,7 @@ public class HttpHeadersImpl extends HttpHeadersMap<String,String,Object> implem
    */
   public HttpHeadersImpl(final HttpServletRequest request) {
     this();
-    if (request != null) {
-      final Enumeration<String> headerNames = request.getHeaderNames();
-      while (headerNames.hasMoreElements()) {
-        final String headerName = headerNames.nextElement();
-        final Enumeration<String> enumeration = request.getHeaders(headerName);
-        while (enumeration.hasMoreElements())
-          add(headerName, enumeration.nextElement());
-      }
-    }
+    load(request);
   }
 
   /**
@@ -110,9 +102,7 @@ public class HttpHeadersImpl extends HttpHeadersMap<String,String,Object> implem
    */
   public HttpHeadersImpl(final HttpServletResponse response) {
     this();
-    if (response != null)
-      for (final String header : response.getHeaders(HttpHeaders.ALLOW))
-        add(HttpHeaders.ALLOW, header);
+    load(response);
   }
 
   /**
@@ -132,6 +122,48 @@ public class HttpHeadersImpl extends HttpHeadersMap<String,String,Object> implem
     }, HttpHeadersUtil.qualifier);
   }
 
+  private void load(final HttpServletRequest request) {
+    if (request != null) {
+      final Enumeration<String> headerNames = request.getHeaderNames();
+      while (headerNames.hasMoreElements()) {
+        final String headerName = headerNames.nextElement();
+        final Enumeration<String> enumeration = request.getHeaders(headerName);
+        while (enumeration.hasMoreElements())
+          add(headerName, enumeration.nextElement());
+      }
+    }
+  }
+
+  private void load(final HttpServletResponse response) {
+    if (response != null)
+      for (final String header : response.getHeaders(HttpHeaders.ALLOW))
+        add(HttpHeaders.ALLOW, header);
+  }
+
+  /**
+   * Clears this {@link HttpHeadersImpl}, and reinitializes the header values
+   * from the specified {@link HttpServletRequest}.
+   *
+   * @param request The {@link HttpServletRequest} from which to initialize the
+   *          header values.
+   */
+  public void reset(final HttpServletRequest request) {
+    clear();
+    load(request);
+  }
+
+  /**
+   * Clears this {@link HttpHeadersImpl}, and reinitializes the header values
+   * from the specified {@link HttpServletResponse}.
+   *
+   * @param response The {@link HttpServletResponse} from which to initialize
+   *          the header values.
+   */
+  public void reset(final HttpServletResponse response) {
+    clear();
+    load(response);
+  }
+
   @Override
   public List<String> getRequestHeader(final String name) {
     return get(name);
@@ -25,12 +25,16 @@ import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Variant;
 
 public class RequestImpl implements Request {
-  private final String method;
+  private String method;
 
   public RequestImpl(final String method) {
     this.method = method;
   }
 
+  public void reset(final String method) {
+    this.method = method;
+  }
+
   @Override
   public String getMethod() {
     return method;
@@ -24,7 +24,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.ws.rs.Path;
@@ -35,94 +34,172 @@ import javax.ws.rs.core.UriBuilderException;
 import org.jetrs.common.core.UriBuilderUtil.TemplateParametersMap;
 
 public class UriBuilderImpl extends UriBuilder implements Cloneable {
+  /**
+   * The opaque form of a URI, in which the scheme is not followed by
+   * {@code '/'}, as recognized by {@link #uri(String)}.
+   */
   static final Pattern opaqueUri = Pattern.compile("^([^:/?#{]+):([^/].*)");
-  private static final Pattern hierarchicalUri = Pattern.compile("^(([^:/?#{]+):)?(//([^/?#]*))?([^?#]*)(\\?([^#]*))?(#(.*))?");
-  private static final Pattern squareHostBrackets = Pattern.compile("(\\[(([0-9A-Fa-f]{0,4}:){2,7})([0-9A-Fa-f]{0,4})%?.*\\]):(\\d+)");
-  private static final Pattern hostPortPattern = Pattern.compile("([^/:]+):(\\d+)");
 
-  private UriBuilder parseHierarchicalUri(final CharSequence uriTemplate, final Matcher match) {
-    final boolean hasScheme = match.group(2) != null;
-    if (hasScheme)
-      this.scheme = match.group(2);
+  private static boolean isHexDigit(final char ch) {
+    return '0' <= ch && ch <= '9' || 'a' <= ch && ch <= 'f' || 'A' <= ch && ch <= 'F';
+  }
 
-    final String authority = match.group(4);
-    if (authority != null) {
-      this.authority = null;
-      String host = match.group(4);
-      final int at = host.indexOf('@');
-      if (at > -1) {
-        final String user = host.substring(0, at);
-        host = host.substring(at + 1);
-        this.userInfo = user;
-      }
+  private static boolean isDigits(final String string, int start, final int end) {
+    if (start == end)
+      return false;
 
-      try {
-        final Matcher hostPortMatch = hostPortPattern.matcher(host);
-        if (hostPortMatch.matches()) {
-          this.host = hostPortMatch.group(1);
-          this.port = Integer.parseInt(hostPortMatch.group(2));
-        }
-        else {
-          if (host.startsWith("[")) {
-            // Must support an IPv6 hostname of format "[::1]" or
-            // [0:0:0:0:0:0:0:0]
-            // and IPv6 link-local format [fe80::1234%1]
-            // [ff08::9abc%interface10]
-            final Matcher bracketsMatch = squareHostBrackets.matcher(host);
-            if (bracketsMatch.matches()) {
-              host = bracketsMatch.group(1);
-              this.port = Integer.parseInt(bracketsMatch.group(5));
-            }
-          }
-
-          this.host = host;
-        }
-      }
-      catch (final NumberFormatException e) {
-        throw new IllegalArgumentException(invalid("uri template", uriTemplate), e);
-      }
+    for (; start < end; ++start) {
+      final char ch = string.charAt(start);
+      if (ch < '0' || '9' < ch)
+        return false;
     }
 
-    if (match.group(5) != null) {
-      final String group = match.group(5);
-      if (!hasScheme && !group.isEmpty() && !group.startsWith("/") && group.indexOf(':') > -1 && group.indexOf('/') > -1 && group.indexOf(':') < group.indexOf('/'))
-        throw new IllegalArgumentException(invalid("uri template", uriTemplate));
+    return true;
+  }
+
+  /**
+   * Returns whether the string starting at the specified index begins with an
+   * IPv6 address, i.e. with 2 to 7 groups of up to 4 hexadecimal digits that
+   * are each followed by {@code ':'}.
+   */
+  private static boolean isIPv6Prefix(final String string, int index, final int end) {
+    int groups = 0;
+    while (groups < 7) {
+      int i = index;
+      for (; i < end && i - index < 4 && isHexDigit(string.charAt(i)); ++i);
+      if (i == end || string.charAt(i) != ':')
+        break;
 
-      if (!group.isEmpty())
-        replacePath(group);
+      ++groups;
+      index = i + 1;
     }
 
-    if (match.group(7) != null)
-      replaceQuery(match.group(7));
+    return groups >= 2;
+  }
+
+  /**
+   * Returns the index of the first of the specified delimiters in the string,
+   * starting at the specified index, or the length of the string if there is
+   * none. A template parameter is skipped as a whole, so that a delimiter in
+   * it (e.g. in its regular expression) does not end the component.
+   */
+  private static int indexOfDelimiter(final String string, int index, final boolean slash, final boolean question) {
+    for (final int len = string.length(); index < len; ++index) {
+      final char ch = string.charAt(index);
+      if (ch == '#' || ch == '?' && question || ch == '/' && slash)
+        return index;
+
+      if (ch == '{') {
+        final int end = UriTemplate.indexOfClosingBrace(string, index);
+        if (end != -1)
+          index = end;
+      }
+    }
 
-    if (match.group(9) != null)
-      fragment(match.group(9));
+    return index;
+  }
+
+  /**
+   * Parses the authority between the specified indices of the URI template
+   * into its user info, host and port, where the host is a registered name,
+   * an IPv4 address or an IPv6 literal in square brackets. The port is parsed
+   * only if it is all digits, otherwise it is kept as part of the host, as is
+   * a template parameter in place of it.
+   */
+  private void parseAuthority(final String uriTemplate, final int start, final int end) {
+    this.authority = null;
+    int hostStart = start;
+    final int at = uriTemplate.indexOf('@', start);
+    if (at != -1 && at < end) {
+      this.userInfo = uriTemplate.substring(start, at);
+      hostStart = at + 1;
+    }
 
-    return this;
+    final int colon = uriTemplate.lastIndexOf(':', end - 1);
+    if (colon > hostStart && isDigits(uriTemplate, colon + 1, end)) {
+      // host ":" port, where the host is either without ':', or an IPv6 literal, such as "[::1]" or "[fe80::1234%1]"
+      if (uriTemplate.indexOf(':', hostStart) == colon || uriTemplate.charAt(hostStart) == '[' && uriTemplate.charAt(colon - 1) == ']' && isIPv6Prefix(uriTemplate, hostStart + 1, colon - 1)) {
+        try {
+          this.port = Integer.parseInt(uriTemplate.substring(colon + 1, end));
+        }
+        catch (final NumberFormatException e) {
+          throw new IllegalArgumentException(invalid("uri template", uriTemplate), e);
+        }
+
+        this.host = uriTemplate.substring(hostStart, colon);
+        return;
+      }
+    }
+
+    this.host = uriTemplate.substring(hostStart, end);
   }
 
+  /**
+   * Parses the URI template into the components of this builder in a single
+   * pass, via <a href="http://ietf.org/rfc/rfc3986.txt">RFC 3986</a>:
+   *
+   * <pre>
+   * URI = scheme ":" ["//" authority] path ["?" query] ["#" fragment]
+   * </pre>
+   *
+   * A URI template of which the scheme is not followed by {@code '/'} is
+   * opaque, and its scheme-specific part is kept as a whole.
+   */
   private UriBuilder uri(final CharSequence uriTemplate) {
     if (uriTemplate == null)
       throw new IllegalArgumentException(invalidParam("uriTemplate", null));
 
-    final Matcher opaque = opaqueUri.matcher(uriTemplate);
-    if (opaque.matches()) {
+    final String uri = uriTemplate.toString();
+    final int len = uri.length();
+    int index = 0;
+    for (char ch; index < len && (ch = uri.charAt(index)) != ':' && ch != '/' && ch != '?' && ch != '#' && ch != '{'; ++index);
+    final boolean hasScheme = index > 0 && index < len && uri.charAt(index) == ':';
+    if (hasScheme && index + 1 < len && uri.charAt(index + 1) != '/') {
       this.authority = null;
       this.host = null;
       this.port = -1;
       this.userInfo = null;
       this.query = null;
-      this.scheme = opaque.group(1);
-      this.ssp = opaque.group(2);
+      this.scheme = uri.substring(0, index);
+      this.ssp = uri.substring(index + 1);
       return this;
     }
 
-    final Matcher matcher = hierarchicalUri.matcher(uriTemplate);
-    if (!matcher.matches())
-      throw new IllegalArgumentException(invalid("uri template", uriTemplate));
+    this.ssp = null;
+    if (hasScheme)
+      this.scheme = uri.substring(0, index++);
+    else
+      index = 0;
+
+    if (index + 1 < len && uri.charAt(index) == '/' && uri.charAt(index + 1) == '/') {
+      final int start = index + 2;
+      index = indexOfDelimiter(uri, start, true, true);
+      parseAuthority(uri, start, index);
+    }
 
-    ssp = null;
-    return parseHierarchicalUri(uriTemplate, matcher);
+    final int pathStart = index;
+    index = indexOfDelimiter(uri, index, false, true);
+    if (index > pathStart) {
+      final String path = uri.substring(pathStart, index);
+      if (!hasScheme && path.charAt(0) != '/') {
+        final int colon = path.indexOf(':');
+        if (colon > -1 && colon < path.indexOf('/'))
+          throw new IllegalArgumentException(invalid("uri template", uriTemplate));
+      }
+
+      replacePath(path);
+    }
+
+    if (index < len && uri.charAt(index) == '?') {
+      final int queryStart = index + 1;
+      index = indexOfDelimiter(uri, queryStart, false, false);
+      replaceQuery(uri.substring(queryStart, index));
+    }
+
+    if (index < len)
+      fragment(uri.substring(index + 1));
+
+    return this;
   }
 
   private StringBuilder buildFromParameters(final Map<String,?> parameters, final boolean fromEncodedMap, final boolean isTemplate, final boolean encodeSlash) {
@@ -519,18 +596,8 @@ public class UriBuilderImpl extends UriBuilder implements Cloneable {
       matrixParam(name, values);
 
     // put back all path param expressions
-    if (foundParam) {
-      final Matcher matcher = UriEncoder.PARAM_REPLACEMENT.matcher(path);
-      final StringBuilder builder = new StringBuilder();
-      int from = 0;
-      for (int i = 0; matcher.find(); ++i, from = matcher.end()) {
-        builder.append(this.path, from, matcher.start());
-        builder.append(pathParams.get(i));
-      }
-
-      builder.append(this.path, from, this.path.length());
-      path = builder.toString();
-    }
+    if (foundParam)
+      path = UriEncoder.restorePathParams(path, pathParams);
 
     return this;
   }
@@ -20,17 +20,10 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.ws.rs.core.UriBuilderException;
 
 final class UriBuilderUtil {
-  private static final String URI_PARAM_NAME_REGEX = "\\w[\\w.-]*";
-  private static final String URI_PARAM_REGEX_REGEX = "[^{}][^{}]*";
-  private static final String URI_PARAM_REGEX = "\\{\\s*(" + URI_PARAM_NAME_REGEX + ")\\s*(:\\s*(" + URI_PARAM_REGEX_REGEX + "))?\\}";
-  private static final Pattern URI_PARAM_PATTERN = Pattern.compile(URI_PARAM_REGEX);
-
   @SuppressWarnings("unlikely-arg-type")
   static final class TemplateParametersMap extends HashMap<String,Object> {
     private static final long serialVersionUID = 857530441505719224L;
@@ -89,31 +82,35 @@ final class UriBuilderUtil {
   }
 
   static void replaceParameter(final Map<String,?> paramMap, final boolean fromEncodedMap, final boolean isTemplate, final String string, final StringBuilder builder, final UriEncoder uriEncoder) {
-    if (string.indexOf('{') == -1) {
-      builder.append(string);
-      return;
-    }
-
     int start = 0;
-    for (final Matcher matcher = URI_PARAM_PATTERN.matcher(UriEncoder.replaceBraces(string)); matcher.find(); start = matcher.end()) {
-      builder.append(string, start, matcher.start());
-      final String param = matcher.group(1);
-      if (paramMap == null || !paramMap.containsKey(param)) {
-        if (!isTemplate)
-          throw new IllegalArgumentException(pathParameterNotProvided(param));
-
-        builder.append(matcher.group());
-        continue;
+    for (int i = string.indexOf('{'); i != -1; i = string.indexOf('{', i + 1)) {
+      final int end = UriTemplate.indexOfClosingBrace(string, i);
+      if (end == -1)
+        break;
+
+      final String param = UriTemplate.getName(string, i + 1, end);
+      if (param != null) {
+        builder.append(string, start, i);
+        start = end + 1;
+        if (paramMap == null || !paramMap.containsKey(param)) {
+          if (!isTemplate)
+            throw new IllegalArgumentException(pathParameterNotProvided(param));
+
+          builder.append(string, i, start);
+        }
+        else {
+          final Object value = paramMap.get(param);
+          if (value == null)
+            throw new IllegalArgumentException(invalidParam("value for template", null));
+
+          if (fromEncodedMap)
+            uriEncoder.appendSaveEncodings(builder, value.toString());
+          else
+            uriEncoder.appendAsIs(builder, value.toString());
+        }
       }
 
-      final Object value = paramMap.get(param);
-      if (value == null)
-        throw new IllegalArgumentException(invalidParam("value for template", null));
-
-      if (fromEncodedMap)
-        builder.append(uriEncoder.encodeSaveEncodings(value.toString()));
-      else
-        builder.append(uriEncoder.encodeAsIs(value.toString()));
+      i = end;
     }
 
     builder.append(string, start, string.length());
@@ -16,14 +16,15 @@
 
 package org.jetrs.common.core;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.libj.lang.ArrayCharSequence;
-import org.libj.net.URLs;
 
+/**
+ * Encoder of the components of a URI, via
+ * <a href="http://ietf.org/rfc/rfc3986.txt">RFC 3986</a>. Each encoder is a
+ * lookup table of the ASCII characters that are allowed in its component,
+ * with which a value is encoded in a single pass. A value in which no
+ * character needs to be escaped is returned as is.
+ */
 final class UriEncoder {
   static final UriEncoder QUERY;
   static final UriEncoder QUERY_PARAM;
@@ -32,286 +33,206 @@ final class UriEncoder {
   static final UriEncoder PATH_SEGMENT;
 
   private static final String REPLACEMENT_PARAM = "_uri_parameter";
-  static final Pattern PARAM_REPLACEMENT = Pattern.compile(REPLACEMENT_PARAM);
 
-  static {
-    final String[] pathEncoding = new String[128];
-    final String[] pathSegmentEncoding = new String[128];
-    final String[] matrixParameterEncoding = new String[128];
-    final String[] queryNameValueEncoding = new String[128];
-    final String[] queryStringEncoding = new String[128];
-
-    /*
-     * Encode via <a href="http://ietf.org/rfc/rfc3986.txt">RFC 3986</a>. PCHAR
-     * is allowed along with '/' unreserved = ALPHA / DIGIT / "-" / "." / "_" /
-     * "~" sub-delims = "!" / "$" / "&" / "'" / "(" / ")" / "*" / "+" / "," /
-     * ";" / "=" pchar = unreserved / pct-encoded / sub-delims / ":" / "@"
-     */
-    for (int i = 0; i < 128; ++i) {
-      if ('a' <= i && i <= 'z' || 'A' <= i && i <= 'Z' || '0' <= i && i <= '9')
-        continue;
+  private static final int AS_IS = 0;
+  private static final int SAVE_ENCODINGS = 1;
+  private static final int SAVE_TEMPLATES = 2;
 
-      switch (i) {
-        case '-':
-        case '.':
-        case '_':
-        case '~':
-        case '!':
-        case '$':
-        case '&':
-        case '\'':
-        case '(':
-        case ')':
-        case '*':
-        case '+':
-        case ',':
-        case '/':
-        case ';':
-        case '=':
-        case ':':
-        case '@':
-          continue;
-      }
-
-      pathEncoding[i] = URLs.encode(String.valueOf((char)i));
-    }
+  private static final char[] hexDigits = "0123456789ABCDEF".toCharArray();
+  private static final byte[] hexValues = new byte[128];
 
-    pathEncoding[' '] = "%20";
-    System.arraycopy(pathEncoding, 0, matrixParameterEncoding, 0, pathEncoding.length);
-    matrixParameterEncoding[';'] = "%3B";
-    matrixParameterEncoding['='] = "%3D";
-    matrixParameterEncoding['/'] = "%2F";
-    System.arraycopy(pathEncoding, 0, pathSegmentEncoding, 0, pathEncoding.length);
-    pathSegmentEncoding['/'] = "%2F";
-    /*
-     * Encode via <a href="http://ietf.org/rfc/rfc3986.txt">RFC 3986</a>.
-     * unreserved = ALPHA / DIGIT / "-" / "." / "_" / "~" space encoded as '+'
-     */
-    for (int i = 0; i < 128; ++i) {
-      if ('a' <= i && i <= 'z' || 'A' <= i && i <= 'Z' || '0' <= i && i <= '9')
-        continue;
+  static {
+    for (int i = 0; i < hexValues.length; ++i)
+      hexValues[i] = -1;
 
-      switch (i) {
-        case '-':
-        case '.':
-        case '_':
-        case '~':
-        case '?':
-          continue;
-        case ' ':
-          queryNameValueEncoding[i] = "+";
-          continue;
-      }
+    for (int i = 0; i < 10; ++i)
+      hexValues['0' + i] = (byte)i;
 
-      queryNameValueEncoding[i] = URLs.encode(String.valueOf((char)i));
-    }
+    for (int i = 0; i < 6; ++i)
+      hexValues['a' + i] = hexValues['A' + i] = (byte)(10 + i);
 
+    // unreserved = ALPHA / DIGIT / "-" / "." / "_" / "~"
+    // sub-delims = "!" / "$" / "&" / "'" / "(" / ")" / "*" / "+" / "," / ";" / "="
+    // pchar = unreserved / pct-encoded / sub-delims / ":" / "@"
+    PATH = new UriEncoder("-._~!$&'()*+,;=:@/", false);
+    PATH_SEGMENT = new UriEncoder("-._~!$&'()*+,;=:@", false);
+    MATRIX = new UriEncoder("-._~!$&'()*+,:@", false);
     // query = *( pchar / "/" / "?" )
-    for (int i = 0; i < 128; ++i) {
-      if ('a' <= i && i <= 'z' || 'A' <= i && i <= 'Z' || '0' <= i && i <= '9')
-        continue;
-
-      switch ((char)i) {
-        case '-':
-        case '.':
-        case '_':
-        case '~':
-        case '!':
-        case '$':
-        case '&':
-        case '\'':
-        case '(':
-        case ')':
-        case '*':
-        case '+':
-        case ',':
-        case ';':
-        case '=':
-        case ':':
-        case '@':
-        case '?':
-        case '/':
-          continue;
-        case ' ':
-          queryStringEncoding[i] = "%20";
-          continue;
-      }
-
-      queryStringEncoding[i] = URLs.encode(String.valueOf((char)i));
-    }
-
-    PATH = new UriEncoder(pathEncoding);
-    MATRIX = new UriEncoder(matrixParameterEncoding);
-    QUERY = new UriEncoder(queryStringEncoding);
-    QUERY_PARAM = new UriEncoder(queryNameValueEncoding);
-    PATH_SEGMENT = new UriEncoder(pathSegmentEncoding);
+    QUERY = new UriEncoder("-._~!$&'()*+,;=:@?/", false);
+    // NOTE: A name or value of a query parameter is form-encoded, whereby '*' is kept and ' ' is encoded as '+'
+    QUERY_PARAM = new UriEncoder("-._~?*", true);
   }
 
-  // private static final Pattern nonCodes = Pattern.compile("%([^a-fA-F0-9]|$)");
-  private static final Pattern nonCodes = Pattern.compile("%([^a-fA-F0-9]|[a-fA-F0-9]$|$|[a-fA-F0-9][^a-fA-F0-9])");
+  private static boolean isHexDigit(final char ch) {
+    return ch < 128 && hexValues[ch] != -1;
+  }
 
   /**
-   * Encode '%' if it is not an encoding sequence
-   *
-   * @param string value to encode
-   * @return encoded value
+   * Returns whether the specified index of the string is the start of a valid
+   * escape sequence, i.e. {@code '%'} followed by two hexadecimal digits.
    */
-  private static String encodeNonCodes(final String string) {
-    final Matcher matcher = nonCodes.matcher(string);
-    final StringBuilder builder = new StringBuilder();
-
-    // FYI: we do not use the no-arg matcher.find()
-    // coupled with matcher.appendReplacement()
-    // because the matched text may contain
-    // a second % and we must make sure we
-    // encode it (if necessary).
-    int index = 0;
-    for (int start; matcher.find(index); index = start + 1)
-      builder.append(string, index, start = matcher.start()).append("%25");
-
-    builder.append(string.substring(index));
-    return builder.toString();
+  private static boolean isEscape(final String string, final int index) {
+    return index + 2 < string.length() && isHexDigit(string.charAt(index + 1)) && isHexDigit(string.charAt(index + 2));
   }
 
-  static boolean savePathParams(final String segmentString, final StringBuilder newSegment, final List<? super String> params) {
-    boolean foundParam = false;
-    // Regular expressions can have '{' and '}' characters. Replace them to do
-    // match
-    final CharSequence segment = replaceBraces(segmentString);
-    final Matcher matcher = URI_TEMPLATE_PATTERN.matcher(segment);
-    int start = 0;
-    for (; matcher.find(); start = matcher.end()) {
-      newSegment.append(segment, start, matcher.start());
-      foundParam = true;
-      // Regular expressions can have '{' and '}' characters. Recover earlier
-      // replacement
-      params.add(recoverBraces(matcher.group()));
-      newSegment.append(REPLACEMENT_PARAM);
-    }
-
-    newSegment.append(segment, start, segment.length());
-    return foundParam;
+  private static void appendEscaped(final StringBuilder builder, final int octet) {
+    builder.append('%').append(hexDigits[(octet >> 4) & 0xF]).append(hexDigits[octet & 0xF]);
   }
 
   /**
-   * Keep encoded values "%..." and template parameters intact i.e. "{x}"
-   *
-   * @param segment value to encode
-   * @param encoding encoding
-   * @return encoded value
+   * Appends the escaped UTF-8 octets of the non-ASCII code point at the
+   * specified index of the string, and returns the index of its last char.
    */
-  private static String encodeValue(String segment, final String[] encoding) {
-    final ArrayList<String> params = new ArrayList<>();
-    boolean foundParam = false;
-    final StringBuilder newSegment = new StringBuilder();
-    if (savePathParams(segment, newSegment, params)) {
-      foundParam = true;
-      segment = newSegment.toString();
+  private static int appendUtf8(final StringBuilder builder, final String string, final int index) {
+    final char ch = string.charAt(index);
+    if (ch < 0x800) {
+      appendEscaped(builder, 0xC0 | (ch >> 6));
+      appendEscaped(builder, 0x80 | (ch & 0x3F));
+      return index;
     }
 
-    segment = encodeNonCodes(encodeFromArray(segment, encoding, false));
-    if (foundParam)
-      segment = pathParamReplacement(segment, params);
-
-    return segment;
-  }
+    if (Character.isHighSurrogate(ch) && index + 1 < string.length() && Character.isLowSurrogate(string.charAt(index + 1))) {
+      final int codePoint = Character.toCodePoint(ch, string.charAt(index + 1));
+      appendEscaped(builder, 0xF0 | (codePoint >> 18));
+      appendEscaped(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+      appendEscaped(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+      appendEscaped(builder, 0x80 | (codePoint & 0x3F));
+      return index + 1;
+    }
 
-  private static String encodeFromArray(final String segment, final String[] encodingMap, final boolean encodePercent) {
-    final StringBuilder builder = new StringBuilder();
-    for (int i = 0; i < segment.length(); ++i) {
-      final char ch = segment.charAt(i);
-      if (encodePercent || ch != '%') {
-        final String encoding = encode(ch, encodingMap);
-        builder.append(encoding != null ? encoding : ch);
-      }
-      else {
-        builder.append(ch);
-      }
+    if (Character.isSurrogate(ch)) {
+      // NOTE: An unpaired surrogate is encoded as '?', as by String.getBytes()
+      appendEscaped(builder, '?');
+      return index;
     }
 
-    return builder.toString();
+    appendEscaped(builder, 0xE0 | (ch >> 12));
+    appendEscaped(builder, 0x80 | ((ch >> 6) & 0x3F));
+    appendEscaped(builder, 0x80 | (ch & 0x3F));
+    return index;
   }
 
   /**
-   * Returns the URL-encoded representation of the specified character, via the
-   * provided encoding map.
+   * Replaces each template parameter in the specified string with a
+   * placeholder, such that the string can be modified without regard for the
+   * characters of its template parameters, which are to be put back with
+   * {@link #restorePathParams(String,List)}.
    *
-   * @param zhar Integer representation of character.
-   * @param encodingMap Encoding map.
-   * @return The URL-encoded character.
+   * @param segmentString The string.
+   * @param newSegment The {@link StringBuilder} to which the string with the
+   *          placeholders is appended.
+   * @param params The list to which the template parameters are added.
+   * @return Whether the string has a template parameter.
    */
-  private static String encode(final int zhar, final String[] encodingMap) {
-    return zhar < encodingMap.length ? encodingMap[zhar] : URLs.encode(String.valueOf((char)zhar));
-  }
-
-  private static String pathParamReplacement(final String segment, final List<String> params) {
-    final StringBuilder builder = new StringBuilder();
-    final Matcher matcher = PARAM_REPLACEMENT.matcher(segment);
+  static boolean savePathParams(final String segmentString, final StringBuilder newSegment, final List<? super String> params) {
     int start = 0;
-    for (int i = 0; matcher.find(); ++i) {
-      builder.append(segment, start, matcher.start());
-      final String replacement = params.get(i);
-      builder.append(replacement);
-      start = matcher.end();
+    for (int i = 0, len = segmentString.length(); i < len; ++i) {
+      if (segmentString.charAt(i) == '{') {
+        final int end = UriTemplate.indexOfClosingBrace(segmentString, i);
+        if (end == -1)
+          break;
+
+        if (end > i + 1) {
+          newSegment.append(segmentString, start, i).append(REPLACEMENT_PARAM);
+          params.add(segmentString.substring(i, end + 1));
+          start = end + 1;
+          i = end;
+        }
+      }
     }
 
-    builder.append(segment, start, segment.length());
-    return builder.toString();
+    newSegment.append(segmentString, start, segmentString.length());
+    return start > 0;
   }
 
   /**
-   * A regex pattern that searches for a URI template parameter in the form of
-   * {*}
+   * Puts back the template parameters of a string, which were replaced with
+   * placeholders by {@link #savePathParams(String,StringBuilder,List)}.
+   *
+   * @param segment The string with the placeholders.
+   * @param params The template parameters.
+   * @return The string with the template parameters put back.
    */
-  private static final Pattern URI_TEMPLATE_PATTERN = Pattern.compile("(\\{([^}]+)\\})");
+  static String restorePathParams(final String segment, final List<String> params) {
+    final StringBuilder builder = new StringBuilder(segment.length() + 16);
+    int start = 0;
+    for (int i = 0, index; (index = segment.indexOf(REPLACEMENT_PARAM, start)) != -1 && i < params.size(); ++i, start = index + REPLACEMENT_PARAM.length())
+      builder.append(segment, start, index).append(params.get(i));
+
+    return builder.append(segment, start, segment.length()).toString();
+  }
+
+  private final boolean[] allowed = new boolean[128];
+  private final boolean spaceAsPlus;
 
-  private static final char openCurlyReplacement = 6;
-  private static final char closeCurlyReplacement = 7;
+  private UriEncoder(final String allowed, final boolean spaceAsPlus) {
+    for (int i = 0; i < this.allowed.length; ++i)
+      this.allowed[i] = 'a' <= i && i <= 'z' || 'A' <= i && i <= 'Z' || '0' <= i && i <= '9';
+
+    for (int i = 0; i < allowed.length(); ++i)
+      this.allowed[allowed.charAt(i)] = true;
+
+    this.spaceAsPlus = spaceAsPlus;
+  }
 
   /**
-   * A cheaper (memory-wise) version of replaceEnclosedCurlyBraces(String str).
+   * Appends the encoded value to the specified {@link StringBuilder}. If
+   * {@code builder} is null, a {@link StringBuilder} is created only when a
+   * character of the value needs to be escaped, and {@code null} is returned
+   * if none does.
    *
-   * @param string input string
-   * @return replaced output
+   * @param builder The {@link StringBuilder}, or {@code null}.
+   * @param value The value to encode.
+   * @param mode {@link #AS_IS}, to escape every character that is not allowed;
+   *          {@link #SAVE_ENCODINGS}, to keep valid escape sequences; or
+   *          {@link #SAVE_TEMPLATES}, to keep valid escape sequences and
+   *          template parameters.
+   * @return The {@link StringBuilder}, or {@code null} if {@code builder} is
+   *         null and no character of the value needs to be escaped.
    */
-  @SuppressWarnings({"ConstantConditions", "null"})
-  static CharSequence replaceBraces(final String string) {
-    CharSequence sequence = string;
-    char[] chars = null;
-    for (int i = 0, open = 0; i < string.length(); ++i) {
-      if (sequence.charAt(i) == '{') {
-        if (open++ != 0) {
-          if (sequence == string) {
-            chars = string.toCharArray();
-            sequence = new ArrayCharSequence(chars);
-          }
-
-          chars[i] = openCurlyReplacement;
+  private StringBuilder append(StringBuilder builder, final String value, final int mode) {
+    boolean saveTemplates = mode == SAVE_TEMPLATES;
+    int start = 0;
+    for (int i = 0, len = value.length(); i < len; ++i) {
+      final char ch = value.charAt(i);
+      if (ch < 128 && allowed[ch])
+        continue;
+
+      if (ch == '%' && mode != AS_IS && isEscape(value, i))
+        continue;
+
+      if (ch == '{' && saveTemplates) {
+        final int end = UriTemplate.indexOfClosingBrace(value, i);
+        // NOTE: A brace that is not closed leaves no template parameter after it
+        if (end == -1) {
+          saveTemplates = false;
         }
-      }
-      else if (sequence.charAt(i) == '}') {
-        if (--open != 0) {
-          if (sequence == string) {
-            chars = string.toCharArray();
-            sequence = new ArrayCharSequence(chars);
-          }
-
-          chars[i] = closeCurlyReplacement;
+        else if (end > i + 1) {
+          i = end;
+          continue;
         }
       }
-    }
 
-    return sequence;
-  }
+      if (builder == null)
+        builder = new StringBuilder(len + 16);
 
-  private static String recoverBraces(final String str) {
-    return str.replace(openCurlyReplacement, '{').replace(closeCurlyReplacement, '}');
-  }
+      builder.append(value, start, i);
+      if (ch >= 128)
+        i = appendUtf8(builder, value, i);
+      else if (ch == ' ' && spaceAsPlus)
+        builder.append('+');
+      else
+        appendEscaped(builder, ch);
+
+      start = i + 1;
+    }
 
-  private final String[] data;
+    return builder == null ? null : builder.append(value, start, value.length());
+  }
 
-  private UriEncoder(final String[] data) {
-    this.data = data;
+  private String encode(final String value, final int mode) {
+    final StringBuilder builder = append(null, value, mode);
+    return builder == null ? value : builder.toString();
   }
 
   /**
@@ -321,11 +242,11 @@ final class UriEncoder {
    * @return encoded query string
    */
   String encode(final String value) {
-    return encodeValue(value, data);
+    return encode(value, SAVE_TEMPLATES);
   }
 
   String encodeAsIs(final String nameOrValue) {
-    return encodeFromArray(nameOrValue, data, true);
+    return encode(nameOrValue, AS_IS);
   }
 
   /**
@@ -335,6 +256,14 @@ final class UriEncoder {
    * @return encoded value
    */
   String encodeSaveEncodings(final String segment) {
-    return encodeNonCodes(encodeFromArray(segment, data, false));
+    return encode(segment, SAVE_ENCODINGS);
+  }
+
+  StringBuilder appendAsIs(final StringBuilder builder, final String nameOrValue) {
+    return append(builder, nameOrValue, AS_IS);
+  }
+
+  StringBuilder appendSaveEncodings(final StringBuilder builder, final String segment) {
+    return append(builder, segment, SAVE_ENCODINGS);
   }
-}
\ No newline at end of file
+}
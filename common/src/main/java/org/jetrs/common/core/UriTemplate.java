@@ -0,0 +1,492 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import static org.jetrs.common.core.UriBuilderUtil.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriBuilderException;
+
+/**
+ * A URI template that is parsed once into its literal parts and its template
+ * parameters, so that it can be resolved with a few appends to a
+ * {@link StringBuilder}. The literals of the template are kept as they are
+ * given, and are therefore expected to be encoded already, as are those of
+ * the template returned by {@link UriBuilder#toTemplate()}. A value of a
+ * template parameter is encoded for the component of the URI in which the
+ * parameter is placed.
+ * <p>
+ * A {@link UriTemplate} is immutable: resolving some of its template
+ * parameters with {@link #resolve(Map,boolean,boolean)} returns a new
+ * {@link UriTemplate}, in which the encoded values are merged into the
+ * surrounding literals. Likewise, {@link #appendPath(String)},
+ * {@link #appendMatrixParam(String,Object...)} and
+ * {@link #appendQueryParam(String,Object...)} return a new
+ * {@link UriTemplate} in which only the appended part is parsed and spliced
+ * into the parts of this template.
+ */
+public final class UriTemplate {
+  /**
+   * Returns a {@link UriTemplate} of the specified encoded template, such as
+   * one returned by {@link UriBuilder#toTemplate()}.
+   *
+   * @param template The encoded template.
+   * @return A {@link UriTemplate} of the specified encoded template.
+   * @throws IllegalArgumentException If {@code template} is null.
+   */
+  public static UriTemplate compile(final String template) {
+    if (template == null)
+      throw new IllegalArgumentException(invalidParam("template", null));
+
+    final ArrayList<String> literals = new ArrayList<>();
+    final ArrayList<String> names = new ArrayList<>();
+    final ArrayList<String> expressions = new ArrayList<>();
+    final ArrayList<Boolean> inQuery = new ArrayList<>();
+    boolean query = false;
+    boolean fragment = false;
+    int start = 0;
+    for (int i = 0, len = template.length(); i < len; ++i) {
+      final char ch = template.charAt(i);
+      if (ch == '{') {
+        final int end = indexOfClosingBrace(template, i);
+        if (end == -1)
+          break;
+
+        final String name = getName(template, i + 1, end);
+        if (name != null) {
+          literals.add(template.substring(start, i));
+          names.add(name);
+          expressions.add(template.substring(i, end + 1));
+          inQuery.add(query);
+          start = end + 1;
+        }
+
+        i = end;
+      }
+      else if (ch == '?') {
+        query = !fragment;
+      }
+      else if (ch == '#') {
+        query = false;
+        fragment = true;
+      }
+    }
+
+    literals.add(template.substring(start));
+    final boolean[] query0 = new boolean[inQuery.size()];
+    for (int i = 0; i < query0.length; ++i)
+      query0[i] = inQuery.get(i);
+
+    return new UriTemplate(literals.toArray(new String[literals.size()]), names.toArray(new String[names.size()]), expressions.toArray(new String[expressions.size()]), query0, template);
+  }
+
+  /**
+   * Returns the index of the brace that closes the brace at the specified
+   * index, accounting for the braces of a regular expression in the template
+   * parameter, or {@code -1} if the brace is not closed.
+   */
+  static int indexOfClosingBrace(final String template, final int index) {
+    for (int i = index + 1, depth = 1, len = template.length(); i < len; ++i) {
+      final char ch = template.charAt(i);
+      if (ch == '{')
+        ++depth;
+      else if (ch == '}' && --depth == 0)
+        return i;
+    }
+
+    return -1;
+  }
+
+  private static boolean isWordChar(final char ch) {
+    return 'a' <= ch && ch <= 'z' || 'A' <= ch && ch <= 'Z' || '0' <= ch && ch <= '9' || ch == '_';
+  }
+
+  /**
+   * Returns the name of the template parameter between the specified indices,
+   * in the form of {@code name} or {@code name: regex}, with optional
+   * whitespace, or {@code null} if the expression is not a template parameter.
+   */
+  static String getName(final String template, int start, final int end) {
+    while (start < end && Character.isWhitespace(template.charAt(start)))
+      ++start;
+
+    if (start == end || !isWordChar(template.charAt(start)))
+      return null;
+
+    int i = start + 1;
+    for (char ch; i < end && (isWordChar(ch = template.charAt(i)) || ch == '.' || ch == '-'); ++i);
+    final int nameEnd = i;
+    while (i < end && Character.isWhitespace(template.charAt(i)))
+      ++i;
+
+    return i == end || template.charAt(i) == ':' ? template.substring(start, nameEnd) : null;
+  }
+
+  private static StringBuilder append(final StringBuilder builder, final Object value, final boolean inQuery, final boolean encodeSlashInPath, final boolean fromEncoded) {
+    final UriEncoder uriEncoder = inQuery ? UriEncoder.QUERY_PARAM : encodeSlashInPath ? UriEncoder.PATH_SEGMENT : UriEncoder.PATH;
+    return fromEncoded ? uriEncoder.appendSaveEncodings(builder, value.toString()) : uriEncoder.appendAsIs(builder, value.toString());
+  }
+
+  private final String[] literals;
+  private final String[] names;
+  private final String[] expressions;
+  private final boolean[] inQuery;
+  private String template;
+
+  private UriTemplate(final String[] literals, final String[] names, final String[] expressions, final boolean[] inQuery, final String template) {
+    this.literals = literals;
+    this.names = names;
+    this.expressions = expressions;
+    this.inQuery = inQuery;
+    this.template = template;
+  }
+
+  /**
+   * Returns whether all template parameters of this template are resolved.
+   *
+   * @return Whether all template parameters of this template are resolved.
+   */
+  public boolean isResolved() {
+    return names.length == 0;
+  }
+
+  /**
+   * Returns a {@link UriTemplate} in which the template parameters with a
+   * value in the specified map are resolved, or this template if none of its
+   * template parameters has a value in the map.
+   *
+   * @param values The map of template parameter names to values.
+   * @param encodeSlashInPath Whether {@code '/'} characters in the values of
+   *          template parameters in the path are to be encoded.
+   * @param fromEncoded Whether the values are encoded already, in which case
+   *          their {@code '%'} characters of valid escape sequences are kept.
+   * @return A {@link UriTemplate} in which the template parameters with a
+   *         value in the specified map are resolved.
+   * @throws IllegalArgumentException If {@code values} is null, or if it maps
+   *           the name of a template parameter to null.
+   */
+  public UriTemplate resolve(final Map<String,?> values, final boolean encodeSlashInPath, final boolean fromEncoded) {
+    if (values == null)
+      throw new IllegalArgumentException(invalidParam("values", null));
+
+    if (names.length == 0 || values.size() == 0)
+      return this;
+
+    final ArrayList<String> literals = new ArrayList<>();
+    final ArrayList<Integer> unresolved = new ArrayList<>();
+    final StringBuilder literal = new StringBuilder(this.literals[0]);
+    for (int i = 0; i < names.length; ++i) {
+      final Object value = values.get(names[i]);
+      if (value != null) {
+        append(literal, value, inQuery[i], encodeSlashInPath, fromEncoded).append(this.literals[i + 1]);
+      }
+      else if (values.containsKey(names[i])) {
+        throw new IllegalArgumentException(invalidParam("value for template", null));
+      }
+      else {
+        literals.add(literal.toString());
+        unresolved.add(i);
+        literal.setLength(0);
+        literal.append(this.literals[i + 1]);
+      }
+    }
+
+    final int len = unresolved.size();
+    if (len == names.length)
+      return this;
+
+    literals.add(literal.toString());
+    final String[] names = new String[len];
+    final String[] expressions = new String[len];
+    final boolean[] inQuery = new boolean[len];
+    for (int i = 0; i < len; ++i) {
+      final int index = unresolved.get(i);
+      names[i] = this.names[index];
+      expressions[i] = this.expressions[index];
+      inQuery[i] = this.inQuery[index];
+    }
+
+    return new UriTemplate(literals.toArray(new String[literals.size()]), names, expressions, inQuery, null);
+  }
+
+  /**
+   * Returns a {@link UriTemplate} in which the template parameter of the
+   * specified name is resolved to the specified value.
+   *
+   * @param name The name of the template parameter.
+   * @param value The value of the template parameter.
+   * @param encodeSlashInPath Whether {@code '/'} characters in {@code value}
+   *          are to be encoded if the template parameter is in the path.
+   * @param fromEncoded Whether {@code value} is encoded already.
+   * @return A {@link UriTemplate} in which the template parameter of the
+   *         specified name is resolved to the specified value.
+   * @throws IllegalArgumentException If {@code name} or {@code value} is null.
+   */
+  public UriTemplate resolve(final String name, final Object value, final boolean encodeSlashInPath, final boolean fromEncoded) {
+    if (name == null)
+      throw new IllegalArgumentException(invalidParam("name", null));
+
+    if (value == null)
+      throw new IllegalArgumentException(invalidParam("value", null));
+
+    return resolve(Collections.singletonMap(name, value), encodeSlashInPath, fromEncoded);
+  }
+
+  /**
+   * Returns the index of the literal and the offset therein of the first of
+   * the specified delimiters in the literals of this template, or of the end of
+   * the last literal if there is none.
+   */
+  private int[] indexOf(final String delimiters) {
+    for (int i = 0; i < literals.length; ++i) {
+      final String literal = literals[i];
+      for (int j = 0, len = literal.length(); j < len; ++j) {
+        final char ch = literal.charAt(j);
+        if (ch == '{') {
+          final int end = indexOfClosingBrace(literal, j);
+          if (end == -1)
+            break;
+
+          j = end;
+        }
+        else if (delimiters.indexOf(ch) != -1) {
+          return new int[] {i, j};
+        }
+      }
+    }
+
+    final int i = literals.length - 1;
+    return new int[] {i, literals[i].length()};
+  }
+
+  /**
+   * Returns a {@link UriTemplate} with the specified encoded string inserted at
+   * the specified position, of which only the encoded string is parsed.
+   *
+   * @param position The index of the literal and the offset therein.
+   * @param encoded The encoded string.
+   * @param inQuery Whether the template parameters of the encoded string are
+   *          in the query.
+   * @return A {@link UriTemplate} with the encoded string inserted.
+   */
+  private UriTemplate insert(final int[] position, final String encoded, final boolean inQuery) {
+    final UriTemplate insert = compile(encoded);
+    final int index = position[0];
+    final String head = this.literals[index].substring(0, position[1]);
+    final String tail = this.literals[index].substring(position[1]);
+    final int len = insert.names.length;
+
+    final String[] literals = new String[this.literals.length + len];
+    System.arraycopy(this.literals, 0, literals, 0, index);
+    System.arraycopy(insert.literals, 0, literals, index, len + 1);
+    literals[index] = head + literals[index];
+    literals[index + len] += tail;
+    System.arraycopy(this.literals, index + 1, literals, index + len + 1, this.literals.length - index - 1);
+
+    final String[] names = new String[this.names.length + len];
+    final String[] expressions = new String[names.length];
+    final boolean[] inQuery0 = new boolean[names.length];
+    System.arraycopy(this.names, 0, names, 0, index);
+    System.arraycopy(insert.names, 0, names, index, len);
+    System.arraycopy(this.names, index, names, index + len, this.names.length - index);
+    System.arraycopy(this.expressions, 0, expressions, 0, index);
+    System.arraycopy(insert.expressions, 0, expressions, index, len);
+    System.arraycopy(this.expressions, index, expressions, index + len, this.expressions.length - index);
+    System.arraycopy(this.inQuery, 0, inQuery0, 0, index);
+    for (int i = 0; i < len; ++i)
+      inQuery0[index + i] = inQuery;
+
+    System.arraycopy(this.inQuery, index, inQuery0, index + len, this.inQuery.length - index);
+    return new UriTemplate(literals, names, expressions, inQuery0, null);
+  }
+
+  /**
+   * Returns a {@link UriTemplate} with the specified path appended to the path
+   * of this template, as by {@link UriBuilder#path(String)}.
+   *
+   * @param path The path, which may contain template parameters.
+   * @return A {@link UriTemplate} with the specified path appended to the path
+   *         of this template.
+   * @throws IllegalArgumentException If {@code path} is null.
+   */
+  public UriTemplate appendPath(String path) {
+    if (path == null)
+      throw new IllegalArgumentException(invalidParam("path", null));
+
+    final int[] position = indexOf("?#");
+    final int offset = position[1];
+    if (offset > 0 && literals[position[0]].charAt(offset - 1) == '/') {
+      if (path.startsWith("/"))
+        path = path.substring(1);
+    }
+    else if (path.length() > 0 && !path.startsWith("/") && (offset > 0 || position[0] > 0)) {
+      path = "/" + path;
+    }
+
+    return path.length() == 0 ? this : insert(position, UriEncoder.PATH.encode(path), false);
+  }
+
+  /**
+   * Returns a {@link UriTemplate} with the specified matrix parameter appended
+   * to the last segment of the path of this template, as by
+   * {@link UriBuilder#matrixParam(String,Object...)}.
+   *
+   * @param name The name of the matrix parameter.
+   * @param values The values of the matrix parameter.
+   * @return A {@link UriTemplate} with the specified matrix parameter
+   *         appended, or this template if {@code values} is empty.
+   * @throws IllegalArgumentException If {@code name} or {@code values} is null,
+   *           or if a value is null.
+   */
+  public UriTemplate appendMatrixParam(final String name, final Object ... values) {
+    if (name == null)
+      throw new IllegalArgumentException(invalidParam("name", null));
+
+    if (values == null)
+      throw new IllegalArgumentException(invalidParam("values", null));
+
+    if (values.length == 0)
+      return this;
+
+    final String encodedName = UriEncoder.MATRIX.encode(name);
+    final StringBuilder builder = new StringBuilder();
+    for (final Object value : values) {
+      if (value == null)
+        throw new IllegalArgumentException(invalid("value", null));
+
+      builder.append(';').append(encodedName).append('=').append(UriEncoder.MATRIX.encode(value.toString()));
+    }
+
+    return insert(indexOf("?#"), builder.toString(), false);
+  }
+
+  /**
+   * Returns a {@link UriTemplate} with the specified query parameter appended
+   * to the query of this template, as by
+   * {@link UriBuilder#queryParam(String,Object...)}.
+   *
+   * @param name The name of the query parameter.
+   * @param values The values of the query parameter.
+   * @return A {@link UriTemplate} with the specified query parameter appended,
+   *         or this template if {@code values} is empty.
+   * @throws IllegalArgumentException If {@code name} or {@code values} is null,
+   *           or if a value is null.
+   */
+  public UriTemplate appendQueryParam(final String name, final Object ... values) {
+    if (name == null)
+      throw new IllegalArgumentException(invalidParam("name", null));
+
+    if (values == null)
+      throw new IllegalArgumentException(invalidParam("values", null));
+
+    if (values.length == 0)
+      return this;
+
+    final int[] pathEnd = indexOf("?#");
+    char separator = pathEnd[1] < literals[pathEnd[0]].length() && literals[pathEnd[0]].charAt(pathEnd[1]) == '?' ? '&' : '?';
+    final String encodedName = UriEncoder.QUERY_PARAM.encode(name);
+    final StringBuilder builder = new StringBuilder();
+    for (final Object value : values) {
+      if (value == null)
+        throw new IllegalArgumentException(invalid("value", null));
+
+      builder.append(separator).append(encodedName).append('=').append(UriEncoder.QUERY_PARAM.encode(value.toString()));
+      separator = '&';
+    }
+
+    return insert(indexOf("#"), builder.toString(), true);
+  }
+
+  /**
+   * Appends the URI of this template to the specified {@link StringBuilder},
+   * with its template parameters resolved to the values in the specified map.
+   *
+   * @param builder The {@link StringBuilder} to which to append.
+   * @param values The map of template parameter names to values.
+   * @param encodeSlashInPath Whether {@code '/'} characters in the values of
+   *          template parameters in the path are to be encoded.
+   * @return The specified {@link StringBuilder}.
+   * @throws IllegalArgumentException If a template parameter of this template
+   *           does not have a value in {@code values}.
+   */
+  public StringBuilder expand(final StringBuilder builder, final Map<String,?> values, final boolean encodeSlashInPath) {
+    builder.append(literals[0]);
+    for (int i = 0; i < names.length; ++i) {
+      final Object value = values == null ? null : values.get(names[i]);
+      if (value == null)
+        throw new IllegalArgumentException(values != null && values.containsKey(names[i]) ? invalidParam("value for template", null) : pathParameterNotProvided(names[i]));
+
+      append(builder, value, inQuery[i], encodeSlashInPath, false).append(literals[i + 1]);
+    }
+
+    return builder;
+  }
+
+  /**
+   * Returns the URI of this template, with its template parameters resolved to
+   * the values in the specified map.
+   *
+   * @param values The map of template parameter names to values.
+   * @param encodeSlashInPath Whether {@code '/'} characters in the values of
+   *          template parameters in the path are to be encoded.
+   * @return The URI of this template.
+   * @throws IllegalArgumentException If a template parameter of this template
+   *           does not have a value in {@code values}.
+   */
+  public String expand(final Map<String,?> values, final boolean encodeSlashInPath) {
+    return names.length == 0 ? literals[0] : expand(new StringBuilder(), values, encodeSlashInPath).toString();
+  }
+
+  /**
+   * Returns the {@link URI} of this template, of which all template parameters
+   * must be resolved.
+   *
+   * @return The {@link URI} of this template.
+   * @throws IllegalStateException If a template parameter of this template is
+   *           not resolved.
+   * @throws UriBuilderException If the resolved template is not a valid URI.
+   */
+  public URI toURI() {
+    if (names.length > 0)
+      throw new IllegalStateException("Unresolved template parameters in: " + this);
+
+    return newURI(literals[0]);
+  }
+
+  /**
+   * Returns the template, with the template parameters that are not resolved in
+   * their original form.
+   *
+   * @return The template.
+   */
+  @Override
+  public String toString() {
+    if (template != null)
+      return template;
+
+    final StringBuilder builder = new StringBuilder(literals[0]);
+    for (int i = 0; i < names.length; ++i)
+      builder.append(expressions[i]).append(literals[i + 1]);
+
+    return template = builder.toString();
+  }
+}
@@ -18,8 +18,10 @@ package org.jetrs.common.ext;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.ContextResolver;
@@ -38,16 +40,25 @@ import org.jetrs.common.core.AnnotationInjector;
 public class ProvidersImpl implements Providers {
   public static final Comparator<TypeProviderResource<?>> providerResourceComparator = Comparator.nullsFirst((o1, o2) -> o1.getType() == o2.getType() ? Integer.compare(o1.getPriority(), o2.getPriority()) : o1.getType().isAssignableFrom(o2.getType()) ? 1 : -1);
 
+  private static final int maxCachedTypes = 512;
+  private static final int maxCachedMediaTypes = 64;
+
   private final List<? extends ExceptionMappingProviderResource> exceptionMappers;
   private final List<? extends EntityReaderProviderResource> entityReaders;
   private final List<? extends EntityWriterProviderResource> entityWriters;
   private final AnnotationInjector annotationInjector;
 
+  // NOTE: The candidates for each (type, media type) are shared by all copies, because they depend only on the providers themselves
+  private final ConcurrentHashMap<Class<?>,ConcurrentHashMap<MediaType,List<EntityProviderResource<?>>>> readerCandidates;
+  private final ConcurrentHashMap<Class<?>,ConcurrentHashMap<MediaType,List<EntityProviderResource<?>>>> writerCandidates;
+
   public ProvidersImpl(final ProvidersImpl copy, final AnnotationInjector annotationInjector) {
     this.exceptionMappers = copy.exceptionMappers;
     this.entityReaders = copy.entityReaders;
     this.entityWriters = copy.entityWriters;
     this.annotationInjector = annotationInjector;
+    this.readerCandidates = copy.readerCandidates;
+    this.writerCandidates = copy.writerCandidates;
   }
 
   public ProvidersImpl(final List<? extends ExceptionMappingProviderResource> exceptionMappers, final List<? extends EntityReaderProviderResource> entityReaders, final List<? extends EntityWriterProviderResource> entityWriters) {
@@ -55,12 +66,49 @@ public class ProvidersImpl implements Providers {
     this.entityReaders = entityReaders;
     this.entityWriters = entityWriters;
     this.annotationInjector = null;
+    this.readerCandidates = new ConcurrentHashMap<>();
+    this.writerCandidates = new ConcurrentHashMap<>();
 
     this.exceptionMappers.sort(providerResourceComparator);
     this.entityReaders.sort(providerResourceComparator);
     this.entityWriters.sort(providerResourceComparator);
   }
 
+  /**
+   * Returns the providers, in order of precedence, that are compatible with
+   * the specified {@code mediaType} by their declared media types and, if
+   * {@code checkType} is {@code true}, by their declared type. The result
+   * depends only on {@code type} and {@code mediaType}, and is therefore
+   * computed once per pair, after which only the {@code isReadable()} or
+   * {@code isWriteable()} method of each candidate remains to be consulted.
+   */
+  private static List<EntityProviderResource<?>> getCandidates(final Class<?> type, final MediaType mediaType, final List<? extends EntityProviderResource<?>> providers, final ConcurrentHashMap<Class<?>,ConcurrentHashMap<MediaType,List<EntityProviderResource<?>>>> cache, final boolean checkType) {
+    ConcurrentHashMap<MediaType,List<EntityProviderResource<?>>> mediaTypeToCandidates = cache.get(type);
+    if (mediaTypeToCandidates == null) {
+      if (cache.size() >= maxCachedTypes)
+        cache.clear();
+
+      final ConcurrentHashMap<MediaType,List<EntityProviderResource<?>>> existing = cache.putIfAbsent(type, mediaTypeToCandidates = new ConcurrentHashMap<>());
+      if (existing != null)
+        mediaTypeToCandidates = existing;
+    }
+
+    List<EntityProviderResource<?>> candidates = mediaTypeToCandidates.get(mediaType);
+    if (candidates == null) {
+      candidates = new ArrayList<>();
+      for (final EntityProviderResource<?> provider : providers)
+        if (provider.getCompatibleMediaType(mediaType) != null && (!checkType || provider.getType() == null || type.isPrimitive() || provider.getType().isAssignableFrom(type)))
+          candidates.add(provider);
+
+      if (mediaTypeToCandidates.size() >= maxCachedMediaTypes)
+        mediaTypeToCandidates.clear();
+
+      mediaTypeToCandidates.put(mediaType, candidates);
+    }
+
+    return candidates;
+  }
+
   @SuppressWarnings({"rawtypes", "unchecked"})
   private <T,M>M getProvider(final Class<T> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType, final List<? extends EntityProviderResource<?>> providers) {
     for (final EntityProviderResource provider : providers)
@@ -71,13 +119,18 @@ public class ProvidersImpl implements Providers {
   }
 
   @Override
-  public <T>MessageBodyReader<T> getMessageBodyReader(final Class<T> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
-    return getProvider(type, genericType, annotations, mediaType, entityReaders);
+  public <T>MessageBodyReader<T> getMessageBodyReader(final Class<T> type, final Type genericType, final Annotation[] annotations, MediaType mediaType) {
+    // SPEC: 4.2.1 Message Body Reader
+    if (mediaType == null)
+      mediaType = MediaType.APPLICATION_OCTET_STREAM_TYPE;
+
+    return getProvider(type, genericType, annotations, mediaType, getCandidates(type, mediaType, entityReaders, readerCandidates, false));
   }
 
   @Override
   public <T>MessageBodyWriter<T> getMessageBodyWriter(final Class<T> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
-    return getProvider(type, genericType, annotations, mediaType, entityWriters);
+    // NOTE: A writer can only write an entity that is an instance of the type it declares
+    return getProvider(type, genericType, annotations, mediaType, mediaType == null ? entityWriters : getCandidates(type, mediaType, entityWriters, writerCandidates, true));
   }
 
   @Override
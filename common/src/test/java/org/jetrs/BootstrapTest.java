@@ -0,0 +1,35 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BootstrapTest {
+  @Test
+  public void testParseParallelism() {
+    assertEquals(8, Bootstrap.parseParallelism(null, 8));
+    assertEquals(4, Bootstrap.parseParallelism("4", 8));
+    assertEquals(4, Bootstrap.parseParallelism(" 4 ", 8));
+    assertEquals(1, Bootstrap.parseParallelism("0", 8));
+    assertEquals(1, Bootstrap.parseParallelism("-2", 8));
+    assertEquals(8, Bootstrap.parseParallelism("1.5", 8));
+    assertEquals(8, Bootstrap.parseParallelism("1e3", 8));
+    assertEquals(8, Bootstrap.parseParallelism("", 8));
+  }
+}
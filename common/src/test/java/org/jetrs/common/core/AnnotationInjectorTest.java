@@ -0,0 +1,127 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+
+import org.junit.Test;
+
+public class AnnotationInjectorTest {
+  public static class Provider {
+    @Context
+    HttpHeaders httpHeaders;
+  }
+
+  public static class ConstructorProvider extends Provider {
+    final Request request;
+
+    public ConstructorProvider(@Context final Request request) {
+      this.request = request;
+    }
+
+    public ConstructorProvider(@Context final Request request, final String unsupported) {
+      this(request);
+    }
+  }
+
+  private static HttpHeaders newHttpHeaders(final String value) {
+    return (HttpHeaders)Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), new Class<?>[] {HttpHeaders.class}, (proxy, method, args) -> "getHeaderString".equals(method.getName()) ? value : null);
+  }
+
+  @Test
+  public void testContextualProxy() throws Exception {
+    final Application application = new Application();
+    final AnnotationInjector contextualInjector = AnnotationInjector.createContextual(null, application);
+    assertSame(application, contextualInjector.getContextObject(Application.class));
+    assertSame(contextualInjector.getContextObject(Request.class), contextualInjector.getContextObject(Request.class));
+
+    final Provider provider = contextualInjector.injectFields(contextualInjector.newProviderInstance(Provider.class));
+    assertNotNull(provider.httpHeaders);
+    try {
+      provider.httpHeaders.getHeaderString("Accept");
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+
+    final AnnotationInjector one = new AnnotationInjector(null, null, null, null, newHttpHeaders("one"), null, application, contextualInjector);
+    final AnnotationInjector two = new AnnotationInjector(null, null, null, null, newHttpHeaders("two"), null, application, contextualInjector);
+    assertSame(contextualInjector, one.getContextualInjector());
+
+    final AnnotationInjector previous = AnnotationInjector.bind(one);
+    try {
+      assertEquals("one", provider.httpHeaders.getHeaderString("Accept"));
+      final AnnotationInjector nested = AnnotationInjector.bind(two);
+      assertSame(one, nested);
+      assertEquals("two", provider.httpHeaders.getHeaderString("Accept"));
+      AnnotationInjector.bind(nested);
+      assertEquals("one", provider.httpHeaders.getHeaderString("Accept"));
+    }
+    finally {
+      AnnotationInjector.bind(previous);
+    }
+
+    assertNull(AnnotationInjector.bind(null));
+  }
+
+  @Test
+  public void testContextualProxyException() throws Exception {
+    final AnnotationInjector contextualInjector = AnnotationInjector.createContextual(null, new Application());
+    final HttpHeaders proxy = contextualInjector.getContextObject(HttpHeaders.class);
+    final HttpHeaders httpHeaders = (HttpHeaders)Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), new Class<?>[] {HttpHeaders.class}, (p, method, args) -> {
+      throw new UnsupportedOperationException(method.getName());
+    });
+
+    final AnnotationInjector previous = AnnotationInjector.bind(new AnnotationInjector(null, null, null, null, httpHeaders, null, null, contextualInjector));
+    try {
+      proxy.getLength();
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+      assertEquals("getLength", e.getMessage());
+    }
+    finally {
+      AnnotationInjector.bind(previous);
+    }
+  }
+
+  @Test
+  public void testInjectionPlan() throws Exception {
+    final Request request = (Request)Proxy.newProxyInstance(Request.class.getClassLoader(), new Class<?>[] {Request.class}, (proxy, method, args) -> null);
+    final HttpHeaders httpHeaders = newHttpHeaders("one");
+    final AnnotationInjector annotationInjector = new AnnotationInjector(null, request, null, null, httpHeaders, null, null);
+    for (int i = 0; i < 2; ++i) {
+      final ConstructorProvider provider = annotationInjector.injectFields(annotationInjector.newProviderInstance(ConstructorProvider.class));
+      assertSame(request, provider.request);
+      assertSame(httpHeaders, provider.httpHeaders);
+    }
+
+    try {
+      AnnotationInjector.CONTEXT_ONLY.newProviderInstance(ConstructorProvider.class);
+      fail("Expected InstantiationException");
+    }
+    catch (final InstantiationException e) {
+    }
+  }
+}
@@ -791,6 +791,13 @@ public class UriBuilderTest extends RuntimeDelegateTest {
     assertEquals("http://foo.com/runtime/org.jbpm:HR:1.0/process/hiring/start", UriBuilder.fromUri("http://foo.com/runtime/org.jbpm:HR:1.0/process/hiring/start").build().toString());
   }
 
+  @Test
+  public void testTemplateDelimiters() {
+    final String template = "http://h/{id: [a-z]{1,2}?}/x?q={v: #?}#{f}";
+    Assert.assertEquals(template, UriBuilder.fromUri(template).toTemplate());
+    Assert.assertEquals("http://h/ab/x?q=c#d", UriBuilder.fromUri(template).build("ab", "c", "d").toString());
+  }
+
   @Test
   public void testIPv6() {
     Assert.assertEquals("http://foo", UriBuilder.fromUri("http://foo").build().toString());
@@ -0,0 +1,55 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class UriEncoderTest {
+  @Test
+  public void testUnchanged() {
+    final String path = "/api/v1/users/1234/orders;m=1";
+    assertSame(path, UriEncoder.PATH.encode(path));
+    assertSame(path, UriEncoder.PATH.encodeAsIs(path));
+    final String template = "/api/{version}/users/{id:[0-9]{1,4}}";
+    assertSame(template, UriEncoder.PATH.encode(template));
+  }
+
+  @Test
+  public void testEncode() {
+    assertEquals("/a%20b/%7Bc/%25", UriEncoder.PATH.encode("/a b/{c/%"));
+    assertEquals("a%2Fb%3Bc", UriEncoder.MATRIX.encode("a/b;c"));
+    assertEquals("a+b%26c%3D*", UriEncoder.QUERY_PARAM.encode("a b&c=*"));
+    assertEquals("a=b&c?/d%20e", UriEncoder.QUERY.encode("a=b&c?/d e"));
+    assertEquals("%7B%7D", UriEncoder.PATH.encode("{}"));
+    assertEquals("%7B%7Ba%7D", UriEncoder.PATH.encode("{{a}"));
+  }
+
+  @Test
+  public void testEncodings() {
+    assertEquals("%41%25zz%254", UriEncoder.PATH.encodeSaveEncodings("%41%zz%4"));
+    assertEquals("%2541%7Ba%7D", UriEncoder.PATH.encodeAsIs("%41{a}"));
+    assertEquals("%2F", UriEncoder.PATH_SEGMENT.encodeAsIs("/"));
+  }
+
+  @Test
+  public void testUtf8() {
+    assertEquals("caf%C3%A9/%E6%97%A5/%F0%9F%98%80", UriEncoder.PATH.encode("caf\u00e9/\u65e5/\ud83d\ude00"));
+    assertEquals("%3Fx", UriEncoder.PATH.encode("\ud800x"));
+  }
+}
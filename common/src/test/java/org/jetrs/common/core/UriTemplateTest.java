@@ -0,0 +1,117 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class UriTemplateTest {
+  private static final UriTemplate template = UriTemplate.compile("http://{host}/x/y/{path: [a-z]{2,3}}?{q}={qval}#{f}");
+
+  @Test
+  public void testCompile() {
+    assertEquals("http://{host}/x/y/{path: [a-z]{2,3}}?{q}={qval}#{f}", template.toString());
+    assertFalse(template.isResolved());
+    assertEquals("/a/{}/{ b }/{x", UriTemplate.compile("/a/{}/{ b }/{x").toString());
+    assertEquals("/a/{}/1/{x", UriTemplate.compile("/a/{}/{ b }/{x").resolve("b", 1, true, false).toString());
+  }
+
+  @Test
+  public void testResolve() {
+    UriTemplate resolved = template.resolve("host", "localhost:8080", true, false);
+    assertEquals("http://localhost:8080/x/y/{path: [a-z]{2,3}}?{q}={qval}#{f}", resolved.toString());
+    resolved = resolved.resolve("q", "a b&c", true, false);
+    assertEquals("http://localhost:8080/x/y/{path: [a-z]{2,3}}?a+b%26c={qval}#{f}", resolved.toString());
+
+    final HashMap<String,Object> values = new HashMap<>();
+    values.put("path", "a/b c");
+    values.put("qval", "x/y?");
+    values.put("f", "z");
+    assertEquals("http://localhost:8080/x/y/a%2Fb%20c?a+b%26c=x%2Fy?#z", resolved.resolve(values, true, false).toURI().toString());
+    assertEquals("http://localhost:8080/x/y/a/b%20c?a+b%26c=x%2Fy?#z", resolved.resolve(values, false, false).toString());
+
+    values.put("path", "%41%zz");
+    assertEquals("http://localhost:8080/x/y/%41%25zz?a+b%26c=x%2Fy?#z", resolved.resolve(values, false, true).toString());
+    assertSame(template, template.resolve(Collections.singletonMap("none", 1), true, false));
+  }
+
+  @Test
+  public void testAppend() {
+    final UriTemplate base = UriTemplate.compile("http://localhost:8080");
+    assertSame(base, base.appendPath(""));
+    assertSame(base, base.appendMatrixParam("m"));
+    assertSame(base, base.appendQueryParam("q"));
+
+    final UriTemplate path = base.appendPath("a b").appendPath("/{id}/");
+    assertEquals("http://localhost:8080/a%20b/{id}/", path.toString());
+    assertFalse(path.isResolved());
+    assertEquals("http://localhost:8080/a%20b/x%2Fy/c", path.appendPath("/c").resolve("id", "x/y", true, false).toString());
+    assertEquals("http://h/x/y?q=1#f", UriTemplate.compile("http://h/x/?q=1#f").appendPath("/y").toString());
+    assertEquals("a/b", UriTemplate.compile("").appendPath("a").appendPath("b").toString());
+
+    assertEquals("http://h/x;m=a%20b;m=2?q=1", UriTemplate.compile("http://h/x?q=1").appendMatrixParam("m", "a b", 2).toString());
+    assertEquals("http://h/x?n=a+b%26&n={v}#f", UriTemplate.compile("http://h/x#f").appendQueryParam("n", "a b&", "{v}").toString());
+    assertEquals("http://h/x?q=1&n=2", UriTemplate.compile("http://h/x?q=1").appendQueryParam("n", 2).toString());
+
+    final HashMap<String,Object> values = new HashMap<>();
+    values.put("host", "h");
+    values.put("path", "p");
+    values.put("id", "a b");
+    values.put("q", "q");
+    values.put("qval", "v");
+    values.put("f", "z");
+    final UriTemplate appended = template.appendPath("z/{id}").appendQueryParam("r", "{id}");
+    assertEquals("http://{host}/x/y/{path: [a-z]{2,3}}/z/{id}?{q}={qval}&r={id}#{f}", appended.toString());
+    assertEquals("http://h/x/y/p/z/a%20b?q=v&r=a+b#z", appended.expand(values, true));
+
+    try {
+      base.appendQueryParam("q", "a", null);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testExpand() {
+    final HashMap<String,Object> values = new HashMap<>();
+    values.put("host", "h");
+    values.put("path", "p");
+    values.put("q", "q");
+    values.put("qval", "v");
+    values.put("f", "z");
+    assertEquals("http://h/x/y/p?q=v#z", template.expand(values, true));
+
+    try {
+      template.expand(Collections.singletonMap("host", "h"), true);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      template.toURI();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.common.ext;
+
+import static org.junit.Assert.*;
+
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.jetrs.common.EntityWriterProviderResource;
+import org.junit.Test;
+
+public class ProvidersImplTest extends RuntimeDelegateTest {
+  private abstract static class CountingWriter<T> implements MessageBodyWriter<T> {
+    final AtomicInteger writeable = new AtomicInteger();
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+      writeable.incrementAndGet();
+      return true;
+    }
+
+    @Override
+    public void writeTo(final T t, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType, final MultivaluedMap<String,Object> httpHeaders, final OutputStream entityStream) {
+    }
+  }
+
+  @Consumes("application/json")
+  public static class JsonWriter extends CountingWriter<Object> {
+  }
+
+  public static class StringWriter extends CountingWriter<String> {
+  }
+
+  public static class ObjectWriter extends CountingWriter<Object> {
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static EntityWriterProviderResource newResource(final MessageBodyWriter<?> writer) throws Exception {
+    return new EntityWriterProviderResource((Class)writer.getClass(), writer);
+  }
+
+  @Test
+  public void testWriterCandidates() throws Exception {
+    final JsonWriter jsonWriter = new JsonWriter();
+    final StringWriter stringWriter = new StringWriter();
+    final ObjectWriter objectWriter = new ObjectWriter();
+    final ArrayList<EntityWriterProviderResource> entityWriters = new ArrayList<>();
+    entityWriters.add(newResource(jsonWriter));
+    entityWriters.add(newResource(objectWriter));
+    entityWriters.add(newResource(stringWriter));
+    final ProvidersImpl providers = new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), entityWriters);
+
+    assertSame(stringWriter, providers.getMessageBodyWriter(String.class, null, null, MediaType.TEXT_PLAIN_TYPE));
+    for (int i = 0; i < 3; ++i)
+      assertSame(objectWriter, providers.getMessageBodyWriter(Integer.class, null, null, MediaType.TEXT_PLAIN_TYPE));
+
+    // The writer of String is not consulted for an Integer, nor is the writer of JSON for text/plain
+    assertEquals(1, stringWriter.writeable.get());
+    assertEquals(3, objectWriter.writeable.get());
+    assertEquals(0, jsonWriter.writeable.get());
+
+    final ProvidersImpl copy = new ProvidersImpl(providers, null);
+    assertSame(jsonWriter, copy.getMessageBodyWriter(Integer.class, null, null, MediaType.APPLICATION_JSON_TYPE));
+    assertEquals(1, jsonWriter.writeable.get());
+  }
+}
@@ -0,0 +1,209 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes the names of all root resource classes
+ * (classes annotated with {@code @Path}, or declaring or inheriting methods
+ * annotated with {@code @Path} or a request method designator) and
+ * {@code @Provider} classes
+ * of the compilation to {@value #INDEX}. When the index is present on the
+ * classpath, {@code org.jetrs.Bootstrap} loads the listed classes instead of
+ * scanning the packages of the classpath.
+ * <p>
+ * The processor is enabled by adding the {@code org.jetrs:processor}
+ * dependency with {@code provided} scope.
+ */
+public class IndexProcessor extends AbstractProcessor {
+  public static final String INDEX = "META-INF/jetrs.index";
+
+  private static final String PATH = "javax.ws.rs.Path";
+  private static final String PROVIDER = "javax.ws.rs.ext.Provider";
+  private static final String HTTP_METHOD = "javax.ws.rs.HttpMethod";
+
+  private final Set<String> classNames = new TreeSet<>();
+  private final Set<String> previousClassNames = new HashSet<>();
+  private final Set<String> compiledClassNames = new HashSet<>();
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    // Resource methods can be designated with custom @HttpMethod annotations
+    return Collections.singleton("*");
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  private static boolean isAnnotationPresent(final Element element, final String annotationName) {
+    for (final AnnotationMirror annotation : element.getAnnotationMirrors())
+      if (((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+        return true;
+
+    return false;
+  }
+
+  private static boolean isResourceMethod(final Element element) {
+    if (element.getKind() != ElementKind.METHOD || element.getModifiers().contains(Modifier.STATIC) || element.getModifiers().contains(Modifier.ABSTRACT))
+      return false;
+
+    if (isAnnotationPresent(element, PATH))
+      return true;
+
+    for (final AnnotationMirror annotation : element.getAnnotationMirrors())
+      if (isAnnotationPresent(annotation.getAnnotationType().asElement(), HTTP_METHOD))
+        return true;
+
+    return false;
+  }
+
+  private boolean isIndexed(final TypeElement element) {
+    if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT))
+      return false;
+
+    if (isAnnotationPresent(element, PROVIDER) || isAnnotationPresent(element, PATH))
+      return true;
+
+    // NOTE: Resource methods inherited from a superclass make a concrete subclass a root resource
+    for (final Element member : processingEnv.getElementUtils().getAllMembers(element))
+      if (isResourceMethod(member))
+        return true;
+
+    return false;
+  }
+
+  private void index(final Element element) {
+    if (!(element instanceof TypeElement))
+      return;
+
+    final TypeElement typeElement = (TypeElement)element;
+    final String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    compiledClassNames.add(className);
+    if (isIndexed(typeElement))
+      classNames.add(className);
+
+    for (final Element member : typeElement.getEnclosedElements())
+      if (member.getKind() == ElementKind.CLASS && member.getModifiers().contains(Modifier.STATIC))
+        index(member);
+  }
+
+  /**
+   * Reads the entries of a previously written index, so that incremental
+   * compilations produce a complete index.
+   */
+  private void readPreviousIndex() {
+    try {
+      final FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+      try (final BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+        for (String line; (line = reader.readLine()) != null;) {
+          line = line.trim();
+          if (line.length() > 0 && line.charAt(0) != '#')
+            previousClassNames.add(line);
+        }
+      }
+    }
+    catch (final IOException | IllegalArgumentException e) {
+      // No previous index
+    }
+  }
+
+  /**
+   * Returns whether the specified entry of a previous index, whose class is not
+   * part of this compilation, is to be retained: its class file must still be
+   * in the output of this module (i.e. the class was not deleted or renamed),
+   * and the class must still qualify for the index.
+   */
+  private boolean isRetained(final String className) {
+    final TypeElement element = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+    if (element == null || !isIndexed(element))
+      return false;
+
+    final int index = className.lastIndexOf('.');
+    try {
+      final FileObject classFile = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, index < 0 ? "" : className.substring(0, index), className.substring(index + 1) + ".class");
+      classFile.openInputStream().close();
+      return true;
+    }
+    catch (final IOException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private void writeIndex() {
+    try {
+      final FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+      try (final Writer writer = resource.openWriter()) {
+        writer.write("# Generated by " + IndexProcessor.class.getName() + "\n");
+        for (final String className : classNames)
+          writer.write(className + "\n");
+      }
+    }
+    catch (final IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + INDEX + ": " + e.getMessage());
+    }
+  }
+
+  private boolean initialized;
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    if (!initialized) {
+      readPreviousIndex();
+      initialized = true;
+    }
+
+    if (roundEnv.processingOver()) {
+      // NOTE: Entries of classes that are part of this compilation were re-evaluated by index(Element)
+      for (final String className : previousClassNames)
+        if (!compiledClassNames.contains(className) && isRetained(className))
+          classNames.add(className);
+
+      // NOTE: A previous index is rewritten even if empty, so that it does not list removed classes
+      if (classNames.size() > 0 || previousClassNames.size() > 0)
+        writeIndex();
+    }
+    else {
+      for (final Element element : roundEnv.getRootElements())
+        index(element);
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.processor;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+public class IndexProcessorTest {
+  private static JavaFileObject source(final String className, final String code) {
+    return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+
+  private static List<String> compile(final File outDir, final JavaFileObject ... sources) throws IOException {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, Arrays.asList("-d", outDir.getAbsolutePath(), "-classpath", outDir.getAbsolutePath() + File.pathSeparator + System.getProperty("java.class.path")), null, Arrays.asList(sources));
+      task.setProcessors(Collections.singleton(new IndexProcessor()));
+      assertTrue(task.call());
+    }
+
+    final List<String> lines = Files.readAllLines(new File(outDir, IndexProcessor.INDEX).toPath());
+    assertTrue(lines.get(0).startsWith("#"));
+    return lines.subList(1, lines.size());
+  }
+
+  @Test
+  public void testIndex() throws IOException {
+    final File outDir = Files.createTempDirectory("jetrs").toFile();
+    final List<JavaFileObject> sources = new ArrayList<>();
+    sources.add(source("test.Resource", "package test; @javax.ws.rs.Path(\"/r\") public class Resource { @javax.ws.rs.GET public String get() { return null; } }"));
+    sources.add(source("test.MethodResource", "package test; public class MethodResource { @javax.ws.rs.POST public void post() { } }"));
+    sources.add(source("test.Mapper", "package test; @javax.ws.rs.ext.Provider public class Mapper implements javax.ws.rs.ext.ExceptionMapper<RuntimeException> { public javax.ws.rs.core.Response toResponse(RuntimeException e) { return null; } public static class Nested implements javax.ws.rs.ext.ExceptionMapper<Exception> { public javax.ws.rs.core.Response toResponse(Exception e) { return null; } } @javax.ws.rs.ext.Provider public static class Inner extends Nested { } }"));
+    sources.add(source("test.Abstract", "package test; @javax.ws.rs.Path(\"/a\") public abstract class Abstract { }"));
+    sources.add(source("test.Plain", "package test; public class Plain { public void get() { } }"));
+    sources.add(source("test.Base", "package test; public abstract class Base { @javax.ws.rs.GET public String get() { return null; } }"));
+    sources.add(source("test.Sub", "package test; public class Sub extends Base { }"));
+
+    assertEquals(Arrays.asList("test.Mapper", "test.Mapper$Inner", "test.MethodResource", "test.Resource", "test.Sub"), compile(outDir, sources.toArray(new JavaFileObject[sources.size()])));
+  }
+
+  @Test
+  public void testIncremental() throws IOException {
+    final File outDir = Files.createTempDirectory("jetrs").toFile();
+    final JavaFileObject kept = source("test.Kept", "package test; public class Kept { @javax.ws.rs.GET public String get() { return null; } }");
+    final JavaFileObject deleted = source("test.Deleted", "package test; public class Deleted { @javax.ws.rs.GET public String get() { return null; } }");
+    final JavaFileObject changed = source("test.Changed", "package test; public class Changed { @javax.ws.rs.GET public String get() { return null; } }");
+    assertEquals(Arrays.asList("test.Changed", "test.Deleted", "test.Kept"), compile(outDir, kept, deleted, changed));
+
+    // Deleted is removed with its class file, Changed is recompiled without its resource method, and Kept is not recompiled
+    assertTrue(new File(outDir, "test/Deleted.class").delete());
+    final JavaFileObject unchanged = source("test.Changed", "package test; public class Changed { public String get() { return null; } }");
+    assertEquals(Arrays.asList("test.Kept"), compile(outDir, unchanged));
+  }
+}
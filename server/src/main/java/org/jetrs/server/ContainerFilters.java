@@ -17,16 +17,23 @@
 package org.jetrs.server;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-import javax.annotation.Priority;
+import javax.ws.rs.NameBinding;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.WriterInterceptor;
 
 import org.jetrs.common.ProviderResource;
 import org.jetrs.common.core.AnnotationInjector;
@@ -36,30 +43,133 @@ import org.slf4j.LoggerFactory;
 final class ContainerFilters {
   private static final Logger logger = LoggerFactory.getLogger(ContainerFilters.class);
 
-  private final List<ProviderResource<ContainerRequestFilter>> preMatchContainerRequestFilters = new ArrayList<>();
-  private final List<ProviderResource<ContainerRequestFilter>> containerRequestFilters = new ArrayList<>();
-  private final List<ProviderResource<ContainerResponseFilter>> containerResponseFilters = new ArrayList<>();
+  private static final Comparator<ProviderResource<?>> priorityComparator = Comparator.comparingInt(ProviderResource::getPriority);
+  // NOTE: Response filters are run in descending order of priority
+  private static final Comparator<ProviderResource<?>> responsePriorityComparator = priorityComparator.reversed();
 
-  private static final Comparator<Object> priorityComparator = Comparator.nullsFirst((o1, o2) -> {
-    final Priority p1 = o1.getClass().getAnnotation(Priority.class);
-    final Priority p2 = o2.getClass().getAnnotation(Priority.class);
-    return p1 == null ? p2 == null ? 0 : 1 : p2 == null ? -1 : Integer.compare(p1.value(), p2.value());
-  });
+  /**
+   * Returns the types of the specified annotations that are annotated with
+   * {@link NameBinding}.
+   *
+   * @param annotations The arrays of annotations.
+   * @return The types of the specified annotations that are annotated with
+   *         {@link NameBinding}.
+   */
+  static Set<Class<? extends Annotation>> getNameBindings(final Annotation[] ... annotations) {
+    Set<Class<? extends Annotation>> nameBindings = null;
+    for (final Annotation[] array : annotations) {
+      for (final Annotation annotation : array) {
+        if (annotation.annotationType().isAnnotationPresent(NameBinding.class)) {
+          if (nameBindings == null)
+            nameBindings = new HashSet<>();
+
+          nameBindings.add(annotation.annotationType());
+        }
+      }
+    }
+
+    return nameBindings != null ? nameBindings : Collections.emptySet();
+  }
+
+  /**
+   * Returns the providers that apply to the specified resource method: the
+   * providers without a {@link NameBinding}, the providers whose
+   * {@link NameBinding}s are all present on the resource method or its class,
+   * and the providers registered for it by a {@link DynamicFeature}, sorted
+   * with the specified comparator.
+   *
+   * @param <P> The type of {@link ProviderResource}.
+   * @param providers The providers registered with the application.
+   * @param dynamicProviders The providers registered for the resource method
+   *          by a {@link DynamicFeature}.
+   * @param manifest The {@link ResourceManifest} of the resource method.
+   * @param comparator The {@link Comparator} by which to sort the providers.
+   * @return The providers that apply to the specified resource method.
+   */
+  static <P extends ProviderResource<?>>List<P> resolve(final List<? extends P> providers, final List<? extends P> dynamicProviders, final ResourceManifest manifest, final Comparator<? super P> comparator) {
+    final List<P> resolved = new ArrayList<>(providers.size() + dynamicProviders.size());
+    for (final P provider : providers)
+      if (manifest.getNameBindings().containsAll(getNameBindings(provider.getProviderClass().getAnnotations())))
+        resolved.add(provider);
+
+    resolved.addAll(dynamicProviders);
+    resolved.sort(comparator);
+    return resolved;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T>ProviderResource<T>[] toArray(final List<? extends ProviderResource<T>> providers) {
+    return providers.toArray(new ProviderResource[providers.size()]);
+  }
+
+  private final ProviderResource<ContainerRequestFilter>[] preMatchContainerRequestFilters;
+  private final ProviderResource<ContainerRequestFilter>[] containerRequestFilters;
+  private final ProviderResource<ContainerResponseFilter>[] containerResponseFilters;
+  private final List<ProviderResource<ContainerRequestFilter>> postMatchContainerRequestFilters = new ArrayList<>();
+  private final List<ProviderResource<ContainerResponseFilter>> allContainerResponseFilters = new ArrayList<>();
+  private final List<DynamicFeature> dynamicFeatures;
 
   ContainerFilters(final List<? extends ProviderResource<ContainerRequestFilter>> requestFilters, final List<? extends ProviderResource<ContainerResponseFilter>> responseFilters) {
-    for (final ProviderResource<ContainerRequestFilter> requestFilter : requestFilters)
-      (requestFilter.getProviderClass().isAnnotationPresent(PreMatching.class) ? preMatchContainerRequestFilters : containerRequestFilters).add(requestFilter);
+    this(requestFilters, responseFilters, Collections.emptyList());
+  }
+
+  ContainerFilters(final List<? extends ProviderResource<ContainerRequestFilter>> requestFilters, final List<? extends ProviderResource<ContainerResponseFilter>> responseFilters, final List<DynamicFeature> dynamicFeatures) {
+    final List<ProviderResource<ContainerRequestFilter>> preMatchContainerRequestFilters = new ArrayList<>();
+    for (final ProviderResource<ContainerRequestFilter> requestFilter : requestFilters) {
+      if (!requestFilter.getProviderClass().isAnnotationPresent(PreMatching.class))
+        postMatchContainerRequestFilters.add(requestFilter);
+      else if (getNameBindings(requestFilter.getProviderClass().getAnnotations()).size() > 0)
+        logger.warn("@NameBinding annotation is not applicable to @PreMatching ContainerRequestFilter: " + requestFilter.getProviderClass().getName());
+      else
+        preMatchContainerRequestFilters.add(requestFilter);
+    }
 
     for (final ProviderResource<ContainerResponseFilter> responseFilter : responseFilters) {
       if (responseFilter.getProviderClass().isAnnotationPresent(PreMatching.class))
         logger.warn("@PreMatching annotation is not applicable to ContainerResponseFilter");
 
-      containerResponseFilters.add(responseFilter);
+      allContainerResponseFilters.add(responseFilter);
     }
 
     preMatchContainerRequestFilters.sort(priorityComparator);
-    containerRequestFilters.sort(priorityComparator);
-    containerResponseFilters.sort(priorityComparator);
+    postMatchContainerRequestFilters.sort(priorityComparator);
+    allContainerResponseFilters.sort(responsePriorityComparator);
+    this.preMatchContainerRequestFilters = toArray(preMatchContainerRequestFilters);
+
+    // NOTE: Only the filters without a @NameBinding apply to requests that are not matched to a resource method
+    final List<ProviderResource<ContainerRequestFilter>> globalContainerRequestFilters = new ArrayList<>();
+    for (final ProviderResource<ContainerRequestFilter> requestFilter : postMatchContainerRequestFilters)
+      if (getNameBindings(requestFilter.getProviderClass().getAnnotations()).size() == 0)
+        globalContainerRequestFilters.add(requestFilter);
+
+    final List<ProviderResource<ContainerResponseFilter>> globalContainerResponseFilters = new ArrayList<>();
+    for (final ProviderResource<ContainerResponseFilter> responseFilter : allContainerResponseFilters)
+      if (getNameBindings(responseFilter.getProviderClass().getAnnotations()).size() == 0)
+        globalContainerResponseFilters.add(responseFilter);
+
+    this.containerRequestFilters = toArray(globalContainerRequestFilters);
+    this.containerResponseFilters = toArray(globalContainerResponseFilters);
+    this.dynamicFeatures = dynamicFeatures;
+  }
+
+  List<DynamicFeature> getDynamicFeatures() {
+    return dynamicFeatures;
+  }
+
+  /**
+   * Resolves the request and response filters that apply to the specified
+   * resource method, and sets them on its {@link ResourceManifest}, together
+   * with the specified interceptors.
+   *
+   * @param manifest The {@link ResourceManifest} of the resource method.
+   * @param featureContext The {@link ResourceFeatureContext} with the
+   *          providers registered for the resource method by the
+   *          {@link DynamicFeature}s.
+   * @param readerInterceptors The resolved reader interceptors.
+   * @param writerInterceptors The resolved writer interceptors.
+   */
+  void compile(final ResourceManifest manifest, final ResourceFeatureContext featureContext, final ReaderInterceptor[] readerInterceptors, final WriterInterceptor[] writerInterceptors) {
+    manifest.setFilters(toArray(resolve(postMatchContainerRequestFilters, featureContext.requestFilters, manifest, priorityComparator)), toArray(resolve(allContainerResponseFilters, featureContext.responseFilters, manifest, responsePriorityComparator)), readerInterceptors, writerInterceptors);
   }
 
   void filterPreMatchContainerRequest(final ContainerRequestContext requestContext, final AnnotationInjector annotationInjector) throws IOException {
@@ -67,13 +177,15 @@ final class ContainerFilters {
       preMatchRequestFilter.getSingletonOrNewInstance(annotationInjector).filter(requestContext);
   }
 
-  void filterContainerRequest(final ContainerRequestContext requestContext, final AnnotationInjector annotationInjector) throws IOException {
+  void filterContainerRequest(final ResourceManifest manifest, final ContainerRequestContext requestContext, final AnnotationInjector annotationInjector) throws IOException {
+    final ProviderResource<ContainerRequestFilter>[] containerRequestFilters = manifest != null && manifest.getContainerRequestFilters() != null ? manifest.getContainerRequestFilters() : this.containerRequestFilters;
     for (final ProviderResource<ContainerRequestFilter> containerRequestFilter : containerRequestFilters)
       containerRequestFilter.getSingletonOrNewInstance(annotationInjector).filter(requestContext);
   }
 
-  void filterContainerResponse(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext, final AnnotationInjector annotationInjector) throws IOException {
+  void filterContainerResponse(final ResourceManifest manifest, final ContainerRequestContext requestContext, final ContainerResponseContext responseContext, final AnnotationInjector annotationInjector) throws IOException {
+    final ProviderResource<ContainerResponseFilter>[] containerResponseFilters = manifest != null && manifest.getContainerResponseFilters() != null ? manifest.getContainerResponseFilters() : this.containerResponseFilters;
     for (final ProviderResource<ContainerResponseFilter> containerResponseFilter : containerResponseFilters)
       containerResponseFilter.getSingletonOrNewInstance(annotationInjector).filter(requestContext, responseContext);
   }
-}
\ No newline at end of file
+}
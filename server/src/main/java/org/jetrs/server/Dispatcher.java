@@ -0,0 +1,50 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+/**
+ * Invokes resource methods by route index with direct invocation instructions,
+ * instead of {@link java.lang.reflect.Method#invoke(Object,Object...)}.
+ * Subclasses are generated per application by
+ * {@link EndpointFactory#createDispatcher(Iterable)}.
+ */
+abstract class Dispatcher {
+  /**
+   * The value returned by {@link #invoke(int,Object,Object[])} if the resource
+   * or a parameter is not of the type the resource method is invoked with, in
+   * which case the method is to be invoked reflectively.
+   */
+  static final Object MISMATCH = new Object();
+
+  /**
+   * Invokes the resource method of the specified {@code route} on the
+   * provided {@code resource} instance. The types of the resource and the
+   * parameters are checked by instructions generated for the route, rather
+   * than by reflection on each invocation.
+   *
+   * @param route The index of the route, as assigned by
+   *          {@link EndpointFactory#createDispatcher(Iterable)}.
+   * @param resource The resource instance.
+   * @param parameters The parameters, or {@code null} if the method has no
+   *          parameters.
+   * @return The value returned by the resource method, {@code null} if the
+   *         method is {@code void}, or {@link #MISMATCH} if the resource or a
+   *         parameter is not of the type the method is invoked with.
+   * @throws Exception If the resource method throws an exception.
+   */
+  abstract Object invoke(int route, Object resource, Object[] parameters) throws Exception;
+}
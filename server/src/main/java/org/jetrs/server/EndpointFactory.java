@@ -24,6 +24,11 @@ import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.annotation.WebInitParam;
@@ -33,19 +38,21 @@ import javax.ws.rs.core.Application;
 
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
 public final class EndpointFactory {
   private static final String packageName = RestApplicationServlet.class.getPackage().getName().replace('.', '/');
   private static final String superClassName = RestApplicationServlet.class.getName().replace('.', '/');
+  private static final String dispatcherClassName = Dispatcher.class.getName().replace('.', '/');
   private static final boolean isJdk178 = System.getProperty("java.version").startsWith("1.");
   private static final AtomicInteger serial = new AtomicInteger(1);
 
   private EndpointFactory() {
   }
 
-  private static Class<?> defineClass(final byte[] bytes, final String className) {
+  static Class<?> defineClass(final byte[] bytes, final String className) {
     try {
       if (isJdk178) {
         final Method method = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class);
@@ -231,4 +238,238 @@ public final class EndpointFactory {
       throw new RuntimeException(e.getCause());
     }
   }
+
+  private static boolean isAccessible(Class<?> cls) {
+    while (cls.isArray())
+      cls = cls.getComponentType();
+
+    if (cls.isPrimitive())
+      return true;
+
+    for (Class<?> enclosing = cls; enclosing != null; enclosing = enclosing.getEnclosingClass())
+      if (!Modifier.isPublic(enclosing.getModifiers()))
+        return false;
+
+    try {
+      // The generated class is defined in the class loader of EndpointFactory
+      return Class.forName(cls.getName(), false, EndpointFactory.class.getClassLoader()) == cls;
+    }
+    catch (final ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static boolean isDispatchable(final Method method) {
+    if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers()) || !isAccessible(method.getDeclaringClass()) || !isAccessible(method.getReturnType()))
+      return false;
+
+    for (final Class<?> parameterType : method.getParameterTypes())
+      if (!isAccessible(parameterType))
+        return false;
+
+    return true;
+  }
+
+  private static Class<?> toWrapper(final Class<?> primitive) {
+    if (primitive == boolean.class)
+      return Boolean.class;
+
+    if (primitive == byte.class)
+      return Byte.class;
+
+    if (primitive == char.class)
+      return Character.class;
+
+    if (primitive == short.class)
+      return Short.class;
+
+    if (primitive == int.class)
+      return Integer.class;
+
+    if (primitive == long.class)
+      return Long.class;
+
+    if (primitive == float.class)
+      return Float.class;
+
+    if (primitive == double.class)
+      return Double.class;
+
+    throw new IllegalArgumentException(String.valueOf(primitive));
+  }
+
+  private static void visitUnbox(final MethodVisitor methodVisitor, final Class<?> type) {
+    if (!type.isPrimitive()) {
+      if (type != Object.class)
+        methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+
+      return;
+    }
+
+    final String wrapperName = Type.getInternalName(toWrapper(type));
+    methodVisitor.visitTypeInsn(CHECKCAST, wrapperName);
+    methodVisitor.visitMethodInsn(INVOKEVIRTUAL, wrapperName, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+  }
+
+  /**
+   * Visits the instructions that jump to {@code mismatch} if the resource is
+   * not an instance of the specified declaring class of the resource method.
+   */
+  private static void visitTypeCheck(final MethodVisitor methodVisitor, final Class<?> declaringClass, final Label mismatch) {
+    methodVisitor.visitVarInsn(ALOAD, 2);
+    methodVisitor.visitTypeInsn(INSTANCEOF, Type.getInternalName(declaringClass));
+    methodVisitor.visitJumpInsn(IFEQ, mismatch);
+  }
+
+  /**
+   * Visits the instructions that jump to {@code mismatch} if the parameter at
+   * the specified index cannot be cast (and unboxed) to the specified type,
+   * i.e. if it is null for a primitive type, or not an instance of the (boxed)
+   * type. No instructions are visited for {@link Object}, to which any
+   * parameter can be cast.
+   */
+  private static void visitTypeCheck(final MethodVisitor methodVisitor, final int index, final Class<?> type, final Label mismatch) {
+    if (type == Object.class)
+      return;
+
+    final Label next = new Label();
+    if (!type.isPrimitive()) {
+      methodVisitor.visitVarInsn(ALOAD, 3);
+      methodVisitor.visitLdcInsn(index);
+      methodVisitor.visitInsn(AALOAD);
+      methodVisitor.visitJumpInsn(IFNULL, next);
+    }
+
+    methodVisitor.visitVarInsn(ALOAD, 3);
+    methodVisitor.visitLdcInsn(index);
+    methodVisitor.visitInsn(AALOAD);
+    methodVisitor.visitTypeInsn(INSTANCEOF, Type.getInternalName(type.isPrimitive() ? toWrapper(type) : type));
+    methodVisitor.visitJumpInsn(IFEQ, mismatch);
+    methodVisitor.visitLabel(next);
+  }
+
+  private static void visitBox(final MethodVisitor methodVisitor, final Class<?> type) {
+    if (type == void.class) {
+      methodVisitor.visitInsn(ACONST_NULL);
+    }
+    else if (type.isPrimitive()) {
+      final Class<?> wrapper = toWrapper(type);
+      methodVisitor.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapper), "valueOf", "(" + Type.getDescriptor(type) + ")" + Type.getDescriptor(wrapper), false);
+    }
+  }
+
+  /**
+   * Generates a {@link Dispatcher} that invokes the resource methods of the
+   * specified {@link ResourceManifest}s with direct invocation instructions,
+   * and assigns it to each manifest whose method is accessible from the
+   * generated class. Manifests with methods that are not accessible (i.e. not
+   * public, or not visible from the class loader of {@link EndpointFactory})
+   * are left to be invoked reflectively.
+   *
+   * @param manifests The {@link ResourceManifest}s.
+   * @return The generated {@link Dispatcher}, or {@code null} if none of the
+   *         methods are accessible.
+   */
+  static Dispatcher createDispatcher(final Iterable<ResourceManifest> manifests) {
+    final Map<Method,Integer> routes = new HashMap<>();
+    final List<Method> methods = new ArrayList<>();
+    for (final ResourceManifest manifest : manifests) {
+      final Method method = manifest.getMethod();
+      if (!routes.containsKey(method) && isDispatchable(method)) {
+        routes.put(method, methods.size());
+        methods.add(method);
+      }
+    }
+
+    if (methods.size() == 0)
+      return null;
+
+    final String className = packageName + "/Dispatcher" + serial.getAndIncrement();
+    final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+      @Override
+      protected String getCommonSuperClass(final String type1, final String type2) {
+        // Every branch returns or throws, so frames never merge application types
+        return "java/lang/Object";
+      }
+    };
+
+    classWriter.visit(V1_7, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, dispatcherClassName, null);
+
+    final MethodVisitor constructorVisitor = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+    constructorVisitor.visitCode();
+    constructorVisitor.visitVarInsn(ALOAD, 0);
+    constructorVisitor.visitMethodInsn(INVOKESPECIAL, dispatcherClassName, "<init>", "()V", false);
+    constructorVisitor.visitInsn(RETURN);
+    constructorVisitor.visitMaxs(0, 0);
+    constructorVisitor.visitEnd();
+
+    // Object invoke(int route, Object resource, Object[] parameters)
+    final MethodVisitor invokeVisitor = classWriter.visitMethod(0, "invoke", "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", null, new String[] {"java/lang/Exception"});
+    invokeVisitor.visitCode();
+    final Label[] labels = new Label[methods.size()];
+    for (int i = 0; i < labels.length; ++i)
+      labels[i] = new Label();
+
+    final Label unknownRoute = new Label();
+    final Label mismatch = new Label();
+    invokeVisitor.visitVarInsn(ILOAD, 1);
+    invokeVisitor.visitTableSwitchInsn(0, labels.length - 1, unknownRoute, labels);
+    for (int i = 0; i < labels.length; ++i) {
+      final Method method = methods.get(i);
+      final Class<?> declaringClass = method.getDeclaringClass();
+      final boolean isInterface = declaringClass.isInterface();
+      invokeVisitor.visitLabel(labels[i]);
+      final Class<?>[] parameterTypes = method.getParameterTypes();
+      visitTypeCheck(invokeVisitor, declaringClass, mismatch);
+      for (int j = 0; j < parameterTypes.length; ++j)
+        visitTypeCheck(invokeVisitor, j, parameterTypes[j], mismatch);
+
+      invokeVisitor.visitVarInsn(ALOAD, 2);
+      invokeVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(declaringClass));
+      for (int j = 0; j < parameterTypes.length; ++j) {
+        invokeVisitor.visitVarInsn(ALOAD, 3);
+        invokeVisitor.visitLdcInsn(j);
+        invokeVisitor.visitInsn(AALOAD);
+        visitUnbox(invokeVisitor, parameterTypes[j]);
+      }
+
+      invokeVisitor.visitMethodInsn(isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL, Type.getInternalName(declaringClass), method.getName(), Type.getMethodDescriptor(method), isInterface);
+      visitBox(invokeVisitor, method.getReturnType());
+      invokeVisitor.visitInsn(ARETURN);
+    }
+
+    invokeVisitor.visitLabel(mismatch);
+    invokeVisitor.visitFieldInsn(GETSTATIC, dispatcherClassName, "MISMATCH", "Ljava/lang/Object;");
+    invokeVisitor.visitInsn(ARETURN);
+
+    invokeVisitor.visitLabel(unknownRoute);
+    invokeVisitor.visitTypeInsn(NEW, "java/lang/IllegalArgumentException");
+    invokeVisitor.visitInsn(DUP);
+    invokeVisitor.visitLdcInsn("Unknown route");
+    invokeVisitor.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+    invokeVisitor.visitInsn(ATHROW);
+    invokeVisitor.visitMaxs(0, 0);
+    invokeVisitor.visitEnd();
+    classWriter.visitEnd();
+
+    try {
+      final Dispatcher dispatcher = (Dispatcher)defineClass(classWriter.toByteArray(), className.replace('/', '.')).getDeclaredConstructor().newInstance();
+      for (final ResourceManifest manifest : manifests) {
+        final Integer route = routes.get(manifest.getMethod());
+        if (route != null)
+          manifest.setDispatcher(dispatcher, route);
+      }
+
+      return dispatcher;
+    }
+    catch (final IllegalAccessException | InstantiationException | NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+    catch (final InvocationTargetException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException)e.getCause();
+
+      throw new RuntimeException(e.getCause());
+    }
+  }
 }
\ No newline at end of file
@@ -28,7 +28,9 @@ import java.util.ListIterator;
 import java.util.Map;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.Produces;
@@ -43,48 +45,55 @@ import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Providers;
 
 import org.jetrs.common.core.AnnotationInjector;
+import org.jetrs.common.core.HttpHeadersImpl;
+import org.jetrs.common.core.RequestImpl;
 import org.jetrs.common.core.ResponseImpl;
+import org.jetrs.server.container.AbortWithException;
 import org.jetrs.server.container.ContainerRequestContextImpl;
 import org.jetrs.server.container.ContainerResponseContextImpl;
 import org.libj.util.ArrayUtil;
 import org.libj.util.ObservableList;
 
 public class ExecutionContext {
-  private final HttpHeaders requestHeaders;
-  private final HttpServletResponse httpServletResponse;
-  private final ContainerResponseContextImpl containerResponseContext;
   private final ResourceContext resourceContext;
-
-  public ExecutionContext(final HttpHeaders requestHeaders, final HttpServletResponse httpServletResponse, final ContainerResponseContextImpl containerResponseContext, final ResourceContext resourceContext) {
-    this.requestHeaders = requestHeaders;
-    this.httpServletResponse = httpServletResponse;
-    this.containerResponseContext = containerResponseContext;
-    this.resourceContext = resourceContext;
-  }
-
-  private List<String> matchedURIs;
-  private List<String> decodedMatchedURIs;
-  private List<Object> matchedResources;
+  private final HttpServletRequestContext httpServletRequest;
+  private final HttpServletResponseWrapper httpServletResponse;
+  private final HttpHeadersImpl requestHeaders;
+  private final RequestImpl request;
+  private final ContainerResponseContextImpl containerResponseContext;
+  private final ContainerRequestContextImpl containerRequestContext;
+  private final AnnotationInjector annotationInjector;
+  private final Providers providers;
+
+  private final ArrayList<String> matchedURIs = new ArrayList<>();
+  private final ArrayList<String> decodedMatchedURIs = new ArrayList<>();
+  private final ObservableList<Object> matchedResources;
+  private final List<String> unmodifiableMatchedURIs = Collections.unmodifiableList(matchedURIs);
+  private final List<String> unmodifiableDecodedMatchedURIs = Collections.unmodifiableList(decodedMatchedURIs);
+  private final List<Object> unmodifiableMatchedResources;
   private ByteArrayOutputStream entityStream;
+  private Thread thread;
 
-  public ResourceMatch[] filterAndMatch(final ContainerRequestContext containerRequestContext) {
-    return resourceContext.filterAndMatch(containerRequestContext);
-  }
-
-  ResourceMatch filterAndMatch(final ContainerRequestContext containerRequestContext, final AnnotationInjector annotationInjector) {
-    final ResourceMatch[] resources = filterAndMatch(containerRequestContext);
-    if (resources == null)
-      return null;
-
-    final List<String> matchedURIs = new ArrayList<>(resources.length);
-    final List<String> decodedMatchedURIs = new ArrayList<>(resources.length);
-    final List<Object> matchedResources = new ObservableList<Object>(new ArrayList<>(resources.length)) {
+  ExecutionContext(final ResourceContext resourceContext, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse) {
+    this.resourceContext = resourceContext;
+    this.httpServletRequest = new HttpServletRequestContext(httpServletRequest);
+    this.httpServletResponse = new HttpServletResponseWrapper(httpServletResponse);
+    this.requestHeaders = new HttpHeadersImpl(this.httpServletRequest);
+    this.request = new RequestImpl(httpServletRequest.getMethod());
+    this.containerResponseContext = new ContainerResponseContextImpl(this.httpServletRequest, this.httpServletResponse, resourceContext.getWriterInterceptors());
+
+    // NOTE: This weird construct is done this way to at least somehow make the two objects cohesive
+    this.httpServletRequest.setRequestContext(this.containerRequestContext = new ContainerRequestContextImpl(this.httpServletRequest, containerResponseContext, this, resourceContext.getReaderInterceptors()));
+
+    this.annotationInjector = new AnnotationInjector(containerRequestContext, request, this.httpServletRequest, this.httpServletResponse, requestHeaders, resourceContext.getConfiguration(), resourceContext.getApplication(), resourceContext.getContextualInjector());
+    this.annotationInjector.setProviders(this.providers = resourceContext.getProviders(annotationInjector));
+    this.matchedResources = new ObservableList<Object>(new ArrayList<>()) {
       @Override
       protected void beforeGet(final int index, final ListIterator<Object> iterator) {
         final Object object = this.target.get(index);
         if (object instanceof Class) {
           try {
-            final Object instance = annotationInjector.newResourceInstance((Class<?>)object);
+            final Object instance = resourceContext.getResourceInstance((Class<?>)object, annotationInjector);
             if (iterator != null)
               iterator.set(instance);
             else
@@ -103,25 +112,127 @@ public class ExecutionContext {
       }
     };
 
-    for (final ResourceMatch resource : resources) {
-      matchedURIs.add(resource.getManifest().getPathPattern().getURI(false));
-      decodedMatchedURIs.add(resource.getManifest().getPathPattern().getURI(true));
-      matchedResources.add(resource.getManifest().getSingleton() != null ? resource.getManifest().getSingleton() : resource.getManifest().getServiceClass());
-    }
+    this.unmodifiableMatchedResources = Collections.unmodifiableList(matchedResources);
+    this.thread = Thread.currentThread();
+  }
 
-    this.matchedURIs = Collections.unmodifiableList(matchedURIs);
-    this.decodedMatchedURIs = Collections.unmodifiableList(decodedMatchedURIs);
-    this.matchedResources = Collections.unmodifiableList(matchedResources);
+  /**
+   * Rebinds this (previously {@linkplain #reset() reset}) context to the
+   * specified request and response.
+   *
+   * @param httpServletRequest The {@link HttpServletRequest}.
+   * @param httpServletResponse The {@link HttpServletResponse}.
+   */
+  void init(final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse) {
+    this.httpServletRequest.setRequest(httpServletRequest);
+    this.httpServletResponse.setResponse(httpServletResponse);
+    this.requestHeaders.reset(this.httpServletRequest);
+    this.request.reset(httpServletRequest.getMethod());
+    this.containerResponseContext.init();
+    this.containerRequestContext.init();
+    this.thread = Thread.currentThread();
+  }
+
+  /**
+   * Discards the state of the current request, so that this context does not
+   * retain references to entities, streams or resource instances while it is
+   * pooled.
+   */
+  void reset() {
+    httpServletRequest.reset();
+    requestHeaders.clear();
+    request.reset(null);
+    containerResponseContext.reset();
+    containerRequestContext.reset();
+    matchedURIs.clear();
+    decodedMatchedURIs.clear();
+    matchedResources.clear();
+    entityStream = null;
+  }
+
+  /**
+   * Returns whether this context may still be referenced after the servlet
+   * has returned, and thus must not be recycled: if it is being released by a
+   * thread other than the one that acquired it, or if asynchronous processing
+   * was started for its request.
+   *
+   * @return Whether this context may still be referenced after the servlet
+   *         has returned.
+   */
+  boolean isEscaped() {
+    return thread != Thread.currentThread() || httpServletRequest.isAsyncStarted();
+  }
+
+  HttpServletRequestContext getHttpServletRequest() {
+    return httpServletRequest;
+  }
+
+  HttpServletResponse getHttpServletResponse() {
+    return httpServletResponse;
+  }
+
+  ContainerRequestContextImpl getContainerRequestContext() {
+    return containerRequestContext;
+  }
+
+  AnnotationInjector getAnnotationInjector() {
+    return annotationInjector;
+  }
+
+  Providers getProviders() {
+    return providers;
+  }
+
+  public ResourceMatch filterAndMatch(final ContainerRequestContext containerRequestContext) {
+    return resourceContext.filterAndMatch(containerRequestContext);
+  }
+
+  ResourceMatch filterAndMatch(final ContainerRequestContext containerRequestContext, final AnnotationInjector annotationInjector) {
+    final ResourceMatch resource = filterAndMatch(containerRequestContext);
+    if (resource == null)
+      return null;
+
+    final ResourceManifest manifest = resource.getManifest();
+    matchedURIs.clear();
+    decodedMatchedURIs.clear();
+    matchedResources.clear();
+    matchedURIs.add(manifest.getPathPattern().getURI(false));
+    decodedMatchedURIs.add(manifest.getPathPattern().getURI(true));
+    matchedResources.add(manifest.getSingleton() != null ? manifest.getSingleton() : manifest.getServiceClass());
+
+    this.containerRequestContext.setReaderInterceptors(manifest.getReaderInterceptors());
+    containerResponseContext.setWriterInterceptors(manifest.getWriterInterceptors());
+    return resource;
+  }
 
-    return resources[0];
+  /**
+   * Writes the precomputed {@code Allow} and {@code Access-Control-Allow-*}
+   * headers of the path template that matches the specified {@code OPTIONS}
+   * request.
+   *
+   * @param containerRequestContext The {@link ContainerRequestContext}.
+   * @return {@code true} if the request is an {@code OPTIONS} request for
+   *         which a path template matches; otherwise {@code false}.
+   */
+  boolean options(final ContainerRequestContext containerRequestContext) {
+    if (!HttpMethod.OPTIONS.equals(containerRequestContext.getMethod()))
+      return false;
+
+    final OptionsManifest optionsManifest = resourceContext.getOptionsManifest(containerRequestContext.getUriInfo().getPath());
+    if (optionsManifest == null)
+      return false;
+
+    containerResponseContext.setStatusInfo(Response.Status.OK);
+    optionsManifest.writeHeaders(containerResponseContext.getStringHeaders());
+    return true;
   }
 
   public List<String> getMatchedURIs(final boolean decode) {
-    return decode ? this.decodedMatchedURIs : this.matchedURIs;
+    return decode ? this.unmodifiableDecodedMatchedURIs : this.unmodifiableMatchedURIs;
   }
 
   public List<Object> getMatchedResources() {
-    return this.matchedResources;
+    return this.unmodifiableMatchedResources;
   }
 
   public HttpHeaders getRequestHeaders() {
@@ -133,11 +244,11 @@ public class ExecutionContext {
   }
 
   void filterContainerRequest(final ContainerRequestContextImpl containerRequestContext, final AnnotationInjector annotationInjector) throws IOException {
-    resourceContext.getContainerFilters().filterContainerRequest(containerRequestContext, annotationInjector);
+    resourceContext.getContainerFilters().filterContainerRequest(httpServletRequest.getResourceManifest(), containerRequestContext, annotationInjector);
   }
 
   void filterContainerResponse(final ContainerRequestContextImpl containerRequestContext, final AnnotationInjector annotationInjector) throws IOException {
-    resourceContext.getContainerFilters().filterContainerResponse(containerRequestContext, containerResponseContext, annotationInjector);
+    resourceContext.getContainerFilters().filterContainerResponse(httpServletRequest.getResourceManifest(), containerRequestContext, containerResponseContext, annotationInjector);
   }
 
   private void setContentType(final ResourceMatch resource) {
@@ -163,7 +274,7 @@ public class ExecutionContext {
 
   @SuppressWarnings("unchecked")
   Response error(final Providers providers, final WebApplicationException e1) throws WebApplicationException {
-    final ExceptionMapper<WebApplicationException> exceptionMapper = providers.getExceptionMapper((Class<WebApplicationException>)e1.getClass());
+    final ExceptionMapper<WebApplicationException> exceptionMapper = e1 instanceof AbortWithException ? null : providers.getExceptionMapper((Class<WebApplicationException>)e1.getClass());
     final Response response = exceptionMapper != null ? exceptionMapper.toResponse(e1) : e1.getResponse();
     setResponse(response, null, null);
     return response;
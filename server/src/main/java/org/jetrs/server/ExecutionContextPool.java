@@ -0,0 +1,94 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Source of the {@link ExecutionContext} for each request, which, if
+ * recycling is enabled, keeps the per-request object graph (the request and
+ * response contexts, header maps, {@link javax.ws.rs.core.UriInfo},
+ * {@link org.jetrs.common.core.AnnotationInjector} and
+ * {@link javax.ws.rs.ext.Providers}) in a pool of slots that are striped by
+ * thread, so that a thread finds the context it released in its own slot.
+ * <p>
+ * The pool is not a {@link ThreadLocal}, because the container threads would
+ * keep the pooled contexts, and with them the class loader of the application,
+ * reachable after the application is undeployed. The pool is cleared in
+ * {@link #destroy()} instead.
+ * <p>
+ * A context is only recycled if it is released on the thread that acquired
+ * it, and if asynchronous processing was not started for its request.
+ * Otherwise, it is left to the garbage collector, because references to it
+ * may still be held by an async continuation.
+ */
+final class ExecutionContextPool {
+  private static final int slots = Integer.highestOneBit(Math.max(8, Runtime.getRuntime().availableProcessors() * 8) - 1) << 1;
+
+  private final ResourceContext resourceContext;
+  private volatile AtomicReferenceArray<ExecutionContext> pool;
+
+  ExecutionContextPool(final ResourceContext resourceContext, final boolean recycle) {
+    this.resourceContext = resourceContext;
+    this.pool = recycle ? new AtomicReferenceArray<>(slots) : null;
+  }
+
+  private static int slot() {
+    final long id = Thread.currentThread().getId();
+    return (int)(id ^ id >>> 32) & slots - 1;
+  }
+
+  ExecutionContext acquire(final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse) {
+    final AtomicReferenceArray<ExecutionContext> pool = this.pool;
+    if (pool == null)
+      return new ExecutionContext(resourceContext, httpServletRequest, httpServletResponse);
+
+    // NOTE: The slot is emptied, so that a nested dispatch, or another thread of the same stripe, does not share the context
+    final ExecutionContext executionContext = pool.getAndSet(slot(), null);
+    if (executionContext == null)
+      return new ExecutionContext(resourceContext, httpServletRequest, httpServletResponse);
+
+    executionContext.init(httpServletRequest, httpServletResponse);
+    return executionContext;
+  }
+
+  void release(final ExecutionContext executionContext) {
+    final AtomicReferenceArray<ExecutionContext> pool = this.pool;
+    if (pool == null || executionContext.isEscaped())
+      return;
+
+    executionContext.reset();
+    pool.lazySet(slot(), executionContext);
+  }
+
+  /**
+   * Clears the pool, and disables recycling for the contexts that are released
+   * hereafter.
+   */
+  void destroy() {
+    final AtomicReferenceArray<ExecutionContext> pool = this.pool;
+    if (pool == null)
+      return;
+
+    this.pool = null;
+    for (int i = 0; i < slots; ++i)
+      pool.set(i, null);
+  }
+}
@@ -16,9 +16,16 @@
 
 package org.jetrs.server;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
 
 public class HttpServletRequestContext extends HttpServletRequestWrapper {
   public HttpServletRequestContext(final HttpServletRequest request) {
@@ -44,4 +51,31 @@ public class HttpServletRequestContext extends HttpServletRequestWrapper {
   public void setResourceManifest(final ResourceManifest resourceManifest) {
     this.resourceManifest = resourceManifest;
   }
-}
\ No newline at end of file
+
+  /**
+   * Discards the state of the current request.
+   */
+  public void reset() {
+    this.resourceManifest = null;
+  }
+
+  // NOTE: Check for the existence of the @Consumes header, and subsequently the Content-Type header in the request,
+  // NOTE: only if data is expected (i.e. GET, HEAD, DELETE, OPTIONS methods will not have a body and should thus not
+  // NOTE: expect a Content-Type header from the request)
+  private void checkContentType() {
+    if (resourceManifest != null && !resourceManifest.checkHeader(HttpHeaders.CONTENT_TYPE, Consumes.class, requestContext))
+      throw new BadRequestException("Request has data yet missing Content-Type header");
+  }
+
+  @Override
+  public ServletInputStream getInputStream() throws IOException {
+    checkContentType();
+    return super.getInputStream();
+  }
+
+  @Override
+  public BufferedReader getReader() throws IOException {
+    checkContentType();
+    return super.getReader();
+  }
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * The response headers to an {@code OPTIONS} request for a distinct path
+ * template, precomputed from the {@link ResourceManifest}s of the template at
+ * bootstrap. For a path that matches more than one template, the
+ * {@link OptionsManifest}s of the templates are merged, since a request with
+ * any of their methods is matched to one of them.
+ */
+class OptionsManifest {
+  static final String ACCESS_CONTROL_ALLOW_METHODS = "Access-Control-Allow-Methods";
+  static final String ACCESS_CONTROL_ALLOW_HEADERS = "Access-Control-Allow-Headers";
+
+  private final List<ResourceManifest> manifests;
+  private final ResourceManifest representative;
+  private final String allowMethods;
+  private final String allowHeaders;
+
+  /**
+   * Returns an {@link OptionsManifest} for all {@link ResourceManifest}s of
+   * the specified {@link OptionsManifest}s, which are given in order of rank.
+   *
+   * @param optionsManifests The {@link OptionsManifest}s.
+   * @return An {@link OptionsManifest} for all {@link ResourceManifest}s of
+   *         the specified {@link OptionsManifest}s.
+   */
+  static OptionsManifest merge(final List<OptionsManifest> optionsManifests) {
+    final List<ResourceManifest> manifests = new ArrayList<>();
+    for (final OptionsManifest optionsManifest : optionsManifests)
+      manifests.addAll(optionsManifest.manifests);
+
+    return new OptionsManifest(manifests);
+  }
+
+  /**
+   * Creates a new {@link OptionsManifest} for the specified manifests, of
+   * which the first is of the highest ranked path template.
+   *
+   * @param manifests The {@link ResourceManifest}s.
+   */
+  OptionsManifest(final List<ResourceManifest> manifests) {
+    this.manifests = manifests;
+    this.representative = manifests.get(0);
+    final Set<String> methods = new LinkedHashSet<>();
+    boolean allowContentType = false;
+    boolean allowAccept = false;
+    for (final ResourceManifest manifest : manifests) {
+      methods.add(manifest.getHttpMethod().value());
+      allowContentType |= manifest.getResourceAnnotationProcessor(Consumes.class).getMediaTypes() != null;
+      allowAccept |= manifest.getResourceAnnotationProcessor(Produces.class).getMediaTypes() != null;
+    }
+
+    this.allowMethods = String.join(",", methods);
+    if (allowAccept && allowContentType)
+      this.allowHeaders = HttpHeaders.ACCEPT + "," + HttpHeaders.CONTENT_TYPE;
+    else if (allowAccept)
+      this.allowHeaders = HttpHeaders.ACCEPT;
+    else if (allowContentType)
+      this.allowHeaders = HttpHeaders.CONTENT_TYPE;
+    else
+      this.allowHeaders = null;
+  }
+
+  ResourceManifest getRepresentative() {
+    return this.representative;
+  }
+
+  boolean matches(final String path) {
+    return representative.getPathPattern().matches(path);
+  }
+
+  String getAllowMethods() {
+    return this.allowMethods;
+  }
+
+  String getAllowHeaders() {
+    return this.allowHeaders;
+  }
+
+  void writeHeaders(final MultivaluedMap<String,String> headers) {
+    headers.putSingle(HttpHeaders.ALLOW, allowMethods);
+    headers.putSingle(ACCESS_CONTROL_ALLOW_METHODS, allowMethods);
+    if (allowHeaders != null)
+      headers.putSingle(ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+  }
+}
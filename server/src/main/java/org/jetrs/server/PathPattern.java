@@ -61,6 +61,9 @@ public class PathPattern {
   private final String uri;
   private final String decodedUri;
   private final Pattern pattern;
+  private final int literalChars;
+  private final int templates;
+  private final int regexTemplates;
 
   public PathPattern(final Method method) {
     this(method.getDeclaringClass().getAnnotation(Path.class), method.getAnnotation(Path.class));
@@ -75,6 +78,23 @@ public class PathPattern {
     this.uri = index < 0 ? pathString : pathString.substring(0, index);
     this.decodedUri = URLs.decodePath(uri);
     this.pattern = createPattern(pathString);
+
+    int literalChars = 0;
+    int templates = 0;
+    int regexTemplates = 0;
+    int end = -1;
+    for (int start; (start = pathString.indexOf('{', end + 1)) > -1;) {
+      literalChars += start++ - end - 1;
+      end = Strings.indexOfScopeClose(pathString, '{', '}', start);
+      ++templates;
+      final int colon = pathString.indexOf(':', start);
+      if (colon != -1 && colon < end)
+        ++regexTemplates;
+    }
+
+    this.literalChars = literalChars + pathString.length() - end - 1;
+    this.templates = templates;
+    this.regexTemplates = regexTemplates;
   }
 
   public String getURI(final boolean decode) {
@@ -85,7 +105,35 @@ public class PathPattern {
     return pattern;
   }
 
+  /**
+   * @return The number of literal characters in the path template (i.e. not
+   *         within template variables), which is the primary key by which
+   *         JAX-RS 2.1 [3.7.2] sorts matching resource methods.
+   */
+  int getLiteralChars() {
+    return literalChars;
+  }
+
+  /**
+   * @return The number of template variables in the path template.
+   */
+  int getTemplates() {
+    return templates;
+  }
+
+  /**
+   * @return The number of template variables in the path template that
+   *         declare a regular expression.
+   */
+  int getRegexTemplates() {
+    return regexTemplates;
+  }
+
   public boolean matches(final String path) {
+    // The literal prefix rules out most routes without running the regex
+    if (!path.startsWith(decodedUri))
+      return false;
+
     final Matcher matcher = pattern.matcher(path);
     return matcher.matches();
   }
@@ -16,19 +16,23 @@
 
 package org.jetrs.server;
 
-import java.util.Iterator;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.ws.rs.Consumes;
 import javax.ws.rs.HttpMethod;
-import javax.ws.rs.Produces;
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.Configuration;
-import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
-import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ParamConverterProvider;
 import javax.ws.rs.ext.Providers;
 import javax.ws.rs.ext.ReaderInterceptor;
@@ -42,6 +46,8 @@ import org.jetrs.common.ext.ProvidersImpl;
 import org.jetrs.server.core.ServerConfiguration;
 
 public class ResourceContext {
+  private static final boolean singletonResources = Boolean.getBoolean("org.jetrs.SINGLETON_RESOURCES");
+
   private final Application application;
   private final Configuration configuration;
   private final MultivaluedMap<String,ResourceManifest> resources;
@@ -50,36 +56,98 @@ public class ResourceContext {
   private final ReaderInterceptor[] readerInterceptors;
   private final WriterInterceptor[] writerInterceptors;
   private final List<ProviderResource<ParamConverterProvider>> paramConverterProviders;
+  private final OptionsManifest[] optionsManifests;
+  private final HashMap<String,OptionsManifest> literalOptionsManifests = new HashMap<>();
+  private final ConcurrentHashMap<BitSet,OptionsManifest> mergedOptionsManifests = new ConcurrentHashMap<>();
+  private final AnnotationInjector contextualInjector;
+  private final ConcurrentHashMap<Class<?>,Object> resourceInstances;
 
   public ResourceContext(final Application application, final MultivaluedMap<String,ResourceManifest> resources, final ContainerFilters containerFilters, final ProvidersImpl providers, final List<ReaderInterceptorEntityProviderResource> readerInterceptors, final List<WriterInterceptorEntityProviderResource> writerInterceptors, final List<ProviderResource<ParamConverterProvider>> paramConverterProviders) {
     this.application = application;
     this.configuration = new ServerConfiguration(application);
+    this.contextualInjector = AnnotationInjector.createContextual(configuration, application);
+    this.resourceInstances = singletonResources ? new ConcurrentHashMap<>() : null;
     this.resources = resources;
+    final Map<String,List<ResourceManifest>> templates = new LinkedHashMap<>();
+    for (final List<ResourceManifest> manifests : resources.values()) {
+      manifests.sort(ResourceManifest.rankComparator);
+      for (final ResourceManifest manifest : manifests)
+        templates.computeIfAbsent(manifest.getPathPattern().getPattern().pattern(), k -> new ArrayList<>()).add(manifest);
+    }
+
+    this.optionsManifests = new OptionsManifest[templates.size()];
+    int index = 0;
+    for (final List<ResourceManifest> manifests : templates.values())
+      this.optionsManifests[index++] = new OptionsManifest(manifests);
+
+    Arrays.sort(this.optionsManifests, (o1, o2) -> ResourceManifest.rankComparator.compare(o1.getRepresentative(), o2.getRepresentative()));
+    // NOTE: A path that equals a template without template parameters is resolved with a single lookup
+    for (final OptionsManifest optionsManifest : optionsManifests) {
+      final PathPattern pathPattern = optionsManifest.getRepresentative().getPathPattern();
+      if (pathPattern.getTemplates() == 0) {
+        final String path = pathPattern.getURI(true);
+        final OptionsManifest matched = matchOptionsManifest(path);
+        if (matched != null)
+          literalOptionsManifests.put(path, matched);
+      }
+    }
+
     this.containerFilters = containerFilters;
     this.providers = providers;
     this.paramConverterProviders = paramConverterProviders;
 
-    if (readerInterceptors.size() > 0) {
-      readerInterceptors.sort(ProvidersImpl.providerResourceComparator);
-      this.readerInterceptors = new ReaderInterceptor[readerInterceptors.size()];
-      for (int i = 0; i < readerInterceptors.size(); ++i)
-        this.readerInterceptors[i] = readerInterceptors.get(i).getMatchInstance();
-    }
-    else {
-      this.readerInterceptors = null;
-    }
+    // NOTE: Only the interceptors without a @NameBinding apply to requests that are not matched to a resource method
+    final List<ReaderInterceptorEntityProviderResource> globalReaderInterceptors = new ArrayList<>();
+    for (final ReaderInterceptorEntityProviderResource readerInterceptor : readerInterceptors)
+      if (ContainerFilters.getNameBindings(readerInterceptor.getProviderClass().getAnnotations()).size() == 0)
+        globalReaderInterceptors.add(readerInterceptor);
 
-    if (writerInterceptors.size() > 0) {
-      writerInterceptors.sort(ProvidersImpl.providerResourceComparator);
-      this.writerInterceptors = new WriterInterceptor[writerInterceptors.size()];
-      for (int i = 0; i < readerInterceptors.size(); ++i)
-        this.writerInterceptors[i] = writerInterceptors.get(i).getMatchInstance();
-    }
-    else {
-      this.writerInterceptors = null;
+    final List<WriterInterceptorEntityProviderResource> globalWriterInterceptors = new ArrayList<>();
+    for (final WriterInterceptorEntityProviderResource writerInterceptor : writerInterceptors)
+      if (ContainerFilters.getNameBindings(writerInterceptor.getProviderClass().getAnnotations()).size() == 0)
+        globalWriterInterceptors.add(writerInterceptor);
+
+    globalReaderInterceptors.sort(ProvidersImpl.providerResourceComparator);
+    globalWriterInterceptors.sort(ProvidersImpl.providerResourceComparator);
+    this.readerInterceptors = toReaderInterceptors(globalReaderInterceptors);
+    this.writerInterceptors = toWriterInterceptors(globalWriterInterceptors);
+
+    // Resolve the filters and interceptors of each resource method once, so that a request runs only those bound to its route
+    for (final List<ResourceManifest> manifests : resources.values()) {
+      for (final ResourceManifest manifest : manifests) {
+        final ResourceFeatureContext featureContext = new ResourceFeatureContext(configuration);
+        for (final DynamicFeature dynamicFeature : containerFilters.getDynamicFeatures())
+          dynamicFeature.configure(manifest, featureContext);
+
+        final ReaderInterceptor[] manifestReaderInterceptors = toReaderInterceptors(ContainerFilters.resolve(readerInterceptors, featureContext.readerInterceptors, manifest, ProvidersImpl.providerResourceComparator));
+        final WriterInterceptor[] manifestWriterInterceptors = toWriterInterceptors(ContainerFilters.resolve(writerInterceptors, featureContext.writerInterceptors, manifest, ProvidersImpl.providerResourceComparator));
+        containerFilters.compile(manifest, featureContext, manifestReaderInterceptors, manifestWriterInterceptors);
+      }
     }
   }
 
+  private static ReaderInterceptor[] toReaderInterceptors(final List<ReaderInterceptorEntityProviderResource> readerInterceptors) {
+    if (readerInterceptors.size() == 0)
+      return null;
+
+    final ReaderInterceptor[] array = new ReaderInterceptor[readerInterceptors.size()];
+    for (int i = 0; i < array.length; ++i)
+      array[i] = readerInterceptors.get(i).getMatchInstance();
+
+    return array;
+  }
+
+  private static WriterInterceptor[] toWriterInterceptors(final List<WriterInterceptorEntityProviderResource> writerInterceptors) {
+    if (writerInterceptors.size() == 0)
+      return null;
+
+    final WriterInterceptor[] array = new WriterInterceptor[writerInterceptors.size()];
+    for (int i = 0; i < array.length; ++i)
+      array[i] = writerInterceptors.get(i).getMatchInstance();
+
+    return array;
+  }
+
   public Application getApplication() {
     return this.application;
   }
@@ -96,6 +164,46 @@ public class ResourceContext {
     return annotationInjector == null ? providers : new ProvidersImpl(providers, annotationInjector);
   }
 
+  /**
+   * Returns the injector of contextual proxies, with which class-registered
+   * providers (and, if {@code org.jetrs.SINGLETON_RESOURCES} is set, resources)
+   * are instantiated once and shared by all requests.
+   *
+   * @return The injector of contextual proxies.
+   */
+  AnnotationInjector getContextualInjector() {
+    return contextualInjector;
+  }
+
+  /**
+   * Returns an instance of the specified class-registered resource: a new
+   * instance for each request, or, if {@code org.jetrs.SINGLETON_RESOURCES} is
+   * set, an instance shared by all requests that is injected with contextual
+   * proxies.
+   *
+   * @param clazz The resource class.
+   * @param annotationInjector The request-scoped {@link AnnotationInjector}.
+   * @return An instance of the specified class-registered resource.
+   * @throws IllegalAccessException If an {@link IllegalAccessException} occurs.
+   * @throws InstantiationException If an {@link InstantiationException} occurs.
+   * @throws InvocationTargetException If an {@link InvocationTargetException}
+   *           occurs.
+   */
+  Object getResourceInstance(final Class<?> clazz, final AnnotationInjector annotationInjector) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    if (resourceInstances == null)
+      return annotationInjector.newResourceInstance(clazz);
+
+    Object instance = resourceInstances.get(clazz);
+    if (instance == null) {
+      instance = contextualInjector.injectFields(contextualInjector.newResourceInstance(clazz));
+      final Object existing = resourceInstances.putIfAbsent(clazz, instance);
+      if (existing != null)
+        instance = existing;
+    }
+
+    return instance;
+  }
+
   public ReaderInterceptor[] getReaderInterceptors() {
     return this.readerInterceptors;
   }
@@ -108,73 +216,84 @@ public class ResourceContext {
     return paramConverterProviders;
   }
 
-  ResourceMatch[] filterAndMatch(final ContainerRequestContext containerRequestContext) {
-    List<ResourceManifest> manifests = resources.get(containerRequestContext.getMethod());
-    if (manifests == null) {
-      if (HttpMethod.HEAD.equals(containerRequestContext.getMethod())) {
-        manifests = resources.get(HttpMethod.GET);
-      }
-      else if (HttpMethod.OPTIONS.equals(containerRequestContext.getMethod())) {
-        final String path = containerRequestContext.getUriInfo().getPath();
-        final StringBuilder allowMethods = new StringBuilder();
-        boolean allowContentType = false;
-        boolean allowAccept = false;
-        for (final List<ResourceManifest> resources : resources.values()) {
-          for (final ResourceManifest resource : resources) {
-            if (!allowContentType) {
-              final ResourceAnnotationProcessor<Consumes> resourceAnnotationProcessor = resource.getResourceAnnotationProcessor(Consumes.class);
-              allowContentType = resourceAnnotationProcessor.getMediaTypes() != null;
-            }
-
-            if (!allowAccept) {
-              final ResourceAnnotationProcessor<Produces> resourceAnnotationProcessor = resource.getResourceAnnotationProcessor(Produces.class);
-              allowAccept = resourceAnnotationProcessor.getMediaTypes() != null;
-            }
-
-            if (resource.getPathPattern().matches(path))
-              allowMethods.append(resource.getHttpMethod()).append(',');
-          }
-        }
+  /**
+   * Returns the {@link OptionsManifest} of the path templates that match the
+   * specified path, or {@code null} if no template matches. The methods of all
+   * matching templates are allowed, because a request with any of them is
+   * matched to the highest ranked template that declares it.
+   *
+   * @param path The request path.
+   * @return The {@link OptionsManifest} of the path templates that match the
+   *         specified path, or {@code null} if no template matches.
+   */
+  OptionsManifest getOptionsManifest(final String path) {
+    final OptionsManifest optionsManifest = literalOptionsManifests.get(path);
+    return optionsManifest != null ? optionsManifest : matchOptionsManifest(path);
+  }
 
-        if (allowMethods.length() > 0)
-          allowMethods.setLength(allowMethods.length() - 1);
+  private OptionsManifest matchOptionsManifest(final String path) {
+    int first = -1;
+    BitSet matches = null;
+    for (int i = 0; i < optionsManifests.length; ++i) {
+      if (optionsManifests[i].matches(path)) {
+        if (first == -1) {
+          first = i;
+        }
+        else {
+          if (matches == null) {
+            matches = new BitSet(optionsManifests.length);
+            matches.set(first);
+          }
 
-        final String methods = allowMethods.toString();
-        final Response.ResponseBuilder response = Response.ok();
-        response.header(HttpHeaders.ALLOW, methods);
-        response.header("Access-Control-Allow-Methods", methods);
+          matches.set(i);
+        }
+      }
+    }
 
-        final String allow;
-        if (allowAccept && allowContentType)
-          allow = HttpHeaders.ACCEPT + "," + HttpHeaders.CONTENT_TYPE;
-        else if (allowAccept)
-          allow = HttpHeaders.ACCEPT;
-        else if (allowContentType)
-          allow = HttpHeaders.CONTENT_TYPE;
-        else
-          allow = null;
+    if (matches == null)
+      return first == -1 ? null : optionsManifests[first];
 
-        if (allow != null)
-          response.header("Access-Control-Allow-Headers", allow);
+    // NOTE: The merged manifests are cached by the set of templates that match, which is fixed by the templates
+    OptionsManifest merged = mergedOptionsManifests.get(matches);
+    if (merged == null) {
+      final List<OptionsManifest> matched = new ArrayList<>(matches.cardinality());
+      for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1))
+        matched.add(optionsManifests[i]);
 
-        containerRequestContext.abortWith(response.build());
-      }
+      merged = OptionsManifest.merge(matched);
+      final OptionsManifest existing = mergedOptionsManifests.putIfAbsent(matches, merged);
+      if (existing != null)
+        merged = existing;
     }
 
-    return manifests == null ? null : filterAndMatch(containerRequestContext, manifests.iterator(), 0);
+    return merged;
   }
 
-  private static ResourceMatch[] filterAndMatch(final ContainerRequestContext containerRequestContext, final Iterator<? extends ResourceManifest> manifests, final int depth) {
-    if (!manifests.hasNext())
-      return depth == 0 ? null : new ResourceMatch[depth];
+  /**
+   * Returns the best {@link ResourceMatch} for the specified request, or
+   * {@code null} if no resource method matches. The manifests of each method
+   * are sorted by {@link ResourceManifest#rankComparator} at construction, so
+   * the first manifest that matches cannot be outranked by any that follows,
+   * and the remaining manifests are not tested.
+   *
+   * @param containerRequestContext The {@link ContainerRequestContext}.
+   * @return The best {@link ResourceMatch} for the specified request, or
+   *         {@code null} if no resource method matches.
+   */
+  ResourceMatch filterAndMatch(final ContainerRequestContext containerRequestContext) {
+    List<ResourceManifest> manifests = resources.get(containerRequestContext.getMethod());
+    if (manifests == null && HttpMethod.HEAD.equals(containerRequestContext.getMethod()))
+      manifests = resources.get(HttpMethod.GET);
 
-    final ResourceManifest manifest = manifests.next();
-    final MediaType accept = manifest.getCompatibleAccept(containerRequestContext);
-    if (accept == null)
-      return filterAndMatch(containerRequestContext, manifests, depth);
+    if (manifests != null) {
+      for (int i = 0, len = manifests.size(); i < len; ++i) {
+        final ResourceManifest manifest = manifests.get(i);
+        final MediaType accept = manifest.getCompatibleAccept(containerRequestContext);
+        if (accept != null)
+          return new ResourceMatch(manifest, accept);
+      }
+    }
 
-    final ResourceMatch[] matches = filterAndMatch(containerRequestContext, manifests, depth + 1);
-    matches[depth] = new ResourceMatch(manifest, accept);
-    return matches;
+    return null;
   }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.RuntimeType;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.WriterInterceptor;
+
+import org.jetrs.common.ProviderInstantiationException;
+import org.jetrs.common.ProviderResource;
+import org.jetrs.common.ReaderInterceptorEntityProviderResource;
+import org.jetrs.common.WriterInterceptorEntityProviderResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link FeatureContext} with which a {@link DynamicFeature} registers the
+ * filters and interceptors of a single resource method at bootstrap.
+ */
+class ResourceFeatureContext implements FeatureContext {
+  private static final Logger logger = LoggerFactory.getLogger(ResourceFeatureContext.class);
+
+  /**
+   * Returns the priority with which a component of the specified class is to
+   * be registered for the specified contract, or {@code null} if it is not to
+   * be registered for the contract.
+   *
+   * @param contract The contract.
+   * @param componentClass The class of the component.
+   * @param contracts The contracts (and their priorities) specified at
+   *          registration, or {@code null} if none were specified.
+   * @param priority The priority of the component.
+   * @return The priority with which a component of the specified class is to
+   *         be registered for the specified contract, or {@code null} if it
+   *         is not to be registered for the contract.
+   */
+  private static Integer getPriority(final Class<?> contract, final Class<?> componentClass, final Map<Class<?>,Integer> contracts, final int priority) {
+    if (!contract.isAssignableFrom(componentClass))
+      return null;
+
+    if (contracts == null)
+      return priority;
+
+    if (!contracts.containsKey(contract))
+      return null;
+
+    final Integer contractPriority = contracts.get(contract);
+    return contractPriority != null ? contractPriority : priority;
+  }
+
+  private static Map<Class<?>,Integer> toContracts(final Class<?>[] contracts) {
+    final Map<Class<?>,Integer> map = new HashMap<>(contracts.length);
+    for (final Class<?> contract : contracts)
+      map.put(contract, null);
+
+    return map;
+  }
+
+  private final Configuration configuration;
+  private final Map<String,Object> properties = new HashMap<>(0);
+  final List<ProviderResource<ContainerRequestFilter>> requestFilters = new ArrayList<>(0);
+  final List<ProviderResource<ContainerResponseFilter>> responseFilters = new ArrayList<>(0);
+  final List<ReaderInterceptorEntityProviderResource> readerInterceptors = new ArrayList<>(0);
+  final List<WriterInterceptorEntityProviderResource> writerInterceptors = new ArrayList<>(0);
+
+  ResourceFeatureContext(final Configuration configuration) {
+    this.configuration = new Configuration() {
+      @Override
+      public RuntimeType getRuntimeType() {
+        return configuration.getRuntimeType();
+      }
+
+      @Override
+      public Map<String,Object> getProperties() {
+        if (properties.size() == 0)
+          return configuration.getProperties();
+
+        final Map<String,Object> merged = new HashMap<>(configuration.getProperties());
+        merged.putAll(properties);
+        return Collections.unmodifiableMap(merged);
+      }
+
+      @Override
+      public Object getProperty(final String name) {
+        final Object value = properties.get(name);
+        return value != null ? value : configuration.getProperty(name);
+      }
+
+      @Override
+      public Collection<String> getPropertyNames() {
+        return getProperties().keySet();
+      }
+
+      @Override
+      public boolean isEnabled(final Feature feature) {
+        return configuration.isEnabled(feature);
+      }
+
+      @Override
+      public boolean isEnabled(final Class<? extends Feature> featureClass) {
+        return configuration.isEnabled(featureClass);
+      }
+
+      @Override
+      public boolean isRegistered(final Object component) {
+        return configuration.isRegistered(component);
+      }
+
+      @Override
+      public boolean isRegistered(final Class<?> componentClass) {
+        return configuration.isRegistered(componentClass);
+      }
+
+      @Override
+      public Map<Class<?>,Integer> getContracts(final Class<?> componentClass) {
+        return configuration.getContracts(componentClass);
+      }
+
+      @Override
+      public Set<Class<?>> getClasses() {
+        return configuration.getClasses();
+      }
+
+      @Override
+      public Set<Object> getInstances() {
+        return configuration.getInstances();
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private ResourceFeatureContext add(final Class<?> componentClass, final Object component, final Map<Class<?>,Integer> contracts, final int priority) {
+    if (contracts != null)
+      for (final Class<?> contract : contracts.keySet())
+        if (!contract.isAssignableFrom(componentClass))
+          logger.warn("Ignoring contract " + contract.getName() + " that is not implemented by " + componentClass.getName());
+
+    try {
+      Integer contractPriority;
+      if ((contractPriority = getPriority(ContainerRequestFilter.class, componentClass, contracts, priority)) != null)
+        requestFilters.add(new ProviderResource<>((Class<ContainerRequestFilter>)componentClass, (ContainerRequestFilter)component, contractPriority));
+
+      if ((contractPriority = getPriority(ContainerResponseFilter.class, componentClass, contracts, priority)) != null)
+        responseFilters.add(new ProviderResource<>((Class<ContainerResponseFilter>)componentClass, (ContainerResponseFilter)component, contractPriority));
+
+      if ((contractPriority = getPriority(ReaderInterceptor.class, componentClass, contracts, priority)) != null)
+        readerInterceptors.add(new ReaderInterceptorEntityProviderResource((Class<ReaderInterceptor>)componentClass, (ReaderInterceptor)component, contractPriority));
+
+      if ((contractPriority = getPriority(WriterInterceptor.class, componentClass, contracts, priority)) != null)
+        writerInterceptors.add(new WriterInterceptorEntityProviderResource((Class<WriterInterceptor>)componentClass, (WriterInterceptor)component, contractPriority));
+
+      return this;
+    }
+    catch (final IllegalAccessException | InstantiationException e) {
+      throw new ProviderInstantiationException(e);
+    }
+    catch (final InvocationTargetException e) {
+      throw new ProviderInstantiationException(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the {@link Configuration} of the application, with the properties
+   * set for the resource method with {@link #property(String,Object)}.
+   */
+  @Override
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  @Override
+  public FeatureContext property(final String name, final Object value) {
+    if (value == null)
+      properties.remove(name);
+    else
+      properties.put(name, value);
+
+    return this;
+  }
+
+  @Override
+  public FeatureContext register(final Class<?> componentClass) {
+    return add(componentClass, null, null, ProviderResource.getDefaultPriority(componentClass));
+  }
+
+  @Override
+  public FeatureContext register(final Class<?> componentClass, final int priority) {
+    return add(componentClass, null, null, priority);
+  }
+
+  @Override
+  public FeatureContext register(final Class<?> componentClass, final Class<?> ... contracts) {
+    return add(componentClass, null, toContracts(contracts), ProviderResource.getDefaultPriority(componentClass));
+  }
+
+  @Override
+  public FeatureContext register(final Class<?> componentClass, final Map<Class<?>,Integer> contracts) {
+    return add(componentClass, null, contracts, ProviderResource.getDefaultPriority(componentClass));
+  }
+
+  @Override
+  public FeatureContext register(final Object component) {
+    return add(component.getClass(), component, null, ProviderResource.getDefaultPriority(component.getClass()));
+  }
+
+  @Override
+  public FeatureContext register(final Object component, final int priority) {
+    return add(component.getClass(), component, null, priority);
+  }
+
+  @Override
+  public FeatureContext register(final Object component, final Class<?> ... contracts) {
+    return add(component.getClass(), component, toContracts(contracts), ProviderResource.getDefaultPriority(component.getClass()));
+  }
+
+  @Override
+  public FeatureContext register(final Object component, final Map<Class<?>,Integer> contracts) {
+    return add(component.getClass(), component, contracts, ProviderResource.getDefaultPriority(component.getClass()));
+  }
+}
\ No newline at end of file
@@ -22,7 +22,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.security.DenyAll;
 import javax.annotation.security.PermitAll;
@@ -36,11 +38,16 @@ import javax.ws.rs.NotAuthorizedException;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.ParamConverterProvider;
 import javax.ws.rs.ext.Providers;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.WriterInterceptor;
 
 import org.jetrs.common.ProviderResource;
 import org.jetrs.common.core.AnnotationInjector;
@@ -50,7 +57,7 @@ import org.libj.lang.Identifiers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ResourceManifest {
+public class ResourceManifest implements ResourceInfo {
   private static final Logger logger = LoggerFactory.getLogger(ResourceManifest.class);
   private static final PermitAll permitAll = new PermitAll() {
     @Override
@@ -64,6 +71,50 @@ public class ResourceManifest {
     return false;
   }
 
+  /**
+   * Orders {@link ResourceManifest}s as per JAX-RS 2.1 [3.7.2], such that the
+   * first manifest that matches a request is the best match: by the number of
+   * literal characters, the number of template variables, and the number of
+   * template variables with regular expressions (each descending), and then
+   * by the distance of the {@code @Produces} and {@code @Consumes} media types
+   * from concrete types (ascending).
+   */
+  static final Comparator<ResourceManifest> rankComparator = (o1, o2) -> {
+    final PathPattern p1 = o1.pathPattern;
+    final PathPattern p2 = o2.pathPattern;
+    int c = Integer.compare(p2.getLiteralChars(), p1.getLiteralChars());
+    if (c != 0)
+      return c;
+
+    c = Integer.compare(p2.getTemplates(), p1.getTemplates());
+    if (c != 0)
+      return c;
+
+    c = Integer.compare(p2.getRegexTemplates(), p1.getRegexTemplates());
+    if (c != 0)
+      return c;
+
+    return Integer.compare(o1.mediaTypeDistance, o2.mediaTypeDistance);
+  };
+
+  private static int getDistance(final MediaType[] mediaTypes) {
+    if (mediaTypes == null)
+      return 2;
+
+    int distance = 2;
+    for (final MediaType mediaType : mediaTypes) {
+      if (mediaType.isWildcardType())
+        continue;
+
+      if (!mediaType.isWildcardSubtype())
+        return 0;
+
+      distance = 1;
+    }
+
+    return distance;
+  }
+
   private static Annotation findSecurityAnnotation(final Method method) {
     final Annotation annotation = findSecurityAnnotation(method.getAnnotations());
     return annotation != null ? annotation : findSecurityAnnotation(method.getDeclaringClass().getAnnotations());
@@ -78,6 +129,7 @@ public class ResourceManifest {
   }
 
   private final HttpMethod httpMethod;
+  private final String httpMethodName;
   private final Annotation securityAnnotation;
   private final Method method;
   private final Object singleton;
@@ -85,9 +137,22 @@ public class ResourceManifest {
   private final PathPattern pathPattern;
   private final ResourceAnnotationProcessor<Consumes> consumesMatcher;
   private final ResourceAnnotationProcessor<Produces> producesMatcher;
+  private final Parameter[] parameters;
+  private final Type[] genericParameterTypes;
+  private final Annotation[][] parameterAnnotations;
+  private final Annotation[] injectableAnnotations;
+  private final int mediaTypeDistance;
+  private final Set<Class<? extends Annotation>> nameBindings;
+  private ProviderResource<ContainerRequestFilter>[] containerRequestFilters;
+  private ProviderResource<ContainerResponseFilter>[] containerResponseFilters;
+  private ReaderInterceptor[] readerInterceptors;
+  private WriterInterceptor[] writerInterceptors;
+  private Dispatcher dispatcher;
+  private int route = -1;
 
   ResourceManifest(final HttpMethod httpMethod, final Method method, final Object singleton) {
     this.httpMethod = httpMethod;
+    this.httpMethodName = httpMethod.value().toUpperCase();
     final Annotation securityAnnotation = findSecurityAnnotation(method);
     this.securityAnnotation = securityAnnotation != null ? securityAnnotation : permitAll;
     this.method = method;
@@ -96,6 +161,76 @@ public class ResourceManifest {
     this.pathPattern = new PathPattern(method);
     this.consumesMatcher = new ResourceAnnotationProcessor<>(method, Consumes.class);
     this.producesMatcher = new ResourceAnnotationProcessor<>(method, Produces.class);
+    this.mediaTypeDistance = getDistance(producesMatcher.getMediaTypes()) + getDistance(consumesMatcher.getMediaTypes());
+    this.nameBindings = ContainerFilters.getNameBindings(method.getAnnotations(), serviceClass.getAnnotations());
+    this.parameters = method.getParameters();
+    this.genericParameterTypes = method.getGenericParameterTypes();
+    this.parameterAnnotations = method.getParameterAnnotations();
+    this.injectableAnnotations = new Annotation[parameters.length];
+    for (int i = 0; i < parameters.length; ++i)
+      this.injectableAnnotations[i] = AnnotationInjector.getInjectableAnnotation(parameters[i], parameterAnnotations[i]);
+  }
+
+  Method getMethod() {
+    return this.method;
+  }
+
+  @Override
+  public Method getResourceMethod() {
+    return this.method;
+  }
+
+  @Override
+  public Class<?> getResourceClass() {
+    return this.serviceClass;
+  }
+
+  /**
+   * Returns the {@link javax.ws.rs.NameBinding} annotation types of the
+   * resource method and its class.
+   *
+   * @return The {@link javax.ws.rs.NameBinding} annotation types of the
+   *         resource method and its class.
+   */
+  Set<Class<? extends Annotation>> getNameBindings() {
+    return this.nameBindings;
+  }
+
+  /**
+   * Sets the filters and interceptors that apply to this resource method,
+   * which are resolved once at bootstrap.
+   *
+   * @param containerRequestFilters The post-matching request filters.
+   * @param containerResponseFilters The response filters.
+   * @param readerInterceptors The reader interceptors, or {@code null}.
+   * @param writerInterceptors The writer interceptors, or {@code null}.
+   */
+  void setFilters(final ProviderResource<ContainerRequestFilter>[] containerRequestFilters, final ProviderResource<ContainerResponseFilter>[] containerResponseFilters, final ReaderInterceptor[] readerInterceptors, final WriterInterceptor[] writerInterceptors) {
+    this.containerRequestFilters = containerRequestFilters;
+    this.containerResponseFilters = containerResponseFilters;
+    this.readerInterceptors = readerInterceptors;
+    this.writerInterceptors = writerInterceptors;
+  }
+
+  ProviderResource<ContainerRequestFilter>[] getContainerRequestFilters() {
+    return this.containerRequestFilters;
+  }
+
+  ProviderResource<ContainerResponseFilter>[] getContainerResponseFilters() {
+    return this.containerResponseFilters;
+  }
+
+  ReaderInterceptor[] getReaderInterceptors() {
+    return this.readerInterceptors;
+  }
+
+  WriterInterceptor[] getWriterInterceptors() {
+    return this.writerInterceptors;
+  }
+
+  void setDispatcher(final Dispatcher dispatcher, final int route) {
+    this.dispatcher = dispatcher;
+    this.route = route;
   }
 
   Object getSingleton() {
@@ -119,7 +254,7 @@ public class ResourceManifest {
   }
 
   MediaType getCompatibleAccept(final ContainerRequestContext containerRequestContext) {
-    if (!httpMethod.value().toUpperCase().equals(containerRequestContext.getMethod()))
+    if (!httpMethodName.equals(containerRequestContext.getMethod()))
       return null;
 
     final String path = containerRequestContext.getUriInfo().getPath();
@@ -139,10 +274,7 @@ public class ResourceManifest {
   }
 
   @SuppressWarnings("rawtypes")
-  private static Object[] getParameters(final Method method, final ContainerRequestContextImpl containerRequestContext, final AnnotationInjector annotationInjector, final List<ProviderResource<ParamConverterProvider>> paramConverterProviders) throws IOException {
-    final Parameter[] parameters = method.getParameters();
-    final Type[] genericParameterTypes = method.getGenericParameterTypes();
-    final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+  private Object[] getParameters(final ContainerRequestContextImpl containerRequestContext, final AnnotationInjector annotationInjector, final List<ProviderResource<ParamConverterProvider>> paramConverterProviders) throws IOException {
     if (parameters.length == 0)
       return null;
 
@@ -151,7 +283,7 @@ public class ResourceManifest {
       final Parameter parameter = parameters[i];
       final Type genericParameterType = genericParameterTypes[i];
       final Annotation[] annotations = parameterAnnotations[i];
-      final Annotation paramAnnotation = AnnotationInjector.getInjectableAnnotation(parameter, annotations);
+      final Annotation paramAnnotation = injectableAnnotations[i];
       if (paramAnnotation == null) {
         final Providers providers = annotationInjector.getContextObject(Providers.class);
         final MessageBodyReader messageBodyReader = providers.getMessageBodyReader(parameter.getType(), genericParameterType, annotations, containerRequestContext.getMediaType());
@@ -233,6 +365,40 @@ public class ResourceManifest {
     throw new NotAuthorizedException(challenges);
   }
 
+  /**
+   * Invokes the resource method, with the generated {@link Dispatcher} if
+   * available, with the same semantics as
+   * {@link Method#invoke(Object,Object...)}: a {@link Throwable} thrown by the
+   * method is wrapped in an {@link InvocationTargetException}, and an argument
+   * of the wrong type is an {@link IllegalArgumentException}.
+   *
+   * @param serviceResource The resource instance.
+   * @param parameters The parameters, or {@code null} if the method has no
+   *          parameters.
+   * @return The value returned by the resource method, or {@code null} if the
+   *         method is {@code void}.
+   * @throws IllegalAccessException If the method is inaccessible.
+   * @throws InvocationTargetException If the method throws.
+   */
+  Object invoke(final Object serviceResource, final Object[] parameters) throws IllegalAccessException, InvocationTargetException {
+    // NOTE: Arguments that the Dispatcher cannot cast are passed to Method.invoke(), which rejects them with
+    // NOTE: IllegalArgumentException, or applies a widening conversion
+    if (dispatcher != null && (parameters == null ? 0 : parameters.length) == this.parameters.length) {
+      final Object value;
+      try {
+        value = dispatcher.invoke(route, serviceResource, parameters);
+      }
+      catch (final Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+
+      if (value != Dispatcher.MISMATCH)
+        return value;
+    }
+
+    return parameters != null ? method.invoke(serviceResource, parameters) : method.invoke(serviceResource);
+  }
+
   Object service(final ExecutionContext executionContext, final ContainerRequestContextImpl containerRequestContext, final AnnotationInjector annotationInjector, final List<ProviderResource<ParamConverterProvider>> paramConverterProviders) throws IOException, ServletException {
     if (executionContext.getMatchedResources() == null)
       throw new IllegalStateException("service() called before filterAndMatch()");
@@ -246,8 +412,7 @@ public class ResourceManifest {
     allow(securityAnnotation, containerRequestContext);
 
     try {
-      final Object[] parameters = getParameters(method, containerRequestContext, annotationInjector, paramConverterProviders);
-      return parameters != null ? method.invoke(serviceResource, parameters) : method.invoke(serviceResource);
+      return invoke(serviceResource, getParameters(containerRequestContext, annotationInjector, paramConverterProviders));
     }
     catch (final IllegalAccessException e) {
       throw new ServletException(e);
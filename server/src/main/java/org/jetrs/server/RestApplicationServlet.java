@@ -16,32 +16,23 @@
 
 package org.jetrs.server;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 
 import javax.servlet.ServletException;
-import javax.servlet.ServletInputStream;
 import javax.servlet.annotation.WebInitParam;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.ApplicationPath;
-import javax.ws.rs.BadRequestException;
-import javax.ws.rs.Consumes;
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.core.Application;
-import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.Providers;
 
 import org.jetrs.common.core.AnnotationInjector;
-import org.jetrs.common.core.HttpHeadersImpl;
-import org.jetrs.common.core.RequestImpl;
 import org.jetrs.server.container.ContainerRequestContextImpl;
-import org.jetrs.server.container.ContainerResponseContextImpl;
 import org.libj.lang.Classes;
 
 abstract class RestApplicationServlet extends RestHttpServlet {
@@ -56,22 +47,14 @@ abstract class RestApplicationServlet extends RestHttpServlet {
     return null;
   }
 
-  private static AnnotationInjector createAnnotationInjector(final ContainerRequestContext containerRequestContext, final HttpServletRequest httpServletRequest, final HttpServletResponse httpServletResponse, final HttpHeaders headers, final ResourceContext resourceContext) {
-    final AnnotationInjector annotationInjector = new AnnotationInjector(containerRequestContext, new RequestImpl(httpServletRequest.getMethod()), httpServletRequest, httpServletResponse, headers, resourceContext.getConfiguration(), resourceContext.getApplication());
-    annotationInjector.setProviders(resourceContext.getProviders(annotationInjector));
-    return annotationInjector;
-  }
-
-  private static void service(final ResourceContext resourceContext, final HttpServletRequestContext httpServletRequestContext, final HttpServletResponse httpServletResponse) throws IOException {
-    final ContainerResponseContextImpl containerResponseContext = new ContainerResponseContextImpl(httpServletResponse, resourceContext.getWriterInterceptors());
-    final HttpHeaders requestHeaders = new HttpHeadersImpl(httpServletRequestContext);
-    final ExecutionContext executionContext = new ExecutionContext(requestHeaders, httpServletResponse, containerResponseContext, resourceContext);
-
-    final ContainerRequestContextImpl containerRequestContext; // NOTE: This weird construct is done this way to at least somehow make the two objects cohesive
-    httpServletRequestContext.setRequestContext(containerRequestContext = new ContainerRequestContextImpl(httpServletRequestContext, containerResponseContext, executionContext, resourceContext.getReaderInterceptors()));
-
-    final AnnotationInjector annotationInjector = createAnnotationInjector(containerRequestContext, httpServletRequestContext, httpServletResponse, requestHeaders, resourceContext);
-    final Providers providers = resourceContext.getProviders(annotationInjector);
+  private static void service(final ExecutionContextPool executionContextPool, final HttpServletRequest servletRequest, final HttpServletResponse servletResponse) throws IOException {
+    final ExecutionContext executionContext = executionContextPool.acquire(servletRequest, servletResponse);
+    final HttpServletRequestContext httpServletRequestContext = executionContext.getHttpServletRequest();
+    final HttpServletResponse httpServletResponse = executionContext.getHttpServletResponse();
+    final ContainerRequestContextImpl containerRequestContext = executionContext.getContainerRequestContext();
+    final AnnotationInjector annotationInjector = executionContext.getAnnotationInjector();
+    final Providers providers = executionContext.getProviders();
+    final AnnotationInjector boundAnnotationInjector = AnnotationInjector.bind(annotationInjector);
     ResourceMatch resource = null;
     try {
       // (1) Filter Request (Pre-Match)
@@ -79,16 +62,18 @@ abstract class RestApplicationServlet extends RestHttpServlet {
 
       // (2) Match
       resource = executionContext.filterAndMatch(containerRequestContext, annotationInjector);
-      if (resource == null)
-        throw new NotFoundException();
-
-      httpServletRequestContext.setResourceManifest(resource.getManifest());
+      if (resource != null) {
+        httpServletRequestContext.setResourceManifest(resource.getManifest());
 
-      // (3) Filter Request
-      executionContext.filterContainerRequest(containerRequestContext, annotationInjector);
+        // (3) Filter Request
+        executionContext.filterContainerRequest(containerRequestContext, annotationInjector);
 
-      // (4a) Service
-      executionContext.service(resource, containerRequestContext, annotationInjector);
+        // (4a) Service
+        executionContext.service(resource, containerRequestContext, annotationInjector);
+      }
+      else if (!executionContext.options(containerRequestContext)) {
+        throw new NotFoundException();
+      }
 
       // (5a) Filter Response
       executionContext.filterContainerResponse(containerRequestContext, annotationInjector);
@@ -123,8 +108,14 @@ abstract class RestApplicationServlet extends RestHttpServlet {
         throw e1;
     }
     finally {
-      // (7) Commit Response
-      executionContext.commitResponse();
+      try {
+        // (7) Commit Response
+        executionContext.commitResponse();
+      }
+      finally {
+        AnnotationInjector.bind(boundAnnotationInjector);
+        executionContextPool.release(executionContext);
+      }
     }
   }
 
@@ -162,27 +153,7 @@ abstract class RestApplicationServlet extends RestHttpServlet {
   @Override
   protected final void service(final HttpServletRequest request, final HttpServletResponse response) throws IOException, ServletException {
     try {
-      service(getResourceContext(), new HttpServletRequestContext(request) {
-        // NOTE: Check for the existence of the @Consumes header, and subsequently the Content-Type header in the request,
-        // NOTE: only if data is expected (i.e. GET, HEAD, DELETE, OPTIONS methods will not have a body and should thus not
-        // NOTE: expect a Content-Type header from the request)
-        private void checkContentType() {
-          if (getResourceManifest() != null && !getResourceManifest().checkHeader(HttpHeaders.CONTENT_TYPE, Consumes.class, getRequestContext()))
-            throw new BadRequestException("Request has data yet missing Content-Type header");
-        }
-
-        @Override
-        public ServletInputStream getInputStream() throws IOException {
-          checkContentType();
-          return request.getInputStream();
-        }
-
-        @Override
-        public BufferedReader getReader() throws IOException {
-          checkContentType();
-          return request.getReader();
-        }
-      }, response);
+      service(getExecutionContextPool(), request, response);
     }
     catch (final IOException | RuntimeException e) {
       if (e.getCause() instanceof ServletException)
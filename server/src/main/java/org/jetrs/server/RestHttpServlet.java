@@ -25,6 +25,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
@@ -42,13 +43,20 @@ import org.jetrs.server.ext.ServerRuntimeDelegate;
 
 abstract class RestHttpServlet extends HttpServlet {
   private static final long serialVersionUID = 6825431027711735886L;
+  private static final boolean generatedDispatcher = Boolean.getBoolean("org.jetrs.GENERATED_DISPATCHER");
+  private static final boolean recycleRequests = Boolean.getBoolean("org.jetrs.RECYCLE_REQUESTS");
 
   private ResourceContext resourceContext;
+  private transient ExecutionContextPool executionContextPool;
 
   protected ResourceContext getResourceContext() {
     return resourceContext;
   }
 
+  ExecutionContextPool getExecutionContextPool() {
+    return executionContextPool;
+  }
+
   private final Application application;
 
   RestHttpServlet(final Application application) {
@@ -67,6 +75,7 @@ abstract class RestHttpServlet extends HttpServlet {
     final List<ReaderInterceptorEntityProviderResource> readerInterceptors = new ArrayList<>();
     final List<WriterInterceptorEntityProviderResource> writerInterceptors = new ArrayList<>();
     final List<ProviderResource<ParamConverterProvider>> paramConverterProviders = new ArrayList<>();
+    final List<DynamicFeature> dynamicFeatures = new ArrayList<>();
 
     final ServerBootstrap bootstrap = new ServerBootstrap();
     try {
@@ -90,8 +99,17 @@ abstract class RestHttpServlet extends HttpServlet {
         classes = null;
       }
 
-      bootstrap.init(singletons, classes, resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders);
-      this.resourceContext = new ResourceContext(application, resources, new ContainerFilters(requestFilters, responseFilters), new ProvidersImpl(exceptionMappers, entityReaders, entityWriters), readerInterceptors, writerInterceptors, paramConverterProviders);
+      bootstrap.init(singletons, classes, resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, dynamicFeatures);
+      if (generatedDispatcher) {
+        final List<ResourceManifest> manifests = new ArrayList<>();
+        for (final List<ResourceManifest> value : resources.values())
+          manifests.addAll(value);
+
+        EndpointFactory.createDispatcher(manifests);
+      }
+
+      this.resourceContext = new ResourceContext(application, resources, new ContainerFilters(requestFilters, responseFilters, dynamicFeatures), new ProvidersImpl(exceptionMappers, entityReaders, entityWriters), readerInterceptors, writerInterceptors, paramConverterProviders);
+      this.executionContextPool = new ExecutionContextPool(this.resourceContext, recycleRequests);
       RuntimeDelegate.setInstance(new ServerRuntimeDelegate(this.resourceContext));
     }
     catch (final RuntimeException e) {
@@ -101,4 +119,12 @@ abstract class RestHttpServlet extends HttpServlet {
       throw new ServletException(t);
     }
   }
+
+  @Override
+  public void destroy() {
+    if (executionContextPool != null)
+      executionContextPool.destroy();
+
+    super.destroy();
+  }
 }
\ No newline at end of file
@@ -33,8 +33,10 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.ParamConverterProvider;
+import javax.ws.rs.ext.Provider;
 
 import org.jetrs.Bootstrap;
 import org.jetrs.common.EntityReaderProviderResource;
@@ -43,6 +45,7 @@ import org.jetrs.common.ExceptionMappingProviderResource;
 import org.jetrs.common.ProviderResource;
 import org.jetrs.common.ReaderInterceptorEntityProviderResource;
 import org.jetrs.common.WriterInterceptorEntityProviderResource;
+import org.jetrs.common.core.AnnotationInjector;
 
 class ServerBootstrap extends Bootstrap<ResourceManifest> {
   /**
@@ -74,7 +77,7 @@ class ServerBootstrap extends Bootstrap<ResourceManifest> {
   }
 
   @Override
-  protected <T>void addResourceOrProvider(final MultivaluedMap<? super String,? super ResourceManifest> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final Class<? extends T> clazz, final T singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
+  protected <T>void addResourceOrProvider(final MultivaluedMap<? super String,? super ResourceManifest> resources, final List<? super ExceptionMappingProviderResource> exceptionMappers, final List<? super EntityReaderProviderResource> entityReaders, final List<? super EntityWriterProviderResource> entityWriters, final List<? super ProviderResource<ContainerRequestFilter>> requestFilters, final List<? super ProviderResource<ContainerResponseFilter>> responseFilters, final List<? super ReaderInterceptorEntityProviderResource> readerInterceptors, final List<? super WriterInterceptorEntityProviderResource> writerInterceptors, final List<? super ProviderResource<ParamConverterProvider>> paramConverterProviders, final List<? super DynamicFeature> dynamicFeatures, final Class<? extends T> clazz, final T singleton) throws IllegalAccessException, InstantiationException, InvocationTargetException {
     if (isRootResource(clazz)) {
       final Method[] methods = clazz.getMethods();
       if (methods.length > 0) {
@@ -98,7 +101,10 @@ class ServerBootstrap extends Bootstrap<ResourceManifest> {
       }
     }
     else {
-      super.addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, singleton.getClass(), singleton);
+      if (clazz.isAnnotationPresent(Provider.class) && DynamicFeature.class.isAssignableFrom(clazz))
+        dynamicFeatures.add(singleton != null ? (DynamicFeature)singleton : (DynamicFeature)AnnotationInjector.CONTEXT_ONLY.newProviderInstance(clazz));
+
+      super.addResourceOrProvider(resources, exceptionMappers, entityReaders, entityWriters, requestFilters, responseFilters, readerInterceptors, writerInterceptors, paramConverterProviders, dynamicFeatures, clazz, singleton);
     }
   }
 }
\ No newline at end of file
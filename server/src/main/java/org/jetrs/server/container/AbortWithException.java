@@ -0,0 +1,40 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.container;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Response;
+
+/**
+ * Thrown by {@link ContainerRequestContext#abortWith(Response)} to unwind the
+ * request processing chain. The exception carries the abort response verbatim,
+ * and is therefore not subject to exception mapping, and does not fill in its
+ * stack trace.
+ */
+public final class AbortWithException extends WebApplicationException {
+  private static final long serialVersionUID = -1937839408421734829L;
+
+  AbortWithException(final Response response) {
+    super(response);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
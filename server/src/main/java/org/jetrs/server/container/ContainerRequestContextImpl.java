@@ -19,7 +19,6 @@ package org.jetrs.server.container;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -50,29 +49,65 @@ public class ContainerRequestContextImpl extends InterceptorContextImpl implemen
     return list == null || list.size() == 0 ? null : list.get(0);
   }
 
-  private final ReaderInterceptor[] readerInterceptors;
+  private final ReaderInterceptor[] defaultReaderInterceptors;
+  private ReaderInterceptor[] readerInterceptors;
   private final HttpServletRequest httpServletRequest;
 
   private String method;
   private final HttpHeaders headers;
-  private final UriInfo uriInfo;
-  private final List<MediaType> accept;
-  private final List<Locale> acceptLanguages;
+  private final UriInfoImpl uriInfo;
+  private List<MediaType> accept;
+  private List<Locale> acceptLanguages;
   private InputStream entityStream;
 
   public ContainerRequestContextImpl(final HttpServletRequest httpServletRequest, final ContainerResponseContextImpl containerResponseContext, final ExecutionContext executionContext, final ReaderInterceptor[] readerInterceptors) {
-    super(getAcceptableLanguage(executionContext.getRequestHeaders()), containerResponseContext.properties);
-    this.readerInterceptors = readerInterceptors;
-    this.method = httpServletRequest.getMethod();
-    final Enumeration<String> attributes = httpServletRequest.getAttributeNames();
-    for (String attribute; attributes.hasMoreElements();)
-      properties.put(attribute = attributes.nextElement(), httpServletRequest.getAttribute(attribute));
-
+    super(null, containerResponseContext.properties);
+    this.defaultReaderInterceptors = readerInterceptors;
     this.httpServletRequest = httpServletRequest;
     this.headers = executionContext.getRequestHeaders();
+    this.uriInfo = new UriInfoImpl(this, httpServletRequest, executionContext);
+    init();
+  }
+
+  /**
+   * Reinitializes this context from the {@link HttpServletRequest} and
+   * {@link HttpHeaders} it was constructed with, which may since have been
+   * rebound to a new request.
+   */
+  public void init() {
+    setLanguage(getAcceptableLanguage(headers));
+    this.method = httpServletRequest.getMethod();
     this.accept = this.headers.getAcceptableMediaTypes();
     this.acceptLanguages = this.headers.getAcceptableLanguages();
-    this.uriInfo = new UriInfoImpl(this, httpServletRequest, executionContext);
+    this.readerInterceptors = defaultReaderInterceptors;
+  }
+
+  /**
+   * Sets the {@link ReaderInterceptor}s of the resource method to which the
+   * request was matched.
+   *
+   * @param readerInterceptors The {@link ReaderInterceptor}s, or {@code null}.
+   */
+  public void setReaderInterceptors(final ReaderInterceptor[] readerInterceptors) {
+    this.readerInterceptors = readerInterceptors;
+  }
+
+  /**
+   * Discards the state of the current request.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    uriInfo.reset();
+    method = null;
+    accept = null;
+    acceptLanguages = null;
+    entityStream = null;
+    defaultSecurityContext = null;
+    securityContext = null;
+    interceptorIndex = -1;
+    lastProceeded = null;
+    messageBodyReader = null;
   }
 
   @Override
@@ -177,7 +212,7 @@ public class ContainerRequestContextImpl extends InterceptorContextImpl implemen
   @Override
   public void abortWith(final Response response) {
     // FIXME: throw new IllegalStateException if invoked from response filter
-    throw new WebApplicationException(response);
+    throw new AbortWithException(response);
   }
 
   @Override
@@ -22,10 +22,10 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.core.EntityTag;
@@ -45,7 +45,9 @@ import org.jetrs.common.core.HttpHeadersImpl;
 import org.jetrs.common.util.ProviderUtil;
 
 public class ContainerResponseContextImpl extends InterceptorContextImpl implements ContainerResponseContext, WriterInterceptorContext {
-  private final WriterInterceptor[] writerInterceptors;
+  private final HttpServletResponse response;
+  private final WriterInterceptor[] defaultWriterInterceptors;
+  private WriterInterceptor[] writerInterceptors;
   private final HttpHeadersImpl headers;
   private Response.StatusType status;
 
@@ -55,13 +57,51 @@ public class ContainerResponseContextImpl extends InterceptorContextImpl impleme
   private Class<?> type;
   private Type genericType;
 
-  public ContainerResponseContextImpl(final HttpServletResponse response, final WriterInterceptor[] writerInterceptors) {
-    super(response.getLocale(), new HashMap<>());
+  public ContainerResponseContextImpl(final HttpServletRequest request, final HttpServletResponse response, final WriterInterceptor[] writerInterceptors) {
+    super(response.getLocale(), new ServletRequestAttributeMap(request));
+    this.response = response;
     this.headers = new HttpHeadersImpl(response);
-    this.writerInterceptors = writerInterceptors;
+    this.writerInterceptors = this.defaultWriterInterceptors = writerInterceptors;
     this.status = Response.Status.fromStatusCode(response.getStatus());
   }
 
+  /**
+   * Reinitializes this context from the {@link HttpServletResponse} it was
+   * constructed with, which may since have been rebound to a new response.
+   */
+  public void init() {
+    setLanguage(response.getLocale());
+    headers.reset(response);
+    status = Response.Status.fromStatusCode(response.getStatus());
+    writerInterceptors = defaultWriterInterceptors;
+  }
+
+  /**
+   * Sets the {@link WriterInterceptor}s of the resource method to which the
+   * request was matched.
+   *
+   * @param writerInterceptors The {@link WriterInterceptor}s, or {@code null}.
+   */
+  public void setWriterInterceptors(final WriterInterceptor[] writerInterceptors) {
+    this.writerInterceptors = writerInterceptors;
+  }
+
+  /**
+   * Discards the state of the current request.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    headers.clear();
+    status = null;
+    outputStream = null;
+    entity = null;
+    type = null;
+    genericType = null;
+    interceptorIndex = -1;
+    messageBodyWriter = null;
+  }
+
   @Override
   public int getStatus() {
     return status.getStatusCode();
@@ -32,7 +32,7 @@ import org.jetrs.common.ext.delegate.DateHeaderDelegate;
 import org.jetrs.common.util.MediaTypes;
 
 abstract class InterceptorContextImpl implements InterceptorContext {
-  private final Locale locale;
+  private Locale locale;
   protected final Map<String,Object> properties;
   private Annotation[] annotations;
   private Class<?> type;
@@ -45,6 +45,17 @@ abstract class InterceptorContextImpl implements InterceptorContext {
 
   abstract MultivaluedMap<String,String> getStringHeaders();
 
+  void reset() {
+    this.locale = null;
+    this.annotations = null;
+    this.type = null;
+    this.genericType = null;
+  }
+
+  final void setLanguage(final Locale locale) {
+    this.locale = locale;
+  }
+
   public final String getHeaderString(final String name) {
     return getStringHeaders().getFirst(name);
   }
@@ -0,0 +1,189 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.container;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * A write-through {@link java.util.Map} view of the attributes of a
+ * {@link ServletRequest}, which backs the properties of the
+ * {@link ContainerRequestContextImpl} and {@link ContainerResponseContextImpl}.
+ * <p>
+ * As per {@link javax.ws.rs.container.ContainerRequestContext#getProperty(String)},
+ * in a Servlet container the properties are synchronized with the attributes
+ * of the {@link ServletRequest}, so reads and writes are delegated to the
+ * request instead of being copied per request.
+ * Setting a {@code null} value removes the attribute, as per
+ * {@link javax.ws.rs.container.ContainerRequestContext#setProperty(String,Object)}.
+ */
+final class ServletRequestAttributeMap extends AbstractMap<String,Object> {
+  private final ServletRequest request;
+  private Set<String> keySet;
+  private Set<Entry<String,Object>> entrySet;
+
+  ServletRequestAttributeMap(final ServletRequest request) {
+    this.request = request;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return key instanceof String && request.getAttribute((String)key) != null;
+  }
+
+  @Override
+  public Object get(final Object key) {
+    return key instanceof String ? request.getAttribute((String)key) : null;
+  }
+
+  @Override
+  public Object put(final String key, final Object value) {
+    final Object previous = request.getAttribute(key);
+    if (value == null)
+      request.removeAttribute(key);
+    else
+      request.setAttribute(key, value);
+
+    return previous;
+  }
+
+  @Override
+  public Object remove(final Object key) {
+    if (!(key instanceof String))
+      return null;
+
+    final Object previous = request.getAttribute((String)key);
+    if (previous != null)
+      request.removeAttribute((String)key);
+
+    return previous;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return !request.getAttributeNames().hasMoreElements();
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (final Enumeration<String> names = request.getAttributeNames(); names.hasMoreElements(); names.nextElement())
+      ++size;
+
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    // NOTE: The names are collected first, because removal during enumeration is not supported by all containers
+    for (final Object name : keySet().toArray())
+      request.removeAttribute((String)name);
+  }
+
+  private abstract class AttributeIterator<T> implements Iterator<T> {
+    private final Enumeration<String> names = request.getAttributeNames();
+    private String last;
+
+    abstract T next(String name);
+
+    @Override
+    public final boolean hasNext() {
+      return names.hasMoreElements();
+    }
+
+    @Override
+    public final T next() {
+      if (!names.hasMoreElements())
+        throw new NoSuchElementException();
+
+      return next(last = names.nextElement());
+    }
+
+    @Override
+    public final void remove() {
+      if (last == null)
+        throw new IllegalStateException();
+
+      request.removeAttribute(last);
+      last = null;
+    }
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return keySet == null ? keySet = new AbstractSet<String>() {
+      @Override
+      public Iterator<String> iterator() {
+        return new AttributeIterator<String>() {
+          @Override
+          String next(final String name) {
+            return name;
+          }
+        };
+      }
+
+      @Override
+      public boolean contains(final Object o) {
+        return containsKey(o);
+      }
+
+      @Override
+      public boolean remove(final Object o) {
+        return ServletRequestAttributeMap.this.remove(o) != null;
+      }
+
+      @Override
+      public int size() {
+        return ServletRequestAttributeMap.this.size();
+      }
+    } : keySet;
+  }
+
+  @Override
+  public Set<Entry<String,Object>> entrySet() {
+    return entrySet == null ? entrySet = new AbstractSet<Entry<String,Object>>() {
+      @Override
+      public Iterator<Entry<String,Object>> iterator() {
+        return new AttributeIterator<Entry<String,Object>>() {
+          @Override
+          Entry<String,Object> next(final String name) {
+            return new SimpleEntry<String,Object>(name, request.getAttribute(name)) {
+              private static final long serialVersionUID = -3519436393564307386L;
+
+              @Override
+              public Object setValue(final Object value) {
+                super.setValue(value);
+                return put(name, value);
+              }
+            };
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return ServletRequestAttributeMap.this.size();
+      }
+    } : entrySet;
+  }
+}
@@ -21,22 +21,62 @@ import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.PathSegment;
 
-import org.libj.net.URLs;
-
 public class PathSegmentImpl implements PathSegment {
+  private static int indexOf(final String uri, final char ch, final int start, final int end) {
+    for (int i = start; i < end; ++i)
+      if (uri.charAt(i) == ch)
+        return i;
+
+    return -1;
+  }
+
+  private final String uri;
+  private final int matrixStart;
+  private final int matrixEnd;
+  private final boolean decode;
   private final String path;
-  private final String matrix;
 
-  public PathSegmentImpl(final String path) {
-    final int semi = path.indexOf(';');
+  /**
+   * Creates a new {@link PathSegmentImpl} of the specified region of an
+   * encoded URI path. The path is decoded eagerly (if {@code decode} is
+   * {@code true}), and the matrix parameters are parsed on demand.
+   *
+   * @param uri The encoded URI path.
+   * @param start The start index of the segment, inclusive.
+   * @param end The end index of the segment, exclusive.
+   * @param decode Whether the path and the matrix parameters are to be
+   *          decoded.
+   * @throws BadRequestException If {@code decode} is {@code true}, and the
+   *           path contains a malformed escape sequence.
+   */
+  public PathSegmentImpl(final String uri, final int start, final int end, final boolean decode) {
+    this.uri = uri;
+    this.decode = decode;
+    final int semi = indexOf(uri, ';', start, end);
     if (semi != -1) {
-      this.path = path.substring(0, semi);
-      this.matrix = path.substring(semi + 1);
+      this.matrixStart = semi + 1;
+      this.matrixEnd = end;
     }
     else {
-      this.path = path;
-      this.matrix = null;
+      this.matrixStart = -1;
+      this.matrixEnd = -1;
     }
+
+    final int pathEnd = matrixStart == -1 ? end : matrixStart - 1;
+    this.path = decode ? UriDecoder.decode(uri, start, pathEnd, false) : start == 0 && pathEnd == uri.length() ? uri : uri.substring(start, pathEnd);
+  }
+
+  /**
+   * Creates a new {@link PathSegmentImpl} of the specified encoded segment.
+   *
+   * @param segment The encoded segment.
+   * @param decode Whether the path and the matrix parameters are to be
+   *          decoded.
+   * @throws BadRequestException If {@code decode} is {@code true}, and the
+   *           path contains a malformed escape sequence.
+   */
+  public PathSegmentImpl(final String segment, final boolean decode) {
+    this(segment, 0, segment.length(), decode);
   }
 
   @Override
@@ -48,29 +88,28 @@ public class PathSegmentImpl implements PathSegment {
 
   @Override
   public MultivaluedMap<String,String> getMatrixParameters() {
-    if (matrix == null || matrixParameters != null)
+    if (matrixStart == -1 || matrixParameters != null)
       return matrixParameters;
 
     final MultivaluedMap<String,String> matrixParameters = new MultivaluedHashMap<>();
-    int semi = -1;
-    int equals = -1;
-    for (int i = 0; i < matrix.length(); ++i) {
-      final char ch = matrix.charAt(i);
-      if (ch == '=') {
-        equals = i;
-      }
-      else if (ch == ';' || i == matrix.length() - 1) {
+    for (int start = matrixStart; start < matrixEnd;) {
+      int semi = indexOf(uri, ';', start, matrixEnd);
+      if (semi == -1)
+        semi = matrixEnd;
+
+      if (semi > start) {
+        final int equals = indexOf(uri, '=', start, semi);
         if (equals == -1)
           throw new BadRequestException();
 
-        final String key = matrix.substring(semi + 1, equals);
-        final String value = matrix.substring(equals + 1, i);
-        matrixParameters.putSingle(URLs.decodePath(key), URLs.decodePath(value));
-        semi = i;
-        equals = -1;
+        final String key = UriDecoder.decode(uri, start, equals, false);
+        final String value = decode ? UriDecoder.decode(uri, equals + 1, semi, false) : uri.substring(equals + 1, semi);
+        matrixParameters.putSingle(key, value);
       }
+
+      start = semi + 1;
     }
 
     return this.matrixParameters = matrixParameters;
   }
-}
\ No newline at end of file
+}
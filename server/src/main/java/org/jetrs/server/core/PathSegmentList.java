@@ -0,0 +1,109 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.core;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import javax.ws.rs.core.PathSegment;
+
+/**
+ * An unmodifiable list of the {@link PathSegment}s of an encoded URI path,
+ * with the same boundaries as {@code path.split("/")}. The segment boundaries
+ * are indexed once, and each {@link PathSegmentImpl} (and its matrix
+ * parameters) is only created when it is accessed.
+ */
+final class PathSegmentList extends AbstractList<PathSegment> implements RandomAccess {
+  private static int[] index(final String path) {
+    int count = 1;
+    for (int i = 0, len = path.length(); i < len; ++i)
+      if (path.charAt(i) == '/')
+        ++count;
+
+    // NOTE: The start of each segment, followed by the (exclusive) end of the last segment + 1
+    final int[] index = new int[count + 1];
+    index[0] = 0;
+    for (int i = 0, j = 1, len = path.length(); i < len; ++i)
+      if (path.charAt(i) == '/')
+        index[j++] = i + 1;
+
+    index[count] = path.length() + 1;
+    return index;
+  }
+
+  private static int size(final int[] index) {
+    int size = index.length - 1;
+    if (size == 1)
+      return 1;
+
+    // NOTE: As with String.split(), trailing empty segments are not included
+    while (size > 0 && index[size] - index[size - 1] == 1)
+      --size;
+
+    return size;
+  }
+
+  private final String path;
+  private final int[] index;
+  private final int size;
+  private final boolean decode;
+  private final PathSegment[] segments;
+
+  /**
+   * Creates a new {@link PathSegmentList} of the specified encoded URI path.
+   *
+   * @param path The encoded URI path.
+   * @param decode Whether the segments are to be decoded.
+   */
+  PathSegmentList(final String path, final boolean decode) {
+    this.path = path;
+    this.index = index(path);
+    this.size = size(index);
+    this.decode = decode;
+    this.segments = new PathSegment[size];
+  }
+
+  /**
+   * Creates a new {@link PathSegmentList} that shares the path and index of
+   * the specified {@link PathSegmentList}.
+   *
+   * @param copy The {@link PathSegmentList} whose path and index are to be
+   *          shared.
+   * @param decode Whether the segments are to be decoded.
+   */
+  PathSegmentList(final PathSegmentList copy, final boolean decode) {
+    this.path = copy.path;
+    this.index = copy.index;
+    this.size = copy.size;
+    this.decode = decode;
+    this.segments = new PathSegment[size];
+  }
+
+  @Override
+  public PathSegment get(final int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+    final PathSegment segment = segments[index];
+    return segment != null ? segment : (segments[index] = new PathSegmentImpl(path, this.index[index], this.index[index + 1] - 1, decode));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
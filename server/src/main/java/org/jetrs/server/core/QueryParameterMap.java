@@ -0,0 +1,226 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.core;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+/**
+ * An unmodifiable {@link MultivaluedMap} of the query parameters of a raw
+ * query string, as returned by
+ * {@link javax.servlet.http.HttpServletRequest#getQueryString()}.
+ * <p>
+ * The name and value offsets of the query string are indexed once, and
+ * lookups by name (i.e. {@link #get(Object)}, {@link #getFirst(Object)} and
+ * {@link #containsKey(Object)}) scan the index without building a map. Names
+ * and values are decoded lazily, and only if they contain a {@code '%'} or
+ * {@code '+'}. As per {@link javax.ws.rs.core.UriInfo#getQueryParameters(boolean)},
+ * names are always decoded, and values are decoded only if {@code decode} is
+ * {@code true}. The full map is only built for operations over all entries.
+ * <p>
+ * As decoding is lazy, a malformed escape sequence is not rejected when the
+ * map is created, but with a {@link BadRequestException} by the first
+ * operation that decodes it.
+ */
+final class QueryParameterMap extends AbstractMap<String,List<String>> implements MultivaluedMap<String,String> {
+  private static int[] index(final String query) {
+    if (query == null || query.length() == 0)
+      return null;
+
+    int count = 1;
+    for (int i = 0, len = query.length(); i < len; ++i)
+      if (query.charAt(i) == '&')
+        ++count;
+
+    // NOTE: For each parameter: [start of name, end of name (i.e. '=' or end), end of value]
+    final int[] index = new int[count * 3];
+    int size = 0;
+    for (int start = 0, len = query.length(); start <= len;) {
+      int end = query.indexOf('&', start);
+      if (end == -1)
+        end = len;
+
+      if (end > start) {
+        final int eq = query.indexOf('=', start);
+        index[size++] = start;
+        index[size++] = eq == -1 || eq > end ? end : eq;
+        index[size++] = end;
+      }
+
+      start = end + 1;
+    }
+
+    return size == 0 ? null : size == index.length ? index : Arrays.copyOf(index, size);
+  }
+
+  private final String query;
+  private final int[] index;
+  private final boolean decode;
+  private MultivaluedMap<String,String> map;
+
+  /**
+   * Creates a new {@link QueryParameterMap} of the specified raw query string.
+   *
+   * @param query The raw query string (may be null).
+   * @param decode Whether the values are to be decoded.
+   */
+  QueryParameterMap(final String query, final boolean decode) {
+    this.query = query;
+    this.index = index(query);
+    this.decode = decode;
+  }
+
+  /**
+   * Creates a new {@link QueryParameterMap} that shares the query string and
+   * index of the specified {@link QueryParameterMap}.
+   *
+   * @param copy The {@link QueryParameterMap} whose query string and index are
+   *          to be shared.
+   * @param decode Whether the values are to be decoded.
+   */
+  QueryParameterMap(final QueryParameterMap copy, final boolean decode) {
+    this.query = copy.query;
+    this.index = copy.index;
+    this.decode = decode;
+  }
+
+  private boolean nameEquals(final int i, final String name) {
+    final int start = index[i];
+    final int end = index[i + 1];
+    if (!UriDecoder.isEncoded(query, start, end, true))
+      return name.length() == end - start && query.regionMatches(start, name, 0, name.length());
+
+    return name.equals(UriDecoder.decode(query, start, end, true));
+  }
+
+  private String getName(final int i) {
+    return UriDecoder.decode(query, index[i], index[i + 1], true);
+  }
+
+  private String getValue(final int i) {
+    final int start = index[i + 1];
+    final int end = index[i + 2];
+    if (start == end)
+      return "";
+
+    return decode ? UriDecoder.decode(query, start + 1, end, true) : query.substring(start + 1, end);
+  }
+
+  private int indexOf(final Object key, final int fromIndex) {
+    if (index != null && key instanceof String)
+      for (int i = fromIndex; i < index.length; i += 3)
+        if (nameEquals(i, (String)key))
+          return i;
+
+    return -1;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return indexOf(key, 0) != -1;
+  }
+
+  @Override
+  public List<String> get(final Object key) {
+    int i = indexOf(key, 0);
+    if (i == -1)
+      return null;
+
+    final String first = getValue(i);
+    if ((i = indexOf(key, i + 3)) == -1)
+      return Collections.singletonList(first);
+
+    final List<String> values = new ArrayList<>(2);
+    values.add(first);
+    do
+      values.add(getValue(i));
+    while ((i = indexOf(key, i + 3)) != -1);
+
+    return Collections.unmodifiableList(values);
+  }
+
+  @Override
+  public String getFirst(final String key) {
+    final int i = indexOf(key, 0);
+    return i == -1 ? null : getValue(i);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return index == null;
+  }
+
+  private MultivaluedMap<String,String> getMap() {
+    if (map != null)
+      return map;
+
+    final MultivaluedMap<String,String> map = new MultivaluedHashMap<>();
+    if (index != null)
+      for (int i = 0; i < index.length; i += 3)
+        map.add(getName(i), getValue(i));
+
+    return this.map = map;
+  }
+
+  @Override
+  public int size() {
+    return getMap().size();
+  }
+
+  @Override
+  public Set<Entry<String,List<String>>> entrySet() {
+    return Collections.unmodifiableMap(getMap()).entrySet();
+  }
+
+  @Override
+  public boolean equalsIgnoreValueOrder(final MultivaluedMap<String,String> otherMap) {
+    return getMap().equalsIgnoreValueOrder(otherMap);
+  }
+
+  @Override
+  public void putSingle(final String key, final String value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void add(final String key, final String value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void addAll(final String key, final String ... newValues) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void addAll(final String key, final List<String> valueList) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void addFirst(final String key, final String value) {
+    throw new UnsupportedOperationException();
+  }
+}
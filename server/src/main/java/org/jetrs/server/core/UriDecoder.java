@@ -0,0 +1,108 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.core;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.BadRequestException;
+
+/**
+ * Utility functions for the decoding of regions of URI strings, which return
+ * the original string (or a plain substring) if there is nothing to decode.
+ */
+final class UriDecoder {
+  private static int digit(final String uri, final int i) {
+    final int digit = i < uri.length() ? Character.digit(uri.charAt(i), 16) : -1;
+    if (digit == -1)
+      throw new BadRequestException("Illegal hex characters in escape (%) pattern: " + uri);
+
+    return digit;
+  }
+
+  /**
+   * Returns whether the region of the specified string contains a {@code '%'},
+   * or a {@code '+'} if {@code plusIsSpace} is {@code true}.
+   *
+   * @param uri The string.
+   * @param start The start index of the region, inclusive.
+   * @param end The end index of the region, exclusive.
+   * @param plusIsSpace Whether {@code '+'} is to be decoded to {@code ' '}.
+   * @return Whether the region of the specified string has characters to
+   *         decode.
+   */
+  static boolean isEncoded(final String uri, final int start, final int end, final boolean plusIsSpace) {
+    for (int i = start; i < end; ++i) {
+      final char ch = uri.charAt(i);
+      if (ch == '%' || plusIsSpace && ch == '+')
+        return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the UTF-8 decoded region of the specified string. If the region
+   * has nothing to decode, the specified string itself is returned if the
+   * region spans all of it, otherwise the substring of the region.
+   *
+   * @param uri The string.
+   * @param start The start index of the region, inclusive.
+   * @param end The end index of the region, exclusive.
+   * @param plusIsSpace Whether {@code '+'} is to be decoded to {@code ' '}
+   *          (i.e. for query strings, but not for paths).
+   * @return The decoded region of the specified string.
+   * @throws BadRequestException If the region contains a malformed escape
+   *           sequence.
+   */
+  static String decode(final String uri, final int start, final int end, final boolean plusIsSpace) {
+    if (!isEncoded(uri, start, end, plusIsSpace))
+      return start == 0 && end == uri.length() ? uri : uri.substring(start, end);
+
+    final StringBuilder builder = new StringBuilder(end - start);
+    byte[] bytes = null;
+    for (int i = start; i < end;) {
+      final char ch = uri.charAt(i);
+      if (plusIsSpace && ch == '+') {
+        builder.append(' ');
+        ++i;
+      }
+      else if (ch != '%') {
+        builder.append(ch);
+        ++i;
+      }
+      else {
+        if (bytes == null)
+          bytes = new byte[(end - i + 2) / 3];
+
+        int len = 0;
+        for (; i < end && uri.charAt(i) == '%'; i += 3) {
+          if (i + 2 >= end)
+            throw new BadRequestException("Incomplete trailing escape (%) pattern: " + uri);
+
+          bytes[len++] = (byte)((digit(uri, i + 1) << 4) | digit(uri, i + 2));
+        }
+
+        builder.append(new String(bytes, 0, len, StandardCharsets.UTF_8));
+      }
+    }
+
+    return builder.toString();
+  }
+
+  private UriDecoder() {
+  }
+}
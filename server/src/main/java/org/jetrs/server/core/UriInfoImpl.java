@@ -18,14 +18,11 @@ package org.jetrs.server.core;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.container.ContainerRequestContext;
-import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.PathSegment;
 import javax.ws.rs.core.UriBuilder;
@@ -33,8 +30,6 @@ import javax.ws.rs.core.UriInfo;
 
 import org.jetrs.server.ExecutionContext;
 import org.jetrs.server.ResourceMatch;
-import org.libj.net.URIComponent;
-import org.libj.net.URLs;
 
 public class UriInfoImpl implements UriInfo {
   private final ContainerRequestContext containerRequestContext;
@@ -47,6 +42,22 @@ public class UriInfoImpl implements UriInfo {
     this.executionContext = executionContext;
   }
 
+  /**
+   * Discards the values cached for the current request.
+   */
+  public void reset() {
+    pathDecoded = null;
+    pathEncoded = null;
+    pathSegmentsDecoded = null;
+    pathSegmentsEncoded = null;
+    absolutePath = null;
+    baseUri = null;
+    parametersDecoded = null;
+    parametersEncoded = null;
+    queryParametersDecoded = null;
+    queryParametersEncoded = null;
+  }
+
   @Override
   public String getPath() {
     return getPath(true);
@@ -57,10 +68,13 @@ public class UriInfoImpl implements UriInfo {
 
   @Override
   public String getPath(final boolean decode) {
-    if (decode)
-      return pathDecoded == null ? pathDecoded = URLs.decodePath(httpServletRequest.getRequestURI()) : pathDecoded;
+    if (pathEncoded == null)
+      pathEncoded = httpServletRequest.getRequestURI();
+
+    if (!decode)
+      return pathEncoded;
 
-    return pathEncoded == null ? pathEncoded = httpServletRequest.getRequestURI() : pathEncoded;
+    return pathDecoded == null ? pathDecoded = UriDecoder.decode(pathEncoded, 0, pathEncoded.length(), false) : pathDecoded;
   }
 
   @Override
@@ -68,25 +82,22 @@ public class UriInfoImpl implements UriInfo {
     return getPathSegments(true);
   }
 
-  private List<PathSegment> pathSegmentsDecoded;
-  private List<PathSegment> pathSegmentsEncoded;
+  private PathSegmentList pathSegmentsDecoded;
+  private PathSegmentList pathSegmentsEncoded;
 
   @Override
   public List<PathSegment> getPathSegments(final boolean decode) {
     if (decode) {
-      if (pathSegmentsDecoded != null)
-        return pathSegmentsDecoded;
-    }
-    else if (pathSegmentsEncoded != null) {
-      return pathSegmentsEncoded;
+      if (pathSegmentsDecoded == null)
+        pathSegmentsDecoded = pathSegmentsEncoded != null ? new PathSegmentList(pathSegmentsEncoded, true) : new PathSegmentList(getPath(false), true);
+
+      return pathSegmentsDecoded;
     }
 
-    final String[] parts = getPath(decode).split("/");
-    final List<PathSegment> pathSegments = new ArrayList<>(parts.length);
-    for (int i = 0; i < parts.length; ++i)
-      pathSegments.add(new PathSegmentImpl(parts[i]));
+    if (pathSegmentsEncoded == null)
+      pathSegmentsEncoded = pathSegmentsDecoded != null ? new PathSegmentList(pathSegmentsDecoded, false) : new PathSegmentList(getPath(false), false);
 
-    return decode ? pathSegmentsDecoded = pathSegments : (pathSegmentsEncoded = pathSegments);
+    return pathSegmentsEncoded;
   }
 
   @Override
@@ -151,8 +162,8 @@ public class UriInfoImpl implements UriInfo {
   }
 
   private MultivaluedMap<String,String> filterPathParameters(final boolean decode) {
-    final ResourceMatch[] resourceMatches = executionContext.filterAndMatch(containerRequestContext);
-    return resourceMatches == null ? null : resourceMatches[0].getManifest().getPathPattern().getParameters(getPath(decode));
+    final ResourceMatch resourceMatch = executionContext.filterAndMatch(containerRequestContext);
+    return resourceMatch == null ? null : resourceMatch.getManifest().getPathPattern().getParameters(getPath(decode));
   }
 
   private MultivaluedMap<String,String> parametersDecoded;
@@ -168,31 +179,22 @@ public class UriInfoImpl implements UriInfo {
     return getQueryParameters(true);
   }
 
-  private MultivaluedMap<String,String> queryParametersDecoded;
-  private MultivaluedMap<String,String> queryParametersEncoded;
+  private QueryParameterMap queryParametersDecoded;
+  private QueryParameterMap queryParametersEncoded;
 
   @Override
   public MultivaluedMap<String,String> getQueryParameters(final boolean decode) {
     if (decode) {
-      if (queryParametersDecoded != null)
-        return queryParametersDecoded;
-    }
-    else if (queryParametersEncoded != null) {
-      return queryParametersEncoded;
-    }
+      if (queryParametersDecoded == null)
+        queryParametersDecoded = queryParametersEncoded != null ? new QueryParameterMap(queryParametersEncoded, true) : new QueryParameterMap(httpServletRequest.getQueryString(), true);
 
-    final MultivaluedMap<String,String> parameters = new MultivaluedHashMap<>();
-    if (decode) {
-      for (final Map.Entry<String,String[]> entry : httpServletRequest.getParameterMap().entrySet())
-        for (final String value : entry.getValue())
-          parameters.add(entry.getKey(), URIComponent.decode(value));
-    }
-    else {
-      for (final Map.Entry<String,String[]> entry : httpServletRequest.getParameterMap().entrySet())
-        parameters.addAll(entry.getKey(), entry.getValue());
+      return queryParametersDecoded;
     }
 
-    return decode ? queryParametersDecoded = parameters : (queryParametersEncoded = parameters);
+    if (queryParametersEncoded == null)
+      queryParametersEncoded = queryParametersDecoded != null ? new QueryParameterMap(queryParametersDecoded, false) : new QueryParameterMap(httpServletRequest.getQueryString(), false);
+
+    return queryParametersEncoded;
   }
 
   @Override
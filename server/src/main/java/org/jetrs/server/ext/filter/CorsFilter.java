@@ -0,0 +1,322 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.ext.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+/**
+ * Configurable Cross-Origin Resource Sharing (CORS) filter.
+ * <p>
+ * Preflight requests are answered before routing, and the decision for each
+ * distinct {@code (Origin, Access-Control-Request-Method,
+ * Access-Control-Request-Headers)} triplet is cached, up to a bound beyond
+ * which the least recently used decisions are evicted. Responses to actual
+ * cross-origin requests are decorated with headers that are rendered once at
+ * construction.
+ * <p>
+ * This filter is not annotated with {@link javax.ws.rs.ext.Provider}, so that
+ * a CORS policy is not registered by a package scan: it must be registered
+ * explicitly, preferably as an instance that is configured with the allowed
+ * origins.
+ */
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 100)
+public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+  public static final String ORIGIN = "Origin";
+  public static final String ACCESS_CONTROL_REQUEST_METHOD = "Access-Control-Request-Method";
+  public static final String ACCESS_CONTROL_REQUEST_HEADERS = "Access-Control-Request-Headers";
+  public static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
+  public static final String ACCESS_CONTROL_ALLOW_METHODS = "Access-Control-Allow-Methods";
+  public static final String ACCESS_CONTROL_ALLOW_HEADERS = "Access-Control-Allow-Headers";
+  public static final String ACCESS_CONTROL_ALLOW_CREDENTIALS = "Access-Control-Allow-Credentials";
+  public static final String ACCESS_CONTROL_EXPOSE_HEADERS = "Access-Control-Expose-Headers";
+  public static final String ACCESS_CONTROL_MAX_AGE = "Access-Control-Max-Age";
+
+  private static final String[] defaultAllowedMethods = {HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, "PATCH"};
+  private static final String varyPreflight = ORIGIN + "," + ACCESS_CONTROL_REQUEST_METHOD + "," + ACCESS_CONTROL_REQUEST_HEADERS;
+  static final int maxPreflightCacheSize = 1024;
+
+  /**
+   * The precomputed outcome of a preflight request.
+   */
+  static final class Preflight {
+    static final Preflight DENIED = new Preflight(null);
+
+    /** Alternating header names and values, or {@code null} if denied. */
+    final String[] headers;
+
+    private Preflight(final String[] headers) {
+      this.headers = headers;
+    }
+
+    boolean isAllowed() {
+      return headers != null;
+    }
+
+    Response toResponse() {
+      if (headers == null)
+        return Response.status(Response.Status.FORBIDDEN).build();
+
+      final Response.ResponseBuilder builder = Response.ok();
+      for (int i = 0; i < headers.length; i += 2)
+        builder.header(headers[i], headers[i + 1]);
+
+      return builder.build();
+    }
+  }
+
+  private final boolean anyOrigin;
+  private final HashSet<String> origins = new HashSet<>();
+  private final String[] originPrefixes;
+  private final String[] originSuffixes;
+  private final LinkedHashSet<String> methods = new LinkedHashSet<>();
+  private final boolean anyHeader;
+  private final HashSet<String> headers = new HashSet<>();
+  private final boolean allowCredentials;
+  private final String allowMethods;
+  private final String allowHeaders;
+  private final String exposeHeaders;
+  private final String maxAge;
+  // NOTE: The keys are client-controlled, so the cache is bounded by evicting the least recently used entry
+  private final LinkedHashMap<String,Preflight> preflights = new LinkedHashMap<String,Preflight>(16, 0.75f, true) {
+    private static final long serialVersionUID = -2447624577407342911L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String,Preflight> eldest) {
+      return size() > maxPreflightCacheSize;
+    }
+  };
+
+  /**
+   * Creates a new {@link CorsFilter}.
+   *
+   * @param allowedOrigins The allowed origins, each either an exact origin
+   *          (i.e. {@code "https://www.example.com"}), a pattern with a single
+   *          {@code '*'} wildcard (i.e. {@code "https://*.example.com"}), or
+   *          {@code "*"} to allow any origin.
+   * @param allowedMethods The allowed methods, or {@code null} for
+   *          {@code GET, HEAD, POST, PUT, DELETE, PATCH}.
+   * @param allowedHeaders The allowed request headers, or {@code null} (or
+   *          {@code "*"}) to allow any request header.
+   * @param exposedHeaders The response headers exposed to the client, or
+   *          {@code null} for none.
+   * @param allowCredentials Whether credentials are allowed.
+   * @param maxAge The number of seconds a preflight response may be cached by
+   *          the client, or a negative value to omit the header.
+   * @throws IllegalArgumentException If {@code allowedOrigins} is null or
+   *           empty, if an origin pattern has more than one {@code '*'}, or if
+   *           {@code allowCredentials} is true and {@code allowedOrigins}
+   *           contains {@code "*"}.
+   */
+  public CorsFilter(final String[] allowedOrigins, final String[] allowedMethods, final String[] allowedHeaders, final String[] exposedHeaders, final boolean allowCredentials, final int maxAge) {
+    if (allowedOrigins == null || allowedOrigins.length == 0)
+      throw new IllegalArgumentException("allowedOrigins is empty");
+
+    boolean anyOrigin = false;
+    final ArrayList<String> prefixes = new ArrayList<>(0);
+    final ArrayList<String> suffixes = new ArrayList<>(0);
+    for (final String origin : allowedOrigins) {
+      final int wildcard = origin.indexOf('*');
+      if (wildcard == -1) {
+        origins.add(origin);
+      }
+      else if ("*".equals(origin)) {
+        anyOrigin = true;
+      }
+      else if (origin.indexOf('*', wildcard + 1) != -1) {
+        throw new IllegalArgumentException("Origin pattern must have a single '*': " + origin);
+      }
+      else {
+        prefixes.add(origin.substring(0, wildcard));
+        suffixes.add(origin.substring(wildcard + 1));
+      }
+    }
+
+    // NOTE: Reflecting any origin together with credentials would allow any site to make credentialed cross-origin reads
+    if (anyOrigin && allowCredentials)
+      throw new IllegalArgumentException("Credentials cannot be allowed for any origin: the allowed origins must be listed explicitly");
+
+    this.anyOrigin = anyOrigin;
+    this.originPrefixes = prefixes.toArray(new String[prefixes.size()]);
+    this.originSuffixes = suffixes.toArray(new String[suffixes.size()]);
+
+    Collections.addAll(methods, allowedMethods != null ? allowedMethods : defaultAllowedMethods);
+    this.allowMethods = String.join(",", methods);
+
+    boolean anyHeader = allowedHeaders == null;
+    if (allowedHeaders != null) {
+      for (final String header : allowedHeaders) {
+        if ("*".equals(header))
+          anyHeader = true;
+        else
+          headers.add(header.toLowerCase(Locale.ROOT));
+      }
+    }
+
+    this.anyHeader = anyHeader;
+    this.allowHeaders = anyHeader ? null : String.join(",", allowedHeaders);
+    this.exposeHeaders = exposedHeaders == null || exposedHeaders.length == 0 ? null : String.join(",", exposedHeaders);
+    this.allowCredentials = allowCredentials;
+    this.maxAge = maxAge < 0 ? null : String.valueOf(maxAge);
+  }
+
+  /**
+   * Creates a new {@link CorsFilter} that allows any origin to issue requests
+   * without credentials with the default methods and any request header.
+   */
+  public CorsFilter() {
+    this(new String[] {"*"}, null, null, null, false, -1);
+  }
+
+  /**
+   * Returns whether the specified origin is allowed.
+   *
+   * @param origin The value of the {@code Origin} request header.
+   * @return Whether the specified origin is allowed.
+   */
+  boolean isAllowedOrigin(final String origin) {
+    if (anyOrigin || origins.contains(origin))
+      return true;
+
+    for (int i = 0; i < originPrefixes.length; ++i) {
+      final String prefix = originPrefixes[i];
+      final String suffix = originSuffixes[i];
+      if (origin.length() > prefix.length() + suffix.length() && origin.startsWith(prefix) && origin.endsWith(suffix))
+        return true;
+    }
+
+    return false;
+  }
+
+  private String getAllowOrigin(final String origin) {
+    return anyOrigin ? "*" : origin;
+  }
+
+  /**
+   * Returns the (cached) outcome of a preflight request.
+   *
+   * @param origin The value of the {@code Origin} request header.
+   * @param method The value of the {@code Access-Control-Request-Method}
+   *          request header.
+   * @param requestHeaders The value of the
+   *          {@code Access-Control-Request-Headers} request header, or
+   *          {@code null}.
+   * @return The (cached) outcome of a preflight request.
+   */
+  Preflight preflight(final String origin, final String method, final String requestHeaders) {
+    final String key = requestHeaders == null ? origin + '\n' + method : origin + '\n' + method + '\n' + requestHeaders;
+    synchronized (preflights) {
+      final Preflight preflight = preflights.get(key);
+      if (preflight != null)
+        return preflight;
+    }
+
+    final Preflight preflight = newPreflight(origin, method, requestHeaders);
+    synchronized (preflights) {
+      preflights.put(key, preflight);
+    }
+
+    return preflight;
+  }
+
+  private Preflight newPreflight(final String origin, final String method, final String requestHeaders) {
+    if (!isAllowedOrigin(origin) || !methods.contains(method))
+      return Preflight.DENIED;
+
+    final boolean hasRequestHeaders = requestHeaders != null && requestHeaders.trim().length() > 0;
+    if (hasRequestHeaders && !anyHeader)
+      for (final String header : requestHeaders.split(","))
+        if (!headers.contains(header.trim().toLowerCase(Locale.ROOT)))
+          return Preflight.DENIED;
+
+    final ArrayList<String> headers = new ArrayList<>(12);
+    headers.add(ACCESS_CONTROL_ALLOW_ORIGIN);
+    headers.add(getAllowOrigin(origin));
+    headers.add(ACCESS_CONTROL_ALLOW_METHODS);
+    headers.add(allowMethods);
+    if (anyHeader ? hasRequestHeaders : allowHeaders.length() > 0) {
+      headers.add(ACCESS_CONTROL_ALLOW_HEADERS);
+      headers.add(anyHeader ? requestHeaders : allowHeaders);
+    }
+
+    if (allowCredentials) {
+      headers.add(ACCESS_CONTROL_ALLOW_CREDENTIALS);
+      headers.add("true");
+    }
+
+    if (maxAge != null) {
+      headers.add(ACCESS_CONTROL_MAX_AGE);
+      headers.add(maxAge);
+    }
+
+    headers.add(HttpHeaders.VARY);
+    headers.add(varyPreflight);
+    return new Preflight(headers.toArray(new String[headers.size()]));
+  }
+
+  private static boolean isPreflight(final ContainerRequestContext requestContext) {
+    return HttpMethod.OPTIONS.equals(requestContext.getMethod()) && requestContext.getHeaderString(ACCESS_CONTROL_REQUEST_METHOD) != null;
+  }
+
+  @Override
+  public void filter(final ContainerRequestContext requestContext) throws IOException {
+    final String origin = requestContext.getHeaderString(ORIGIN);
+    if (origin != null && isPreflight(requestContext))
+      requestContext.abortWith(preflight(origin, requestContext.getHeaderString(ACCESS_CONTROL_REQUEST_METHOD), requestContext.getHeaderString(ACCESS_CONTROL_REQUEST_HEADERS)).toResponse());
+  }
+
+  @Override
+  public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) throws IOException {
+    if (isPreflight(requestContext))
+      return;
+
+    final MultivaluedMap<String,Object> headers = responseContext.getHeaders();
+    // NOTE: The response depends on the Origin whether or not it is allowed, so that a shared cache does not serve it to another origin
+    if (!anyOrigin)
+      headers.add(HttpHeaders.VARY, ORIGIN);
+
+    final String origin = requestContext.getHeaderString(ORIGIN);
+    if (origin == null || !isAllowedOrigin(origin))
+      return;
+
+    headers.putSingle(ACCESS_CONTROL_ALLOW_ORIGIN, getAllowOrigin(origin));
+    if (allowCredentials)
+      headers.putSingle(ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+
+    if (exposeHeaders != null)
+      headers.putSingle(ACCESS_CONTROL_EXPOSE_HEADERS, exposeHeaders);
+  }
+}
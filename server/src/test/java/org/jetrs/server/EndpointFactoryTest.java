@@ -18,8 +18,16 @@ package org.jetrs.server;
 
 import static org.junit.Assert.*;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+
 import javax.servlet.annotation.WebServlet;
 import javax.ws.rs.ApplicationPath;
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
 import javax.ws.rs.core.Application;
 
 import org.junit.FixMethodOrder;
@@ -32,6 +40,45 @@ public class EndpointFactoryTest {
   public static class App extends Application {
   }
 
+  public static class Service {
+    private int count;
+
+    @GET
+    @Path("/echo")
+    public String echo(final String value, final int times) {
+      return value + times;
+    }
+
+    @GET
+    @Path("/sum")
+    public long sum(final int a, final long b, final double[] c) {
+      return a + b + (long)c[0];
+    }
+
+    @POST
+    @Path("/count")
+    public void count() {
+      ++count;
+    }
+
+    @GET
+    @Path("/error")
+    public void error() {
+      throw new AssertionError();
+    }
+  }
+
+  static class HiddenService {
+    @GET
+    @Path("/hidden")
+    public String get() {
+      return "hidden";
+    }
+  }
+
+  private static final HttpMethod GET_METHOD = GET.class.getAnnotation(HttpMethod.class);
+  private static final HttpMethod POST_METHOD = POST.class.getAnnotation(HttpMethod.class);
+
   @Test
   public void testAnnotation() {
     final RestApplicationServlet servlet = EndpointFactory.createEndpoint(new App());
@@ -56,4 +103,71 @@ public class EndpointFactoryTest {
     final RestApplicationServlet servlet2 = EndpointFactory.createEndpoint(new App());
     assertNotEquals(servlet1.getClass(), servlet2.getClass());
   }
+
+  @Test
+  public void testDispatcher() throws Exception {
+    final Service service = new Service();
+    final Dispatcher dispatcher = EndpointFactory.createDispatcher(Arrays.asList(
+      new ResourceManifest(GET_METHOD, Service.class.getMethod("echo", String.class, int.class), null),
+      new ResourceManifest(GET_METHOD, Service.class.getMethod("sum", int.class, long.class, double[].class), null),
+      new ResourceManifest(POST_METHOD, Service.class.getMethod("count"), null)));
+
+    assertNotNull(dispatcher);
+    assertEquals("x3", dispatcher.invoke(0, service, new Object[] {"x", 3}));
+    assertEquals(6L, dispatcher.invoke(1, service, new Object[] {1, 2L, new double[] {3}}));
+    assertNull(dispatcher.invoke(2, service, null));
+    assertEquals(1, service.count);
+
+    // The types are checked by the generated instructions, which return MISMATCH rather than throw ClassCastException
+    assertEquals("null3", dispatcher.invoke(0, service, new Object[] {null, 3}));
+    assertSame(Dispatcher.MISMATCH, dispatcher.invoke(0, service, new Object[] {"x", "3"}));
+    assertSame(Dispatcher.MISMATCH, dispatcher.invoke(0, service, new Object[] {"x", null}));
+    assertSame(Dispatcher.MISMATCH, dispatcher.invoke(0, new Object(), new Object[] {"x", 3}));
+    assertSame(Dispatcher.MISMATCH, dispatcher.invoke(1, service, new Object[] {1, 2, new double[] {3}}));
+    try {
+      dispatcher.invoke(3, service, null);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testDispatcherSemantics() throws Exception {
+    final Service service = new Service();
+    final ResourceManifest echo = new ResourceManifest(GET_METHOD, Service.class.getMethod("echo", String.class, int.class), null);
+    final ResourceManifest sum = new ResourceManifest(GET_METHOD, Service.class.getMethod("sum", int.class, long.class, double[].class), null);
+    final ResourceManifest error = new ResourceManifest(GET_METHOD, Service.class.getMethod("error"), null);
+    assertNotNull(EndpointFactory.createDispatcher(Arrays.asList(echo, sum, error)));
+
+    assertEquals("x3", echo.invoke(service, new Object[] {"x", 3}));
+    // Widening conversion, as with Method.invoke()
+    assertEquals(6L, sum.invoke(service, new Object[] {1, 2, new double[] {3}}));
+    try {
+      echo.invoke(service, new Object[] {"x", "3"});
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      echo.invoke(service, new Object[] {"x", null});
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      error.invoke(service, null);
+      fail("Expected InvocationTargetException");
+    }
+    catch (final InvocationTargetException e) {
+      assertTrue(e.getCause() instanceof AssertionError);
+    }
+  }
+
+  @Test
+  public void testDispatcherInaccessible() throws Exception {
+    assertNull(EndpointFactory.createDispatcher(Collections.singletonList(new ResourceManifest(GET_METHOD, HiddenService.class.getMethod("get"), null))));
+  }
 }
\ No newline at end of file
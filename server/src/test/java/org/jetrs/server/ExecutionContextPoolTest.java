@@ -0,0 +1,156 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.jetrs.common.ext.ProvidersImpl;
+import org.junit.Test;
+
+public class ExecutionContextPoolTest {
+  private static final ResourceContext resourceContext = new ResourceContext(new Application(), new MultivaluedHashMap<>(), new ContainerFilters(new ArrayList<>(), new ArrayList<>()), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+  private static HttpServletRequest newRequest(final String method, final boolean asyncStarted) {
+    final Map<String,Object> attributes = new HashMap<>();
+    return (HttpServletRequest)Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(), new Class[] {HttpServletRequest.class}, (proxy, m, args) -> {
+      switch (m.getName()) {
+        case "getMethod":
+          return method;
+        case "getHeaderNames":
+          return Collections.emptyEnumeration();
+        case "getAttributeNames":
+          return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+        case "getAttribute":
+          return attributes.get(args[0]);
+        case "setAttribute":
+          return attributes.put((String)args[0], args[1]);
+        case "removeAttribute":
+          return attributes.remove(args[0]);
+        case "isAsyncStarted":
+          return asyncStarted;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        default:
+          return null;
+      }
+    });
+  }
+
+  private static HttpServletResponse newResponse() {
+    return (HttpServletResponse)Proxy.newProxyInstance(HttpServletResponse.class.getClassLoader(), new Class[] {HttpServletResponse.class}, (proxy, m, args) -> {
+      switch (m.getName()) {
+        case "getStatus":
+          return 200;
+        case "getLocale":
+          return Locale.ENGLISH;
+        case "getHeaders":
+          return Collections.emptyList();
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        default:
+          return null;
+      }
+    });
+  }
+
+  @Test
+  public void testRecycle() {
+    final ExecutionContextPool pool = new ExecutionContextPool(resourceContext, true);
+    final ExecutionContext first = pool.acquire(newRequest("GET", false), newResponse());
+    first.getContainerRequestContext().setProperty("foo", "bar");
+    assertEquals("bar", first.getHttpServletRequest().getAttribute("foo"));
+    assertTrue(first.getContainerRequestContext().getPropertyNames().contains("foo"));
+    first.getContainerRequestContext().setProperty("foo", null);
+    assertNull(first.getHttpServletRequest().getAttribute("foo"));
+    first.getContainerRequestContext().setProperty("foo", "bar");
+    assertEquals("GET", first.getContainerRequestContext().getMethod());
+    pool.release(first);
+
+    final HttpServletRequest request = newRequest("POST", false);
+    final ExecutionContext second = pool.acquire(request, newResponse());
+    assertSame(first, second);
+    assertSame(request, second.getHttpServletRequest().getRequest());
+    assertEquals("POST", second.getContainerRequestContext().getMethod());
+    assertNull(second.getContainerRequestContext().getProperty("foo"));
+    assertEquals(200, second.getHttpServletResponse().getStatus());
+
+    // Nested acquisition on the same thread must not share the context
+    assertNotSame(second, pool.acquire(newRequest("GET", false), newResponse()));
+  }
+
+  @Test
+  public void testNoRecycle() {
+    final ExecutionContextPool pool = new ExecutionContextPool(resourceContext, false);
+    final ExecutionContext first = pool.acquire(newRequest("GET", false), newResponse());
+    pool.release(first);
+    assertNotSame(first, pool.acquire(newRequest("GET", false), newResponse()));
+  }
+
+  @Test
+  public void testDestroy() {
+    final ExecutionContextPool pool = new ExecutionContextPool(resourceContext, true);
+    final ExecutionContext first = pool.acquire(newRequest("GET", false), newResponse());
+    pool.release(first);
+    pool.destroy();
+    final ExecutionContext second = pool.acquire(newRequest("GET", false), newResponse());
+    assertNotSame(first, second);
+    pool.release(second);
+    assertNotSame(second, pool.acquire(newRequest("GET", false), newResponse()));
+  }
+
+  @Test
+  public void testAsyncStarted() {
+    final ExecutionContextPool pool = new ExecutionContextPool(resourceContext, true);
+    final ExecutionContext first = pool.acquire(newRequest("GET", true), newResponse());
+    first.getContainerRequestContext().setProperty("foo", "bar");
+    pool.release(first);
+    assertEquals("bar", first.getContainerRequestContext().getProperty("foo"));
+    assertNotSame(first, pool.acquire(newRequest("GET", false), newResponse()));
+  }
+
+  @Test
+  public void testReleasedOnOtherThread() throws InterruptedException {
+    final ExecutionContextPool pool = new ExecutionContextPool(resourceContext, true);
+    final AtomicReference<ExecutionContext> reference = new AtomicReference<>();
+    final Thread thread = new Thread(() -> reference.set(pool.acquire(newRequest("GET", false), newResponse())));
+    thread.start();
+    thread.join();
+
+    final ExecutionContext first = reference.get();
+    first.getContainerRequestContext().setProperty("foo", "bar");
+    pool.release(first);
+    assertEquals("bar", first.getContainerRequestContext().getProperty("foo"));
+    assertNotSame(first, pool.acquire(newRequest("GET", false), newResponse()));
+  }
+}
@@ -0,0 +1,522 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jetrs.server.app.ApplicationServer;
+import org.jetrs.server.app.service.LoadService;
+
+/**
+ * End-to-end load generator for the full JetRS stack running in the embedded
+ * servlet container of {@link ApplicationServer}.
+ * <p>
+ * Two load models are supported:
+ * <ul>
+ * <li>{@link #closedLoop(int,long,long) Closed loop}: each connection issues
+ * its next request as soon as the previous one completes. Latencies that
+ * exceed the expected interval are back-filled with the samples that would
+ * have been taken had the connection not stalled (coordinated omission
+ * correction).</li>
+ * <li>{@link #openLoop(int,int,long) Open loop}: requests are scheduled at a
+ * constant rate independent of the response times, and latency is measured
+ * from the intended start time, so that time spent queued behind a slow
+ * request is accounted for.</li>
+ * </ul>
+ * Throughput, p50/p99/p99.9 latency, and the number of bytes allocated per
+ * request (by the server, and by the generator) are reported per scenario.
+ * Only {@code localhost} is used.
+ * <p>
+ * Parameters are provided with system properties:
+ * {@code org.jetrs.load.mode} ({@code closed}, {@code open}, or {@code both}),
+ * {@code org.jetrs.load.connections}, {@code org.jetrs.load.rate} (open loop
+ * requests per second), {@code org.jetrs.load.warmup} and
+ * {@code org.jetrs.load.duration} (seconds).
+ */
+public class LoadGenerator {
+  static final class Scenario {
+    final String name;
+    final String method;
+    final String path;
+    final String range;
+    final int uploadSize;
+    final int expectedStatus;
+    final int weight;
+
+    Scenario(final String name, final String method, final String path, final String range, final int uploadSize, final int expectedStatus, final int weight) {
+      this.name = name;
+      this.method = method;
+      this.path = path;
+      this.range = range;
+      this.uploadSize = uploadSize;
+      this.expectedStatus = expectedStatus;
+      this.weight = weight;
+    }
+  }
+
+  static final Scenario[] scenarios = {
+    new Scenario("json", "GET", "/load/json", null, 0, 200, 50),
+    new Scenario("stream", "GET", "/load/stream?size=1048576", null, 0, 200, 5),
+    new Scenario("range", "GET", "/load/file", "bytes=65536-131071", 0, 200, 10),
+    new Scenario("upload", "PUT", "/load/upload", null, 65536, 204, 10),
+    new Scenario("notFound", "GET", "/load/missing", null, 0, 404, 15),
+    new Scenario("error", "GET", "/load/error", null, 0, 400, 10)
+  };
+
+  /**
+   * Latency histogram that retains every sample, which is precise, and
+   * affordable for runs of the length performed here.
+   */
+  static final class Histogram {
+    private long[] values = new long[1024];
+    private int size;
+    private boolean sorted;
+
+    void record(final long nanos) {
+      if (size == values.length)
+        values = Arrays.copyOf(values, size * 2);
+
+      values[size++] = nanos;
+      sorted = false;
+    }
+
+    /**
+     * Records the specified latency, and back-fills the samples that were
+     * omitted while the caller was stalled for longer than the
+     * {@code expectedInterval}.
+     *
+     * @param nanos The latency in nanoseconds.
+     * @param expectedInterval The expected interval between samples in
+     *          nanoseconds.
+     */
+    void recordCorrected(final long nanos, final long expectedInterval) {
+      record(nanos);
+      if (expectedInterval <= 0)
+        return;
+
+      for (long missing = nanos - expectedInterval; missing >= expectedInterval; missing -= expectedInterval)
+        record(missing);
+    }
+
+    void add(final Histogram histogram) {
+      for (int i = 0; i < histogram.size; ++i)
+        record(histogram.values[i]);
+    }
+
+    int size() {
+      return size;
+    }
+
+    long percentile(final double percentile) {
+      if (size == 0)
+        return 0;
+
+      if (!sorted) {
+        Arrays.sort(values, 0, size);
+        sorted = true;
+      }
+
+      final int index = (int)Math.ceil(percentile / 100d * size) - 1;
+      return values[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    long mean() {
+      if (size == 0)
+        return 0;
+
+      long sum = 0;
+      for (int i = 0; i < size; ++i)
+        sum += values[i];
+
+      return sum / size;
+    }
+  }
+
+  static final class Result {
+    final String mode;
+    final Map<String,Histogram> histograms = new HashMap<>();
+    final Map<String,long[]> counts = new HashMap<>();
+    long elapsedNanos;
+    long serverAllocated;
+    long clientAllocated;
+
+    Result(final String mode) {
+      this.mode = mode;
+      for (final Scenario scenario : scenarios) {
+        histograms.put(scenario.name, new Histogram());
+        counts.put(scenario.name, new long[2]);
+      }
+    }
+
+    long requests() {
+      long requests = 0;
+      for (final long[] count : counts.values())
+        requests += count[0];
+
+      return requests;
+    }
+
+    long errors() {
+      long errors = 0;
+      for (final long[] count : counts.values())
+        errors += count[1];
+
+      return errors;
+    }
+
+    void print(final PrintStream out) {
+      final long requests = requests();
+      final double seconds = elapsedNanos / 1e9;
+      out.println();
+      out.println(String.format("%s loop: %d requests, %d errors, %.1f req/s, %s B/req (server), %s B/req (client)", mode, requests, errors(), requests / seconds, perRequest(serverAllocated, requests), perRequest(clientAllocated, requests)));
+      out.println(String.format("  %-10s %9s %9s %10s %10s %10s %10s", "scenario", "requests", "req/s", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)"));
+      final Histogram all = new Histogram();
+      for (final Scenario scenario : scenarios) {
+        final Histogram histogram = histograms.get(scenario.name);
+        all.add(histogram);
+        print(out, scenario.name, counts.get(scenario.name)[0], seconds, histogram);
+      }
+
+      print(out, "all", requests, seconds, all);
+    }
+
+    private static String perRequest(final long allocated, final long requests) {
+      return allocated < 0 || requests == 0 ? "n/a" : String.valueOf(allocated / requests);
+    }
+
+    private static void print(final PrintStream out, final String name, final long requests, final double seconds, final Histogram histogram) {
+      out.println(String.format("  %-10s %9d %9.1f %10d %10d %10d %10d", name, requests, requests / seconds, histogram.percentile(50) / 1000, histogram.percentile(99) / 1000, histogram.percentile(99.9) / 1000, histogram.percentile(100) / 1000));
+    }
+  }
+
+  /**
+   * Snapshot of the bytes allocated by all live threads. The generator threads
+   * start after, and terminate before, the snapshots are taken, so they are
+   * accounted for by {@link Worker#allocated} instead.
+   */
+  private static final class Allocation {
+    private static final com.sun.management.ThreadMXBean threadMXBean;
+
+    static {
+      final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      threadMXBean = bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported() ? (com.sun.management.ThreadMXBean)bean : null;
+      if (threadMXBean != null)
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static Map<Long,Long> snapshot() {
+      if (threadMXBean == null)
+        return null;
+
+      final long[] ids = threadMXBean.getAllThreadIds();
+      final long[] bytes = threadMXBean.getThreadAllocatedBytes(ids);
+      final Map<Long,Long> snapshot = new HashMap<>();
+      for (int i = 0; i < ids.length; ++i)
+        if (bytes[i] >= 0)
+          snapshot.put(ids[i], bytes[i]);
+
+      return snapshot;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread, or {@code -1} if not
+     *         supported.
+     */
+    private static long currentThread() {
+      return threadMXBean == null ? -1 : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private final Map<Long,Long> before = snapshot();
+
+    /**
+     * Sets the server and client allocation of the specified {@link Result}
+     * since this snapshot was taken, or {@code -1} if not supported. Must be
+     * called after the specified workers have terminated.
+     */
+    void complete(final Result result, final Worker[] workers) {
+      final Map<Long,Long> after = snapshot();
+      if (before == null || after == null) {
+        result.serverAllocated = result.clientAllocated = -1;
+        return;
+      }
+
+      long server = 0;
+      for (final Map.Entry<Long,Long> entry : after.entrySet()) {
+        final Long start = before.get(entry.getKey());
+        server += entry.getValue() - (start != null ? start : 0);
+      }
+
+      long client = 0;
+      for (final Worker worker : workers) {
+        if (worker.allocated < 0) {
+          client = -1;
+          break;
+        }
+
+        client += worker.allocated;
+      }
+
+      result.clientAllocated = client;
+      result.serverAllocated = server;
+    }
+  }
+
+  private final String baseUrl;
+  private final Scenario[] weighted;
+
+  public LoadGenerator(final int port) {
+    this.baseUrl = "http://localhost:" + port;
+    int total = 0;
+    for (final Scenario scenario : scenarios)
+      total += scenario.weight;
+
+    this.weighted = new Scenario[total];
+    int i = 0;
+    for (final Scenario scenario : scenarios)
+      for (int j = 0; j < scenario.weight; ++j)
+        weighted[i++] = scenario;
+  }
+
+  private abstract class Worker extends Thread {
+    private final byte[] buffer = new byte[8192];
+    private final Random random;
+    private final Result result;
+    private final Map<String,Histogram> histograms = new HashMap<>();
+    private final Map<String,long[]> counts = new HashMap<>();
+    private long allocated = -1;
+
+    Worker(final int id, final Result result) {
+      super("load-" + id);
+      this.random = new Random(id);
+      this.result = result;
+      for (final Scenario scenario : scenarios) {
+        histograms.put(scenario.name, new Histogram());
+        counts.put(scenario.name, new long[2]);
+      }
+    }
+
+    /**
+     * Issues the requests of this worker.
+     */
+    abstract void work();
+
+    @Override
+    public final void run() {
+      // NOTE: The allocation is recorded by the worker itself, because the
+      // NOTE: allocated bytes of a terminated thread can no longer be queried
+      final long start = Allocation.currentThread();
+      try {
+        work();
+      }
+      finally {
+        final long end = Allocation.currentThread();
+        allocated = start < 0 || end < 0 ? -1 : end - start;
+      }
+    }
+
+    Scenario next() {
+      return weighted[random.nextInt(weighted.length)];
+    }
+
+    void record(final Scenario scenario, final boolean success, final long nanos, final long expectedInterval) {
+      final long[] count = counts.get(scenario.name);
+      ++count[0];
+      if (!success)
+        ++count[1];
+
+      histograms.get(scenario.name).recordCorrected(nanos, expectedInterval);
+    }
+
+    void merge() {
+      synchronized (result) {
+        for (final Scenario scenario : scenarios) {
+          result.histograms.get(scenario.name).add(histograms.get(scenario.name));
+          final long[] from = counts.get(scenario.name);
+          final long[] to = result.counts.get(scenario.name);
+          to[0] += from[0];
+          to[1] += from[1];
+        }
+      }
+    }
+
+    boolean execute(final Scenario scenario) {
+      try {
+        final HttpURLConnection connection = (HttpURLConnection)new URL(baseUrl + scenario.path).openConnection();
+        connection.setRequestMethod(scenario.method);
+        connection.setUseCaches(false);
+        if (scenario.range != null)
+          connection.setRequestProperty("Range", scenario.range);
+
+        if (scenario.uploadSize > 0) {
+          connection.setDoOutput(true);
+          connection.setFixedLengthStreamingMode(scenario.uploadSize);
+          connection.setRequestProperty("Content-Type", "application/octet-stream");
+          try (final OutputStream out = connection.getOutputStream()) {
+            for (int remaining = scenario.uploadSize; remaining > 0; remaining -= buffer.length)
+              out.write(buffer, 0, Math.min(buffer.length, remaining));
+          }
+        }
+
+        final int status = connection.getResponseCode();
+        final InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+          // Drain and close the stream, so that the connection is kept alive
+          try {
+            while (in.read(buffer) != -1);
+          }
+          finally {
+            in.close();
+          }
+        }
+
+        return status == scenario.expectedStatus;
+      }
+      catch (final IOException e) {
+        return false;
+      }
+    }
+  }
+
+  private static Result run(final Worker[] workers, final Result result, final long durationNanos) throws InterruptedException {
+    final Allocation allocation = new Allocation();
+    final long start = System.nanoTime();
+    for (final Worker worker : workers)
+      worker.start();
+
+    final long deadline = System.nanoTime() + durationNanos + TimeUnit.SECONDS.toNanos(60);
+    for (final Worker worker : workers) {
+      worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+      if (worker.isAlive())
+        throw new IllegalStateException(worker.getName() + " did not terminate");
+    }
+
+    result.elapsedNanos = System.nanoTime() - start;
+    for (final Worker worker : workers)
+      worker.merge();
+
+    allocation.complete(result, workers);
+    return result;
+  }
+
+  /**
+   * Drives the server with {@code connections} concurrent closed-loop
+   * connections for the specified duration.
+   *
+   * @param connections The number of concurrent connections.
+   * @param durationNanos The duration of the run in nanoseconds.
+   * @param expectedInterval The expected interval between the requests of a
+   *          connection in nanoseconds, used to correct for coordinated
+   *          omission ({@code 0} for no correction).
+   * @return The {@link Result} of the run.
+   * @throws InterruptedException If the run is interrupted.
+   */
+  public Result closedLoop(final int connections, final long durationNanos, final long expectedInterval) throws InterruptedException {
+    final Result result = new Result("closed");
+    final Worker[] workers = new Worker[connections];
+    final long end = System.nanoTime() + durationNanos;
+    for (int i = 0; i < connections; ++i) {
+      workers[i] = new Worker(i, result) {
+        @Override
+        void work() {
+          for (long now; (now = System.nanoTime()) < end;) {
+            final Scenario scenario = next();
+            final boolean success = execute(scenario);
+            record(scenario, success, System.nanoTime() - now, expectedInterval);
+          }
+        }
+      };
+    }
+
+    return run(workers, result, durationNanos);
+  }
+
+  /**
+   * Drives the server at a constant {@code rate} of requests per second for
+   * the specified duration, with up to {@code connections} requests in flight.
+   * Latency is measured from the time each request was scheduled to start.
+   *
+   * @param connections The maximum number of concurrent connections.
+   * @param rate The rate of requests per second.
+   * @param durationNanos The duration of the run in nanoseconds.
+   * @return The {@link Result} of the run.
+   * @throws InterruptedException If the run is interrupted.
+   */
+  public Result openLoop(final int connections, final int rate, final long durationNanos) throws InterruptedException {
+    final Result result = new Result("open");
+    final Worker[] workers = new Worker[connections];
+    final long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+    final long total = durationNanos / interval;
+    final AtomicLong sequence = new AtomicLong();
+    final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+    for (int i = 0; i < connections; ++i) {
+      workers[i] = new Worker(i, result) {
+        @Override
+        void work() {
+          for (long n; (n = sequence.getAndIncrement()) < total;) {
+            final long intended = start + n * interval;
+            for (long wait; (wait = intended - System.nanoTime()) > 0;)
+              LockSupport.parkNanos(wait);
+
+            final Scenario scenario = next();
+            final boolean success = execute(scenario);
+            record(scenario, success, System.nanoTime() - intended, 0);
+          }
+        }
+      };
+    }
+
+    return run(workers, result, durationNanos);
+  }
+
+  private static long seconds(final String name, final long dflt) {
+    return TimeUnit.SECONDS.toNanos(Long.getLong(name, dflt));
+  }
+
+  public static void main(final String[] args) throws InterruptedException {
+    final String mode = System.getProperty("org.jetrs.load.mode", "both");
+    final int connections = Integer.getInteger("org.jetrs.load.connections", 16);
+    final int rate = Integer.getInteger("org.jetrs.load.rate", 2000);
+    final long warmup = seconds("org.jetrs.load.warmup", 10);
+    final long duration = seconds("org.jetrs.load.duration", 30);
+    System.out.println("Resources: " + Arrays.toString(Arrays.stream(scenarios).map(s -> s.method + " " + s.path).toArray()) + ", file: " + LoadService.FILE_SIZE + " B");
+    try (final ApplicationServer server = new ApplicationServer()) {
+      final LoadGenerator generator = new LoadGenerator(server.getContainerPort());
+      // The warmup also establishes the expected interval of the closed loop
+      final Result warm = generator.closedLoop(connections, warmup, 0);
+      final long expectedInterval = warm.requests() == 0 ? 0 : warm.elapsedNanos * connections / warm.requests();
+      if (!"open".equals(mode))
+        generator.closedLoop(connections, duration, expectedInterval).print(System.out);
+
+      if (!"closed".equals(mode))
+        generator.openLoop(connections, rate, duration).print(System.out);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jetrs.server.app.ApplicationServer;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+public class LoadGeneratorTest {
+  private static final ApplicationServer server = new ApplicationServer();
+  private static final LoadGenerator generator = new LoadGenerator(server.getContainerPort());
+
+  private static void assertResult(final LoadGenerator.Result result) {
+    result.print(System.out);
+    assertTrue(result.requests() > 0);
+    assertEquals(0, result.errors());
+    // NOTE: -1 if allocation measurement is not supported by the JVM
+    assertTrue(result.clientAllocated != 0);
+    for (final LoadGenerator.Histogram histogram : result.histograms.values())
+      assertTrue(histogram.percentile(50) <= histogram.percentile(99.9));
+  }
+
+  @Test
+  public void testClosedLoop() throws InterruptedException {
+    assertResult(generator.closedLoop(4, TimeUnit.SECONDS.toNanos(1), 0));
+  }
+
+  @Test
+  public void testOpenLoop() throws InterruptedException {
+    assertResult(generator.openLoop(4, 200, TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Test
+  public void testCoordinatedOmissionCorrection() {
+    final LoadGenerator.Histogram histogram = new LoadGenerator.Histogram();
+    for (int i = 0; i < 99; ++i)
+      histogram.recordCorrected(1, 10);
+
+    histogram.recordCorrected(1000, 10);
+    assertEquals(99 + 1 + 99, histogram.size());
+    assertEquals(1000, histogram.percentile(100));
+    assertTrue(histogram.percentile(75) > 10);
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    server.close();
+  }
+}
@@ -71,4 +71,20 @@ public class PathPatternTest {
 
     assertEquals("/(?<country>[a-zA-Z]{2})(?<p>/?)(?<state>([a-zA-Z]{2})?)", pathToPattern(null, "{country:[a-zA-Z]{2}}{p:/?}{state:([a-zA-Z]{2})?}"));
   }
-}
\ No newline at end of file
+
+  private static void assertSortKeys(final int literalChars, final int templates, final int regexTemplates, final String methodPath) {
+    final PathPattern pathPattern = new PathPattern(new TestPath("/foo"), new TestPath(methodPath));
+    assertEquals(methodPath, literalChars, pathPattern.getLiteralChars());
+    assertEquals(methodPath, templates, pathPattern.getTemplates());
+    assertEquals(methodPath, regexTemplates, pathPattern.getRegexTemplates());
+  }
+
+  @Test
+  public void testSortKeys() {
+    assertSortKeys(8, 0, 0, "bar");
+    assertSortKeys(5, 1, 0, "{id}");
+    assertSortKeys(9, 1, 1, "bar/{id:[0-9]+}");
+    assertSortKeys(10, 2, 0, "{id}/bar/{name}");
+    assertSortKeys(13, 2, 1, "{id:[^/]+}/bar/{name}/hi");
+  }
+}
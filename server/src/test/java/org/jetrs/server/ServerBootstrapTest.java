@@ -0,0 +1,418 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server;
+
+import static org.junit.Assert.*;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.NameBinding;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Provider;
+
+import org.jetrs.common.EntityReaderProviderResource;
+import org.jetrs.common.ProviderResource;
+import org.jetrs.common.ext.ProvidersImpl;
+import org.jetrs.common.ext.provider.BooleanProvider;
+import org.jetrs.common.ext.provider.BytesProvider;
+import org.jetrs.common.ext.provider.CharacterProvider;
+import org.jetrs.common.ext.provider.InputStreamProvider;
+import org.jetrs.common.ext.provider.NumberProvider;
+import org.jetrs.common.ext.provider.StringProvider;
+import org.junit.Test;
+
+public class ServerBootstrapTest {
+  @Path("/test")
+  public static class TestService {
+    @GET
+    public String get() {
+      return null;
+    }
+
+    @POST
+    @Path("{id}")
+    public void post() {
+    }
+  }
+
+  @Path("/orders")
+  public static class OrderService {
+    @GET
+    @Path("{id}")
+    public String get() {
+      return null;
+    }
+
+    @GET
+    @Path("{id:[0-9]+}")
+    public String getNumeric() {
+      return null;
+    }
+
+    @GET
+    @Path("summary")
+    public String summary() {
+      return null;
+    }
+
+    @GET
+    @Path("{id}/items/{item}")
+    public String item() {
+      return null;
+    }
+
+    @GET
+    @Path("{id}/items")
+    public String items() {
+      return null;
+    }
+
+    @POST
+    @Path("{id}")
+    public void update(final String body) {
+    }
+  }
+
+  @NameBinding
+  @Retention(RetentionPolicy.RUNTIME)
+  public @interface Audited {
+  }
+
+  @Provider
+  @Audited
+  public static class AuditFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    }
+  }
+
+  @Provider
+  public static class GlobalFilter implements ContainerRequestFilter {
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+    }
+  }
+
+  public static class SummaryFilter implements ContainerRequestFilter {
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+    }
+  }
+
+  @Provider
+  public static class SummaryFeature implements DynamicFeature {
+    @Override
+    public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
+      if ("summary".equals(resourceInfo.getResourceMethod().getName()))
+        context.register(SummaryFilter.class);
+    }
+  }
+
+  @Path("/audit")
+  public static class AuditService {
+    @GET
+    @Path("audited")
+    @Audited
+    public String audited() {
+      return null;
+    }
+
+    @GET
+    @Path("summary")
+    public String summary() {
+      return null;
+    }
+
+    @GET
+    @Path("health")
+    public String health() {
+      return null;
+    }
+  }
+
+  public static class FirstFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    }
+  }
+
+  public static class SecondFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    }
+  }
+
+  @Provider
+  public static class PriorityFeature implements DynamicFeature {
+    @Override
+    public void configure(final ResourceInfo resourceInfo, final FeatureContext context) {
+      assertNull(context.getConfiguration().getProperty("audited"));
+      if (!"audited".equals(resourceInfo.getResourceMethod().getName()))
+        return;
+
+      context.property("audited", Boolean.TRUE);
+      assertEquals(Boolean.TRUE, context.getConfiguration().getProperty("audited"));
+      context.register(SecondFilter.class, 2000);
+      context.register(FirstFilter.class, Collections.<Class<?>,Integer>singletonMap(ContainerResponseFilter.class, 1000));
+    }
+  }
+
+  private static Set<Class<?>> getProviderClasses(final ProviderResource<?>[] providers) {
+    final Set<Class<?>> classes = new HashSet<>();
+    for (final ProviderResource<?> provider : providers)
+      classes.add(provider.getProviderClass());
+
+    return classes;
+  }
+
+  @Test
+  public void testNameBinding() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    final List<ProviderResource<ContainerRequestFilter>> requestFilters = new ArrayList<>();
+    final List<ProviderResource<ContainerResponseFilter>> responseFilters = new ArrayList<>();
+    final List<DynamicFeature> dynamicFeatures = new ArrayList<>();
+    new ServerBootstrap().init(Collections.singleton(new AuditService()), new LinkedHashSet<>(Arrays.asList(AuditFilter.class, GlobalFilter.class, SummaryFeature.class)), resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), requestFilters, responseFilters, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), dynamicFeatures);
+    assertEquals(1, dynamicFeatures.size());
+    new ResourceContext(new Application(), resources, new ContainerFilters(requestFilters, responseFilters, dynamicFeatures), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    for (final ResourceManifest manifest : resources.get("GET")) {
+      final String name = manifest.getResourceMethod().getName();
+      if ("audited".equals(name)) {
+        assertEquals(new HashSet<>(Arrays.asList(AuditFilter.class, GlobalFilter.class)), getProviderClasses(manifest.getContainerRequestFilters()));
+        assertEquals(Collections.singleton(AuditFilter.class), getProviderClasses(manifest.getContainerResponseFilters()));
+      }
+      else if ("summary".equals(name)) {
+        assertEquals(new HashSet<>(Arrays.asList(GlobalFilter.class, SummaryFilter.class)), getProviderClasses(manifest.getContainerRequestFilters()));
+        assertEquals(0, manifest.getContainerResponseFilters().length);
+      }
+      else {
+        assertEquals(Collections.singleton(GlobalFilter.class), getProviderClasses(manifest.getContainerRequestFilters()));
+        assertEquals(0, manifest.getContainerResponseFilters().length);
+      }
+    }
+  }
+
+  private static List<Class<?>> getProviderClassList(final ProviderResource<?>[] providers) {
+    final List<Class<?>> classes = new ArrayList<>();
+    for (final ProviderResource<?> provider : providers)
+      classes.add(provider.getProviderClass());
+
+    return classes;
+  }
+
+  @Test
+  public void testFeatureContext() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    final List<ProviderResource<ContainerRequestFilter>> requestFilters = new ArrayList<>();
+    final List<ProviderResource<ContainerResponseFilter>> responseFilters = new ArrayList<>();
+    final List<DynamicFeature> dynamicFeatures = new ArrayList<>();
+    new ServerBootstrap().init(Collections.singleton(new AuditService()), new LinkedHashSet<>(Arrays.asList(AuditFilter.class, PriorityFeature.class)), resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), requestFilters, responseFilters, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), dynamicFeatures);
+    new ResourceContext(new Application(), resources, new ContainerFilters(requestFilters, responseFilters, dynamicFeatures), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    for (final ResourceManifest manifest : resources.get("GET")) {
+      if ("audited".equals(manifest.getResourceMethod().getName())) {
+        // NOTE: FirstFilter was registered for the ContainerResponseFilter contract only
+        assertEquals(Arrays.asList(SecondFilter.class, AuditFilter.class), getProviderClassList(manifest.getContainerRequestFilters()));
+        // NOTE: Response filters are run in descending order of priority
+        assertEquals(Arrays.asList(AuditFilter.class, SecondFilter.class, FirstFilter.class), getProviderClassList(manifest.getContainerResponseFilters()));
+        return;
+      }
+    }
+
+    fail("Resource method not found");
+  }
+
+  @Test
+  public void testDynamicFeatureOrder() throws Exception {
+    final Set<Class<?>> classes = new LinkedHashSet<>();
+    classes.add(SummaryFeature.class);
+    classes.add(StringProvider.class);
+    classes.add(PriorityFeature.class);
+    classes.add(BytesProvider.class);
+
+    final Set<Object> singletons = new LinkedHashSet<>();
+    for (int i = 0; i < 32; ++i)
+      singletons.add(new TestService());
+
+    final List<DynamicFeature> dynamicFeatures = new ArrayList<>();
+    new ServerBootstrap().init(singletons, classes, new MultivaluedHashMap<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), dynamicFeatures);
+    assertEquals(2, dynamicFeatures.size());
+    assertEquals(SummaryFeature.class, dynamicFeatures.get(0).getClass());
+    assertEquals(PriorityFeature.class, dynamicFeatures.get(1).getClass());
+  }
+
+  @Test
+  public void testRanking() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    new ServerBootstrap().init(Collections.singleton(new OrderService()), null, resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    new ResourceContext(new Application(), resources, new ContainerFilters(new ArrayList<>(), new ArrayList<>()), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    final List<ResourceManifest> gets = resources.get("GET");
+    final String[] expected = {"item", "summary", "items", "getNumeric", "get"};
+    assertEquals(expected.length, gets.size());
+    for (int i = 0; i < expected.length; ++i)
+      assertEquals(expected[i], gets.get(i).getMethod().getName());
+  }
+
+  private static ContainerRequestContext newRequestContext(final String method, final String path) {
+    final UriInfo uriInfo = (UriInfo)Proxy.newProxyInstance(ServerBootstrapTest.class.getClassLoader(), new Class<?>[] {UriInfo.class}, (proxy, m, args) -> {
+      if ("getPath".equals(m.getName()))
+        return path;
+
+      throw new UnsupportedOperationException(m.getName());
+    });
+
+    final MultivaluedMap<String,String> headers = new MultivaluedHashMap<>();
+    return (ContainerRequestContext)Proxy.newProxyInstance(ServerBootstrapTest.class.getClassLoader(), new Class<?>[] {ContainerRequestContext.class}, (proxy, m, args) -> {
+      if ("getMethod".equals(m.getName()))
+        return method;
+
+      if ("getUriInfo".equals(m.getName()))
+        return uriInfo;
+
+      if ("getHeaders".equals(m.getName()))
+        return headers;
+
+      throw new UnsupportedOperationException(m.getName());
+    });
+  }
+
+  @Test
+  public void testFilterAndMatch() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    new ServerBootstrap().init(Collections.singleton(new OrderService()), null, resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    final ResourceContext resourceContext = new ResourceContext(new Application(), resources, new ContainerFilters(new ArrayList<>(), new ArrayList<>()), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    assertEquals("summary", resourceContext.filterAndMatch(newRequestContext("GET", "/orders/summary")).getManifest().getMethod().getName());
+    assertEquals("getNumeric", resourceContext.filterAndMatch(newRequestContext("GET", "/orders/123")).getManifest().getMethod().getName());
+    assertEquals("get", resourceContext.filterAndMatch(newRequestContext("GET", "/orders/abc")).getManifest().getMethod().getName());
+    assertEquals("item", resourceContext.filterAndMatch(newRequestContext("GET", "/orders/1/items/2")).getManifest().getMethod().getName());
+    assertEquals("update", resourceContext.filterAndMatch(newRequestContext("POST", "/orders/abc")).getManifest().getMethod().getName());
+    assertNull(resourceContext.filterAndMatch(newRequestContext("GET", "/customers")));
+    assertNull(resourceContext.filterAndMatch(newRequestContext("DELETE", "/orders/abc")));
+  }
+
+  @Test
+  public void testOptions() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    new ServerBootstrap().init(Collections.singleton(new OrderService()), null, resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    final ResourceContext resourceContext = new ResourceContext(new Application(), resources, new ContainerFilters(new ArrayList<>(), new ArrayList<>()), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    assertNull(resourceContext.getOptionsManifest("/customers"));
+
+    OptionsManifest options = resourceContext.getOptionsManifest("/orders/1/items");
+    assertEquals("GET", options.getAllowMethods());
+    assertEquals(HttpHeaders.ACCEPT, options.getAllowHeaders());
+
+    options = resourceContext.getOptionsManifest("/orders/abc");
+    assertEquals(new HashSet<>(Arrays.asList("GET", "POST")), new HashSet<>(Arrays.asList(options.getAllowMethods().split(","))));
+    assertEquals(HttpHeaders.ACCEPT + "," + HttpHeaders.CONTENT_TYPE, options.getAllowHeaders());
+    assertSame(options, resourceContext.getOptionsManifest("/orders/xyz"));
+  }
+
+  @Test
+  public void testOverlappingOptions() throws Exception {
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    new ServerBootstrap().init(Collections.singleton(new OrderService()), null, resources, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    final ResourceContext resourceContext = new ResourceContext(new Application(), resources, new ContainerFilters(new ArrayList<>(), new ArrayList<>()), new ProvidersImpl(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    // "summary" and "{id}" both match, and POST /orders/summary is matched to update()
+    OptionsManifest options = resourceContext.getOptionsManifest("/orders/summary");
+    assertEquals("summary", options.getRepresentative().getMethod().getName());
+    assertEquals(new HashSet<>(Arrays.asList("GET", "POST")), new HashSet<>(Arrays.asList(options.getAllowMethods().split(","))));
+    assertEquals(HttpHeaders.ACCEPT + "," + HttpHeaders.CONTENT_TYPE, options.getAllowHeaders());
+    assertSame(options, resourceContext.getOptionsManifest("/orders/summary"));
+
+    // "{id:[0-9]+}" and "{id}" both match
+    options = resourceContext.getOptionsManifest("/orders/123");
+    assertEquals("getNumeric", options.getRepresentative().getMethod().getName());
+    assertEquals(new HashSet<>(Arrays.asList("GET", "POST")), new HashSet<>(Arrays.asList(options.getAllowMethods().split(","))));
+    assertEquals(HttpHeaders.ACCEPT + "," + HttpHeaders.CONTENT_TYPE, options.getAllowHeaders());
+    assertSame(options, resourceContext.getOptionsManifest("/orders/456"));
+    assertNotSame(options, resourceContext.getOptionsManifest("/orders/abc"));
+  }
+
+  @Test
+  public void testDeterministicOrder() throws Exception {
+    final Set<Object> singletons = new LinkedHashSet<>();
+    for (int i = 0; i < 64; ++i)
+      singletons.add(new TestService());
+
+    final Set<Class<?>> classes = new LinkedHashSet<>();
+    classes.add(StringProvider.class);
+    classes.add(BytesProvider.class);
+    classes.add(InputStreamProvider.class);
+    classes.add(NumberProvider.class);
+    classes.add(BooleanProvider.class);
+    classes.add(CharacterProvider.class);
+
+    final MultivaluedMap<String,ResourceManifest> resources = new MultivaluedHashMap<>();
+    final List<EntityReaderProviderResource> entityReaders = new ArrayList<>();
+    new ServerBootstrap().init(singletons, classes, resources, new ArrayList<>(), entityReaders, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+    final List<ResourceManifest> gets = resources.get("GET");
+    final List<ResourceManifest> posts = resources.get("POST");
+    assertEquals(singletons.size(), gets.size());
+    assertEquals(singletons.size(), posts.size());
+    final Iterator<Object> iterator = singletons.iterator();
+    for (int i = 0; iterator.hasNext(); ++i) {
+      final Object singleton = iterator.next();
+      assertSame(singleton, gets.get(i).getSingleton());
+      assertSame(singleton, posts.get(i).getSingleton());
+    }
+
+    final Iterator<Class<?>> classIterator = classes.iterator();
+    for (int i = 0; classIterator.hasNext(); ++i)
+      assertSame(classIterator.next(), entityReaders.get(i).getProviderClass());
+  }
+}
@@ -28,9 +28,11 @@ import javax.ws.rs.core.Application;
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import org.jetrs.common.ext.provider.BytesProvider;
+import org.jetrs.common.ext.provider.FileProvider;
 import org.jetrs.common.ext.provider.InputStreamProvider;
 import org.jetrs.common.ext.provider.StringProvider;
 import org.jetrs.server.app.service.FileUploadService;
+import org.jetrs.server.app.service.LoadService;
 import org.jetrs.server.ext.mapper.WebApplicationExceptionMapper;
 import org.libj.util.function.Throwing;
 import org.openjax.jetty.EmbeddedServletContainer;
@@ -107,6 +109,7 @@ public class ApplicationServer extends Application implements AutoCloseable {
 
     // Specific
     singletons.add(new FileUploadService());
+    singletons.add(new LoadService());
     return singletons;
   }
 
@@ -114,6 +117,7 @@ public class ApplicationServer extends Application implements AutoCloseable {
   public Set<Class<?>> getClasses() {
     final Set<Class<?>> classes = new HashSet<>();
     // Must be a class resource, because it has a member @Context reference
+    classes.add(FileProvider.class);
     return classes;
   }
 
@@ -0,0 +1,114 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.app.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Representative resources driven by the end-to-end load benchmark.
+ */
+@Path("/load")
+public class LoadService {
+  public static final int FILE_SIZE = 1024 * 1024;
+  private static final String json = "{\"id\":1234,\"name\":\"JetRS\",\"tags\":[\"fast\",\"lightweight\"],\"active\":true,\"score\":9.75}";
+  private static final File file;
+
+  static {
+    try {
+      final File tempFile = Files.createTempFile("jetrs-load", null).toFile();
+      tempFile.deleteOnExit();
+      try (final OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+        for (int i = 0; i < FILE_SIZE; ++i)
+          out.write(i);
+      }
+
+      file = tempFile;
+    }
+    catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @GET
+  @Path("json")
+  @Produces(MediaType.APPLICATION_JSON)
+  public String json() {
+    return json;
+  }
+
+  @GET
+  @Path("stream")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public InputStream stream(@QueryParam("size") final int size) {
+    return new InputStream() {
+      private int remaining = size;
+
+      @Override
+      public int read() {
+        return remaining-- > 0 ? remaining & 0xff : -1;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+        if (remaining <= 0)
+          return -1;
+
+        final int count = Math.min(len, remaining);
+        for (int i = 0; i < count; ++i)
+          b[off + i] = (byte)--remaining;
+
+        return count;
+      }
+    };
+  }
+
+  @GET
+  @Path("file")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public File file() {
+    return file;
+  }
+
+  @PUT
+  @Path("upload")
+  @Consumes(MediaType.WILDCARD)
+  public void upload(final InputStream in) throws IOException {
+    final byte[] buffer = new byte[8192];
+    while (in.read(buffer) != -1);
+  }
+
+  @GET
+  @Path("error")
+  @Produces(MediaType.APPLICATION_JSON)
+  public String error() {
+    throw new BadRequestException("Invalid request");
+  }
+}
@@ -0,0 +1,87 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.core;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.PathSegment;
+
+import org.junit.Test;
+
+public class PathSegmentListTest {
+  private static void assertSplit(final String path) {
+    final String[] expected = path.split("/");
+    final List<PathSegment> segments = new PathSegmentList(path, false);
+    assertEquals(path, expected.length, segments.size());
+    for (int i = 0; i < expected.length; ++i)
+      assertEquals(path, expected[i], segments.get(i).getPath());
+  }
+
+  @Test
+  public void testSplit() {
+    assertSplit("");
+    assertSplit("/");
+    assertSplit("//");
+    assertSplit("a");
+    assertSplit("/a");
+    assertSplit("/a/");
+    assertSplit("/a//b");
+    assertSplit("/a/b//");
+    assertSplit("a/b/c");
+  }
+
+  @Test
+  public void testDecode() {
+    final PathSegmentList encoded = new PathSegmentList("/a%20b/c%2Fd/e+f", false);
+    final PathSegmentList decoded = new PathSegmentList(encoded, true);
+    assertEquals(4, decoded.size());
+    assertEquals("a b", decoded.get(1).getPath());
+    assertEquals("c/d", decoded.get(2).getPath());
+    assertEquals("e+f", decoded.get(3).getPath());
+    assertEquals("a%20b", encoded.get(1).getPath());
+    assertSame(decoded.get(1), decoded.get(1));
+  }
+
+  @Test
+  public void testMatrixParameters() {
+    final PathSegmentList decoded = new PathSegmentList("/cars;color=dark%20red;year=2020/x", true);
+    assertEquals("cars", decoded.get(1).getPath());
+    assertEquals("dark red", decoded.get(1).getMatrixParameters().getFirst("color"));
+    assertEquals("2020", decoded.get(1).getMatrixParameters().getFirst("year"));
+    assertNull(decoded.get(2).getMatrixParameters());
+
+    final PathSegmentList encoded = new PathSegmentList(decoded, false);
+    assertEquals("dark%20red", encoded.get(1).getMatrixParameters().getFirst("color"));
+  }
+
+  @Test
+  public void testDecodeIdentity() {
+    final String path = "/a/b/c";
+    assertSame(path, UriDecoder.decode(path, 0, path.length(), false));
+    assertEquals("a b", UriDecoder.decode("a+b", 0, 3, true));
+    assertEquals("a+b", UriDecoder.decode("a+b", 0, 3, false));
+    try {
+      UriDecoder.decode("/a%2", 0, 4, false);
+      fail("Expected BadRequestException");
+    }
+    catch (final BadRequestException e) {
+    }
+  }
+}
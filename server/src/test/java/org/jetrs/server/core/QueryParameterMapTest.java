@@ -0,0 +1,117 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.junit.Test;
+
+public class QueryParameterMapTest {
+  @Test
+  public void testEmpty() {
+    assertTrue(new QueryParameterMap((String)null, true).isEmpty());
+    assertTrue(new QueryParameterMap("", true).isEmpty());
+    assertTrue(new QueryParameterMap("&&", true).isEmpty());
+    assertNull(new QueryParameterMap((String)null, true).get("a"));
+    assertEquals(0, new QueryParameterMap("&", false).size());
+  }
+
+  @Test
+  public void testLookup() {
+    final QueryParameterMap map = new QueryParameterMap("a=1&b=2&&a=3&flag&c=", true);
+    assertEquals(Arrays.asList("1", "3"), map.get("a"));
+    assertEquals(Collections.singletonList("2"), map.get("b"));
+    assertEquals("1", map.getFirst("a"));
+    assertEquals("", map.getFirst("flag"));
+    assertEquals("", map.getFirst("c"));
+    assertTrue(map.containsKey("flag"));
+    assertFalse(map.containsKey("fla"));
+    assertNull(map.get("d"));
+    assertNull(map.get(null));
+    assertEquals(4, map.size());
+  }
+
+  @Test
+  public void testDecode() {
+    final QueryParameterMap decoded = new QueryParameterMap("na%20me=a+b%2Bc&x=%E2%82%AC&y=%2525", true);
+    final QueryParameterMap encoded = new QueryParameterMap(decoded, false);
+    assertEquals("a b+c", decoded.getFirst("na me"));
+    assertEquals("a+b%2Bc", encoded.getFirst("na me"));
+    assertEquals("\u20AC", decoded.getFirst("x"));
+    assertEquals("%E2%82%AC", encoded.getFirst("x"));
+
+    // Values must be decoded exactly once
+    assertEquals("%25", decoded.getFirst("y"));
+    assertEquals("%2525", encoded.getFirst("y"));
+  }
+
+  @Test
+  public void testEntries() {
+    final MultivaluedMap<String,String> expected = new MultivaluedHashMap<>();
+    expected.add("a", "1");
+    expected.add("a", "3");
+    expected.add("b c", "2");
+    final QueryParameterMap map = new QueryParameterMap("a=1&b+c=2&a=3", true);
+    assertEquals(expected, map);
+    assertEquals(expected.keySet(), map.keySet());
+    assertTrue(map.equalsIgnoreValueOrder(expected));
+  }
+
+  @Test
+  public void testUnmodifiable() {
+    final QueryParameterMap map = new QueryParameterMap("a=1", true);
+    try {
+      map.add("a", "2");
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+    }
+
+    try {
+      map.get("a").add("2");
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    try {
+      new QueryParameterMap("a=%2", true).get("a");
+      fail("Expected BadRequestException");
+    }
+    catch (final BadRequestException e) {
+    }
+
+    try {
+      new QueryParameterMap("a=%zz", true).get("a");
+      fail("Expected BadRequestException");
+    }
+    catch (final BadRequestException e) {
+    }
+
+    assertEquals("%zz", new QueryParameterMap("a=%zz", false).getFirst("a"));
+  }
+}
@@ -0,0 +1,150 @@
+/* Copyright (c) 2019 JetRS
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jetrs.server.ext.filter;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+
+import org.junit.Test;
+
+public class CorsFilterTest {
+  private static ContainerRequestContext newRequestContext(final String method, final Map<String,String> headers) {
+    return (ContainerRequestContext)Proxy.newProxyInstance(CorsFilterTest.class.getClassLoader(), new Class<?>[] {ContainerRequestContext.class}, (proxy, m, args) -> {
+      if ("getMethod".equals(m.getName()))
+        return method;
+
+      if ("getHeaderString".equals(m.getName()))
+        return headers.get(args[0]);
+
+      throw new UnsupportedOperationException(m.getName());
+    });
+  }
+
+  private static MultivaluedMap<String,Object> filter(final CorsFilter filter, final String origin) throws Exception {
+    final MultivaluedMap<String,Object> headers = new MultivaluedHashMap<>();
+    final ContainerResponseContext responseContext = (ContainerResponseContext)Proxy.newProxyInstance(CorsFilterTest.class.getClassLoader(), new Class<?>[] {ContainerResponseContext.class}, (proxy, m, args) -> {
+      if ("getHeaders".equals(m.getName()))
+        return headers;
+
+      throw new UnsupportedOperationException(m.getName());
+    });
+
+    filter.filter(newRequestContext("GET", origin == null ? Collections.emptyMap() : Collections.singletonMap(CorsFilter.ORIGIN, origin)), responseContext);
+    return headers;
+  }
+
+  private final CorsFilter filter = new CorsFilter(new String[] {"https://www.example.com", "https://*.example.org"}, new String[] {"GET", "POST"}, new String[] {"Content-Type", "X-Request-Id"}, new String[] {"ETag"}, true, 600);
+
+  @Test
+  public void testOrigin() {
+    assertTrue(filter.isAllowedOrigin("https://www.example.com"));
+    assertFalse(filter.isAllowedOrigin("http://www.example.com"));
+    assertFalse(filter.isAllowedOrigin("https://example.com"));
+    assertTrue(filter.isAllowedOrigin("https://api.example.org"));
+    assertTrue(filter.isAllowedOrigin("https://a.b.example.org"));
+    assertFalse(filter.isAllowedOrigin("https://.example.org"));
+    assertFalse(filter.isAllowedOrigin("https://evil-example.org"));
+    assertFalse(filter.isAllowedOrigin("https://api.example.org.evil.com"));
+
+    assertTrue(new CorsFilter().isAllowedOrigin("https://any.where"));
+  }
+
+  @Test
+  public void testPreflight() {
+    final CorsFilter.Preflight preflight = filter.preflight("https://api.example.org", "POST", "content-type, x-request-id");
+    assertTrue(preflight.isAllowed());
+    assertArrayEquals(new String[] {
+      CorsFilter.ACCESS_CONTROL_ALLOW_ORIGIN, "https://api.example.org",
+      CorsFilter.ACCESS_CONTROL_ALLOW_METHODS, "GET,POST",
+      CorsFilter.ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type,X-Request-Id",
+      CorsFilter.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true",
+      CorsFilter.ACCESS_CONTROL_MAX_AGE, "600",
+      "Vary", "Origin,Access-Control-Request-Method,Access-Control-Request-Headers"
+    }, preflight.headers);
+
+    assertSame(preflight, filter.preflight("https://api.example.org", "POST", "content-type, x-request-id"));
+    assertFalse(filter.preflight("https://api.example.org", "DELETE", null).isAllowed());
+    assertFalse(filter.preflight("https://api.example.org", "GET", "Authorization").isAllowed());
+    assertFalse(filter.preflight("https://www.example.net", "GET", null).isAllowed());
+  }
+
+  @Test
+  public void testPreflightEviction() {
+    final CorsFilter filter = new CorsFilter();
+    final CorsFilter.Preflight hot = filter.preflight("https://hot.example.org", "GET", null);
+    final CorsFilter.Preflight cold = filter.preflight("https://cold.example.org", "GET", null);
+    for (int i = 0; i < CorsFilter.maxPreflightCacheSize * 2; ++i) {
+      filter.preflight("https://" + i + ".example.org", "GET", null);
+      assertSame(hot, filter.preflight("https://hot.example.org", "GET", null));
+    }
+
+    assertNotSame(cold, filter.preflight("https://cold.example.org", "GET", null));
+  }
+
+  @Test
+  public void testAnyOriginWithoutCredentials() {
+    final CorsFilter.Preflight preflight = new CorsFilter().preflight("https://any.where", "GET", "X-Foo");
+    assertEquals("*", preflight.headers[1]);
+    assertEquals(CorsFilter.ACCESS_CONTROL_ALLOW_HEADERS, preflight.headers[4]);
+    assertEquals("X-Foo", preflight.headers[5]);
+  }
+
+  @Test
+  public void testResponse() throws Exception {
+    MultivaluedMap<String,Object> headers = filter(filter, "https://www.example.com");
+    assertEquals("https://www.example.com", headers.getFirst(CorsFilter.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertEquals("true", headers.getFirst(CorsFilter.ACCESS_CONTROL_ALLOW_CREDENTIALS));
+    assertEquals("ETag", headers.getFirst(CorsFilter.ACCESS_CONTROL_EXPOSE_HEADERS));
+    assertEquals(CorsFilter.ORIGIN, headers.getFirst("Vary"));
+
+    headers = filter(filter, "https://www.example.net");
+    assertNull(headers.getFirst(CorsFilter.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertEquals(CorsFilter.ORIGIN, headers.getFirst("Vary"));
+
+    headers = filter(filter, null);
+    assertNull(headers.getFirst(CorsFilter.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertEquals(CorsFilter.ORIGIN, headers.getFirst("Vary"));
+
+    headers = filter(new CorsFilter(), "https://any.where");
+    assertEquals("*", headers.getFirst(CorsFilter.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertNull(headers.getFirst("Vary"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAnyOriginWithCredentials() {
+    new CorsFilter(new String[] {"https://www.example.com", "*"}, null, null, null, true, -1);
+  }
+
+  @Test
+  public void testNotProvider() {
+    assertNull(CorsFilter.class.getAnnotation(Provider.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPattern() {
+    new CorsFilter(new String[] {"https://*.*.example.com"}, null, null, null, false, -1);
+  }
+}